@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.benchmarks;
+
+import com.appmanch.commons.buffer.Buffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primitive access, sequential reads and writes, strings and slicing on every
+ * {@link BufferType} in both byte orders, with and without bounds checking.
+ * Each operation covers the whole buffer so the scores of the different access
+ * patterns can be compared.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BufferBenchmark {
+
+	private static final int SLICE_LENGTH = 64;
+
+	@Param({ "IN_MEMORY", "NIO_HEAP", "NIO_DIRECT", "MAPPED", "OFF_HEAP" })
+	private BufferType type;
+
+	@Param({ "BIG_ENDIAN", "LITTLE_ENDIAN" })
+	private String byteOrder;
+
+	@Param({ "4096" })
+	private int capacity;
+
+	@Param({ "true", "false" })
+	private boolean boundsChecking;
+
+	private Buffer buffer;
+	private String text;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		buffer = type.create(capacity, BufferType.byteOrder(byteOrder));
+		buffer.setBoundsChecking(boundsChecking);
+		for (int i = 0; i + Buffer.EIGHT_BYTES <= capacity; i += Buffer.EIGHT_BYTES) {
+			buffer.setLong(i, i);
+		}
+		StringBuilder builder = new StringBuilder();
+		while (builder.length() < capacity / 4) {
+			builder.append("appmanch-commons ");
+		}
+		text = builder.toString();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		buffer.release();
+	}
+
+	@Benchmark
+	public int getInt() {
+		int sum = 0;
+		for (int i = 0; i + Buffer.FOUR_BYTES <= capacity; i += Buffer.FOUR_BYTES) {
+			sum += buffer.getInt(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void setInt() {
+		for (int i = 0; i + Buffer.FOUR_BYTES <= capacity; i += Buffer.FOUR_BYTES) {
+			buffer.setInt(i, i);
+		}
+	}
+
+	@Benchmark
+	public long getLong() {
+		long sum = 0;
+		for (int i = 0; i + Buffer.EIGHT_BYTES <= capacity; i += Buffer.EIGHT_BYTES) {
+			sum += buffer.getLong(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void setLong() {
+		for (int i = 0; i + Buffer.EIGHT_BYTES <= capacity; i += Buffer.EIGHT_BYTES) {
+			buffer.setLong(i, i);
+		}
+	}
+
+	@Benchmark
+	public double getDouble() {
+		double sum = 0;
+		for (int i = 0; i + Buffer.EIGHT_BYTES <= capacity; i += Buffer.EIGHT_BYTES) {
+			sum += buffer.getDouble(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void setDouble() {
+		for (int i = 0; i + Buffer.EIGHT_BYTES <= capacity; i += Buffer.EIGHT_BYTES) {
+			buffer.setDouble(i, i);
+		}
+	}
+
+	@Benchmark
+	public int sequentialWrite() {
+		buffer.setWriterIndex(0);
+		while (buffer.writableBytes() >= Buffer.EIGHT_BYTES) {
+			buffer.writeLong(buffer.writerIndex());
+		}
+		return buffer.writerIndex();
+	}
+
+	@Benchmark
+	public long sequentialRead() {
+		buffer.setWriterIndex(capacity);
+		buffer.setReaderIndex(0);
+		long sum = 0;
+		while (buffer.readableBytes() >= Buffer.EIGHT_BYTES) {
+			sum += buffer.readLong();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int sequentialWriteVarInt() {
+		buffer.setWriterIndex(0);
+		int value = 0;
+		while (buffer.writableBytes() >= Buffer.FOUR_BYTES + 1) {
+			buffer.writeVarInt(value);
+			value += 37;
+		}
+		return buffer.writerIndex();
+	}
+
+	@Benchmark
+	public long sequentialReadVarInt() {
+		sequentialWriteVarInt();
+		buffer.setReaderIndex(0);
+		long sum = 0;
+		while (buffer.readableBytes() > 0) {
+			sum += buffer.readVarInt();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int writeString() {
+		buffer.setWriterIndex(0);
+		return buffer.writeString(text);
+	}
+
+	@Benchmark
+	public String readString() {
+		buffer.setWriterIndex(0);
+		buffer.writeString(text);
+		buffer.setReaderIndex(0);
+		return buffer.readString();
+	}
+
+	@Benchmark
+	public void slice(Blackhole blackhole) {
+		for (int i = 0; i + SLICE_LENGTH <= capacity; i += SLICE_LENGTH) {
+			blackhole.consume(buffer.slice(i, SLICE_LENGTH));
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.benchmarks;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.Buffers;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@link Buffer} implementations compared by the benchmarks.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public enum BufferType {
+
+	IN_MEMORY {
+		@Override
+		Buffer create(int capacity, ByteOrder byteOrder) {
+			return Buffers.newInMemory(capacity, byteOrder);
+		}
+	},
+
+	NIO_HEAP {
+		@Override
+		Buffer create(int capacity, ByteOrder byteOrder) {
+			return Buffers.newNioBuffer(capacity, byteOrder);
+		}
+	},
+
+	NIO_DIRECT {
+		@Override
+		Buffer create(int capacity, ByteOrder byteOrder) {
+			return Buffers.newNioDirectBuffer(capacity, byteOrder);
+		}
+	},
+
+	MAPPED {
+		@Override
+		Buffer create(int capacity, ByteOrder byteOrder) throws IOException {
+			Path file = Files.createTempFile("appmanch-bench", ".bin");
+			file.toFile().deleteOnExit();
+			Buffer buffer = Buffers.newMemoryMappedFile(file.toString(), capacity);
+			buffer.setByteOrder(byteOrder);
+			return buffer;
+		}
+	},
+
+	OFF_HEAP {
+		@Override
+		Buffer create(int capacity, ByteOrder byteOrder) {
+			return Buffers.newOffHeap(capacity, byteOrder, false);
+		}
+	};
+
+	/**
+	 * Create a buffer of the type with the specified capacity.
+	 *
+	 * @param capacity
+	 * @param byteOrder
+	 * @return
+	 * @throws IOException
+	 */
+	abstract Buffer create(int capacity, ByteOrder byteOrder) throws IOException;
+
+	/**
+	 * Parse the byte order name used as benchmark parameter.
+	 *
+	 * @param name
+	 * @return
+	 */
+	static ByteOrder byteOrder(String name) {
+		return ByteOrder.LITTLE_ENDIAN.toString().equals(name) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+	}
+
+}
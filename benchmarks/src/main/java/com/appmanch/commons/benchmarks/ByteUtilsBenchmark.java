@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.benchmarks;
+
+import com.appmanch.commons.utils.ByteUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primitive access to byte arrays with {@link ByteUtils} in both byte orders.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ByteUtilsBenchmark {
+
+	private final byte[] array = new byte[4096];
+
+	@Benchmark
+	public int getIntBE() {
+		int sum = 0;
+		for (int i = 0; i + 4 <= array.length; i += 4) {
+			sum += ByteUtils.getIntBE(array, i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int getIntLE() {
+		int sum = 0;
+		for (int i = 0; i + 4 <= array.length; i += 4) {
+			sum += ByteUtils.getIntLE(array, i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void setIntBE() {
+		for (int i = 0; i + 4 <= array.length; i += 4) {
+			ByteUtils.setIntBE(array, i, i);
+		}
+	}
+
+	@Benchmark
+	public void setIntLE() {
+		for (int i = 0; i + 4 <= array.length; i += 4) {
+			ByteUtils.setIntLE(array, i, i);
+		}
+	}
+
+	@Benchmark
+	public long getLongBE() {
+		long sum = 0;
+		for (int i = 0; i + 8 <= array.length; i += 8) {
+			sum += ByteUtils.getLongBE(array, i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long getLongLE() {
+		long sum = 0;
+		for (int i = 0; i + 8 <= array.length; i += 8) {
+			sum += ByteUtils.getLongLE(array, i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public void setLongBE() {
+		for (int i = 0; i + 8 <= array.length; i += 8) {
+			ByteUtils.setLongBE(array, i, i);
+		}
+	}
+
+	@Benchmark
+	public void setLongLE() {
+		for (int i = 0; i + 8 <= array.length; i += 8) {
+			ByteUtils.setLongLE(array, i, i);
+		}
+	}
+
+}
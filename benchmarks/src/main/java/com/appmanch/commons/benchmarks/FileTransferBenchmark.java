@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.benchmarks;
+
+import com.appmanch.commons.io.IOUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File copies with the channel based {@link IOUtils#transfer(Path, Path)}, file
+ * streams and {@link IOUtils#parallelCopy(Path, Path, int)}, compared with the copy through a heap buffer used for any
+ * other stream.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class FileTransferBenchmark {
+
+	@Param({ "1048576", "67108864" })
+	private int size;
+
+	private Path source;
+	private Path target;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		source = Files.createTempFile("transfer", ".src");
+		target = Files.createTempFile("transfer", ".dst");
+		byte[] data = new byte[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = (byte) i;
+		}
+		Files.write(source, data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(source);
+		Files.deleteIfExists(target);
+	}
+
+	@Benchmark
+	public long transferPaths() throws IOException {
+		return IOUtils.transfer(source, target);
+	}
+
+	@Benchmark
+	public long parallelCopy() throws IOException {
+		return IOUtils.parallelCopy(source, target, 4).getBytes();
+	}
+
+	@Benchmark
+	public long transferFileStreams() throws IOException {
+		try (InputStream in = new FileInputStream(source.toFile());
+				OutputStream out = new FileOutputStream(target.toFile())) {
+			return IOUtils.transfer(in, out);
+		}
+	}
+
+	@Benchmark
+	public long transferHeap() throws IOException {
+		// the wrapping stream hides the file stream and forces the heap copy
+		try (InputStream in = new BufferedInputStream(new FileInputStream(source.toFile()));
+				OutputStream out = new FileOutputStream(target.toFile())) {
+			return IOUtils.transfer(in, out);
+		}
+	}
+
+}
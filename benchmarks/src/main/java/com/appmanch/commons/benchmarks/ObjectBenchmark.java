@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.benchmarks;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.BufferCodec;
+import com.appmanch.commons.buffer.BufferCodecs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Buffer#writeObject(Serializable)} and {@link Buffer#readObject()} of a
+ * small object graph on every {@link BufferType}, compared with the same data
+ * written as a record with {@link Buffer#writeObject(Object, BufferCodec)}.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ObjectBenchmark {
+
+	/**
+	 * The object written to the buffer.
+	 */
+	public static final class Payload implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long id;
+		private final String name;
+		private final int[] values;
+
+		public Payload(long id, String name, int[] values) {
+			this.id = id;
+			this.name = name;
+			this.values = values;
+		}
+
+	}
+
+	/**
+	 * The same data as {@link Payload} written with its {@link BufferCodec}.
+	 */
+	public record PayloadRecord(long id, String name, int[] values) {
+	}
+
+	@Param({ "IN_MEMORY", "NIO_HEAP", "NIO_DIRECT", "MAPPED", "OFF_HEAP" })
+	private BufferType type;
+
+	private Buffer buffer;
+	private Payload payload;
+	private Buffer codecBuffer;
+	private PayloadRecord record;
+	private BufferCodec<PayloadRecord> codec;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		buffer = type.create(4096, BufferType.byteOrder("BIG_ENDIAN"));
+		payload = new Payload(42L, "appmanch-commons", new int[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		buffer.writeObject(payload);
+		codecBuffer = type.create(4096, BufferType.byteOrder("BIG_ENDIAN"));
+		record = new PayloadRecord(42L, "appmanch-commons", new int[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		codec = BufferCodecs.get(PayloadRecord.class);
+		codecBuffer.writeObject(record, codec);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		buffer.release();
+		codecBuffer.release();
+	}
+
+	@Benchmark
+	public int writeObject() {
+		buffer.setWriterIndex(0);
+		buffer.writeObject(payload);
+		return buffer.writerIndex();
+	}
+
+	@Benchmark
+	public Serializable readObject() {
+		buffer.setReaderIndex(0);
+		return buffer.readObject();
+	}
+
+	@Benchmark
+	public int writeRecord() {
+		codecBuffer.setWriterIndex(0);
+		codecBuffer.writeObject(record, codec);
+		return codecBuffer.writerIndex();
+	}
+
+	@Benchmark
+	public PayloadRecord readRecord() {
+		codecBuffer.setReaderIndex(0);
+		return codecBuffer.readObject(codec);
+	}
+
+}
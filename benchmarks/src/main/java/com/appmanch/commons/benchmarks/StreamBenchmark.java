@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.benchmarks;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.io.ByteArrayOutputStream;
+import com.appmanch.commons.io.IOUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream copies with {@link IOUtils#transfer(java.io.InputStream, OutputStream)}
+ * and its bounded variant, and the growth and hand off of the
+ * {@link ByteArrayOutputStream} compared with
+ * {@link java.io.ByteArrayOutputStream}.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class StreamBenchmark {
+
+	private static final int CHUNK_SIZE = 256;
+
+	@Param({ "1024", "65536", "1048576" })
+	private int size;
+
+	private byte[] data;
+	private byte[] chunk;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		data = new byte[size];
+		for (int i = 0; i < size; i++) {
+			data[i] = (byte) i;
+		}
+		chunk = new byte[CHUNK_SIZE];
+	}
+
+	@Benchmark
+	public long transfer() throws IOException {
+		return IOUtils.transfer(new ByteArrayInputStream(data), OutputStream.nullOutputStream());
+	}
+
+	@Benchmark
+	public long transferBounded() throws IOException {
+		return IOUtils.transfer(new ByteArrayInputStream(data), OutputStream.nullOutputStream(), (long) size);
+	}
+
+	@Benchmark
+	public byte[] byteArrayOutputStreamGrowth() throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		for (int written = 0; written < size; written += CHUNK_SIZE) {
+			outputStream.write(chunk, 0, CHUNK_SIZE);
+		}
+		return outputStream.toByteArray();
+	}
+
+	@Benchmark
+	public Buffer byteArrayOutputStreamToBuffer() throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		for (int written = 0; written < size; written += CHUNK_SIZE) {
+			outputStream.write(chunk, 0, CHUNK_SIZE);
+		}
+		return outputStream.toBuffer();
+	}
+
+	@Benchmark
+	public byte[] jdkByteArrayOutputStreamGrowth() {
+		java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
+		for (int written = 0; written < size; written += CHUNK_SIZE) {
+			outputStream.write(chunk, 0, CHUNK_SIZE);
+		}
+		return outputStream.toByteArray();
+	}
+
+}
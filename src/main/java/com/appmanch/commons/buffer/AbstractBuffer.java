@@ -15,12 +15,29 @@
  */
 package com.appmanch.commons.buffer;
 
+import com.appmanch.commons.io.IOUtils;
+import com.appmanch.commons.io.ScratchBuffers;
 import com.appmanch.commons.utils.ByteUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.CharacterCodingException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -38,20 +55,88 @@ public abstract class AbstractBuffer implements Buffer {
 	protected ByteOrder byteOrder;
 	protected boolean bigEndian;
 	protected boolean readonly = false;
+	/**
+	 * Validate the indexes and enforce the read only flag on every access, see
+	 * {@link Buffer#setBoundsChecking(boolean)}.
+	 */
+	protected boolean boundsChecking = defaultBoundsChecking;
+	/**
+	 * True for the views returned by {@link #asReadOnly()}, which stay read only
+	 * whatever the bounds checking.
+	 */
+	private boolean readOnlyView = false;
+	/**
+	 * Validate the writes, true if the buffer is bounds checked or is a read only
+	 * view.
+	 */
+	private boolean writeChecking = boundsChecking;
+	/**
+	 * True once a slice, duplicate or read only view refers to the storage of
+	 * this buffer.
+	 */
+	private boolean viewed = false;
+	/**
+	 * Index from which the storage may still hold the bytes of a previous use
+	 * up to the capacity, {@link Integer#MAX_VALUE} if the storage is clean.
+	 * These bytes are cleared when they are first accessed, see
+	 * {@link #markDirty(int)}.
+	 */
+	private int dirtyIndex = Integer.MAX_VALUE;
 	protected int readerIndex;
 	protected int writerIndex;
 	protected String id = null;
+	/**
+	 * Strategy used to grow a dynamic buffer, null for a fixed capacity buffer.
+	 */
+	protected GrowthStrategy growthStrategy = null;
+	protected int maxCapacity;
+	/**
+	 * Buffer owning the reference count of a slice, null for a root buffer.
+	 */
+	protected AbstractBuffer parent = null;
+	private volatile int refCount = 1;
+	private BufferLeakDetector.LeakReference leak = null;
 	private static final AtomicLong ID_COUNTER = new AtomicLong();
+	static final String BOUNDS_CHECKING_PROPERTY = "com.appmanch.commons.buffer.checkBounds";
+	private static volatile boolean defaultBoundsChecking = Boolean
+			.parseBoolean(System.getProperty(BOUNDS_CHECKING_PROPERTY, "true"));
+	/**
+	 * Size of the scratch array used to move bytes between a stream and memory
+	 * that has no array.
+	 */
+	private static final int STREAM_CHUNK_SIZE = 8192;
+	private static final int MAX_VAR_INT_SIZE = 5;
+	private static final int MAX_VAR_LONG_SIZE = 10;
+	private static final AtomicIntegerFieldUpdater<AbstractBuffer> REF_COUNT = AtomicIntegerFieldUpdater
+			.newUpdater(AbstractBuffer.class, "refCount");
 
 	protected AbstractBuffer(int capacity, ByteOrder byteOrder) {
 		super();
 		this.capacity = capacity;
+		this.maxCapacity = capacity;
 		this.byteOrder = byteOrder;
 		this.bigEndian = ByteOrder.BIG_ENDIAN.equals(byteOrder);
 		this.id = "buffer-" + ID_COUNTER.incrementAndGet();
 
 	}
 
+	/**
+	 * Create a view of the source buffer of the specified capacity, see
+	 * {@link #initView(AbstractBuffer)}. The view takes the id of the source
+	 * instead of generating one.
+	 * 
+	 * @param source
+	 * @param capacity
+	 */
+	protected AbstractBuffer(AbstractBuffer source, int capacity) {
+		super();
+		this.capacity = capacity;
+		this.maxCapacity = capacity;
+		this.byteOrder = source.byteOrder;
+		this.bigEndian = source.bigEndian;
+		source.initView(this);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -82,6 +167,58 @@ public abstract class AbstractBuffer implements Buffer {
 		this.capacity = capacity;
 	}
 
+	public int getMaxCapacity() {
+		return growthStrategy != null ? maxCapacity : capacity;
+	}
+
+	public boolean isDynamic() {
+		return growthStrategy != null;
+	}
+
+	/**
+	 * Make the buffer grow on demand up to the maximum capacity.
+	 * 
+	 * @param maxCapacity
+	 * @param growthStrategy
+	 */
+	void makeDynamic(int maxCapacity, GrowthStrategy growthStrategy) {
+		if (maxCapacity < capacity) {
+			throw new IllegalArgumentException("Max capacity cannot be less than the capacity.");
+		}
+		this.maxCapacity = maxCapacity;
+		this.growthStrategy = growthStrategy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#ensureWritable(int)
+	 */
+
+	public void ensureWritable(int length) {
+		int minCapacity = writerIndex + length;
+		if (minCapacity <= capacity || growthStrategy == null) {
+			return;
+		}
+		if (minCapacity > maxCapacity || minCapacity < 0) {
+			throw new IndexOutOfBoundsException("writerIndex: " + writerIndex + ", length: " + length
+					+ ", maxCapacity: " + maxCapacity);
+		}
+		resize(growthStrategy.newCapacity(capacity, minCapacity, maxCapacity));
+	}
+
+	/**
+	 * Change the capacity of a dynamic buffer keeping its content. Slices taken
+	 * before the resize keep referring to the old storage, so the old storage of
+	 * a buffer that {@link #hasViews() has views} is left to the GC instead of
+	 * being freed or handed back to a pool.
+	 * 
+	 * @param newCapacity
+	 */
+	protected void resize(int newCapacity) {
+		throw new UnsupportedOperationException("Buffer " + id + " cannot be resized.");
+	}
+
 	public ByteOrder getByteOrder() {
 		return byteOrder == null ? ByteOrder.BIG_ENDIAN : byteOrder;
 	}
@@ -107,18 +244,226 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public void setReadOnly(boolean readOnly) {
+		if (readOnlyView && !readOnly) {
+			throw new UnsupportedOperationException("Buffer " + id + " is a read only view.");
+		}
 		this.readonly = readOnly;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#asReadOnly()
+	 */
+
+	public Buffer asReadOnly() {
+		AbstractBuffer view = newReadOnlyView();
+		initView(view);
+		view.readonly = true;
+		view.readOnlyView = true;
+		view.writeChecking = true;
+		view.readerIndex = readerIndex;
+		view.writerIndex = writerIndex;
+		return view;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#duplicate()
+	 */
+
+	public Buffer duplicate() {
+		Buffer duplicate = slice(0, capacity);
+		duplicate.setWriterIndex(writerIndex);
+		duplicate.setReaderIndex(readerIndex);
+		return duplicate;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#retainedSlice(int, int)
+	 */
+
+	public Buffer retainedSlice(int index, int length) {
+		Buffer slice = slice(index, length);
+		retain();
+		return slice;
+	}
+
+	/**
+	 * Create a buffer over the same memory and of the same capacity that rejects
+	 * the writes, with a read only {@link ByteBuffer} or memory segment where the
+	 * storage supports it.
+	 * 
+	 * @return
+	 */
+	protected abstract AbstractBuffer newReadOnlyView();
+
+	/**
+	 * Make the new buffer a view of this buffer: it has the same id, shares the
+	 * reference count of the root buffer and inherits the read only and bounds
+	 * checking flags.
+	 * 
+	 * @param view
+	 */
+	protected final void initView(AbstractBuffer view) {
+		clearDirty(capacity);
+		view.id = id;
+		view.parent = root();
+		view.readonly = readonly;
+		view.readOnlyView = readOnlyView;
+		view.boundsChecking = boundsChecking;
+		view.writeChecking = writeChecking;
+		viewed = true;
+	}
+
+	/**
+	 * Check if a view of the current storage of this buffer was created.
+	 * 
+	 * @return
+	 */
+	protected final boolean hasViews() {
+		return viewed;
+	}
+
+	/**
+	 * Forget the views of this buffer once a resize has moved it to new storage.
+	 */
+	protected final void clearViews() {
+		viewed = false;
+	}
+
+
+	public boolean isBoundsChecking() {
+		return boundsChecking;
+	}
+
+
+	public void setBoundsChecking(boolean boundsChecking) {
+		this.boundsChecking = boundsChecking;
+		this.writeChecking = boundsChecking || readOnlyView;
+	}
+
+	static boolean isDefaultBoundsChecking() {
+		return defaultBoundsChecking;
+	}
+
+	static void setDefaultBoundsChecking(boolean boundsChecking) {
+		defaultBoundsChecking = boundsChecking;
+	}
+
+	/**
+	 * Check that length bytes can be read at the reader index.
+	 * 
+	 * @param length
+	 */
+	protected final void checkReadable(long length) {
+		if (boundsChecking && (length < 0 || readerIndex > writerIndex - length)) {
+			throw new IndexOutOfBoundsException("Buffer " + id + " readerIndex: " + readerIndex + ", length: "
+					+ length + ", writerIndex: " + writerIndex);
+		}
+	}
+
+	/**
+	 * Check that the region of length bytes at the index is within the capacity.
+	 * The length is a long so that the size of a bulk operation on an array of
+	 * values cannot overflow.
+	 * 
+	 * @param index
+	 * @param length
+	 */
+	protected final void checkIndex(int index, long length) {
+		if (boundsChecking && (index < 0 || length < 0 || index > capacity - length)) {
+			throw new IndexOutOfBoundsException(
+					"Buffer " + id + " index: " + index + ", length: " + length + ", capacity: " + capacity);
+		}
+		if (index + length > dirtyIndex) {
+			clearDirty(index + length);
+		}
+	}
+
+	/**
+	 * Check that the region of length bytes at the index can be written, the
+	 * buffer is not read only and the region is within the capacity. Read only
+	 * views are checked even when the bounds checking is disabled.
+	 * 
+	 * @param index
+	 * @param length
+	 */
+	protected final void checkSetIndex(int index, long length) {
+		if (writeChecking) {
+			if (readonly) {
+				throw new ReadOnlyBufferException();
+			}
+			checkIndex(index, length);
+		} else if (index + length > dirtyIndex) {
+			clearDirty(index + length);
+		}
+	}
+
+	/**
+	 * Mark the bytes from the index to the capacity as holding the data of a
+	 * previous use of the storage. They are cleared lazily, a region is zeroed
+	 * the first time it is read or written and a view of the storage clears
+	 * everything, so that a recycled or reset buffer is not zeroed up front.
+	 * Only buffers that implement {@link #clear(int, int)} mark their storage.
+	 * 
+	 * @param index
+	 */
+	protected final void markDirty(int index) {
+		if (index < dirtyIndex) {
+			dirtyIndex = index;
+		}
+	}
+
+	/**
+	 * Clear the dirty bytes before the end index, see {@link #markDirty(int)}.
+	 * 
+	 * @param end
+	 */
+	protected final void clearDirty(long end) {
+		int from = dirtyIndex;
+		int to = (int) Math.min(end, capacity);
+		if (to > from) {
+			dirtyIndex = to;
+			clear(from, to - from);
+		}
+	}
+
+	/**
+	 * Check if the storage is only reachable through this buffer: it is not a
+	 * view and no view of it was created.
+	 * 
+	 * @return
+	 */
+	protected final boolean isExclusive() {
+		return parent == null && !viewed;
+	}
+
+	/**
+	 * Zero length bytes of the storage at the index, regardless of the read
+	 * only flag. Required by the buffers that call {@link #markDirty(int)}.
+	 * 
+	 * @param index
+	 * @param length
+	 */
+	protected void clear(int index, int length) {
+		throw new UnsupportedOperationException("Buffer " + id + " cannot be cleared lazily.");
+	}
+
 	protected abstract void handleByteOrderChange(ByteOrder newByteOrder);
 
 	public byte readByte() {
+		checkReadable(BYTE);
 		return getByte(readerIndex++);
 
 	}
 
 
 	public char readChar() {
+		checkReadable(TWO_BYTES);
 		char c = getChar(readerIndex);
 		readerIndex += TWO_BYTES;
 		return c;
@@ -126,11 +471,13 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public boolean readBoolean() {
+		checkReadable(BYTE);
 		return getBoolean(readerIndex++);
 	}
 
 
 	public short readShort() {
+		checkReadable(TWO_BYTES);
 		short s = getShort(readerIndex);
 		readerIndex += TWO_BYTES;
 		return s;
@@ -138,6 +485,7 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public int readInt() {
+		checkReadable(FOUR_BYTES);
 		int i = getInt(readerIndex);
 		readerIndex += FOUR_BYTES;
 
@@ -146,6 +494,7 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public float readFloat() {
+		checkReadable(FOUR_BYTES);
 		float f = getFloat(readerIndex);
 		readerIndex += FOUR_BYTES;
 		return f;
@@ -154,6 +503,7 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public long readLong() {
+		checkReadable(EIGHT_BYTES);
 		long l = getLong(readerIndex);
 		readerIndex += EIGHT_BYTES;
 		return l;
@@ -161,6 +511,7 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public double readDouble() {
+		checkReadable(EIGHT_BYTES);
 		double d = getDouble(readerIndex);
 		readerIndex += EIGHT_BYTES;
 		return d;
@@ -168,62 +519,133 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public byte[] readBytes(int length) {
+		checkReadable(length);
+		byte[] bytes = new byte[length];
+		getBytes(readerIndex, bytes, 0, length);
+		readerIndex += length;
+		return bytes;
+	}
+
+
+	public void readBytes(byte[] dst, int off, int len) {
+		checkReadable(len);
+		getBytes(readerIndex, dst, off, len);
+		readerIndex += len;
+	}
 
+
+	public byte[] getBytes(int index, int length) {
 		byte[] bytes = new byte[length];
-		int lastIndex;
-		int index = 0;
-		lastIndex = readerIndex;
+		getBytes(index, bytes, 0, length);
+		return bytes;
+	}
+
+
+	public void getBytes(int index, byte[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		for (int i = 0; i < len; i++) {
+			dst[off + i] = getByte(index + i);
+		}
+	}
+
+
+	public void setBytes(int index, byte[] value) {
+		setBytes(index, value, 0, value.length);
+	}
+
+
+	public void setBytes(int index, byte[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		for (int i = 0; i < len; i++) {
+			setByte(index + i, src[off + i]);
+		}
+	}
+
+
+	public int transferTo(Buffer dst, int length) {
+		checkReadable(length);
+		dst.ensureWritable(length);
+		copyTo(readerIndex, dst, dst.writerIndex(), length);
 		readerIndex += length;
-		for (int i = lastIndex; i < lastIndex + length; i++) {
-			bytes[index++] = getByte(i);
+		dst.seekWriterIndex(length);
+		return length;
+	}
+
+	/**
+	 * Copy the bytes from the specified index to the destination buffer without
+	 * changing the indexes of either buffer. Implementations should use the
+	 * cheapest bulk copy available for the destination.
+	 * 
+	 * @param index
+	 * @param dst
+	 * @param dstIndex
+	 * @param length
+	 */
+	protected void copyTo(int index, Buffer dst, int dstIndex, int length) {
+		for (int i = 0; i < length; i++) {
+			dst.setByte(dstIndex + i, getByte(index + i));
 		}
-		return bytes;
 	}
 
 	
 
 
 	public void writeByte(byte value) {
-		setByte(writerIndex++, value);
+		ensureWritable(BYTE);
+		setByte(writerIndex, value);
+		writerIndex++;
 	}
 
 
 	public void writeChar(char value) {
+		ensureWritable(TWO_BYTES);
 		setChar(writerIndex, value);
 		writerIndex += TWO_BYTES;
 	}
 
 
 	public void writeBytes(byte[] value) {
-		setBytes(writerIndex, value);
-		writerIndex += value.length;
+		writeBytes(value, 0, value.length);
+	}
+
+
+	public void writeBytes(byte[] src, int off, int len) {
+		ensureWritable(len);
+		setBytes(writerIndex, src, off, len);
+		writerIndex += len;
 	}
 
 
 	public void writeBoolean(boolean value) {
-		setBoolean(writerIndex++, value);
+		ensureWritable(BYTE);
+		setBoolean(writerIndex, value);
+		writerIndex++;
 	}
 
 
 	public void writeShort(short value) {
+		ensureWritable(TWO_BYTES);
 		setShort(writerIndex, value);
 		writerIndex += TWO_BYTES;
 	}
 
 
 	public void writeInt(int value) {
+		ensureWritable(FOUR_BYTES);
 		setInt(writerIndex, value);
 		writerIndex += FOUR_BYTES;
 	}
 
 
 	public void writeFloat(float value) {
+		ensureWritable(FOUR_BYTES);
 		setFloat(writerIndex, value);
 		writerIndex += FOUR_BYTES;
 	}
 
 
 	public void writeLong(long value) {
+		ensureWritable(EIGHT_BYTES);
 		setLong(writerIndex, value);
 		writerIndex += EIGHT_BYTES;
 	}
@@ -231,162 +653,1205 @@ public abstract class AbstractBuffer implements Buffer {
 
 
 	public void writeDouble(double value) {
+		ensureWritable(EIGHT_BYTES);
 		setDouble(writerIndex, value);
 		writerIndex += EIGHT_BYTES;
 	}
 
 
 	public int writeString(String value) {
-		byte[] bytes;
-		try {
-			bytes = ByteUtils.getBytes((CharSequence) value);
-			writeInt(bytes.length);
-			writeBytes(bytes);
-			return bytes.length + 4;
-		} catch (CharacterCodingException e) {
-			throw new RuntimeException(e);
-		}
+		return writeString(value, StandardCharsets.UTF_8);
 	}
 
 
-	public int writableBytes() {
-		return capacity - writerIndex;
+	public int writeString(String value, Charset charset) {
+		byte[] bytes = StringCoding.isDirect(charset) ? null : value.getBytes(charset);
+		int length = bytes == null ? StringCoding.encodedLength(value, charset) : bytes.length;
+		ensureWritable(FOUR_BYTES + length);
+		setInt(writerIndex, length);
+		putString(writerIndex + FOUR_BYTES, value, charset, bytes, length);
+		writerIndex += FOUR_BYTES + length;
+		return FOUR_BYTES + length;
 	}
 
 
+	public void writeFixedString(String value, int length, Charset charset) {
+		byte[] bytes = StringCoding.isDirect(charset) ? null : value.getBytes(charset);
+		int encodedLength = bytes == null ? StringCoding.encodedLength(value, charset) : bytes.length;
+		if (encodedLength > length) {
+			throw new IllegalArgumentException(
+					"The encoded value of " + encodedLength + " bytes does not fit in " + length + " bytes");
+		}
+		ensureWritable(length);
+		putString(writerIndex, value, charset, bytes, encodedLength);
+		for (int i = encodedLength; i < length; i++) {
+			setByte(writerIndex + i, (byte) 0);
+		}
+		writerIndex += length;
+	}
 
-	public int readableBytes() {
-		return writerIndex - readerIndex;
+
+	public int writeNullTerminatedString(String value, Charset charset) {
+		byte[] bytes = StringCoding.isDirect(charset) ? null : value.getBytes(charset);
+		int length = bytes == null ? StringCoding.encodedLength(value, charset) : bytes.length;
+		ensureWritable(length + BYTE);
+		putString(writerIndex, value, charset, bytes, length);
+		setByte(writerIndex + length, (byte) 0);
+		writerIndex += length + BYTE;
+		return length + BYTE;
 	}
 
+	/**
+	 * Set the value at the index, either from the bytes encoded by the charset
+	 * or, when bytes is null, encoding it directly.
+	 * 
+	 * @param index
+	 * @param value
+	 * @param charset
+	 * @param bytes
+	 * @param length
+	 */
+	private void putString(int index, String value, Charset charset, byte[] bytes, int length) {
+		if (bytes == null) {
+			checkSetIndex(index, length);
+			encodeString(index, value, charset, length);
+		} else {
+			setBytes(index, bytes, 0, length);
+		}
+	}
 
-	public void setString(int index, String value) {
+	/**
+	 * Encode the value at the index with a charset for which
+	 * {@link StringCoding#isDirect(Charset)} is true. The length is the encoded
+	 * length of the value and the buffer has room for it. The default
+	 * implementation encodes into a per-thread scratch array of
+	 * {@link IOUtils#scratchBuffers()} and copies it, buffers backed by an
+	 * accessible array encode in place.
+	 * 
+	 * @param index
+	 * @param value
+	 * @param charset
+	 * @param length
+	 */
+	protected void encodeString(int index, String value, Charset charset, int length) {
+		ScratchBuffers scratchBuffers = IOUtils.scratchBuffers();
+		byte[] scratch = scratchBuffers.acquire(length);
 		try {
-			setBytes(index, ByteUtils.getBytes(value));
-		} catch (CharacterCodingException e) {
-			throw new RuntimeException(e);
+			StringCoding.encode(value, charset, scratch, 0);
+			setBytes(index, scratch, 0, length);
+		} finally {
+			scratchBuffers.release(scratch);
 		}
 	}
 
-
-	public void setReaderIndex(int index) {
-		this.readerIndex = index;
+	/**
+	 * Decode length bytes at the index. The default implementation copies the
+	 * bytes into a per-thread scratch array of {@link IOUtils#scratchBuffers()},
+	 * buffers backed by an accessible array decode in place.
+	 * 
+	 * @param index
+	 * @param length
+	 * @param charset
+	 * @return
+	 */
+	protected String decodeString(int index, int length, Charset charset) {
+		ScratchBuffers scratchBuffers = IOUtils.scratchBuffers();
+		byte[] scratch = scratchBuffers.acquire(length);
+		try {
+			getBytes(index, scratch, 0, length);
+			return new String(scratch, 0, length, charset);
+		} finally {
+			scratchBuffers.release(scratch);
+		}
 	}
 
+	/**
+	 * Find the first index of the value from the index fromIndex (inclusive) to
+	 * toIndex (exclusive).
+	 * 
+	 * @param fromIndex
+	 * @param toIndex
+	 * @param value
+	 * @return the index or -1 if the value is not found.
+	 */
+	protected int indexOf(int fromIndex, int toIndex, byte value) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			if (getByte(i) == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
 
-	public void setWriterIndex(int index) {
-
-		this.writerIndex = index;
 
+	public String getString(int index, int length, Charset charset) {
+		checkIndex(index, length);
+		return decodeString(index, length, charset);
 	}
 
 
-	public int writerIndex() {
-		return writerIndex;
-
+	public String readString() {
+		return readString(StandardCharsets.UTF_8);
 	}
 
 
-	public int readerIndex() {
-		return readerIndex;
+	public String readString(Charset charset) {
+		checkReadable(FOUR_BYTES);
+		int length = getInt(readerIndex);
+		if (length < 0 || length > readableBytes() - FOUR_BYTES) {
+			throw new IndexOutOfBoundsException(
+					"String length: " + length + ", readable bytes: " + (readableBytes() - FOUR_BYTES));
+		}
+		String value = decodeString(readerIndex + FOUR_BYTES, length, charset);
+		readerIndex += FOUR_BYTES + length;
+		return value;
 	}
 
 
-	public void reset() {
-		reset(false);
+	public String readFixedString(int length, Charset charset) {
+		if (length < 0) {
+			throw new IllegalArgumentException("String length: " + length);
+		}
+		if (length > readableBytes()) {
+			throw new IndexOutOfBoundsException("String length: " + length + ", readable bytes: " + readableBytes());
+		}
+		int end = indexOf(readerIndex, readerIndex + length, (byte) 0);
+		String value = decodeString(readerIndex, (end == -1 ? length : end - readerIndex), charset);
+		readerIndex += length;
+		return value;
 	}
 
 
-	public void reset(boolean clearData) {
-		readerIndex = 0;
-		writerIndex = 0;
-		if (clearData) {
-			for (int i = 0; i < capacity; i++) {
-				setByte(i, (byte) 0);
-			}
+	public String readNullTerminatedString(Charset charset) {
+		int end = indexOf(readerIndex, writerIndex, (byte) 0);
+		if (end == -1) {
+			throw new IndexOutOfBoundsException("No terminator in the " + readableBytes() + " readable bytes");
 		}
+		String value = decodeString(readerIndex, end - readerIndex, charset);
+		readerIndex = end + BYTE;
+		return value;
 	}
 
-	/*
-	 * (non-Javadoc)
+
+	/**
+	 * Check the bounds of a bulk operation on an array.
 	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getId()
+	 * @param arrayLength
+	 * @param off
+	 * @param len
 	 */
-
-	public String getId() {
-		return this.id;
+	protected static void checkArrayBounds(int arrayLength, int off, int len) {
+		if ((off | len) < 0 || off + len > arrayLength || off + len < 0) {
+			throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + arrayLength);
+		}
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Get the number of bytes of len values of size bytes each. A count that
+	 * does not fit in an int is out of the bounds of any buffer.
 	 * 
-	 * @see java.lang.Object#hashCode()
+	 * @param len
+	 * @param size
+	 * @return
 	 */
+	private static int byteLength(int len, int size) {
+		long length = (long) len * size;
+		if (length < 0 || length > Integer.MAX_VALUE) {
+			throw new IndexOutOfBoundsException("len: " + len + ", value size: " + size);
+		}
+		return (int) length;
+	}
 
-	public int hashCode() {
+	public void getInts(int index, int[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * FOUR_BYTES);
+		for (int i = 0; i < len; i++) {
+			dst[off + i] = getInt(index + i * FOUR_BYTES);
+		}
+	}
 
-		return id.hashCode();
+
+	public void getInts(int index, int[] dst) {
+		getInts(index, dst, 0, dst.length);
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#seekReaderIndex(int)
-	 */
 
-	public void seekReaderIndex(int delta) {
-		readerIndex += delta;
+	public void setInts(int index, int[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		for (int i = 0; i < len; i++) {
+			setInt(index + i * FOUR_BYTES, src[off + i]);
+		}
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#seekWriterIndex(int)
-	 */
 
-	public void seekWriterIndex(int delta) {
-		writerIndex += delta;
+	public void setInts(int index, int[] src) {
+		setInts(index, src, 0, src.length);
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readObject()
-	 */
 
-	public Serializable readObject() {
+	public void readInts(int[] dst, int off, int len) {
+		int length = byteLength(len, FOUR_BYTES);
+		checkReadable(length);
+		getInts(readerIndex, dst, off, len);
+		readerIndex += length;
+	}
 
-		synchronized (this) {
-			int length = readInt();
-			try {
-				return ByteUtils.deSerialize(readBytes(length));
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
 
-		}
+	public void readInts(int[] dst) {
+		readInts(dst, 0, dst.length);
+	}
 
+
+	public void writeInts(int[] src, int off, int len) {
+		int length = byteLength(len, FOUR_BYTES);
+		ensureWritable(length);
+		setInts(writerIndex, src, off, len);
+		writerIndex += length;
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeObject(java.io.Serializable)
-	 */
 
-	public void writeObject(Serializable object) {
-		try {
-			byte[] data = ByteUtils.serialize(object);
-			synchronized (this) {
-				writeInt(data.length);
-				writeBytes(data);
+	public void writeInts(int[] src) {
+		writeInts(src, 0, src.length);
+	}
 
-			}
-		} catch (IOException e) {
-			throw new RuntimeException(e);
+
+	public void getLongs(int index, long[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = 0; i < len; i++) {
+			dst[off + i] = getLong(index + i * EIGHT_BYTES);
 		}
 	}
 
+
+	public void getLongs(int index, long[] dst) {
+		getLongs(index, dst, 0, dst.length);
+	}
+
+
+	public void setLongs(int index, long[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = 0; i < len; i++) {
+			setLong(index + i * EIGHT_BYTES, src[off + i]);
+		}
+	}
+
+
+	public void setLongs(int index, long[] src) {
+		setLongs(index, src, 0, src.length);
+	}
+
+
+	public void readLongs(long[] dst, int off, int len) {
+		int length = byteLength(len, EIGHT_BYTES);
+		checkReadable(length);
+		getLongs(readerIndex, dst, off, len);
+		readerIndex += length;
+	}
+
+
+	public void readLongs(long[] dst) {
+		readLongs(dst, 0, dst.length);
+	}
+
+
+	public void writeLongs(long[] src, int off, int len) {
+		int length = byteLength(len, EIGHT_BYTES);
+		ensureWritable(length);
+		setLongs(writerIndex, src, off, len);
+		writerIndex += length;
+	}
+
+
+	public void writeLongs(long[] src) {
+		writeLongs(src, 0, src.length);
+	}
+
+
+	public void getFloats(int index, float[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * FOUR_BYTES);
+		for (int i = 0; i < len; i++) {
+			dst[off + i] = getFloat(index + i * FOUR_BYTES);
+		}
+	}
+
+
+	public void getFloats(int index, float[] dst) {
+		getFloats(index, dst, 0, dst.length);
+	}
+
+
+	public void setFloats(int index, float[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		for (int i = 0; i < len; i++) {
+			setFloat(index + i * FOUR_BYTES, src[off + i]);
+		}
+	}
+
+
+	public void setFloats(int index, float[] src) {
+		setFloats(index, src, 0, src.length);
+	}
+
+
+	public void readFloats(float[] dst, int off, int len) {
+		int length = byteLength(len, FOUR_BYTES);
+		checkReadable(length);
+		getFloats(readerIndex, dst, off, len);
+		readerIndex += length;
+	}
+
+
+	public void readFloats(float[] dst) {
+		readFloats(dst, 0, dst.length);
+	}
+
+
+	public void writeFloats(float[] src, int off, int len) {
+		int length = byteLength(len, FOUR_BYTES);
+		ensureWritable(length);
+		setFloats(writerIndex, src, off, len);
+		writerIndex += length;
+	}
+
+
+	public void writeFloats(float[] src) {
+		writeFloats(src, 0, src.length);
+	}
+
+
+	public void getDoubles(int index, double[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = 0; i < len; i++) {
+			dst[off + i] = getDouble(index + i * EIGHT_BYTES);
+		}
+	}
+
+
+	public void getDoubles(int index, double[] dst) {
+		getDoubles(index, dst, 0, dst.length);
+	}
+
+
+	public void setDoubles(int index, double[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = 0; i < len; i++) {
+			setDouble(index + i * EIGHT_BYTES, src[off + i]);
+		}
+	}
+
+
+	public void setDoubles(int index, double[] src) {
+		setDoubles(index, src, 0, src.length);
+	}
+
+
+	public void readDoubles(double[] dst, int off, int len) {
+		int length = byteLength(len, EIGHT_BYTES);
+		checkReadable(length);
+		getDoubles(readerIndex, dst, off, len);
+		readerIndex += length;
+	}
+
+
+	public void readDoubles(double[] dst) {
+		readDoubles(dst, 0, dst.length);
+	}
+
+
+	public void writeDoubles(double[] src, int off, int len) {
+		int length = byteLength(len, EIGHT_BYTES);
+		ensureWritable(length);
+		setDoubles(writerIndex, src, off, len);
+		writerIndex += length;
+	}
+
+
+	public void writeDoubles(double[] src) {
+		writeDoubles(src, 0, src.length);
+	}
+
+
+	public void writeVarInt(int value) {
+		int length = ByteUtils.varIntSize(value);
+		ensureWritable(length);
+		checkSetIndex(writerIndex, length);
+		while ((value & ~0x7F) != 0) {
+			setByte(writerIndex++, (byte) (value | 0x80));
+			value >>>= 7;
+		}
+		setByte(writerIndex++, (byte) value);
+	}
+
+
+	public int readVarInt() {
+		return decodeVarInt();
+	}
+
+	/**
+	 * Read a variable length int at the reader index byte by byte, checking each
+	 * byte against the end of the readable bytes. The reader index is only
+	 * advanced once a value is read.
+	 * 
+	 * @return
+	 */
+	private int decodeVarInt() {
+		int limit = readLimit();
+		int value = 0;
+		for (int i = readerIndex, shift = 0;; i++, shift += 7) {
+			if (i >= limit) {
+				throw truncated(i);
+			}
+			byte b = getByte(i);
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				if (b == 0 && shift > 0 || shift == 28 && b > 0x0F) {
+					throw new IllegalArgumentException("Malformed variable length int at " + i);
+				}
+				readerIndex = i + 1;
+				return value;
+			}
+			if (shift == 28) {
+				throw new IllegalArgumentException("Malformed variable length int at " + i);
+			}
+		}
+	}
+
+
+	/**
+	 * Read a variable length int at the reader index from the array backing the
+	 * buffer, offset is the index in the array of the index 0 of the buffer. The
+	 * decoding is unrolled when the longest value fits before the end of the
+	 * readable bytes, which keeps the next read off the value dependency. The
+	 * reader index is only advanced once a value is read.
+	 * 
+	 * @param array
+	 * @param offset
+	 * @return
+	 * @throws IndexOutOfBoundsException if the value is truncated.
+	 * @throws IllegalArgumentException  if the value is malformed.
+	 */
+	protected final int readVarInt(byte[] array, int offset) {
+		int index = offset + readerIndex;
+		if (readLimit() - readerIndex < MAX_VAR_INT_SIZE) {
+			return decodeVarInt();
+		}
+		int b = array[index];
+		if (b >= 0) {
+			readerIndex++;
+			return b;
+		}
+		int value = b & 0x7F;
+		if ((b = array[index + 1]) >= 0) {
+			return lastVarIntByte(b, value | b << 7, 2);
+		}
+		value |= (b & 0x7F) << 7;
+		if ((b = array[index + 2]) >= 0) {
+			return lastVarIntByte(b, value | b << 14, 3);
+		}
+		value |= (b & 0x7F) << 14;
+		if ((b = array[index + 3]) >= 0) {
+			return lastVarIntByte(b, value | b << 21, 4);
+		}
+		value |= (b & 0x7F) << 21;
+		b = array[index + 4];
+		if (b <= 0 || b > 0x0F) {
+			throw new IllegalArgumentException("Malformed variable length int at " + (readerIndex + 4));
+		}
+		readerIndex += 5;
+		return value | b << 28;
+	}
+
+	private int lastVarIntByte(int b, int value, int length) {
+		if (b == 0) {
+			throw new IllegalArgumentException("Malformed variable length int at " + (readerIndex + length - 1));
+		}
+		readerIndex += length;
+		return value;
+	}
+
+	/**
+	 * Read a variable length long at the reader index from the array backing the
+	 * buffer, see {@link #readVarInt(byte[], int)}.
+	 * 
+	 * @param array
+	 * @param offset
+	 * @return
+	 * @throws IndexOutOfBoundsException if the value is truncated.
+	 * @throws IllegalArgumentException  if the value is malformed.
+	 */
+	protected final long readVarLong(byte[] array, int offset) {
+		int limit = readLimit();
+		int b;
+		if (readerIndex < limit && (b = array[offset + readerIndex]) >= 0) {
+			readerIndex++;
+			return b;
+		}
+		// Past the first byte the bytes are only checked against the end of the
+		// readable bytes when the longest value does not fit before it.
+		boolean checked = limit - readerIndex < MAX_VAR_LONG_SIZE;
+		long value = 0;
+		for (int i = readerIndex, shift = 0;; i++, shift += 7) {
+			if (checked && i >= limit) {
+				throw truncated(i);
+			}
+			b = array[offset + i];
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				if (b == 0 || shift == 63 && b > 1) {
+					throw new IllegalArgumentException("Malformed variable length long at " + i);
+				}
+				readerIndex = i + 1;
+				return value;
+			}
+			if (shift == 63) {
+				throw new IllegalArgumentException("Malformed variable length long at " + i);
+			}
+		}
+	}
+
+	/**
+	 * Index up to which a variable length value can be read, the writer index or
+	 * the capacity when the bounds are not checked.
+	 * 
+	 * @return
+	 */
+	private int readLimit() {
+		return boundsChecking ? writerIndex : capacity;
+	}
+
+	private IndexOutOfBoundsException truncated(int index) {
+		return new IndexOutOfBoundsException("Buffer " + id + " truncated variable length value at " + index
+				+ ", readerIndex: " + readerIndex + ", writerIndex: " + writerIndex);
+	}
+
+	public void writeVarLong(long value) {
+		int length = ByteUtils.varLongSize(value);
+		ensureWritable(length);
+		checkSetIndex(writerIndex, length);
+		while ((value & ~0x7FL) != 0) {
+			setByte(writerIndex++, (byte) (value | 0x80));
+			value >>>= 7;
+		}
+		setByte(writerIndex++, (byte) value);
+	}
+
+
+	public long readVarLong() {
+		int limit = readLimit();
+		long value = 0;
+		for (int i = readerIndex, shift = 0;; i++, shift += 7) {
+			if (i >= limit) {
+				throw truncated(i);
+			}
+			byte b = getByte(i);
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				if (b == 0 && shift > 0 || shift == 63 && b > 1) {
+					throw new IllegalArgumentException("Malformed variable length long at " + i);
+				}
+				readerIndex = i + 1;
+				return value;
+			}
+			if (shift == 63) {
+				throw new IllegalArgumentException("Malformed variable length long at " + i);
+			}
+		}
+	}
+
+
+	public void writeSignedVarInt(int value) {
+		writeVarInt(ByteUtils.zigZagEncode(value));
+	}
+
+
+	public int readSignedVarInt() {
+		return ByteUtils.zigZagDecode(readVarInt());
+	}
+
+
+	public void writeSignedVarLong(long value) {
+		writeVarLong(ByteUtils.zigZagEncode(value));
+	}
+
+
+	public long readSignedVarLong() {
+		return ByteUtils.zigZagDecode(readVarLong());
+	}
+
+
+	public int writableBytes() {
+		return capacity - writerIndex;
+	}
+
+
+
+	public int readableBytes() {
+		return writerIndex - readerIndex;
+	}
+
+
+	public int readFrom(ReadableByteChannel channel, int maxBytes) throws IOException {
+		int length = Math.min(checkMaxBytes(maxBytes), writableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		checkSetIndex(writerIndex, length);
+		long read = read(channel, nioBuffers(writerIndex, length));
+		if (read > 0) {
+			writerIndex += (int) read;
+		}
+		return (int) read;
+	}
+
+
+	public int readFrom(FileChannel channel, long position, int maxBytes) throws IOException {
+		int length = Math.min(checkMaxBytes(maxBytes), writableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		checkSetIndex(writerIndex, length);
+		int total = 0;
+		for (ByteBuffer view : nioBuffers(writerIndex, length)) {
+			int read = channel.read(view, position + total);
+			if (read < 0) {
+				if (total == 0) {
+					return -1;
+				}
+				break;
+			}
+			total += read;
+			if (view.hasRemaining()) {
+				break;
+			}
+		}
+		writerIndex += total;
+		return total;
+	}
+
+
+	public CompletableFuture<Integer> readFrom(AsynchronousFileChannel channel, long position, int maxBytes) {
+		int length = Math.min(checkMaxBytes(maxBytes), writableBytes());
+		if (isConfined()) {
+			// the channel would fail on its own thread without calling the handler
+			return CompletableFuture.failedFuture(
+					new WrongThreadException("A confined buffer cannot be read into by the threads of the channel"));
+		}
+		if (length == 0) {
+			return CompletableFuture.completedFuture(0);
+		}
+		checkSetIndex(writerIndex, length);
+		CompletableFuture<Integer> result = new CompletableFuture<>();
+		read(channel, position, nioBuffers(writerIndex, length), 0, 0, result);
+		return result;
+	}
+
+	/**
+	 * Read the view and chain the read of the next view once it is full, the
+	 * writer index is advanced when the last read completes.
+	 * 
+	 * @param channel
+	 * @param position
+	 * @param views
+	 * @param view
+	 * @param total
+	 * @param result
+	 */
+	private void read(AsynchronousFileChannel channel, long position, ByteBuffer[] views, int view, int total,
+			CompletableFuture<Integer> result) {
+		try {
+			channel.read(views[view], position + total, null, new CompletionHandler<Integer, Void>() {
+
+				@Override
+				public void completed(Integer read, Void attachment) {
+					if (read < 0) {
+						complete(total == 0 ? -1 : total);
+					} else if (views[view].hasRemaining() || view + 1 == views.length) {
+						complete(total + read);
+					} else {
+						read(channel, position, views, view + 1, total + read, result);
+					}
+				}
+
+				@Override
+				public void failed(Throwable exc, Void attachment) {
+					result.completeExceptionally(exc);
+				}
+
+				private void complete(int read) {
+					if (read > 0) {
+						writerIndex += read;
+					}
+					result.complete(read);
+				}
+			});
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+	public int writeTo(WritableByteChannel channel, int maxBytes) throws IOException {
+		int length = Math.min(checkMaxBytes(maxBytes), readableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		int written = (int) write(channel, nioBuffers(readerIndex, length));
+		readerIndex += written;
+		return written;
+	}
+
+
+	public int writeTo(FileChannel channel, long position, int maxBytes) throws IOException {
+		int length = Math.min(checkMaxBytes(maxBytes), readableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		int total = 0;
+		for (ByteBuffer view : nioBuffers(readerIndex, length)) {
+			total += channel.write(view, position + total);
+			if (view.hasRemaining()) {
+				break;
+			}
+		}
+		readerIndex += total;
+		return total;
+	}
+
+	public int readFrom(InputStream inputStream, int maxBytes) throws IOException {
+		int length = Math.min(checkMaxBytes(maxBytes), writableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		checkSetIndex(writerIndex, length);
+		int total = 0;
+		for (ByteBuffer view : nioBuffers(writerIndex, length)) {
+			int read = read(inputStream, view);
+			if (read < 0) {
+				if (total == 0) {
+					return -1;
+				}
+				break;
+			}
+			total += read;
+			if (view.hasRemaining()) {
+				break;
+			}
+		}
+		writerIndex += total;
+		return total;
+	}
+
+
+	public int writeTo(OutputStream outputStream, int maxBytes) throws IOException {
+		int length = Math.min(checkMaxBytes(maxBytes), readableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		for (ByteBuffer view : nioBuffers(readerIndex, length)) {
+			write(outputStream, view);
+		}
+		readerIndex += length;
+		return length;
+	}
+
+	/**
+	 * Read once from the stream into the view, straight into its array if it has
+	 * one.
+	 * 
+	 * @param inputStream
+	 * @param view
+	 * @return the number of bytes read or -1 at the end of stream.
+	 * @throws IOException
+	 */
+	private static int read(InputStream inputStream, ByteBuffer view) throws IOException {
+		int position = view.position();
+		if (view.hasArray()) {
+			int read = inputStream.read(view.array(), view.arrayOffset() + position, view.remaining());
+			if (read > 0) {
+				view.position(position + read);
+			}
+			return read;
+		}
+		ScratchBuffers scratchBuffers = IOUtils.scratchBuffers();
+		int length = Math.min(view.remaining(), STREAM_CHUNK_SIZE);
+		byte[] scratch = scratchBuffers.acquire(length);
+		try {
+			int read = inputStream.read(scratch, 0, length);
+			if (read > 0) {
+				view.put(scratch, 0, read);
+			}
+			return read;
+		} finally {
+			scratchBuffers.release(scratch);
+		}
+	}
+
+	/**
+	 * Write the remaining bytes of the view to the stream, straight from its array
+	 * if it has one.
+	 * 
+	 * @param outputStream
+	 * @param view
+	 * @throws IOException
+	 */
+	private static void write(OutputStream outputStream, ByteBuffer view) throws IOException {
+		if (view.hasArray()) {
+			outputStream.write(view.array(), view.arrayOffset() + view.position(), view.remaining());
+			view.position(view.limit());
+			return;
+		}
+		ScratchBuffers scratchBuffers = IOUtils.scratchBuffers();
+		byte[] scratch = scratchBuffers.acquire(Math.min(view.remaining(), STREAM_CHUNK_SIZE));
+		try {
+			while (view.hasRemaining()) {
+				int length = Math.min(view.remaining(), scratch.length);
+				view.get(scratch, 0, length);
+				outputStream.write(scratch, 0, length);
+			}
+		} finally {
+			scratchBuffers.release(scratch);
+		}
+	}
+
+	static int checkMaxBytes(int maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("maxBytes: " + maxBytes);
+		}
+		return maxBytes;
+	}
+
+	/**
+	 * Check if the memory of the buffer can only be accessed by the thread that
+	 * created it. Such memory cannot be handed to the threads of an asynchronous
+	 * channel.
+	 * 
+	 * @return
+	 */
+	protected boolean isConfined() {
+		return false;
+	}
+
+	/**
+	 * Get {@link ByteBuffer} views of the region of the buffer, positioned on the
+	 * region and sharing its memory. The default implementation positions a view
+	 * from {@link #asByteBuffer()}, buffers made of several memory regions return
+	 * one view per region.
+	 * 
+	 * @param index
+	 * @param length
+	 * @return
+	 */
+	protected ByteBuffer[] nioBuffers(int index, int length) {
+		Objects.checkFromIndexSize(index, length, capacity);
+		ByteBuffer view = asByteBuffer();
+		view.limit(index + length).position(index);
+		return new ByteBuffer[] { view };
+	}
+
+	/**
+	 * Get the views of the region of any {@link Buffer}.
+	 * 
+	 * @param buffer
+	 * @param index
+	 * @param length
+	 * @return
+	 */
+	static ByteBuffer[] nioBuffers(Buffer buffer, int index, int length) {
+		if (buffer instanceof AbstractBuffer) {
+			return ((AbstractBuffer) buffer).nioBuffers(index, length);
+		}
+		ByteBuffer view = buffer.asByteBuffer();
+		view.limit(index + length).position(index);
+		return new ByteBuffer[] { view };
+	}
+
+	/**
+	 * Read from the channel into the views, with a single scattering read if the
+	 * channel supports it.
+	 * 
+	 * @param channel
+	 * @param views
+	 * @return the number of bytes read or -1 at the end of stream.
+	 * @throws IOException
+	 */
+	static long read(ReadableByteChannel channel, ByteBuffer[] views) throws IOException {
+		if (views.length == 1) {
+			return channel.read(views[0]);
+		}
+		if (channel instanceof ScatteringByteChannel) {
+			return ((ScatteringByteChannel) channel).read(views);
+		}
+		long total = 0;
+		for (ByteBuffer view : views) {
+			int read = channel.read(view);
+			if (read < 0) {
+				return total == 0 ? -1 : total;
+			}
+			total += read;
+			if (view.hasRemaining()) {
+				break;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Write the views to the channel, with a single gathering write if the channel
+	 * supports it.
+	 * 
+	 * @param channel
+	 * @param views
+	 * @return the number of bytes written.
+	 * @throws IOException
+	 */
+	static long write(WritableByteChannel channel, ByteBuffer[] views) throws IOException {
+		if (views.length == 1) {
+			return channel.write(views[0]);
+		}
+		if (channel instanceof GatheringByteChannel) {
+			return ((GatheringByteChannel) channel).write(views);
+		}
+		long total = 0;
+		for (ByteBuffer view : views) {
+			total += channel.write(view);
+			if (view.hasRemaining()) {
+				break;
+			}
+		}
+		return total;
+	}
+
+
+	public void setString(int index, String value) {
+		setString(index, value, StandardCharsets.UTF_8);
+	}
+
+
+	public int setString(int index, String value, Charset charset) {
+		byte[] bytes = StringCoding.isDirect(charset) ? null : value.getBytes(charset);
+		int length = bytes == null ? StringCoding.encodedLength(value, charset) : bytes.length;
+		putString(index, value, charset, bytes, length);
+		return length;
+	}
+
+
+	public void setReaderIndex(int index) {
+		checkIndex(index, 0);
+		this.readerIndex = index;
+	}
+
+
+	public void setWriterIndex(int index) {
+		checkIndex(index, 0);
+		this.writerIndex = index;
+	}
+
+
+	public int writerIndex() {
+		return writerIndex;
+
+	}
+
+
+	public int readerIndex() {
+		return readerIndex;
+	}
+
+
+	public void reset() {
+		reset(false);
+	}
+
+
+	public void reset(boolean clearData) {
+		readerIndex = 0;
+		writerIndex = 0;
+		if (clearData) {
+			checkSetIndex(0, capacity);
+			for (int i = 0; i < capacity; i++) {
+				setByte(i, (byte) 0);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#retain()
+	 */
+
+	public Buffer retain() {
+		if (parent != null) {
+			parent.retain();
+			return this;
+		}
+		for (;;) {
+			int count = refCount;
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer " + id + " is already released.");
+			}
+			if (REF_COUNT.compareAndSet(this, count, count + 1)) {
+				return this;
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#release()
+	 */
+
+	public boolean release() {
+		if (parent != null) {
+			return parent.release();
+		}
+		for (;;) {
+			int count = refCount;
+			if (count <= 0) {
+				throw new IllegalStateException("Buffer " + id + " is already released.");
+			}
+			if (REF_COUNT.compareAndSet(this, count, count - 1)) {
+				if (count > 1) {
+					return false;
+				}
+				if (leak != null) {
+					leak.close();
+					leak = null;
+				}
+				deallocate();
+				return true;
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#refCount()
+	 */
+
+	public int refCount() {
+		return parent != null ? parent.refCount() : refCount;
+	}
+
+	/**
+	 * Get the buffer that owns the reference count.
+	 * 
+	 * @return
+	 */
+	protected AbstractBuffer root() {
+		return parent != null ? parent : this;
+	}
+
+	/**
+	 * Report the buffer to the leak detector if it is not released before it is
+	 * garbage collected.
+	 */
+	void trackLeaks() {
+		leak = BufferLeakDetector.track(this);
+	}
+
+	/**
+	 * Free the storage of the buffer once the reference count drops to zero.
+	 * Buffers that are neither pooled nor off-heap leave the storage to the
+	 * garbage collector.
+	 */
+	protected void deallocate() {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#getId()
+	 */
+
+	public String getId() {
+		return this.id;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#hashCode()
+	 */
+
+	public int hashCode() {
+
+		return id.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#seekReaderIndex(int)
+	 */
+
+	public void seekReaderIndex(int delta) {
+		checkIndex(readerIndex + delta, 0);
+		readerIndex += delta;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#seekWriterIndex(int)
+	 */
+
+	public void seekWriterIndex(int delta) {
+		checkIndex(writerIndex + delta, 0);
+		writerIndex += delta;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#readObject()
+	 */
+
+	public Serializable readObject() {
+		return SerializableCodec.INSTANCE.decode(this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#writeObject(java.io.Serializable)
+	 */
+
+	public void writeObject(Serializable object) {
+		SerializableCodec.INSTANCE.encode(object, this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#writeObject(java.lang.Object,
+	 * com.appmanch.commons.buffer.BufferCodec)
+	 */
+
+	public <T> void writeObject(T object, BufferCodec<T> codec) {
+		codec.encode(Objects.requireNonNull(object), this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.appmanch.commons.buffer.Buffer#readObject(com.appmanch.commons.buffer.
+	 * BufferCodec)
+	 */
+
+	public <T> T readObject(BufferCodec<T> codec) {
+		return codec.decode(this);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import com.appmanch.commons.utils.ByteUtils;
+
+import java.nio.ByteOrder;
+
+/**
+ * Primitive access to a byte array in a fixed {@link ByteOrder}. The
+ * {@link InMemoryBuffer} picks the access once, when the byte order is set, so
+ * that reads and writes do not have to check the byte order on every call.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+enum ArrayAccess {
+
+	BIG_ENDIAN {
+		@Override
+		short getShort(byte[] array, int index) {
+			return ByteUtils.getShortBE(array, index);
+		}
+
+		@Override
+		int getInt(byte[] array, int index) {
+			return ByteUtils.getIntBE(array, index);
+		}
+
+		@Override
+		long getLong(byte[] array, int index) {
+			return ByteUtils.getLongBE(array, index);
+		}
+
+		@Override
+		void setShort(byte[] array, int index, short value) {
+			ByteUtils.setShortBE(array, index, value);
+		}
+
+		@Override
+		void setInt(byte[] array, int index, int value) {
+			ByteUtils.setIntBE(array, index, value);
+		}
+
+		@Override
+		void setLong(byte[] array, int index, long value) {
+			ByteUtils.setLongBE(array, index, value);
+		}
+	},
+
+	LITTLE_ENDIAN {
+		@Override
+		short getShort(byte[] array, int index) {
+			return ByteUtils.getShortLE(array, index);
+		}
+
+		@Override
+		int getInt(byte[] array, int index) {
+			return ByteUtils.getIntLE(array, index);
+		}
+
+		@Override
+		long getLong(byte[] array, int index) {
+			return ByteUtils.getLongLE(array, index);
+		}
+
+		@Override
+		void setShort(byte[] array, int index, short value) {
+			ByteUtils.setShortLE(array, index, value);
+		}
+
+		@Override
+		void setInt(byte[] array, int index, int value) {
+			ByteUtils.setIntLE(array, index, value);
+		}
+
+		@Override
+		void setLong(byte[] array, int index, long value) {
+			ByteUtils.setLongLE(array, index, value);
+		}
+	};
+
+	abstract short getShort(byte[] array, int index);
+
+	abstract int getInt(byte[] array, int index);
+
+	abstract long getLong(byte[] array, int index);
+
+	abstract void setShort(byte[] array, int index, short value);
+
+	abstract void setInt(byte[] array, int index, int value);
+
+	abstract void setLong(byte[] array, int index, long value);
+
+	static ArrayAccess of(ByteOrder byteOrder) {
+		return ByteOrder.LITTLE_ENDIAN.equals(byteOrder) ? LITTLE_ENDIAN : BIG_ENDIAN;
+	}
+
+}
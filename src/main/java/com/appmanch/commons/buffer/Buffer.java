@@ -15,9 +15,21 @@
  */
 package com.appmanch.commons.buffer;
 
+import com.appmanch.commons.utils.ByteUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Buffer interface for reading and writing data. This is inspired by the netty project.
@@ -122,6 +134,27 @@ public interface Buffer {
 	 */
 	public byte[] getBytes(int index, int length);
 
+	/**
+	 * Get len bytes from the specified index into the array from offset off.
+	 * 
+	 * @param index
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void getBytes(int index, byte[] dst, int off, int len);
+
+
+	/**
+	 * Get the String of length bytes encoded in the charset at the specified
+	 * index.
+	 * 
+	 * @param index
+	 * @param length
+	 * @param charset
+	 * @return
+	 */
+	public String getString(int index, int length, Charset charset);
 
 	/**
 	 * Reads a byte from the current reader index and increments it by 1
@@ -187,6 +220,67 @@ public interface Buffer {
 	 */
 	public byte[] readBytes(int length);
 
+	/**
+	 * Reads len bytes from the current reader index into the array from offset
+	 * off and increments the reader index by len.
+	 * 
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void readBytes(byte[] dst, int off, int len);
+
+	/**
+	 * Read a String written with {@link #writeString(String)}.
+	 * 
+	 * @return
+	 */
+	public String readString();
+
+	/**
+	 * Read a String written with {@link #writeString(String, Charset)}.
+	 * 
+	 * @param charset
+	 * @return
+	 */
+	public String readString(Charset charset);
+
+	/**
+	 * Read a String written with {@link #writeFixedString(String, int, Charset)}.
+	 * The padding zero bytes are not part of the String.
+	 * 
+	 * @param length
+	 * @param charset
+	 * @return
+	 * @throws IllegalArgumentException  if the length is negative.
+	 * @throws IndexOutOfBoundsException if fewer than length bytes are readable.
+	 */
+	public String readFixedString(int length, Charset charset);
+
+	/**
+	 * Read a String written with
+	 * {@link #writeNullTerminatedString(String, Charset)}. The reader index is
+	 * moved past the terminator.
+	 * 
+	 * @param charset
+	 * @return
+	 * @throws IndexOutOfBoundsException if there is no terminator in the readable
+	 *                                   bytes.
+	 */
+	public String readNullTerminatedString(Charset charset);
+
+	/**
+	 * Transfer the specified number of bytes from the current reader index of
+	 * this buffer to the current writer index of the destination buffer. The
+	 * reader index of this buffer and the writer index of the destination are
+	 * incremented by the length.
+	 * 
+	 * @param dst
+	 * @param length
+	 * @return the number of bytes transferred.
+	 */
+	public int transferTo(Buffer dst, int length);
+
 
 	/**
 	 * Set a Byte at the given index.
@@ -262,13 +356,35 @@ public interface Buffer {
 	public void setBytes(int index, byte[] value);
 
 	/**
-	 * Set the String value in the buffer at the specified index.
+	 * Set len bytes from offset off of the array at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void setBytes(int index, byte[] src, int off, int len);
+
+	/**
+	 * Set the String value encoded in {@link StandardCharsets#UTF_8} in the
+	 * buffer at the specified index. No length is written.
 	 * 
 	 * @param index
 	 * @param value
 	 */
 	public void setString(int index, String value);
 
+	/**
+	 * Set the String value encoded in the charset in the buffer at the specified
+	 * index. No length is written.
+	 * 
+	 * @param index
+	 * @param value
+	 * @param charset
+	 * @return the number of bytes set.
+	 */
+	public int setString(int index, String value, Charset charset);
+
 	/**
 	 * Write the bytes to buffer from the current writer index
 	 * 
@@ -290,6 +406,15 @@ public interface Buffer {
 	 */
 	public void writeBytes(byte[] value);
 
+	/**
+	 * Write len bytes from offset off of the array from the current writer index
+	 * 
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void writeBytes(byte[] src, int off, int len);
+
 	/**
 	 * Write the boolean to buffer from the current writer index
 	 * 
@@ -333,25 +458,433 @@ public interface Buffer {
 	public void writeDouble(double value);
 
 	/**
-	 * Write the String to buffer from the current writer index
+	 * Write the String encoded in {@link StandardCharsets#UTF_8} from the current
+	 * writer index, preceded by its length in bytes as an integer.
 	 * 
 	 * @param value
-	 * @return
+	 * @return the number of bytes written including the length.
 	 */
 	public int writeString(String value);
 
+	/**
+	 * Write the String encoded in the charset from the current writer index,
+	 * preceded by its length in bytes as an integer.
+	 * 
+	 * @param value
+	 * @param charset
+	 * @return the number of bytes written including the length.
+	 */
+	public int writeString(String value, Charset charset);
+
+	/**
+	 * Write the String encoded in the charset in exactly length bytes from the
+	 * current writer index. Shorter values are padded with zero bytes.
+	 * 
+	 * @param value
+	 * @param length
+	 * @param charset
+	 * @throws IllegalArgumentException if the encoded value is longer than length.
+	 */
+	public void writeFixedString(String value, int length, Charset charset);
+
+	/**
+	 * Write the String encoded in the charset from the current writer index
+	 * followed by a zero byte. The charset must not encode characters with zero
+	 * bytes, such as UTF-16 does.
+	 * 
+	 * @param value
+	 * @param charset
+	 * @return the number of bytes written including the terminator.
+	 */
+	public int writeNullTerminatedString(String value, Charset charset);
+
+	// Bulk primitive methods.
+
+	/**
+	 * Get len integers starting at the specified index into the array from offset off.
+	 * 
+	 * @param index
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void getInts(int index, int[] dst, int off, int len);
+
+	/**
+	 * Get the integers starting at the specified index to fill the array.
+	 * 
+	 * @param index
+	 * @param dst
+	 */
+	public void getInts(int index, int[] dst);
+
+	/**
+	 * Set len integers from offset off of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void setInts(int index, int[] src, int off, int len);
+
+	/**
+	 * Set all the integers of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 */
+	public void setInts(int index, int[] src);
+
+	/**
+	 * Reads len integers from the current reader index into the array from offset
+	 * off and increments the reader index accordingly.
+	 * 
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void readInts(int[] dst, int off, int len);
+
+	/**
+	 * Reads integers from the current reader index to fill the array and increments
+	 * the reader index accordingly.
+	 * 
+	 * @param dst
+	 */
+	public void readInts(int[] dst);
+
+	/**
+	 * Write len integers from offset off of the array from the current writer index.
+	 * 
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void writeInts(int[] src, int off, int len);
+
+	/**
+	 * Write all the integers of the array from the current writer index.
+	 * 
+	 * @param src
+	 */
+	public void writeInts(int[] src);
+
+	/**
+	 * Get len longs starting at the specified index into the array from offset off.
+	 * 
+	 * @param index
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void getLongs(int index, long[] dst, int off, int len);
+
+	/**
+	 * Get the longs starting at the specified index to fill the array.
+	 * 
+	 * @param index
+	 * @param dst
+	 */
+	public void getLongs(int index, long[] dst);
+
+	/**
+	 * Set len longs from offset off of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void setLongs(int index, long[] src, int off, int len);
+
+	/**
+	 * Set all the longs of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 */
+	public void setLongs(int index, long[] src);
+
+	/**
+	 * Reads len longs from the current reader index into the array from offset
+	 * off and increments the reader index accordingly.
+	 * 
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void readLongs(long[] dst, int off, int len);
+
+	/**
+	 * Reads longs from the current reader index to fill the array and increments
+	 * the reader index accordingly.
+	 * 
+	 * @param dst
+	 */
+	public void readLongs(long[] dst);
+
+	/**
+	 * Write len longs from offset off of the array from the current writer index.
+	 * 
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void writeLongs(long[] src, int off, int len);
+
+	/**
+	 * Write all the longs of the array from the current writer index.
+	 * 
+	 * @param src
+	 */
+	public void writeLongs(long[] src);
+
+	/**
+	 * Get len floats starting at the specified index into the array from offset off.
+	 * 
+	 * @param index
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void getFloats(int index, float[] dst, int off, int len);
+
+	/**
+	 * Get the floats starting at the specified index to fill the array.
+	 * 
+	 * @param index
+	 * @param dst
+	 */
+	public void getFloats(int index, float[] dst);
+
+	/**
+	 * Set len floats from offset off of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void setFloats(int index, float[] src, int off, int len);
+
+	/**
+	 * Set all the floats of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 */
+	public void setFloats(int index, float[] src);
+
+	/**
+	 * Reads len floats from the current reader index into the array from offset
+	 * off and increments the reader index accordingly.
+	 * 
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void readFloats(float[] dst, int off, int len);
+
+	/**
+	 * Reads floats from the current reader index to fill the array and increments
+	 * the reader index accordingly.
+	 * 
+	 * @param dst
+	 */
+	public void readFloats(float[] dst);
+
+	/**
+	 * Write len floats from offset off of the array from the current writer index.
+	 * 
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void writeFloats(float[] src, int off, int len);
+
+	/**
+	 * Write all the floats of the array from the current writer index.
+	 * 
+	 * @param src
+	 */
+	public void writeFloats(float[] src);
+
+	/**
+	 * Get len doubles starting at the specified index into the array from offset off.
+	 * 
+	 * @param index
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void getDoubles(int index, double[] dst, int off, int len);
+
+	/**
+	 * Get the doubles starting at the specified index to fill the array.
+	 * 
+	 * @param index
+	 * @param dst
+	 */
+	public void getDoubles(int index, double[] dst);
+
+	/**
+	 * Set len doubles from offset off of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void setDoubles(int index, double[] src, int off, int len);
+
+	/**
+	 * Set all the doubles of the array starting at the specified index.
+	 * 
+	 * @param index
+	 * @param src
+	 */
+	public void setDoubles(int index, double[] src);
+
+	/**
+	 * Reads len doubles from the current reader index into the array from offset
+	 * off and increments the reader index accordingly.
+	 * 
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void readDoubles(double[] dst, int off, int len);
+
+	/**
+	 * Reads doubles from the current reader index to fill the array and increments
+	 * the reader index accordingly.
+	 * 
+	 * @param dst
+	 */
+	public void readDoubles(double[] dst);
+
+	/**
+	 * Write len doubles from offset off of the array from the current writer index.
+	 * 
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void writeDoubles(double[] src, int off, int len);
+
+	/**
+	 * Write all the doubles of the array from the current writer index.
+	 * 
+	 * @param src
+	 */
+	public void writeDoubles(double[] src);
+
+	/**
+	 * Write the value as a variable length int of 1 to 5 bytes, 7 bits per byte
+	 * with the least significant group first. Small positive values take fewer
+	 * bytes than {@link #writeInt(int)}, negative values take 5 bytes.
+	 * 
+	 * @param value
+	 * @see ByteUtils#setVarInt(byte[], int, int)
+	 */
+	public void writeVarInt(int value);
+
+	/**
+	 * Read a variable length int written by {@link #writeVarInt(int)}. The reader
+	 * index is left unchanged if the value cannot be read.
+	 * 
+	 * @return
+	 * @throws IndexOutOfBoundsException if the value is truncated.
+	 * @throws IllegalArgumentException  if the bytes are not a valid encoding.
+	 */
+	public int readVarInt();
+
+	/**
+	 * Write the value as a variable length long of 1 to 10 bytes.
+	 * 
+	 * @param value
+	 * @see #writeVarInt(int)
+	 */
+	public void writeVarLong(long value);
+
+	/**
+	 * Read a variable length long written by {@link #writeVarLong(long)}. The
+	 * reader index is left unchanged if the value cannot be read.
+	 * 
+	 * @return
+	 * @throws IndexOutOfBoundsException if the value is truncated.
+	 * @throws IllegalArgumentException  if the bytes are not a valid encoding.
+	 */
+	public long readVarLong();
+
+	/**
+	 * Write a signed value as a zig-zag encoded variable length int, values of
+	 * small magnitude take few bytes whatever their sign.
+	 * 
+	 * @param value
+	 * @see ByteUtils#zigZagEncode(int)
+	 */
+	public void writeSignedVarInt(int value);
+
+	/**
+	 * Read a value written by {@link #writeSignedVarInt(int)}.
+	 * 
+	 * @return
+	 */
+	public int readSignedVarInt();
+
+	/**
+	 * Write a signed value as a zig-zag encoded variable length long.
+	 * 
+	 * @param value
+	 * @see ByteUtils#zigZagEncode(long)
+	 */
+	public void writeSignedVarLong(long value);
+
+	/**
+	 * Read a value written by {@link #writeSignedVarLong(long)}.
+	 * 
+	 * @return
+	 */
+	public long readSignedVarLong();
+
 	/**
 	 * Slice the current buffer from the specified index and length. The resultant
 	 * buffer will have its own reader and writer index. Any changes to the
 	 * resultant buffer will be result in the original buffer to change.
 	 * 
+	 * The index 0 of the slice maps to the index of this buffer and the capacity
+	 * of the slice is the length. The reader and writer index of the slice start
+	 * at 0. The slice shares the reference count of this buffer.
+	 * 
 	 * @param index
 	 * @param length
 	 * @return
+	 * @throws IndexOutOfBoundsException if the region is not within the capacity.
 	 */
 
 	public Buffer slice(int index, int length);
 
+	/**
+	 * Slice the current buffer like {@link #slice(int, int)} and increment the
+	 * reference count, the slice is to be released by its user on its own.
+	 * 
+	 * @param index
+	 * @param length
+	 * @return
+	 */
+	public Buffer retainedSlice(int index, int length);
+
+	/**
+	 * Get a buffer sharing the whole memory of this buffer, with its own reader
+	 * and writer index starting at the current ones. The duplicate shares the
+	 * reference count of this buffer.
+	 * 
+	 * @return
+	 */
+	public Buffer duplicate();
+
 	/**
 	 * Slice the current buffer from the current writer index and length. The
 	 * resultant buffer will have its own reader and writer index. Any changes to
@@ -413,6 +946,32 @@ public interface Buffer {
 	 */
 	public int getCapacity();
 
+	/**
+	 * Get the maximum capacity a dynamic buffer can grow to. This is the same as
+	 * the capacity for a buffer that does not grow.
+	 * 
+	 * @return
+	 */
+	public int getMaxCapacity();
+
+	/**
+	 * Check if the buffer grows on demand when it is written past its capacity.
+	 * 
+	 * @return
+	 */
+	public boolean isDynamic();
+
+	/**
+	 * Make sure the specified number of bytes can be written from the current
+	 * writer index. A dynamic buffer grows if required, a buffer with a fixed
+	 * capacity is left as is.
+	 * 
+	 * @param length
+	 * @throws IndexOutOfBoundsException if a dynamic buffer would have to grow
+	 *                                   past its maximum capacity.
+	 */
+	public void ensureWritable(int length);
+
 	/**
 	 * Get the byte order used by the buffer.
 	 * 
@@ -421,12 +980,124 @@ public interface Buffer {
 	public ByteOrder getByteOrder();
 
 	/**
-	 * Get the buffer as {@link ByteBuffer}
+	 * Get the buffer as {@link ByteBuffer}. The {@link ByteBuffer} of a read only
+	 * buffer is read only.
 	 * 
 	 * @return
 	 */
 	public ByteBuffer asByteBuffer();
 
+	/**
+	 * Read at most maxBytes from the channel into the buffer at the writer index
+	 * with a single read on the channel and advance the writer index by the
+	 * number of bytes read. The read is limited to the {@link #writableBytes()},
+	 * dynamic buffers are not grown, see {@link #ensureWritable(int)}.
+	 * 
+	 * The channel reads straight into the memory of the buffer, without copy for
+	 * direct and off-heap buffers. The components of a {@link CompositeBuffer}
+	 * are filled with one scattering read when the channel supports it.
+	 * 
+	 * @param channel
+	 * @param maxBytes
+	 * @return the number of bytes read, possibly 0, or -1 at the end of stream.
+	 * @throws IOException
+	 */
+	public int readFrom(ReadableByteChannel channel, int maxBytes) throws IOException;
+
+	/**
+	 * Read at most maxBytes from the file starting at the file position into the
+	 * buffer at the writer index and advance the writer index by the number of
+	 * bytes read. The position of the channel is not changed.
+	 * 
+	 * @param channel
+	 * @param position
+	 * @param maxBytes
+	 * @return the number of bytes read, possibly 0, or -1 if the position is at
+	 *         or past the end of file.
+	 * @throws IOException
+	 * @see #readFrom(ReadableByteChannel, int)
+	 */
+	public int readFrom(FileChannel channel, long position, int maxBytes) throws IOException;
+
+	/**
+	 * Start reading at most maxBytes from the file starting at the file position
+	 * into the buffer at the writer index. The returned future completes with the
+	 * number of bytes read, or -1 if the position is at or past the end of file,
+	 * once the writer index has been advanced.
+	 * 
+	 * The calling thread does not wait for the disk. The buffer must not be used
+	 * until the future completes, the read runs on the threads of the channel.
+	 * The future fails with a {@link WrongThreadException} for an off-heap buffer
+	 * of a confined arena, whose memory the channel threads cannot access.
+	 * 
+	 * @param channel
+	 * @param position
+	 * @param maxBytes
+	 * @return
+	 * @see #readFrom(FileChannel, long, int)
+	 */
+	public CompletableFuture<Integer> readFrom(AsynchronousFileChannel channel, long position, int maxBytes);
+
+	/**
+	 * Write at most maxBytes of the readable bytes of the buffer to the channel
+	 * with a single write on the channel and advance the reader index by the
+	 * number of bytes written.
+	 * 
+	 * The channel writes straight from the memory of the buffer, without copy for
+	 * direct and off-heap buffers. A {@link CompositeBuffer} is written with one
+	 * gathering write when the channel supports it.
+	 * 
+	 * @param channel
+	 * @param maxBytes
+	 * @return the number of bytes written, possibly 0.
+	 * @throws IOException
+	 */
+	public int writeTo(WritableByteChannel channel, int maxBytes) throws IOException;
+
+	/**
+	 * Write at most maxBytes of the readable bytes of the buffer to the file
+	 * starting at the file position and advance the reader index by the number of
+	 * bytes written. The position of the channel is not changed.
+	 * 
+	 * @param channel
+	 * @param position
+	 * @param maxBytes
+	 * @return the number of bytes written.
+	 * @throws IOException
+	 * @see #writeTo(WritableByteChannel, int)
+	 */
+	public int writeTo(FileChannel channel, long position, int maxBytes) throws IOException;
+
+	/**
+	 * Read at most maxBytes from the input stream into the buffer at the writer
+	 * index with a single read on the stream and advance the writer index by the
+	 * number of bytes read. The read is limited to the {@link #writableBytes()},
+	 * dynamic buffers are not grown, see {@link #ensureWritable(int)}.
+	 * 
+	 * The stream reads straight into the array of heap buffers, other buffers are
+	 * filled through a small scratch array.
+	 * 
+	 * @param inputStream
+	 * @param maxBytes
+	 * @return the number of bytes read, possibly 0, or -1 at the end of stream.
+	 * @throws IOException
+	 */
+	public int readFrom(InputStream inputStream, int maxBytes) throws IOException;
+
+	/**
+	 * Write at most maxBytes of the readable bytes of the buffer to the output
+	 * stream and advance the reader index by the number of bytes written.
+	 * 
+	 * The stream writes straight from the array of heap buffers, other buffers are
+	 * written through a small scratch array.
+	 * 
+	 * @param outputStream
+	 * @param maxBytes
+	 * @return the number of bytes written.
+	 * @throws IOException
+	 */
+	public int writeTo(OutputStream outputStream, int maxBytes) throws IOException;
+
 	/**
 	 * Set the {@link ByteOrder}. if the new value is different than old value and
 	 * the buffer is not empty then all the bytes will be changed to the new byte
@@ -450,6 +1121,48 @@ public interface Buffer {
 	 */
 	public void setReadOnly(boolean readOnly);
 
+	/**
+	 * Get a read only view of the buffer. The view shares the memory and the
+	 * reference count of the buffer, starts with the same reader and writer
+	 * indexes and then moves them independently, which lets several threads
+	 * read the same content without copying it.
+	 *
+	 * Unlike {@link #setReadOnly(boolean)}, the view cannot be made writable and
+	 * rejects the writes with a {@link java.nio.ReadOnlyBufferException} even
+	 * when the bounds checking is disabled. Its {@link #asByteBuffer()} and the
+	 * views of its slices are read only as well. The content seen through the
+	 * view changes if the buffer it was taken from is written to.
+	 *
+	 * @return
+	 */
+	public Buffer asReadOnly();
+
+	/**
+	 * Check if the buffer validates its indexes on every access.
+	 *
+	 * @return
+	 */
+	public boolean isBoundsChecking();
+
+	/**
+	 * Enable or disable the bounds checking of the buffer. A checked buffer
+	 * fails with an {@link IndexOutOfBoundsException} naming the buffer and the
+	 * offending indexes when an access is outside of its capacity or a read goes
+	 * past the writer index, and with a {@link java.nio.ReadOnlyBufferException}
+	 * when a read only buffer is written to.
+	 *
+	 * An unchecked buffer skips these checks for the hot loops of trusted code. It
+	 * still never touches memory outside of its storage, the accesses are bounded
+	 * by the array, {@link java.nio.ByteBuffer} or memory segment backing it, but
+	 * reading past the writer index returns stale bytes and the read only flag is
+	 * only enforced on the views returned by {@link #asReadOnly()}. Buffers are checked unless the system property
+	 * {@code com.appmanch.commons.buffer.checkBounds} is false, see
+	 * {@link Buffers#setBoundsCheckingEnabled(boolean)}.
+	 *
+	 * @param boundsChecking
+	 */
+	public void setBoundsChecking(boolean boundsChecking);
+
 	/**
 	 * Reset the reader and writer index of a buffer
 	 */
@@ -457,12 +1170,40 @@ public interface Buffer {
 
 	/**
 	 * Reset the reader and writer index of a buffer and also clear the data based
-	 * on the clearData Flag.
+	 * on the clearData Flag. Heap and nio buffers without views clear the data
+	 * lazily, each region is zeroed when it is first accessed.
 	 * 
 	 * @param clearData
 	 */
 	public void reset(boolean clearData);
 
+	/**
+	 * Increment the reference count of the buffer. Slices share the reference
+	 * count of the buffer they were created from.
+	 * 
+	 * @return
+	 * @throws IllegalStateException if the buffer is already released.
+	 */
+	public Buffer retain();
+
+	/**
+	 * Decrement the reference count of the buffer. When the count drops to zero a
+	 * pooled buffer returns its storage to the {@link BufferPool}, a direct buffer
+	 * frees its memory and a memory mapped buffer is unmapped. The buffer and its
+	 * slices must not be used once it is released.
+	 * 
+	 * @return true if the reference count dropped to zero.
+	 * @throws IllegalStateException if the buffer is already released.
+	 */
+	public boolean release();
+
+	/**
+	 * Get the current reference count of the buffer.
+	 * 
+	 * @return
+	 */
+	public int refCount();
+
 	/**
 	 * Seek the reader index by adding the delta supplied.
 	 * 
@@ -491,4 +1232,23 @@ public interface Buffer {
 	 */
 	public Serializable readObject();
 
+	/**
+	 * Write an object with the codec supplied, directly into the buffer.
+	 * 
+	 * @param <T>
+	 * @param object
+	 * @param codec
+	 * @see BufferCodecs#get(Class)
+	 */
+	public <T> void writeObject(T object, BufferCodec<T> codec);
+
+	/**
+	 * Read an object with the codec supplied.
+	 * 
+	 * @param <T>
+	 * @param codec
+	 * @return
+	 */
+	public <T> T readObject(BufferCodec<T> codec);
+
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.nio.ByteOrder;
+
+/**
+ * Allocator of {@link Buffer}. Buffers obtained from an allocator should be
+ * handed back using {@link Buffer#release()} once they are no longer used.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public interface BufferAllocator {
+
+	/**
+	 * Allocate a buffer of the specified capacity with
+	 * {@link Buffers#DEFAULT_BYTE_ORDER}.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	public Buffer allocate(int capacity);
+
+	/**
+	 * Allocate a buffer of the specified capacity and {@link ByteOrder}.
+	 *
+	 * @param capacity
+	 * @param byteOrder
+	 * @return
+	 */
+	public Buffer allocate(int capacity, ByteOrder byteOrder);
+
+	/**
+	 * Allocate a buffer of the specified capacity and {@link ByteOrder} that grows
+	 * on demand up to the maxCapacity.
+	 *
+	 * @param capacity
+	 * @param maxCapacity
+	 * @param byteOrder
+	 * @return
+	 */
+	public Buffer allocateDynamic(int capacity, int maxCapacity, ByteOrder byteOrder);
+
+	/**
+	 * Check if the allocator hands out buffers backed by direct memory.
+	 *
+	 * @return
+	 */
+	public boolean isDirect();
+
+	/**
+	 * Get an allocator handing out the buffers of this allocator with the bounds
+	 * checking enabled or disabled, see {@link Buffer#setBoundsChecking(boolean)}.
+	 *
+	 * @param boundsChecking
+	 * @return
+	 */
+	public default BufferAllocator withBoundsChecking(boolean boundsChecking) {
+		BufferAllocator allocator = this;
+		return new BufferAllocator() {
+
+			@Override
+			public Buffer allocate(int capacity) {
+				return configure(allocator.allocate(capacity));
+			}
+
+			@Override
+			public Buffer allocate(int capacity, ByteOrder byteOrder) {
+				return configure(allocator.allocate(capacity, byteOrder));
+			}
+
+			@Override
+			public Buffer allocateDynamic(int capacity, int maxCapacity, ByteOrder byteOrder) {
+				return configure(allocator.allocateDynamic(capacity, maxCapacity, byteOrder));
+			}
+
+			@Override
+			public boolean isDirect() {
+				return allocator.isDirect();
+			}
+
+			@Override
+			public BufferAllocator withBoundsChecking(boolean enabled) {
+				return allocator.withBoundsChecking(enabled);
+			}
+
+			private Buffer configure(Buffer buffer) {
+				buffer.setBoundsChecking(boundsChecking);
+				return buffer;
+			}
+		};
+	}
+
+}
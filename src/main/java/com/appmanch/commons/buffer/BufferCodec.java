@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+/**
+ * Encoder and decoder of objects of a type to and from a {@link Buffer}.
+ * Objects are written from the writer index and read from the reader index of
+ * the buffer, the codec writes whatever it needs to read the object back, there
+ * is no length or type written around it.
+ *
+ * Codecs can be registered with {@link BufferCodecs#register(BufferCodec)} or
+ * listed in {@code META-INF/services/com.appmanch.commons.buffer.BufferCodec}
+ * to be picked up by {@link BufferCodecs#get(Class)}. Codecs are shared between
+ * threads and must be thread safe.
+ *
+ * @param <T> type of the objects.
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public interface BufferCodec<T> {
+
+	/**
+	 * Get the type of the objects encoded by the codec.
+	 *
+	 * @return
+	 */
+	public Class<T> getType();
+
+	/**
+	 * Write the object from the writer index of the buffer. The object is never
+	 * null.
+	 *
+	 * @param object
+	 * @param buffer
+	 */
+	public void encode(T object, Buffer buffer);
+
+	/**
+	 * Read an object from the reader index of the buffer.
+	 *
+	 * @param buffer
+	 * @return
+	 */
+	public T decode(Buffer buffer);
+
+}
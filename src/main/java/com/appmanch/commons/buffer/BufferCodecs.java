@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 
+ * Registry of {@link BufferCodec} by type.
+ * 
+ * Codecs are looked up first among the registered codecs: the built-in codecs
+ * of strings, boxed primitives and primitive arrays, the codecs listed in
+ * {@code META-INF/services/com.appmanch.commons.buffer.BufferCodec} and the
+ * codecs registered with {@link #register(BufferCodec)}. Other types get a
+ * codec derived once per type: enums are written as their ordinal, records and
+ * classes with a no argument constructor are written field by field and other
+ * serializable types fall back to the Java serialization.
+ * 
+ * A field of a derived codec holding a subtype of its declared type is written
+ * with the name of the subtype. Only the subtypes registered with
+ * {@link #registerSubtype(Class)} and the types of the registered codecs are
+ * accepted, class names read from a buffer are never loaded.
+ * 
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ * 
+ */
+public final class BufferCodecs {
+
+	private static final ConcurrentMap<Class<?>, BufferCodec<?>> CODECS = new ConcurrentHashMap<>();
+	/**
+	 * Types that may be decoded by name where a supertype is declared.
+	 */
+	private static final ConcurrentMap<String, Class<?>> SUBTYPES = new ConcurrentHashMap<>();
+
+	private static final ClassValue<BufferCodec<?>> DERIVED = new ClassValue<BufferCodec<?>>() {
+		@Override
+		protected BufferCodec<?> computeValue(Class<?> type) {
+			return derive(type);
+		}
+	};
+
+	static {
+		register(of(String.class, (value, buffer) -> buffer.writeString(value), Buffer::readString));
+		register(of(Integer.class, (value, buffer) -> buffer.writeInt(value), Buffer::readInt));
+		register(of(Long.class, (value, buffer) -> buffer.writeLong(value), Buffer::readLong));
+		register(of(Double.class, (value, buffer) -> buffer.writeDouble(value), Buffer::readDouble));
+		register(of(Float.class, (value, buffer) -> buffer.writeFloat(value), Buffer::readFloat));
+		register(of(Short.class, (value, buffer) -> buffer.writeShort(value), Buffer::readShort));
+		register(of(Byte.class, (value, buffer) -> buffer.writeByte(value), Buffer::readByte));
+		register(of(Character.class, (value, buffer) -> buffer.writeChar(value), Buffer::readChar));
+		register(of(Boolean.class, (value, buffer) -> buffer.writeBoolean(value), Buffer::readBoolean));
+		register(of(byte[].class, (value, buffer) -> {
+			buffer.writeInt(value.length);
+			buffer.writeBytes(value);
+		}, buffer -> buffer.readBytes(buffer.readInt())));
+		register(of(int[].class, (value, buffer) -> {
+			buffer.writeInt(value.length);
+			buffer.writeInts(value);
+		}, buffer -> {
+			int[] value = new int[buffer.readInt()];
+			buffer.readInts(value);
+			return value;
+		}));
+		register(of(long[].class, (value, buffer) -> {
+			buffer.writeInt(value.length);
+			buffer.writeLongs(value);
+		}, buffer -> {
+			long[] value = new long[buffer.readInt()];
+			buffer.readLongs(value);
+			return value;
+		}));
+		register(of(float[].class, (value, buffer) -> {
+			buffer.writeInt(value.length);
+			buffer.writeFloats(value);
+		}, buffer -> {
+			float[] value = new float[buffer.readInt()];
+			buffer.readFloats(value);
+			return value;
+		}));
+		register(of(double[].class, (value, buffer) -> {
+			buffer.writeInt(value.length);
+			buffer.writeDoubles(value);
+		}, buffer -> {
+			double[] value = new double[buffer.readInt()];
+			buffer.readDoubles(value);
+			return value;
+		}));
+		for (BufferCodec<?> codec : ServiceLoader.load(BufferCodec.class, BufferCodecs.class.getClassLoader())) {
+			register(codec);
+		}
+	}
+
+	private BufferCodecs() {
+	}
+
+	/**
+	 * Register a codec, replacing any codec registered for the same type.
+	 *
+	 * @param <T>
+	 * @param codec
+	 */
+	public static final <T> void register(BufferCodec<T> codec) {
+		Class<T> type = Objects.requireNonNull(codec.getType());
+		CODECS.put(type, codec);
+		SUBTYPES.put(type.getName(), type);
+	}
+
+	/**
+	 * Allow the values of a type to be written to and read from fields declaring
+	 * one of its supertypes.
+	 *
+	 * @param type
+	 */
+	public static final void registerSubtype(Class<?> type) {
+		SUBTYPES.put(type.getName(), type);
+	}
+
+	/**
+	 * Get a type registered as a subtype by its name.
+	 *
+	 * @param name
+	 * @return the type or null if no type of this name is registered.
+	 */
+	static Class<?> subtype(String name) {
+		return SUBTYPES.get(name);
+	}
+
+	/**
+	 * Get the codec of a type.
+	 *
+	 * @param <T>
+	 * @param type
+	 * @return
+	 * @throws IllegalArgumentException if there is no codec for the type and
+	 *                                  none can be derived.
+	 */
+	@SuppressWarnings("unchecked")
+	public static final <T> BufferCodec<T> get(Class<T> type) {
+		BufferCodec<?> codec = CODECS.get(type);
+		if (codec == null) {
+			codec = DERIVED.get(type);
+		}
+		return (BufferCodec<T>) codec;
+	}
+
+	/**
+	 * Get the codec using the Java serialization.
+	 *
+	 * @return
+	 */
+	public static final BufferCodec<Serializable> serialization() {
+		return SerializableCodec.INSTANCE;
+	}
+
+	/**
+	 * Create a codec from an encoder and a decoder function.
+	 *
+	 * @param <T>
+	 * @param type
+	 * @param encoder
+	 * @param decoder
+	 * @return
+	 */
+	public static final <T> BufferCodec<T> of(Class<T> type, BiConsumer<? super T, Buffer> encoder,
+			Function<Buffer, ? extends T> decoder) {
+		Objects.requireNonNull(type);
+		Objects.requireNonNull(encoder);
+		Objects.requireNonNull(decoder);
+		return new BufferCodec<T>() {
+
+			@Override
+			public Class<T> getType() {
+				return type;
+			}
+
+			@Override
+			public void encode(T object, Buffer buffer) {
+				encoder.accept(object, buffer);
+			}
+
+			@Override
+			public T decode(Buffer buffer) {
+				return decoder.apply(buffer);
+			}
+
+		};
+	}
+
+	private static BufferCodec<?> derive(Class<?> type) {
+		if (type.isEnum()) {
+			return enumCodec(type);
+		}
+		try {
+			if (type.isRecord()) {
+				return ReflectiveCodec.forRecord(type);
+			}
+			// Types of the platform are not opened to reflection, types that cannot be
+			// instantiated need their own codec.
+			ClassLoader loader = type.getClassLoader();
+			boolean platform = loader == null || loader == ClassLoader.getPlatformClassLoader();
+			if (!platform && !type.isArray() && !type.isInterface() && !type.isPrimitive()
+					&& !Modifier.isAbstract(type.getModifiers())) {
+				return ReflectiveCodec.forObject(type);
+			}
+		} catch (NoSuchMethodException e) {
+			// no usable constructor, fall back to the serialization
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			if (!Serializable.class.isAssignableFrom(type)) {
+				throw new IllegalArgumentException("Cannot create a codec for " + type.getName(), e);
+			}
+		}
+		if (Serializable.class.isAssignableFrom(type)) {
+			return new SerializableCodec<>(type);
+		}
+		throw new IllegalArgumentException("No codec for " + type.getName());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static BufferCodec<?> enumCodec(Class<?> type) {
+		Class<Enum> enumType = (Class<Enum>) type;
+		Enum[] constants = enumType.getEnumConstants();
+		return of(enumType, (value, buffer) -> buffer.writeInt(value.ordinal()), buffer -> {
+			int ordinal = buffer.readInt();
+			if (ordinal < 0 || ordinal >= constants.length) {
+				throw new IllegalStateException("Invalid ordinal " + ordinal + " of " + type.getName());
+			}
+			return constants[ordinal];
+		});
+	}
+
+}
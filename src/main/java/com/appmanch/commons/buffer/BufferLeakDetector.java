@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports buffers that were garbage collected without being released. The
+ * detection is disabled by default, it can be enabled using the system property
+ * {@value #ENABLED_PROPERTY} or {@link Buffers#setLeakDetectionEnabled(boolean)}.
+ *
+ * Leaks are reported to the {@link System.Logger} named after this class along
+ * with the stack trace of the allocation.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class BufferLeakDetector {
+
+	static final String ENABLED_PROPERTY = "com.appmanch.commons.buffer.leakDetection";
+
+	private static final System.Logger LOGGER = System.getLogger(BufferLeakDetector.class.getName());
+	private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<Object>();
+	private static final Set<LeakReference> LIVE = ConcurrentHashMap.newKeySet();
+	private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+	private BufferLeakDetector() {
+	}
+
+	static boolean isEnabled() {
+		return enabled;
+	}
+
+	static void setEnabled(boolean enabled) {
+		BufferLeakDetector.enabled = enabled;
+	}
+
+	/**
+	 * Start tracking the buffer.
+	 *
+	 * @param buffer
+	 * @return the reference to be closed when the buffer is released or null if
+	 *         the detection is disabled.
+	 */
+	static LeakReference track(Buffer buffer) {
+		if (!enabled) {
+			return null;
+		}
+		reportLeaks();
+		LeakReference reference = new LeakReference(buffer);
+		LIVE.add(reference);
+		return reference;
+	}
+
+	/**
+	 * Report the tracked buffers that were collected without being released.
+	 */
+	static void reportLeaks() {
+		LeakReference reference;
+		while ((reference = (LeakReference) QUEUE.poll()) != null) {
+			if (LIVE.remove(reference)) {
+				LOGGER.log(System.Logger.Level.WARNING, "Buffer " + reference.id
+						+ " was garbage collected without being released.", reference.allocation);
+			}
+		}
+	}
+
+	static final class LeakReference extends PhantomReference<Object> {
+
+		private final String id;
+		private final Throwable allocation;
+
+		private LeakReference(Buffer buffer) {
+			super(buffer, QUEUE);
+			this.id = buffer.getId();
+			this.allocation = new Throwable("Allocation of " + id);
+		}
+
+		/**
+		 * Stop tracking the buffer as it has been released.
+		 */
+		void close() {
+			LIVE.remove(this);
+			clear();
+		}
+	}
+
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import com.appmanch.commons.io.StorageUnit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A {@link BufferAllocator} that recycles the storage of released buffers.
+ *
+ * The storage is organised in size classes. A request is served from the
+ * smallest size class that can hold the requested capacity, requests larger
+ * than the largest size class are allocated without pooling. Every size class
+ * keeps a small cache per platform thread and a bounded lock-free queue shared
+ * across threads. Direct storage that the pool does not keep, because it is
+ * not of a size class or because the size class is full, is freed on release.
+ *
+ * Recycled storage is neither cleared when it is released nor when it is
+ * handed out again. The buffer marks it dirty instead and zeroes each region
+ * the first time it is accessed, the same lazy clearing as
+ * {@link Buffer#reset(boolean)}, so a buffer of the pool reads as zeros like a
+ * newly allocated one.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public final class BufferPool implements BufferAllocator {
+
+	/**
+	 * Default size classes, 256 bytes, 4 {@link StorageUnit#KB} and 64
+	 * {@link StorageUnit#KB}.
+	 */
+	private static final int[] DEFAULT_SIZE_CLASSES = { 256, 4 * (int) StorageUnit.KB.getSize(),
+			64 * (int) StorageUnit.KB.getSize() };
+	/**
+	 * Maximum number of free entries cached per thread and size class.
+	 */
+	private static final int MAX_CACHED = 32;
+	/**
+	 * Maximum number of free entries in the shared queue per size class.
+	 */
+	private static final int MAX_SHARED = 256;
+
+	private final boolean direct;
+	private final int[] sizeClasses;
+	private final PoolArena<byte[]>[] heapArenas;
+	private final PoolArena<ByteBuffer>[] directArenas;
+
+	/**
+	 * Create a pool with the {@link #defaultSizeClasses()}.
+	 *
+	 * @param direct
+	 */
+	public BufferPool(boolean direct) {
+		this(direct, DEFAULT_SIZE_CLASSES);
+	}
+
+	/**
+	 * Create a pool with the size classes specified in value and
+	 * {@link StorageUnit}.
+	 *
+	 * @param direct
+	 * @param storageUnit
+	 * @param sizeClasses
+	 */
+	public BufferPool(boolean direct, StorageUnit storageUnit, int... sizeClasses) {
+		this(direct, toBytes(storageUnit, sizeClasses));
+	}
+
+	/**
+	 * Create a pool with the specified size classes in bytes.
+	 *
+	 * @param direct
+	 * @param sizeClasses
+	 */
+	public BufferPool(boolean direct, int... sizeClasses) {
+		if (sizeClasses == null || sizeClasses.length == 0) {
+			throw new IllegalArgumentException("At least one size class is required.");
+		}
+		this.direct = direct;
+		this.sizeClasses = sizeClasses.clone();
+		Arrays.sort(this.sizeClasses);
+		if (this.sizeClasses[0] <= 0) {
+			throw new IllegalArgumentException("Invalid size class specified.");
+		}
+		if (direct) {
+			heapArenas = null;
+			directArenas = newArenas(this.sizeClasses);
+		} else {
+			directArenas = null;
+			heapArenas = newArenas(this.sizeClasses);
+		}
+	}
+
+	/**
+	 * Get the default size classes in bytes, 256 bytes, 4 {@link StorageUnit#KB}
+	 * and 64 {@link StorageUnit#KB}.
+	 *
+	 * @return a copy of the default size classes.
+	 */
+	public static int[] defaultSizeClasses() {
+		return DEFAULT_SIZE_CLASSES.clone();
+	}
+
+	private static <T> PoolArena<T>[] newArenas(int[] sizeClasses) {
+		@SuppressWarnings("unchecked")
+		PoolArena<T>[] arenas = (PoolArena<T>[]) new PoolArena<?>[sizeClasses.length];
+		for (int i = 0; i < sizeClasses.length; i++) {
+			arenas[i] = new PoolArena<T>(sizeClasses[i], MAX_CACHED, MAX_SHARED);
+		}
+		return arenas;
+	}
+
+	private static int[] toBytes(StorageUnit storageUnit, int[] values) {
+		int[] sizes = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			if (storageUnit.getSize() * values[i] > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Invalid size class specified.");
+			}
+			sizes[i] = (int) storageUnit.getSize() * values[i];
+		}
+		return sizes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.BufferAllocator#allocate(int)
+	 */
+	@Override
+	public Buffer allocate(int capacity) {
+		return allocate(capacity, Buffers.DEFAULT_BYTE_ORDER);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.BufferAllocator#allocate(int,
+	 * java.nio.ByteOrder)
+	 */
+	@Override
+	public Buffer allocate(int capacity, ByteOrder byteOrder) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity specified.");
+		}
+		if (direct) {
+			return allocateNioBuffer(capacity, byteOrder);
+		}
+		byte[] array = recycledArray(capacity);
+		InMemoryBuffer buffer = new InMemoryBuffer(byteOrder, array != null ? array : newArray(capacity));
+		buffer.setCapacity(capacity);
+		if (array != null) {
+			buffer.markDirty(0);
+		}
+		buffer.pool = this;
+		buffer.trackLeaks();
+		return buffer;
+	}
+
+	/**
+	 * Allocate a {@link NioBuffer} over a direct {@link ByteBuffer} or, for a
+	 * heap pool, over a {@link ByteBuffer} wrapping a pooled array.
+	 *
+	 * @param capacity
+	 * @param byteOrder
+	 * @return
+	 */
+	Buffer allocateNioBuffer(int capacity, ByteOrder byteOrder) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity specified.");
+		}
+		ByteBuffer storage = recycledByteBuffer(capacity);
+		boolean recycled = storage != null;
+		if (!recycled) {
+			storage = newByteBuffer(capacity);
+		}
+		storage.clear().limit(capacity);
+		NioBuffer buffer = new NioBuffer(storage.order(byteOrder));
+		if (recycled) {
+			buffer.markDirty(0);
+		}
+		buffer.pool = this;
+		buffer.trackLeaks();
+		return buffer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.BufferAllocator#allocateDynamic(int, int,
+	 * java.nio.ByteOrder)
+	 */
+	@Override
+	public Buffer allocateDynamic(int capacity, int maxCapacity, ByteOrder byteOrder) {
+		AbstractBuffer buffer = (AbstractBuffer) allocate(capacity, byteOrder);
+		// Doubling moves the buffer from one size class to the next, the slack
+		// of the current size class is used before any copy.
+		buffer.makeDynamic(maxCapacity, GrowthStrategy.doubling());
+		return buffer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.BufferAllocator#isDirect()
+	 */
+	@Override
+	public boolean isDirect() {
+		return direct;
+	}
+
+	/**
+	 * Find the smallest size class that can hold the capacity.
+	 *
+	 * @param capacity
+	 * @return the index of the size class or -1 if the capacity is larger than
+	 *         all the size classes.
+	 */
+	private int sizeClassIndex(int capacity) {
+		for (int i = 0; i < sizeClasses.length; i++) {
+			if (capacity <= sizeClasses[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get a byte array that can hold at least the capacity, recycled if the pool
+	 * has one. A recycled array holds the data of its previous use.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	byte[] acquireArray(int capacity) {
+		byte[] array = recycledArray(capacity);
+		return array != null ? array : newArray(capacity);
+	}
+
+	/**
+	 * Take a free byte array of the size class of the capacity.
+	 *
+	 * @param capacity
+	 * @return the array or null if the pool has none.
+	 */
+	byte[] recycledArray(int capacity) {
+		int index = sizeClassIndex(capacity);
+		return index < 0 ? null : heapArenas[index].poll();
+	}
+
+	/**
+	 * Create a byte array of the size class of the capacity, or of the capacity
+	 * if it is larger than all the size classes.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	byte[] newArray(int capacity) {
+		int index = sizeClassIndex(capacity);
+		return new byte[index < 0 ? capacity : sizeClasses[index]];
+	}
+
+	/**
+	 * Return a byte array to the pool.
+	 *
+	 * @param array
+	 */
+	void releaseArray(byte[] array) {
+		int index = sizeClassIndex(array.length);
+		if (index >= 0 && sizeClasses[index] == array.length) {
+			heapArenas[index].offer(array);
+		}
+	}
+
+	/**
+	 * Get a {@link ByteBuffer} that can hold at least the capacity, recycled if
+	 * the pool has one. A recycled buffer holds the data of its previous use.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	ByteBuffer acquireByteBuffer(int capacity) {
+		ByteBuffer buffer = recycledByteBuffer(capacity);
+		return buffer != null ? buffer : newByteBuffer(capacity);
+	}
+
+	/**
+	 * Take a free {@link ByteBuffer} of the size class of the capacity, direct
+	 * or wrapping a pooled array depending on the pool.
+	 *
+	 * @param capacity
+	 * @return the buffer or null if the pool has none.
+	 */
+	ByteBuffer recycledByteBuffer(int capacity) {
+		if (!direct) {
+			byte[] array = recycledArray(capacity);
+			return array != null ? ByteBuffer.wrap(array) : null;
+		}
+		int index = sizeClassIndex(capacity);
+		return index < 0 ? null : directArenas[index].poll();
+	}
+
+	/**
+	 * Create a {@link ByteBuffer} of the size class of the capacity, or of the
+	 * capacity if it is larger than all the size classes.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	ByteBuffer newByteBuffer(int capacity) {
+		if (!direct) {
+			return ByteBuffer.wrap(newArray(capacity));
+		}
+		int index = sizeClassIndex(capacity);
+		return ByteBuffer.allocateDirect(index < 0 ? capacity : sizeClasses[index]);
+	}
+
+	/**
+	 * Return a {@link ByteBuffer} to the pool, a direct buffer is freed if the
+	 * pool does not keep it.
+	 *
+	 * @param buffer
+	 */
+	void releaseByteBuffer(ByteBuffer buffer) {
+		if (!buffer.isDirect()) {
+			releaseArray(buffer.array());
+			return;
+		}
+		int index = sizeClassIndex(buffer.capacity());
+		if (index < 0 || sizeClasses[index] != buffer.capacity() || !directArenas[index].offer(buffer)) {
+			DirectMemory.free(buffer);
+		}
+	}
+
+}
@@ -18,13 +18,19 @@ package com.appmanch.commons.buffer;
 import com.appmanch.commons.io.StorageUnit;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static java.nio.file.StandardOpenOption.READ;
 import static java.nio.file.StandardOpenOption.WRITE;
@@ -47,6 +53,18 @@ public final class Buffers {
 	 * Default ByteOrder.
 	 */
 	public static final ByteOrder DEFAULT_BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+	/**
+	 * Page size used to grow dynamic direct buffers.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 4096;
+	/**
+	 * Shared pool of in-memory buffers.
+	 */
+	private static final BufferPool HEAP_POOL = new BufferPool(false);
+	/**
+	 * Shared pool of direct buffers.
+	 */
+	private static final BufferPool DIRECT_POOL = new BufferPool(true);
 
 	/**
 	 * Prevent External Instantiation
@@ -78,14 +96,16 @@ public final class Buffers {
 
 	/**
 	 * Create a new in-memory buffer with specified capacity and the
-	 * {@link ByteOrder}. This buffer is backed by a byte array.
+	 * {@link ByteOrder}. This buffer is backed by a byte array of the
+	 * {@link #heapPool()}, {@link Buffer#release()} returns the array to the
+	 * pool.
 	 * 
 	 * @param capacity
 	 * @param byteOrder
 	 * @return
 	 */
 	public static final Buffer newInMemory(int capacity, ByteOrder byteOrder) {
-		return new InMemoryBuffer(capacity, byteOrder);
+		return HEAP_POOL.allocate(capacity, byteOrder);
 	}
 
 	/**
@@ -140,14 +160,20 @@ public final class Buffers {
 	}
 
 	public static final Buffer newNioBuffer(int capacity) {
-		ByteBuffer buffer = ByteBuffer.allocate(capacity);
-		return new NioBuffer(buffer);
+		return newNioBuffer(capacity, DEFAULT_BYTE_ORDER);
 	}
 
+	/**
+	 * Create a buffer over a heap {@link ByteBuffer} wrapping an array of the
+	 * {@link #heapPool()}, {@link Buffer#release()} returns the array to the
+	 * pool.
+	 * 
+	 * @param capacity
+	 * @param byteOrder
+	 * @return
+	 */
 	public static final Buffer newNioBuffer(int capacity, ByteOrder byteOrder) {
-		ByteBuffer byteBuffer = ByteBuffer.allocate(capacity);
-		byteBuffer.order(byteOrder);
-		return new NioBuffer(byteBuffer);
+		return HEAP_POOL.allocateNioBuffer(capacity, byteOrder);
 	}
 
 	public static final Buffer newNioDirectBuffer() {
@@ -155,14 +181,139 @@ public final class Buffers {
 	}
 
 	public static final Buffer newNioDirectBuffer(int capacity) {
-		ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
-		return new NioBuffer(buffer);
+		return newNioDirectBuffer(capacity, DEFAULT_BYTE_ORDER);
 	}
 
+	/**
+	 * Create a buffer over a direct {@link ByteBuffer} of the
+	 * {@link #directPool()}, {@link Buffer#release()} returns the memory to the
+	 * pool or frees it.
+	 * 
+	 * @param capacity
+	 * @param byteOrder
+	 * @return
+	 */
 	public static final Buffer newNioDirectBuffer(int capacity, ByteOrder byteOrder) {
-		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(capacity);
-		byteBuffer.order(byteOrder);
-		return new NioBuffer(byteBuffer);
+		return DIRECT_POOL.allocate(capacity, byteOrder);
+	}
+
+	/**
+	 * Create a new in-memory buffer with the specified capacity that doubles its
+	 * capacity when it is written past the end, up to the maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @return
+	 */
+	public static final Buffer newDynamicInMemory(int capacity, int maxCapacity) {
+		return newDynamicInMemory(capacity, maxCapacity, GrowthStrategy.doubling());
+	}
+
+	/**
+	 * Create a new in-memory buffer with the specified capacity that grows using
+	 * the {@link GrowthStrategy} when it is written past the end, up to the
+	 * maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @param growthStrategy
+	 * @return
+	 */
+	public static final Buffer newDynamicInMemory(int capacity, int maxCapacity, GrowthStrategy growthStrategy) {
+		InMemoryBuffer buffer = new InMemoryBuffer(capacity, DEFAULT_BYTE_ORDER);
+		buffer.makeDynamic(maxCapacity, growthStrategy);
+		return buffer;
+	}
+
+	/**
+	 * Create a new heap nio buffer with the specified capacity that grows using
+	 * the {@link GrowthStrategy} when it is written past the end, up to the
+	 * maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @param growthStrategy
+	 * @return
+	 */
+	public static final Buffer newDynamicNioBuffer(int capacity, int maxCapacity, GrowthStrategy growthStrategy) {
+		NioBuffer buffer = new NioBuffer(ByteBuffer.allocate(capacity));
+		buffer.makeDynamic(maxCapacity, growthStrategy);
+		return buffer;
+	}
+
+	/**
+	 * Create a new direct buffer with the specified capacity that grows in
+	 * multiples of {@link #DEFAULT_PAGE_SIZE} when it is written past the end, up
+	 * to the maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @return
+	 */
+	public static final Buffer newDynamicNioDirectBuffer(int capacity, int maxCapacity) {
+		return newDynamicNioDirectBuffer(capacity, maxCapacity, GrowthStrategy.pageAligned(DEFAULT_PAGE_SIZE));
+	}
+
+	/**
+	 * Create a new direct buffer with the specified capacity that grows using the
+	 * {@link GrowthStrategy} when it is written past the end, up to the
+	 * maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @param growthStrategy
+	 * @return
+	 */
+	public static final Buffer newDynamicNioDirectBuffer(int capacity, int maxCapacity,
+			GrowthStrategy growthStrategy) {
+		NioBuffer buffer = new NioBuffer(ByteBuffer.allocateDirect(capacity));
+		buffer.makeDynamic(maxCapacity, growthStrategy);
+		buffer.trackLeaks();
+		return buffer;
+	}
+
+	/**
+	 * Get the shared {@link BufferPool} of in-memory buffers using the
+	 * {@link BufferPool#defaultSizeClasses()}.
+	 * 
+	 * @return
+	 */
+	public static final BufferAllocator heapPool() {
+		return HEAP_POOL;
+	}
+
+	/**
+	 * Get the shared {@link BufferPool} of direct buffers using the
+	 * {@link BufferPool#defaultSizeClasses()}.
+	 * 
+	 * @return
+	 */
+	public static final BufferAllocator directPool() {
+		return DIRECT_POOL;
+	}
+
+	/**
+	 * Create a pooled in-memory buffer that grows into the next size class of the
+	 * pool when it is written past the end, up to the maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @return
+	 */
+	public static final Buffer newPooledDynamicInMemory(int capacity, int maxCapacity) {
+		return HEAP_POOL.allocateDynamic(capacity, maxCapacity, DEFAULT_BYTE_ORDER);
+	}
+
+	/**
+	 * Create a pooled direct buffer that grows into the next size class of the
+	 * pool when it is written past the end, up to the maxCapacity.
+	 * 
+	 * @param capacity
+	 * @param maxCapacity
+	 * @return
+	 */
+	public static final Buffer newPooledDynamicNioDirectBuffer(int capacity, int maxCapacity) {
+		return DIRECT_POOL.allocateDynamic(capacity, maxCapacity, DEFAULT_BYTE_ORDER);
 	}
 
 	public static final Buffer newMemoryMappedFile(String fileName, long length) throws IOException {
@@ -170,17 +321,229 @@ public final class Buffers {
 	}
 
 	public static final Buffer newMemoryMappedFile(String fileName, long start, long length) throws IOException {
-		if (length - start > Integer.MAX_VALUE) {
-			throw new IllegalArgumentException("The Mapping region cannot be more then 4GB");
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"The Mapping region cannot be more then 2GB, use newLargeMappedFile for larger regions");
 		}
 		Path path = Paths.get(fileName);
 		if (!Files.exists(path)) {
 			Files.createFile(path);
 		}
+		// The mapping stays valid after the channel is closed.
+		try (FileChannel channel = (FileChannel) Files.newByteChannel(path, READ, WRITE)) {
+			ByteBuffer mappedBuffer = channel.map(MapMode.READ_WRITE, start, length);
+			NioBuffer buffer = new NioBuffer(mappedBuffer);
+			buffer.trackLeaks();
+			return buffer;
+		}
+	}
+
+	/**
+	 * Map the file as a {@link LargeBuffer} of the specified length using
+	 * {@link MappedLargeBuffer#DEFAULT_CHUNK_SIZE} chunks. The file is created if
+	 * it does not exist and is extended as the buffer grows. The buffer must be
+	 * closed to unmap the file.
+	 * 
+	 * @param fileName
+	 * @param length
+	 * @return
+	 * @throws IOException
+	 */
+	public static final LargeBuffer newLargeMappedFile(String fileName, long length) throws IOException {
+		return newLargeMappedFile(fileName, 0L, length, MappedLargeBuffer.DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Map the region of the file starting at start as a {@link LargeBuffer} of
+	 * the specified length using chunks of chunkSize bytes. The chunk size must
+	 * be a power of two. The file is created if it does not exist and is extended
+	 * as the buffer grows. The buffer must be closed to unmap the file.
+	 * 
+	 * @param fileName
+	 * @param start
+	 * @param length
+	 * @param chunkSize
+	 * @return
+	 * @throws IOException
+	 */
+	public static final LargeBuffer newLargeMappedFile(String fileName, long start, long length, int chunkSize)
+			throws IOException {
+		Path path = Paths.get(fileName);
+		if (!Files.exists(path)) {
+			Files.createFile(path);
+		}
 		FileChannel channel = (FileChannel) Files.newByteChannel(path, READ, WRITE);
-		ByteBuffer mappedBuffer = channel.map(MapMode.READ_WRITE, start, length);
-		NioBuffer buffer = new NioBuffer(mappedBuffer);
+		try {
+			return new MappedLargeBuffer(channel, start, length, chunkSize, DEFAULT_BYTE_ORDER);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Allocate an off-heap {@link SegmentBuffer} that can only be used by the
+	 * current thread. The memory is freed as soon as the buffer is released.
+	 * 
+	 * @param capacity
+	 * @return
+	 */
+	public static final Buffer newOffHeap(int capacity) {
+		return newOffHeap(capacity, DEFAULT_BYTE_ORDER, false);
+	}
+
+	/**
+	 * Allocate an off-heap {@link SegmentBuffer}. A shared buffer can be used
+	 * and released by any thread, otherwise only the current thread can use it.
+	 * 
+	 * @param capacity
+	 * @param byteOrder
+	 * @param shared
+	 * @return
+	 */
+	public static final Buffer newOffHeap(int capacity, ByteOrder byteOrder, boolean shared) {
+		SegmentBuffer buffer = SegmentBuffer.allocate(capacity, byteOrder, shared);
+		buffer.trackLeaks();
 		return buffer;
 	}
 
+	/**
+	 * Allocate an off-heap {@link LargeBuffer} backed by a single memory segment
+	 * that can be larger than 2GB. The buffer must be closed to free the memory.
+	 * 
+	 * @param capacity
+	 * @param shared
+	 * @return
+	 */
+	public static final LargeBuffer newLargeOffHeap(long capacity, boolean shared) {
+		try {
+			return new SegmentLargeBuffer(null, 0L, capacity, shared, DEFAULT_BYTE_ORDER);
+		} catch (IOException e) {
+			// nothing is mapped for an off-heap buffer
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Map the region of the file starting at start as a {@link LargeBuffer} backed
+	 * by a single memory segment, without the chunks of
+	 * {@link #newLargeMappedFile(String, long, long, int)}. The file is created if
+	 * it does not exist and is extended as the buffer grows. The buffer must be
+	 * closed to unmap the file, a buffer that is not shared can only be used and
+	 * closed by the current thread.
+	 * 
+	 * @param fileName
+	 * @param start
+	 * @param length
+	 * @param shared
+	 * @return
+	 * @throws IOException
+	 */
+	public static final LargeBuffer mapFile(String fileName, long start, long length, boolean shared)
+			throws IOException {
+		Path path = Paths.get(fileName);
+		if (!Files.exists(path)) {
+			Files.createFile(path);
+		}
+		FileChannel channel = (FileChannel) Files.newByteChannel(path, READ, WRITE);
+		try {
+			return new SegmentLargeBuffer(channel, start, length, shared, DEFAULT_BYTE_ORDER);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Write the readable bytes of the buffers to the channel with a single
+	 * gathering write and advance the reader index of each buffer by the number
+	 * of its bytes written. The buffers are written in order, a partial write
+	 * leaves the remaining bytes readable.
+	 * 
+	 * @param channel
+	 * @param buffers
+	 * @return the number of bytes written.
+	 * @throws IOException
+	 */
+	public static final long write(GatheringByteChannel channel, Buffer... buffers) throws IOException {
+		List<ByteBuffer> views = new ArrayList<>();
+		for (Buffer buffer : buffers) {
+			Collections.addAll(views, AbstractBuffer.nioBuffers(buffer, buffer.readerIndex(), buffer.readableBytes()));
+		}
+		long written = channel.write(views.toArray(new ByteBuffer[0]));
+		long remaining = written;
+		for (int i = 0; i < buffers.length && remaining > 0; i++) {
+			int consumed = (int) Math.min(remaining, buffers[i].readableBytes());
+			buffers[i].setReaderIndex(buffers[i].readerIndex() + consumed);
+			remaining -= consumed;
+		}
+		return written;
+	}
+
+	/**
+	 * Read from the channel into the writable bytes of the buffers with a single
+	 * scattering read and advance the writer index of each buffer by the number
+	 * of bytes read into it. The buffers are filled in order.
+	 * 
+	 * @param channel
+	 * @param buffers
+	 * @return the number of bytes read or -1 at the end of stream.
+	 * @throws IOException
+	 */
+	public static final long read(ScatteringByteChannel channel, Buffer... buffers) throws IOException {
+		List<ByteBuffer> views = new ArrayList<>();
+		for (Buffer buffer : buffers) {
+			Collections.addAll(views, AbstractBuffer.nioBuffers(buffer, buffer.writerIndex(), buffer.writableBytes()));
+		}
+		long read = channel.read(views.toArray(new ByteBuffer[0]));
+		long remaining = read;
+		for (int i = 0; i < buffers.length && remaining > 0; i++) {
+			int filled = (int) Math.min(remaining, buffers[i].writableBytes());
+			buffers[i].setWriterIndex(buffers[i].writerIndex() + filled);
+			remaining -= filled;
+		}
+		return read;
+	}
+
+	/**
+	 * Enable or disable the reporting of direct, memory mapped and pooled buffers
+	 * that are garbage collected without being released. The detection can also
+	 * be enabled using the system property
+	 * {@code com.appmanch.commons.buffer.leakDetection}.
+	 * 
+	 * @param enabled
+	 */
+	public static final void setLeakDetectionEnabled(boolean enabled) {
+		BufferLeakDetector.setEnabled(enabled);
+	}
+
+	/**
+	 * Check if the leak detection is enabled.
+	 * 
+	 * @return
+	 */
+	public static final boolean isLeakDetectionEnabled() {
+		return BufferLeakDetector.isEnabled();
+	}
+
+	/**
+	 * Enable or disable the bounds checking of the buffers created from now on,
+	 * see {@link Buffer#setBoundsChecking(boolean)}. The default can also be set
+	 * using the system property {@code com.appmanch.commons.buffer.checkBounds}.
+	 *
+	 * @param enabled
+	 */
+	public static final void setBoundsCheckingEnabled(boolean enabled) {
+		AbstractBuffer.setDefaultBoundsChecking(enabled);
+	}
+
+	/**
+	 * Check if the buffers created from now on are bounds checked.
+	 *
+	 * @return
+	 */
+	public static final boolean isBoundsCheckingEnabled() {
+		return AbstractBuffer.isDefaultBoundsChecking();
+	}
+
 }
@@ -17,681 +17,571 @@ package com.appmanch.commons.buffer;
 
 import com.appmanch.commons.lang.ArrayUtils;
 
-import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
+ * A {@link Buffer} that presents a list of component buffers as one logical
+ * buffer without copying their content.
+ *
+ * Each component contributes its readable bytes (from its reader index to its
+ * writer index at the time it is added) to the composite. Absolute and relative
+ * operations that cross a component boundary are split across the components.
+ * Component lookups use a cumulative offset index with a binary search and a
+ * cached last component for sequential access.
+ *
+ * Values are always read and written using the byte order of the composite,
+ * irrespective of the byte order of the components.
+ *
  * @author Nanda Gopalan
  * @since 1.0
  */
-public class CompositeBuffer implements Buffer {
+public class CompositeBuffer extends AbstractBuffer {
 
-	private List<Buffer> buffers = new ArrayList<Buffer>();
+	private static final int INITIAL_COMPONENTS = 4;
+
+	/**
+	 * Component buffers.
+	 */
+	private Buffer[] components = new Buffer[INITIAL_COMPONENTS];
+	/**
+	 * Logical start offset of each component, offsets[count] is the capacity.
+	 */
+	private int[] offsets = new int[INITIAL_COMPONENTS + 1];
+	/**
+	 * Index in the component that maps to the logical start offset.
+	 */
+	private int[] bases = new int[INITIAL_COMPONENTS];
+	private int count;
+	private int lastComponent;
 
 	/**
-	 * Create a new instance of Composite Buffer.
+	 * Create a new instance of Composite Buffer. The byte order of the first
+	 * component is used for the composite.
 	 */
 	public CompositeBuffer(Buffer... buffers) {
+		this(ArrayUtils.isNotEmpty(buffers) ? buffers[0].getByteOrder() : Buffers.DEFAULT_BYTE_ORDER, buffers);
+	}
 
+	/**
+	 * Create a new instance of Composite Buffer with the specified
+	 * {@link ByteOrder}.
+	 *
+	 * @param byteOrder
+	 * @param buffers
+	 */
+	public CompositeBuffer(ByteOrder byteOrder, Buffer... buffers) {
+		super(0, byteOrder);
 		if (ArrayUtils.isNotEmpty(buffers)) {
 
 			for (int i = 0; i < buffers.length; i++) {
-				this.buffers.add(buffers[i]);
+				addComponent(buffers[i], buffers[i].readerIndex(), buffers[i].readableBytes());
 			}
 		}
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getId()
+	/**
+	 * Append the readable bytes of the buffer to the end of this composite. The
+	 * capacity and the writer index of the composite are increased by the number
+	 * of readable bytes of the component. The composite takes over the reference
+	 * held by the caller, the component is released along with the composite.
+	 *
+	 * @param buffer
 	 */
-	@Override
-	public String getId() {
-		return null;
+	public void addComponent(Buffer buffer) {
+		addComponent(buffer, buffer.readerIndex(), buffer.readableBytes());
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getByte(int)
+	/**
+	 * Append a region of the buffer to the end of this composite.
+	 *
+	 * @param buffer
+	 * @param index
+	 * @param length
+	 */
+	private void addComponent(Buffer buffer, int index, int length) {
+		if (count == components.length) {
+			components = Arrays.copyOf(components, count << 1);
+			bases = Arrays.copyOf(bases, count << 1);
+			offsets = Arrays.copyOf(offsets, (count << 1) + 1);
+		}
+		components[count] = buffer;
+		bases[count] = index;
+		offsets[count + 1] = offsets[count] + length;
+		count++;
+		capacity += length;
+		writerIndex += length;
+	}
+
+	/**
+	 * Get the number of components in this buffer.
+	 *
+	 * @return
 	 */
-	@Override
-	public byte getByte(int index) {
-		// TODO Auto-generated method stub
-		return 0;
+	public int getComponentCount() {
+		return count;
+	}
+
+	/**
+	 * Find the component that holds the byte at the specified index.
+	 *
+	 * @param index
+	 * @return
+	 */
+	private int componentIndex(int index) {
+		if (index < 0 || index >= capacity) {
+			throw new IndexOutOfBoundsException("index: " + index + ", capacity: " + capacity);
+		}
+		int last = lastComponent;
+		if (index >= offsets[last]) {
+			if (index < offsets[last + 1]) {
+				return last;
+			}
+			// Sequential access moves on to the next component.
+			if (last + 1 < count && index < offsets[last + 2]) {
+				lastComponent = last + 1;
+				return last + 1;
+			}
+		}
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (index < offsets[mid]) {
+				high = mid - 1;
+			} else if (index >= offsets[mid + 1]) {
+				low = mid + 1;
+			} else {
+				lastComponent = mid;
+				return mid;
+			}
+		}
+		throw new IndexOutOfBoundsException("index: " + index + ", capacity: " + capacity);
+	}
+
+	/**
+	 * Check if the component has the same byte order as the composite.
+	 *
+	 * @param component
+	 * @return
+	 */
+	private boolean sameOrder(Buffer component) {
+		return component.getByteOrder() == getByteOrder();
+	}
+
+	/**
+	 * Assemble a value of the specified size from individual bytes. Used when the
+	 * value spans more than one component.
+	 *
+	 * @param index
+	 * @param size
+	 * @return
+	 */
+	private long getSpanning(int index, int size) {
+		long value = 0;
+		if (bigEndian) {
+			for (int i = 0; i < size; i++) {
+				value = value << 8 | getByte(index + i) & 0xff;
+			}
+		} else {
+			for (int i = size - 1; i >= 0; i--) {
+				value = value << 8 | getByte(index + i) & 0xff;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Write a value of the specified size as individual bytes. Used when the value
+	 * spans more than one component.
+	 *
+	 * @param index
+	 * @param size
+	 * @param value
+	 */
+	private void setSpanning(int index, int size, long value) {
+		if (bigEndian) {
+			for (int i = size - 1; i >= 0; i--) {
+				setByte(index + i, (byte) value);
+				value >>>= 8;
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				setByte(index + i, (byte) value);
+				value >>>= 8;
+			}
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getChar(int)
+	 *
+	 * @see com.appmanch.commons.buffer.Buffer#getByte(int)
 	 */
 	@Override
-	public char getChar(int index) {
-		// TODO Auto-generated method stub
-		return 0;
+	public byte getByte(int index) {
+		int c = componentIndex(index);
+		return components[c].getByte(bases[c] + index - offsets[c]);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#getBoolean(int)
 	 */
 	@Override
 	public boolean getBoolean(int index) {
-		// TODO Auto-generated method stub
-		return false;
+		return getByte(index) == 1;
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#getShort(int)
 	 */
 	@Override
 	public short getShort(int index) {
-		// TODO Auto-generated method stub
-		return 0;
+		int c = componentIndex(index);
+		if (index + TWO_BYTES <= offsets[c + 1]) {
+			short value = components[c].getShort(bases[c] + index - offsets[c]);
+			return sameOrder(components[c]) ? value : Short.reverseBytes(value);
+		}
+		return (short) getSpanning(index, TWO_BYTES);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#getInt(int)
 	 */
 	@Override
 	public int getInt(int index) {
-		// TODO Auto-generated method stub
-		return 0;
+		int c = componentIndex(index);
+		if (index + FOUR_BYTES <= offsets[c + 1]) {
+			int value = components[c].getInt(bases[c] + index - offsets[c]);
+			return sameOrder(components[c]) ? value : Integer.reverseBytes(value);
+		}
+		return (int) getSpanning(index, FOUR_BYTES);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#getFloat(int)
 	 */
 	@Override
 	public float getFloat(int index) {
-		// TODO Auto-generated method stub
-		return 0;
+		return Float.intBitsToFloat(getInt(index));
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#getLong(int)
 	 */
 	@Override
 	public long getLong(int index) {
-		// TODO Auto-generated method stub
-		return 0;
+		int c = componentIndex(index);
+		if (index + EIGHT_BYTES <= offsets[c + 1]) {
+			long value = components[c].getLong(bases[c] + index - offsets[c]);
+			return sameOrder(components[c]) ? value : Long.reverseBytes(value);
+		}
+		return getSpanning(index, EIGHT_BYTES);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#getDouble(int)
 	 */
 	@Override
 	public double getDouble(int index) {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getBytes(int, int)
-	 */
-	@Override
-	public byte[] getBytes(int index, int length) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readByte()
-	 */
-	@Override
-	public byte readByte() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readChar()
-	 */
-	@Override
-	public char readChar() {
-		// TODO Auto-generated method stub
-		return 0;
+		return Double.longBitsToDouble(getLong(index));
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readBoolean()
+	 *
+	 * @see com.appmanch.commons.buffer.Buffer#getBytes(int, byte[], int, int)
 	 */
 	@Override
-	public boolean readBoolean() {
-		// TODO Auto-generated method stub
-		return false;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readShort()
-	 */
-	@Override
-	public short readShort() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readInt()
-	 */
-	@Override
-	public int readInt() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readFloat()
-	 */
-	@Override
-	public float readFloat() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readLong()
-	 */
-	@Override
-	public long readLong() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readDouble()
-	 */
-	@Override
-	public double readDouble() {
-		// TODO Auto-generated method stub
-		return 0;
+	public void getBytes(int index, byte[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		int copied = 0;
+		while (copied < len) {
+			int c = componentIndex(index + copied);
+			int local = bases[c] + index + copied - offsets[c];
+			int length = Math.min(offsets[c + 1] - index - copied, len - copied);
+			components[c].getBytes(local, dst, off + copied, length);
+			copied += length;
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readBytes(int)
-	 */
-	@Override
-	public byte[] readBytes(int length) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-
-	/*
-	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setByte(int, byte)
 	 */
 	@Override
 	public void setByte(int index, byte value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setChar(int, char)
-	 */
-	@Override
-	public void setChar(int index, char value) {
-		// TODO Auto-generated method stub
-
+		checkSetIndex(index, BYTE);
+		int c = componentIndex(index);
+		components[c].setByte(bases[c] + index - offsets[c], value);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setBoolean(int, boolean)
 	 */
 	@Override
 	public void setBoolean(int index, boolean value) {
-		// TODO Auto-generated method stub
-
+		setByte(index, (byte) (value ? 1 : 0));
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setShort(int, short)
 	 */
 	@Override
 	public void setShort(int index, short value) {
-		// TODO Auto-generated method stub
-
+		checkSetIndex(index, TWO_BYTES);
+		int c = componentIndex(index);
+		if (index + TWO_BYTES <= offsets[c + 1]) {
+			components[c].setShort(bases[c] + index - offsets[c],
+					sameOrder(components[c]) ? value : Short.reverseBytes(value));
+		} else {
+			setSpanning(index, TWO_BYTES, value);
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setInt(int, int)
 	 */
 	@Override
 	public void setInt(int index, int value) {
-		// TODO Auto-generated method stub
-
+		checkSetIndex(index, FOUR_BYTES);
+		int c = componentIndex(index);
+		if (index + FOUR_BYTES <= offsets[c + 1]) {
+			components[c].setInt(bases[c] + index - offsets[c],
+					sameOrder(components[c]) ? value : Integer.reverseBytes(value));
+		} else {
+			setSpanning(index, FOUR_BYTES, value);
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setFloat(int, float)
 	 */
 	@Override
 	public void setFloat(int index, float value) {
-		// TODO Auto-generated method stub
-
+		setInt(index, Float.floatToRawIntBits(value));
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setLong(int, long)
 	 */
 	@Override
 	public void setLong(int index, long value) {
-		// TODO Auto-generated method stub
-
+		checkSetIndex(index, EIGHT_BYTES);
+		int c = componentIndex(index);
+		if (index + EIGHT_BYTES <= offsets[c + 1]) {
+			components[c].setLong(bases[c] + index - offsets[c],
+					sameOrder(components[c]) ? value : Long.reverseBytes(value));
+		} else {
+			setSpanning(index, EIGHT_BYTES, value);
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#setDouble(int, double)
 	 */
 	@Override
 	public void setDouble(int index, double value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setBytes(int, byte[])
-	 */
-	@Override
-	public void setBytes(int index, byte[] value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setString(int, java.lang.String)
-	 */
-	@Override
-	public void setString(int index, String value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeByte(byte)
-	 */
-	@Override
-	public void writeByte(byte value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeChar(char)
-	 */
-	@Override
-	public void writeChar(char value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeBytes(byte[])
-	 */
-	@Override
-	public void writeBytes(byte[] value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeBoolean(boolean)
-	 */
-	@Override
-	public void writeBoolean(boolean value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeShort(short)
-	 */
-	@Override
-	public void writeShort(short value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeInt(int)
-	 */
-	@Override
-	public void writeInt(int value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeFloat(float)
-	 */
-	@Override
-	public void writeFloat(float value) {
-		// TODO Auto-generated method stub
-
+		setLong(index, Double.doubleToRawLongBits(value));
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeLong(long)
+	 *
+	 * @see com.appmanch.commons.buffer.Buffer#setBytes(int, byte[], int, int)
 	 */
 	@Override
-	public void writeLong(long value) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeDouble(double)
-	 */
-	@Override
-	public void writeDouble(double value) {
-		// TODO Auto-generated method stub
-
+	public void setBytes(int index, byte[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, len);
+		int copied = 0;
+		while (copied < len) {
+			int c = componentIndex(index + copied);
+			int local = bases[c] + index + copied - offsets[c];
+			int length = Math.min(offsets[c + 1] - index - copied, len - copied);
+			components[c].setBytes(local, src, off + copied, length);
+			copied += length;
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeString(java.lang.String)
+	 *
+	 * @see com.appmanch.commons.buffer.AbstractBuffer#copyTo(int,
+	 * com.appmanch.commons.buffer.Buffer, int, int)
 	 */
 	@Override
-	public int writeString(String value) {
-		// TODO Auto-generated method stub
-		return 0;
+	protected void copyTo(int index, Buffer dst, int dstIndex, int length) {
+		int copied = 0;
+		while (copied < length) {
+			int c = componentIndex(index + copied);
+			int local = bases[c] + index + copied - offsets[c];
+			int pieceLength = Math.min(offsets[c + 1] - index - copied, length - copied);
+			if (components[c] instanceof AbstractBuffer) {
+				((AbstractBuffer) components[c]).copyTo(local, dst, dstIndex + copied, pieceLength);
+			} else {
+				dst.setBytes(dstIndex + copied, components[c].getBytes(local, pieceLength));
+			}
+			copied += pieceLength;
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#slice(int, int)
 	 */
 	@Override
 	public Buffer slice(int index, int length) {
-		// TODO Auto-generated method stub
-		return null;
+		if (index < 0 || length < 0 || index + length > capacity) {
+			throw new IndexOutOfBoundsException(
+					"index: " + index + ", length: " + length + ", capacity: " + capacity);
+		}
+		CompositeBuffer slice = new CompositeBuffer(getByteOrder());
+		int end = index + length;
+		int position = index;
+		while (position < end) {
+			int c = componentIndex(position);
+			int pieceEnd = Math.min(offsets[c + 1], end);
+			slice.addComponent(components[c], bases[c] + position - offsets[c], pieceEnd - position);
+			position = pieceEnd;
+		}
+		// addComponent moves the writer index, a slice starts empty like the slices
+		// of the other buffers.
+		slice.writerIndex = 0;
+		initView(slice);
+		return slice;
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#sliceAndSeek(int)
 	 */
 	@Override
 	public Buffer sliceAndSeek(int length) {
-		// TODO Auto-generated method stub
-		return null;
+		Buffer slice = slice(writerIndex, length);
+		writerIndex += length;
+		return slice;
 	}
 
 	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writableBytes()
-	 */
-	@Override
-	public int writableBytes() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readableBytes()
+	 * The view is made of read only views of the components, it is released along
+	 * with this buffer and does not release them.
 	 */
 	@Override
-	public int readableBytes() {
-		// TODO Auto-generated method stub
-		return 0;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setReaderIndex(int)
-	 */
-	@Override
-	public void setReaderIndex(int index) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setWriterIndex(int)
-	 */
-	@Override
-	public void setWriterIndex(int index) {
-		// TODO Auto-generated method stub
-
+	protected AbstractBuffer newReadOnlyView() {
+		CompositeBuffer view = new CompositeBuffer(getByteOrder());
+		for (int i = 0; i < count; i++) {
+			view.addComponent(components[i].asReadOnly(), bases[i], offsets[i + 1] - offsets[i]);
+		}
+		return view;
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readerIndex()
+	 *
+	 * @see com.appmanch.commons.buffer.AbstractBuffer#deallocate()
 	 */
 	@Override
-	public int readerIndex() {
-		// TODO Auto-generated method stub
-		return 0;
+	protected void deallocate() {
+		for (int i = 0; i < count; i++) {
+			components[i].release();
+			components[i] = null;
+		}
+		count = 0;
 	}
 
 	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writerIndex()
+	 * A single confined component keeps the whole composite on its thread.
 	 */
 	@Override
-	public int writerIndex() {
-		// TODO Auto-generated method stub
-		return 0;
+	protected boolean isConfined() {
+		for (int i = 0; i < count; i++) {
+			if (components[i] instanceof AbstractBuffer && ((AbstractBuffer) components[i]).isConfined()) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getCapacity()
+	 * The composite reads and writes the values in its own byte order, hence
+	 * nothing has to change in the components.
 	 */
 	@Override
-	public int getCapacity() {
-		// TODO Auto-generated method stub
-		return 0;
+	protected void handleByteOrderChange(ByteOrder newByteOrder) {
 	}
 
 	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#getByteOrder()
+	 * One view per component region so that channel reads and writes of the
+	 * composite are a single scattering or gathering call.
 	 */
 	@Override
-	public ByteOrder getByteOrder() {
-		// TODO Auto-generated method stub
-		return null;
+	protected ByteBuffer[] nioBuffers(int index, int length) {
+		Objects.checkFromIndexSize(index, length, capacity);
+		if (length == 0) {
+			return new ByteBuffer[] { ByteBuffer.allocate(0) };
+		}
+		List<ByteBuffer> views = new ArrayList<>();
+		int end = index + length;
+		int position = index;
+		while (position < end) {
+			int c = componentIndex(position);
+			int pieceEnd = Math.min(offsets[c + 1], end);
+			Collections.addAll(views,
+					nioBuffers(components[c], bases[c] + position - offsets[c], pieceEnd - position));
+			position = pieceEnd;
+		}
+		return views.toArray(new ByteBuffer[0]);
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see com.appmanch.commons.buffer.Buffer#asByteBuffer()
 	 */
 	@Override
 	public ByteBuffer asByteBuffer() {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setByteOrder(java.nio.ByteOrder)
-	 */
-	@Override
-	public void setByteOrder(ByteOrder byteOrder) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#isReadOnly()
-	 */
-	@Override
-	public boolean isReadOnly() {
-		// TODO Auto-generated method stub
-		return false;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#setReadOnly(boolean)
-	 */
-	@Override
-	public void setReadOnly(boolean readOnly) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#reset()
-	 */
-	@Override
-	public void reset() {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#reset(boolean)
-	 */
-	@Override
-	public void reset(boolean clearData) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#seekReaderIndex(int)
-	 */
-	@Override
-	public void seekReaderIndex(int delta) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#seekWriterIndex(int)
-	 */
-	@Override
-	public void seekWriterIndex(int delta) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#writeObject(java.io.Serializable)
-	 */
-	@Override
-	public void writeObject(Serializable object) {
-		// TODO Auto-generated method stub
-
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see com.appmanch.commons.buffer.Buffer#readObject()
-	 */
-	@Override
-	public Serializable readObject() {
-		// TODO Auto-generated method stub
-		return null;
+		if (count == 1) {
+			ByteBuffer buffer = components[0].asByteBuffer();
+			buffer.position(bases[0]).limit(bases[0] + capacity);
+			ByteBuffer slice = buffer.slice();
+			return (readonly ? slice.asReadOnlyBuffer() : slice).order(getByteOrder());
+		}
+		// The components are not contiguous, a copy cannot be avoided.
+		ByteBuffer buffer = ByteBuffer.wrap(getBytes(0, capacity));
+		return (readonly ? buffer.asReadOnlyBuffer() : buffer).order(getByteOrder());
 	}
 
 }
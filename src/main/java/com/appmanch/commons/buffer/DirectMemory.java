@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees the native memory of direct and memory mapped {@link ByteBuffer}
+ * without waiting for the garbage collector. This uses
+ * {@code sun.misc.Unsafe#invokeCleaner} when it is available and silently
+ * falls back to the garbage collector otherwise.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class DirectMemory {
+
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (Exception e) {
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private DirectMemory() {
+	}
+
+	/**
+	 * Free the memory of a direct buffer or unmap a memory mapped buffer. The
+	 * buffer must not be a slice or a duplicate and must not be accessed
+	 * afterwards.
+	 *
+	 * @param buffer
+	 * @return true if the memory was freed.
+	 */
+	static boolean free(ByteBuffer buffer) {
+		if (INVOKE_CLEANER == null || !buffer.isDirect()) {
+			return false;
+		}
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			return true;
+		} catch (Exception e) {
+			// Slices and duplicates cannot be cleaned, leave them to the GC.
+			return false;
+		}
+	}
+
+}
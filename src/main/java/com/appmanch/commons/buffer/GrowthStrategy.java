@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+/**
+ * Strategy to compute the new capacity of a dynamic {@link Buffer} that has to
+ * grow to accommodate a write.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public interface GrowthStrategy {
+
+	/**
+	 * Minimum capacity a buffer grows to.
+	 */
+	public static final int MIN_CAPACITY = 64;
+
+	/**
+	 * Compute the new capacity of the buffer.
+	 *
+	 * @param currentCapacity the current capacity of the buffer.
+	 * @param minCapacity     the capacity required by the write.
+	 * @param maxCapacity     the maximum capacity of the buffer.
+	 * @return the new capacity, between minCapacity and maxCapacity.
+	 */
+	public int newCapacity(int currentCapacity, int minCapacity, int maxCapacity);
+
+	/**
+	 * Double the capacity until the required capacity is reached.
+	 *
+	 * @return
+	 */
+	public static GrowthStrategy doubling() {
+		return (currentCapacity, minCapacity, maxCapacity) -> {
+			long capacity = Math.max(currentCapacity, MIN_CAPACITY);
+			while (capacity < minCapacity) {
+				capacity <<= 1;
+			}
+			return (int) Math.min(capacity, maxCapacity);
+		};
+	}
+
+	/**
+	 * Grow the capacity in multiples of the increment.
+	 *
+	 * @param increment
+	 * @return
+	 */
+	public static GrowthStrategy fixed(final int increment) {
+		if (increment <= 0) {
+			throw new IllegalArgumentException("Invalid increment specified.");
+		}
+		return (currentCapacity, minCapacity, maxCapacity) -> {
+			long steps = ((long) minCapacity - currentCapacity + increment - 1) / increment;
+			return (int) Math.min(currentCapacity + steps * increment, maxCapacity);
+		};
+	}
+
+	/**
+	 * Double the capacity and round it up to a multiple of the page size. This
+	 * suits direct buffers whose memory is allocated in pages.
+	 *
+	 * @param pageSize
+	 * @return
+	 */
+	public static GrowthStrategy pageAligned(final int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Invalid page size specified.");
+		}
+		final GrowthStrategy doubling = doubling();
+		return (currentCapacity, minCapacity, maxCapacity) -> {
+			long capacity = doubling.newCapacity(currentCapacity, minCapacity, Integer.MAX_VALUE);
+			capacity = (capacity + pageSize - 1) / pageSize * pageSize;
+			return (int) Math.min(capacity, maxCapacity);
+		};
+	}
+
+}
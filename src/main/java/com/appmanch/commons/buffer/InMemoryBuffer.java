@@ -17,12 +17,23 @@ package com.appmanch.commons.buffer;
 
 import com.appmanch.commons.utils.ByteUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class InMemoryBuffer extends AbstractBuffer {
 
 	byte[] array = null;
+	/**
+	 * Index in the array of the index 0 of the buffer, non zero for slices.
+	 */
+	int offset = 0;
+	BufferPool pool = null;
+	private ArrayAccess access;
 
 	protected InMemoryBuffer(int capacity) {
 		this(capacity, ByteOrder.BIG_ENDIAN);
@@ -37,108 +48,350 @@ public class InMemoryBuffer extends AbstractBuffer {
 
 		super(array.length, byteOrder);
 		this.array = array;
+		this.access = ArrayAccess.of(byteOrder);
 	}
 
-	public double getDouble(int index) {
+	/**
+	 * Create a view of length bytes of the source from the index.
+	 * 
+	 * @param source
+	 * @param index
+	 * @param length
+	 */
+	private InMemoryBuffer(InMemoryBuffer source, int index, int length) {
+		super(source, length);
+		this.array = source.array;
+		this.offset = source.offset + index;
+		this.access = source.access;
+	}
 
-		return ByteUtils.getDouble(array, index, isBigEndian());
+	public double getDouble(int index) {
+		checkIndex(index, EIGHT_BYTES);
+		return Double.longBitsToDouble(access.getLong(array, offset + index));
 	}
 
 	public byte getByte(int index) {
-		return array[index];
+		checkIndex(index, BYTE);
+		return array[offset + index];
 	}
 
 	public boolean getBoolean(int index) {
-		return array[index] == 0X1;
+		checkIndex(index, BYTE);
+		return array[offset + index] == 0X1;
 	}
 
 	public short getShort(int index) {
-		return ByteUtils.getShort(array, index, isBigEndian());
+		checkIndex(index, TWO_BYTES);
+		return access.getShort(array, offset + index);
 	}
 
 	public int getInt(int index) {
-
-		return ByteUtils.getInt(array, index, isBigEndian());
+		checkIndex(index, FOUR_BYTES);
+		return access.getInt(array, offset + index);
 	}
 
 	public float getFloat(int index) {
-
-		return ByteUtils.getFloat(array, index, isBigEndian());
+		checkIndex(index, FOUR_BYTES);
+		return Float.intBitsToFloat(access.getInt(array, offset + index));
 	}
 
 	public long getLong(int index) {
-
-		return ByteUtils.getLong(array, index, isBigEndian());
+		checkIndex(index, EIGHT_BYTES);
+		return access.getLong(array, offset + index);
 	}
 
 	public double getdouble(int index) {
-		return ByteUtils.getDouble(array, index, isBigEndian());
+		checkIndex(index, EIGHT_BYTES);
+		return Double.longBitsToDouble(access.getLong(array, offset + index));
 	}
 
-	public byte[] getBytes(int index, int length) {
-		byte[] value = new byte[length];
-
-		System.arraycopy(array, index, value, 0, length);
-		return value;
+	@Override
+	public void getBytes(int index, byte[] dst, int off, int len) {
+		checkIndex(index, len);
+		System.arraycopy(array, offset + index, dst, off, len);
 	}
 
 	public void setByte(int index, byte value) {
-		array[index] = value;
+		checkSetIndex(index, BYTE);
+		array[offset + index] = value;
 	}
 
 	public void setBoolean(int index, boolean value) {
-		array[index] = (byte) (value ? 0x1 : 0X0);
+		checkSetIndex(index, BYTE);
+		array[offset + index] = (byte) (value ? 0x1 : 0X0);
 	}
 
 	public void setShort(int index, short value) {
-		ByteUtils.setShort(array, index, value, isBigEndian());
+		checkSetIndex(index, TWO_BYTES);
+		access.setShort(array, offset + index, value);
 	}
 
 	public void setInt(int index, int value) {
-		ByteUtils.setInt(array, index, value, isBigEndian());
+		checkSetIndex(index, FOUR_BYTES);
+		access.setInt(array, offset + index, value);
 	}
 
 	public void setFloat(int index, float value) {
-		ByteUtils.setFloat(array, index, value, isBigEndian());
+		checkSetIndex(index, FOUR_BYTES);
+		access.setInt(array, offset + index, Float.floatToRawIntBits(value));
 	}
 
 	public void setLong(int index, long value) {
-		ByteUtils.setLong(array, index, value, isBigEndian());
+		checkSetIndex(index, EIGHT_BYTES);
+		access.setLong(array, offset + index, value);
 	}
 
 	public void setDouble(int index, double value) {
-		ByteUtils.setDouble(array, index, value, isBigEndian());
+		checkSetIndex(index, EIGHT_BYTES);
+		access.setLong(array, offset + index, Double.doubleToRawLongBits(value));
+	}
+
+	@Override
+	public void setBytes(int index, byte[] src, int off, int len) {
+		checkSetIndex(index, len);
+		System.arraycopy(src, off, array, offset + index, len);
+	}
+
+	/*
+	 * Written straight from the array, a read only buffer copies through scratch
+	 * chunks so that the stream never gets hold of its array.
+	 */
+	@Override
+	public int writeTo(OutputStream outputStream, int maxBytes) throws IOException {
+		if (readonly) {
+			return super.writeTo(outputStream, maxBytes);
+		}
+		int length = Math.min(checkMaxBytes(maxBytes), readableBytes());
+		if (length == 0) {
+			return 0;
+		}
+		outputStream.write(array, offset + readerIndex, length);
+		readerIndex += length;
+		return length;
+	}
+
+	@Override
+	protected void copyTo(int index, Buffer dst, int dstIndex, int length) {
+		checkIndex(index, length);
+		dst.setBytes(dstIndex, array, offset + index, length);
+	}
+
+	@Override
+	protected void encodeString(int index, String value, Charset charset, int length) {
+		StringCoding.encode(value, charset, array, offset + index);
+	}
+
+	@Override
+	protected String decodeString(int index, int length, Charset charset) {
+		return new String(array, offset + index, length, charset);
+	}
+
+	@Override
+	protected int indexOf(int fromIndex, int toIndex, byte value) {
+		for (int i = offset + fromIndex; i < offset + toIndex; i++) {
+			if (array[i] == value) {
+				return i - offset;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void getInts(int index, int[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * FOUR_BYTES);
+		for (int i = off; i < off + len; i++, index += FOUR_BYTES) {
+			dst[i] = access.getInt(array, offset + index);
+		}
+	}
+
+	@Override
+	public void setInts(int index, int[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		for (int i = off; i < off + len; i++, index += FOUR_BYTES) {
+			access.setInt(array, offset + index, src[i]);
+		}
+	}
+
+	@Override
+	public void getLongs(int index, long[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = off; i < off + len; i++, index += EIGHT_BYTES) {
+			dst[i] = access.getLong(array, offset + index);
+		}
+	}
+
+	@Override
+	public void setLongs(int index, long[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = off; i < off + len; i++, index += EIGHT_BYTES) {
+			access.setLong(array, offset + index, src[i]);
+		}
+	}
+
+	@Override
+	public void getFloats(int index, float[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * FOUR_BYTES);
+		for (int i = off; i < off + len; i++, index += FOUR_BYTES) {
+			dst[i] = Float.intBitsToFloat(access.getInt(array, offset + index));
+		}
 	}
 
-	public void setBytes(int index, byte[] value) {
-		System.arraycopy(value, 0, array, index, value.length);
+	@Override
+	public void setFloats(int index, float[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		for (int i = off; i < off + len; i++, index += FOUR_BYTES) {
+			access.setInt(array, offset + index, Float.floatToRawIntBits(src[i]));
+		}
+	}
+
+	@Override
+	public void getDoubles(int index, double[] dst, int off, int len) {
+		checkArrayBounds(dst.length, off, len);
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = off; i < off + len; i++, index += EIGHT_BYTES) {
+			dst[i] = Double.longBitsToDouble(access.getLong(array, offset + index));
+		}
+	}
+
+	@Override
+	public void setDoubles(int index, double[] src, int off, int len) {
+		checkArrayBounds(src.length, off, len);
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		for (int i = off; i < off + len; i++, index += EIGHT_BYTES) {
+			access.setLong(array, offset + index, Double.doubleToRawLongBits(src[i]));
+		}
+	}
+
+	@Override
+	public void writeVarInt(int value) {
+		int length = ByteUtils.varIntSize(value);
+		ensureWritable(length);
+		checkSetIndex(writerIndex, length);
+		ByteUtils.setVarInt(array, offset + writerIndex, value);
+		writerIndex += length;
+	}
+
+	@Override
+	public int readVarInt() {
+		return readVarInt(array, offset);
+	}
+
+	@Override
+	public void writeVarLong(long value) {
+		int length = ByteUtils.varLongSize(value);
+		ensureWritable(length);
+		checkSetIndex(writerIndex, length);
+		ByteUtils.setVarLong(array, offset + writerIndex, value);
+		writerIndex += length;
+	}
+
+	@Override
+	public long readVarLong() {
+		return readVarLong(array, offset);
 	}
 
 	public Buffer slice(int index, int length) {
-		InMemoryBuffer buffer = new InMemoryBuffer(getByteOrder(), array);
-		buffer.setReaderIndex(index);
-		buffer.setWriterIndex(index);
-		buffer.id = id;
-		return buffer;
+		Objects.checkFromIndexSize(index, length, capacity);
+		return new InMemoryBuffer(this, index, length);
 	}
 
 	public Buffer sliceAndSeek(int length) {
-		InMemoryBuffer buffer = new InMemoryBuffer(getByteOrder(), array);
-		buffer.setReaderIndex(readerIndex);
-		buffer.setWriterIndex(writerIndex);
+		Buffer slice = slice(writerIndex, length);
 		writerIndex += length;
-		buffer.id = id;
-		return buffer;
+		return slice;
+	}
+
+	@Override
+	protected AbstractBuffer newReadOnlyView() {
+		return new InMemoryBuffer(this, 0, capacity);
+	}
+
+	@Override
+	public void reset(boolean clearData) {
+		readerIndex = 0;
+		writerIndex = 0;
+		if (clearData) {
+			if (isExclusive()) {
+				checkSetIndex(0, 0);
+				markDirty(0);
+			} else {
+				checkSetIndex(0, capacity);
+				clear(0, capacity);
+			}
+		}
+	}
+
+	@Override
+	protected void clear(int index, int length) {
+		Arrays.fill(array, offset + index, offset + index + length, (byte) 0);
+	}
+
+	@Override
+	protected void resize(int newCapacity) {
+		if (newCapacity > array.length) {
+			byte[] newArray;
+			if (pool != null) {
+				newArray = pool.recycledArray(newCapacity);
+				if (newArray == null) {
+					newArray = pool.newArray(newCapacity);
+				} else {
+					markDirty(capacity);
+				}
+				System.arraycopy(array, 0, newArray, 0, capacity);
+				if (!hasViews()) {
+					pool.releaseArray(array);
+				}
+			} else {
+				newArray = Arrays.copyOf(array, newCapacity);
+			}
+			clearViews();
+			array = newArray;
+		}
+		capacity = newCapacity;
+	}
+
+	@Override
+	protected void deallocate() {
+		if (pool != null) {
+			pool.releaseArray(array);
+			array = null;
+		}
 	}
 
 	@Override
 	protected void handleByteOrderChange(ByteOrder newByteOrder) {
-		ByteBuffer.wrap(array).order(newByteOrder);
+		access = ArrayAccess.of(newByteOrder);
 	}
 
 	@Override
 	public ByteBuffer asByteBuffer() {
-		return ByteBuffer.wrap(array);
+		clearDirty(capacity);
+		return byteBuffer();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.AbstractBuffer#nioBuffers(int, int)
+	 */
+	@Override
+	protected ByteBuffer[] nioBuffers(int index, int length) {
+		Objects.checkFromIndexSize(index, length, capacity);
+		clearDirty(index + length);
+		ByteBuffer view = byteBuffer();
+		view.limit(index + length).position(index);
+		return new ByteBuffer[] { view };
+	}
+
+	private ByteBuffer byteBuffer() {
+		ByteBuffer buffer = ByteBuffer.wrap(array, offset, capacity).slice();
+		return readonly ? buffer.asReadOnlyBuffer() : buffer;
 	}
 
 	
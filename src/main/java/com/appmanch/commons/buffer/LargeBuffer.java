@@ -0,0 +1,341 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+/**
+ * A buffer addressed with long indexes, used for regions larger than
+ * {@link Integer#MAX_VALUE} bytes such as memory mapped segment files. Like the
+ * {@link Buffer} it has separate reader and writer indexes. Relative writes past
+ * the capacity grow the buffer.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public interface LargeBuffer extends Closeable {
+
+	/**
+	 * Get the id of the buffer.
+	 *
+	 * @return
+	 */
+	public String getId();
+
+	/**
+	 * Get the byte at the specified index
+	 *
+	 * @param index
+	 * @return
+	 */
+	public byte getByte(long index);
+
+	/**
+	 * Get the next two bytes from the specified index and return a short.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public short getShort(long index);
+
+	/**
+	 * Get the next four bytes from the specified index and return an integer.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public int getInt(long index);
+
+	/**
+	 * Get the next four bytes from the specified index and return a float.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public float getFloat(long index);
+
+	/**
+	 * Get the next eight bytes from the specified index and return a long.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long getLong(long index);
+
+	/**
+	 * Get the next eight bytes from the specified index and return a double.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public double getDouble(long index);
+
+	/**
+	 * Get len bytes from the specified index into the array from offset off.
+	 *
+	 * @param index
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void getBytes(long index, byte[] dst, int off, int len);
+
+	/**
+	 * Set a byte at the specified index.
+	 *
+	 * @param index
+	 * @param value
+	 */
+	public void setByte(long index, byte value);
+
+	/**
+	 * Set the short value at the specified index.
+	 *
+	 * @param index
+	 * @param value
+	 */
+	public void setShort(long index, short value);
+
+	/**
+	 * Set the integer value at the specified index.
+	 *
+	 * @param index
+	 * @param value
+	 */
+	public void setInt(long index, int value);
+
+	/**
+	 * Set the float value at the specified index.
+	 *
+	 * @param index
+	 * @param value
+	 */
+	public void setFloat(long index, float value);
+
+	/**
+	 * Set the long value at the specified index.
+	 *
+	 * @param index
+	 * @param value
+	 */
+	public void setLong(long index, long value);
+
+	/**
+	 * Set the double value at the specified index.
+	 *
+	 * @param index
+	 * @param value
+	 */
+	public void setDouble(long index, double value);
+
+	/**
+	 * Set len bytes from offset off of the array at the specified index.
+	 *
+	 * @param index
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void setBytes(long index, byte[] src, int off, int len);
+
+	/**
+	 * Reads a byte from the current reader index and increments it by 1
+	 *
+	 * @return
+	 */
+	public byte readByte();
+
+	/**
+	 * Reads a short from the current reader index and increments it by 2
+	 *
+	 * @return
+	 */
+	public short readShort();
+
+	/**
+	 * Reads an integer from the current reader index and increments it by 4
+	 *
+	 * @return
+	 */
+	public int readInt();
+
+	/**
+	 * Reads a float from the current reader index and increments it by 4
+	 *
+	 * @return
+	 */
+	public float readFloat();
+
+	/**
+	 * Reads a long from the current reader index and increments it by 8
+	 *
+	 * @return
+	 */
+	public long readLong();
+
+	/**
+	 * Reads a double from the current reader index and increments it by 8
+	 *
+	 * @return
+	 */
+	public double readDouble();
+
+	/**
+	 * Reads len bytes from the current reader index into the array from offset
+	 * off and increments the reader index by len.
+	 *
+	 * @param dst
+	 * @param off
+	 * @param len
+	 */
+	public void readBytes(byte[] dst, int off, int len);
+
+	/**
+	 * Write the byte from the current writer index
+	 *
+	 * @param value
+	 */
+	public void writeByte(byte value);
+
+	/**
+	 * Write the short from the current writer index
+	 *
+	 * @param value
+	 */
+	public void writeShort(short value);
+
+	/**
+	 * Write the integer from the current writer index
+	 *
+	 * @param value
+	 */
+	public void writeInt(int value);
+
+	/**
+	 * Write the float from the current writer index
+	 *
+	 * @param value
+	 */
+	public void writeFloat(float value);
+
+	/**
+	 * Write the long from the current writer index
+	 *
+	 * @param value
+	 */
+	public void writeLong(long value);
+
+	/**
+	 * Write the double from the current writer index
+	 *
+	 * @param value
+	 */
+	public void writeDouble(double value);
+
+	/**
+	 * Write len bytes from offset off of the array from the current writer index
+	 *
+	 * @param src
+	 * @param off
+	 * @param len
+	 */
+	public void writeBytes(byte[] src, int off, int len);
+
+	/**
+	 * Get a {@link Buffer} view of the region starting at the specified index.
+	 * Changes to the view are visible in this buffer. The view must not be used
+	 * once this buffer is closed.
+	 *
+	 * @param index
+	 * @param length
+	 * @return
+	 */
+	public Buffer slice(long index, int length);
+
+	/**
+	 * Get the current reader index.
+	 *
+	 * @return
+	 */
+	public long readerIndex();
+
+	/**
+	 * Get the current writer index.
+	 *
+	 * @return
+	 */
+	public long writerIndex();
+
+	/**
+	 * Set the reader index to a specified value.
+	 *
+	 * @param index
+	 */
+	public void setReaderIndex(long index);
+
+	/**
+	 * Set the writer index to a specified value.
+	 *
+	 * @param index
+	 */
+	public void setWriterIndex(long index);
+
+	/**
+	 * Return the current number of bytes that are readable.
+	 *
+	 * @return
+	 */
+	public long readableBytes();
+
+	/**
+	 * Get the current capacity of the buffer.
+	 *
+	 * @return
+	 */
+	public long getCapacity();
+
+	/**
+	 * Grow the buffer so that it can hold at least the specified capacity.
+	 *
+	 * @param capacity
+	 * @throws IOException
+	 */
+	public void ensureCapacity(long capacity) throws IOException;
+
+	/**
+	 * Get the byte order used by the buffer.
+	 *
+	 * @return
+	 */
+	public ByteOrder getByteOrder();
+
+	/**
+	 * Write all the changes to the storage device.
+	 */
+	public void force();
+
+	/**
+	 * Write the changes of the specified region to the storage device.
+	 *
+	 * @param index
+	 * @param length
+	 */
+	public void force(long index, long length);
+
+}
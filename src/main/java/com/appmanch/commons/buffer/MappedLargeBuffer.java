@@ -0,0 +1,538 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LargeBuffer} that maps a file as a chain of fixed size
+ * {@link MappedByteBuffer} chunks. The chunk size is a power of two so the
+ * chunk of an index is found with a shift and a mask. Values that straddle two
+ * chunks are assembled byte by byte.
+ *
+ * Writing past the capacity extends the file and maps the new region. The file
+ * channel is kept open until the buffer is closed, closing the buffer unmaps
+ * all the chunks. Slices must not be used once the buffer is closed.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class MappedLargeBuffer implements LargeBuffer {
+
+	/**
+	 * Default chunk size, 1 GB.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+	private static final AtomicLong ID_COUNTER = new AtomicLong();
+
+	private final String id;
+	private final FileChannel channel;
+	private final long start;
+	private final int chunkShift;
+	private final long chunkMask;
+	private final ByteOrder byteOrder;
+	private final boolean bigEndian;
+	private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+	/**
+	 * Partial chunks replaced by a larger mapping, slices may still refer to them
+	 * so they are only unmapped on close.
+	 */
+	private final List<MappedByteBuffer> retired = new ArrayList<>();
+	private long capacity;
+	private long readerIndex;
+	private long writerIndex;
+
+	/**
+	 * Map the region of the file starting at start for the specified length.
+	 *
+	 * @param channel   channel opened for read and write.
+	 * @param start
+	 * @param length
+	 * @param chunkSize a power of two up to {@link #DEFAULT_CHUNK_SIZE}
+	 * @param byteOrder
+	 * @throws IOException
+	 */
+	protected MappedLargeBuffer(FileChannel channel, long start, long length, int chunkSize, ByteOrder byteOrder)
+			throws IOException {
+		if (chunkSize <= 0 || chunkSize > DEFAULT_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("Chunk size must be a power of two up to 1GB.");
+		}
+		this.id = "large-buffer-" + ID_COUNTER.incrementAndGet();
+		this.channel = channel;
+		this.start = start;
+		this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+		this.chunkMask = chunkSize - 1;
+		this.byteOrder = byteOrder;
+		this.bigEndian = ByteOrder.BIG_ENDIAN.equals(byteOrder);
+		map(length);
+	}
+
+	/**
+	 * Map the chunks required to cover the new capacity. Only the last chunk is
+	 * partially mapped, it is remapped when the capacity grows and the old mapping
+	 * is kept until the buffer is closed.
+	 *
+	 * @param newCapacity
+	 * @throws IOException
+	 */
+	private void map(long newCapacity) throws IOException {
+		long chunkSize = chunkMask + 1;
+		int count = (int) ((newCapacity + chunkMask) >>> chunkShift);
+		MappedByteBuffer[] newChunks = Arrays.copyOf(chunks, count);
+		int first = chunks.length;
+		if (first > 0 && chunks[first - 1].capacity() < chunkSize) {
+			// The last chunk was partially mapped, map it again with its new size.
+			first--;
+		}
+		for (int i = first; i < count; i++) {
+			long position = (long) i << chunkShift;
+			long size = Math.min(chunkSize, newCapacity - position);
+			MappedByteBuffer chunk = channel.map(MapMode.READ_WRITE, start + position, size);
+			chunk.order(byteOrder);
+			if (i < chunks.length) {
+				retired.add(chunks[i]);
+			}
+			newChunks[i] = chunk;
+		}
+		chunks = newChunks;
+		capacity = newCapacity;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#ensureCapacity(long)
+	 */
+	@Override
+	public void ensureCapacity(long minCapacity) throws IOException {
+		if (minCapacity <= capacity) {
+			return;
+		}
+		// Grow by the current capacity but never by more than a chunk at a time.
+		long newCapacity = Math.max(minCapacity, Math.min(capacity << 1, capacity + chunkMask + 1));
+		map(newCapacity);
+	}
+
+	private void ensureWritable(int length) {
+		try {
+			ensureCapacity(writerIndex + length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void checkIndex(long index, int size) {
+		if (index < 0 || index + size > capacity) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: " + size + ", capacity: " + capacity);
+		}
+	}
+
+	private MappedByteBuffer chunk(long index) {
+		return chunks[(int) (index >>> chunkShift)];
+	}
+
+	private int offset(long index) {
+		return (int) (index & chunkMask);
+	}
+
+	/**
+	 * Check if a value of the specified size starting at the index lies in a
+	 * single chunk.
+	 *
+	 * @param index
+	 * @param size
+	 * @return
+	 */
+	private boolean inChunk(long index, int size) {
+		return (index & chunkMask) + size <= chunkMask + 1;
+	}
+
+	private long getSpanning(long index, int size) {
+		long value = 0;
+		if (bigEndian) {
+			for (int i = 0; i < size; i++) {
+				value = value << 8 | getByte(index + i) & 0xff;
+			}
+		} else {
+			for (int i = size - 1; i >= 0; i--) {
+				value = value << 8 | getByte(index + i) & 0xff;
+			}
+		}
+		return value;
+	}
+
+	private void setSpanning(long index, int size, long value) {
+		if (bigEndian) {
+			for (int i = size - 1; i >= 0; i--) {
+				setByte(index + i, (byte) value);
+				value >>>= 8;
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				setByte(index + i, (byte) value);
+				value >>>= 8;
+			}
+		}
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public byte getByte(long index) {
+		checkIndex(index, Buffer.BYTE);
+		return chunk(index).get(offset(index));
+	}
+
+	@Override
+	public short getShort(long index) {
+		checkIndex(index, Buffer.TWO_BYTES);
+		if (inChunk(index, Buffer.TWO_BYTES)) {
+			return chunk(index).getShort(offset(index));
+		}
+		return (short) getSpanning(index, Buffer.TWO_BYTES);
+	}
+
+	@Override
+	public int getInt(long index) {
+		checkIndex(index, Buffer.FOUR_BYTES);
+		if (inChunk(index, Buffer.FOUR_BYTES)) {
+			return chunk(index).getInt(offset(index));
+		}
+		return (int) getSpanning(index, Buffer.FOUR_BYTES);
+	}
+
+	@Override
+	public float getFloat(long index) {
+		return Float.intBitsToFloat(getInt(index));
+	}
+
+	@Override
+	public long getLong(long index) {
+		checkIndex(index, Buffer.EIGHT_BYTES);
+		if (inChunk(index, Buffer.EIGHT_BYTES)) {
+			return chunk(index).getLong(offset(index));
+		}
+		return getSpanning(index, Buffer.EIGHT_BYTES);
+	}
+
+	@Override
+	public double getDouble(long index) {
+		return Double.longBitsToDouble(getLong(index));
+	}
+
+	@Override
+	public void getBytes(long index, byte[] dst, int off, int len) {
+		AbstractBuffer.checkArrayBounds(dst.length, off, len);
+		checkIndex(index, len);
+		int copied = 0;
+		while (copied < len) {
+			long position = index + copied;
+			int length = (int) Math.min(len - copied, chunkMask + 1 - offset(position));
+			chunk(position).get(offset(position), dst, off + copied, length);
+			copied += length;
+		}
+	}
+
+	@Override
+	public void setByte(long index, byte value) {
+		checkIndex(index, Buffer.BYTE);
+		chunk(index).put(offset(index), value);
+	}
+
+	@Override
+	public void setShort(long index, short value) {
+		checkIndex(index, Buffer.TWO_BYTES);
+		if (inChunk(index, Buffer.TWO_BYTES)) {
+			chunk(index).putShort(offset(index), value);
+		} else {
+			setSpanning(index, Buffer.TWO_BYTES, value);
+		}
+	}
+
+	@Override
+	public void setInt(long index, int value) {
+		checkIndex(index, Buffer.FOUR_BYTES);
+		if (inChunk(index, Buffer.FOUR_BYTES)) {
+			chunk(index).putInt(offset(index), value);
+		} else {
+			setSpanning(index, Buffer.FOUR_BYTES, value);
+		}
+	}
+
+	@Override
+	public void setFloat(long index, float value) {
+		setInt(index, Float.floatToRawIntBits(value));
+	}
+
+	@Override
+	public void setLong(long index, long value) {
+		checkIndex(index, Buffer.EIGHT_BYTES);
+		if (inChunk(index, Buffer.EIGHT_BYTES)) {
+			chunk(index).putLong(offset(index), value);
+		} else {
+			setSpanning(index, Buffer.EIGHT_BYTES, value);
+		}
+	}
+
+	@Override
+	public void setDouble(long index, double value) {
+		setLong(index, Double.doubleToRawLongBits(value));
+	}
+
+	@Override
+	public void setBytes(long index, byte[] src, int off, int len) {
+		AbstractBuffer.checkArrayBounds(src.length, off, len);
+		checkIndex(index, len);
+		int copied = 0;
+		while (copied < len) {
+			long position = index + copied;
+			int length = (int) Math.min(len - copied, chunkMask + 1 - offset(position));
+			chunk(position).put(offset(position), src, off + copied, length);
+			copied += length;
+		}
+	}
+
+	@Override
+	public byte readByte() {
+		return getByte(readerIndex++);
+	}
+
+	@Override
+	public short readShort() {
+		short value = getShort(readerIndex);
+		readerIndex += Buffer.TWO_BYTES;
+		return value;
+	}
+
+	@Override
+	public int readInt() {
+		int value = getInt(readerIndex);
+		readerIndex += Buffer.FOUR_BYTES;
+		return value;
+	}
+
+	@Override
+	public float readFloat() {
+		float value = getFloat(readerIndex);
+		readerIndex += Buffer.FOUR_BYTES;
+		return value;
+	}
+
+	@Override
+	public long readLong() {
+		long value = getLong(readerIndex);
+		readerIndex += Buffer.EIGHT_BYTES;
+		return value;
+	}
+
+	@Override
+	public double readDouble() {
+		double value = getDouble(readerIndex);
+		readerIndex += Buffer.EIGHT_BYTES;
+		return value;
+	}
+
+	@Override
+	public void readBytes(byte[] dst, int off, int len) {
+		getBytes(readerIndex, dst, off, len);
+		readerIndex += len;
+	}
+
+	@Override
+	public void writeByte(byte value) {
+		ensureWritable(Buffer.BYTE);
+		setByte(writerIndex++, value);
+	}
+
+	@Override
+	public void writeShort(short value) {
+		ensureWritable(Buffer.TWO_BYTES);
+		setShort(writerIndex, value);
+		writerIndex += Buffer.TWO_BYTES;
+	}
+
+	@Override
+	public void writeInt(int value) {
+		ensureWritable(Buffer.FOUR_BYTES);
+		setInt(writerIndex, value);
+		writerIndex += Buffer.FOUR_BYTES;
+	}
+
+	@Override
+	public void writeFloat(float value) {
+		ensureWritable(Buffer.FOUR_BYTES);
+		setFloat(writerIndex, value);
+		writerIndex += Buffer.FOUR_BYTES;
+	}
+
+	@Override
+	public void writeLong(long value) {
+		ensureWritable(Buffer.EIGHT_BYTES);
+		setLong(writerIndex, value);
+		writerIndex += Buffer.EIGHT_BYTES;
+	}
+
+	@Override
+	public void writeDouble(double value) {
+		ensureWritable(Buffer.EIGHT_BYTES);
+		setDouble(writerIndex, value);
+		writerIndex += Buffer.EIGHT_BYTES;
+	}
+
+	@Override
+	public void writeBytes(byte[] src, int off, int len) {
+		ensureWritable(len);
+		setBytes(writerIndex, src, off, len);
+		writerIndex += len;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#slice(long, int)
+	 */
+	@Override
+	public Buffer slice(long index, int length) {
+		checkIndex(index, length);
+		if (inChunk(index, length)) {
+			return chunkSlice(index, length);
+		}
+		CompositeBuffer composite = new CompositeBuffer(byteOrder);
+		long position = index;
+		long end = index + length;
+		while (position < end) {
+			int pieceLength = (int) Math.min(end - position, chunkMask + 1 - offset(position));
+			Buffer piece = chunkSlice(position, pieceLength);
+			piece.setWriterIndex(pieceLength);
+			composite.addComponent(piece);
+			position += pieceLength;
+		}
+		composite.setWriterIndex(0);
+		return composite;
+	}
+
+	private Buffer chunkSlice(long index, int length) {
+		ByteBuffer view = chunk(index).duplicate();
+		view.position(offset(index)).limit(offset(index) + length);
+		return new NioBuffer(view.slice().order(byteOrder));
+	}
+
+	@Override
+	public long readerIndex() {
+		return readerIndex;
+	}
+
+	@Override
+	public long writerIndex() {
+		return writerIndex;
+	}
+
+	@Override
+	public void setReaderIndex(long index) {
+		checkIndex(index, 0);
+		this.readerIndex = index;
+	}
+
+	@Override
+	public void setWriterIndex(long index) {
+		checkIndex(index, 0);
+		this.writerIndex = index;
+	}
+
+	@Override
+	public long readableBytes() {
+		return writerIndex - readerIndex;
+	}
+
+	@Override
+	public long getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public ByteOrder getByteOrder() {
+		return byteOrder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#force()
+	 */
+	@Override
+	public void force() {
+		for (MappedByteBuffer chunk : chunks) {
+			chunk.force();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#force(long, long)
+	 */
+	@Override
+	public void force(long index, long length) {
+		if (index < 0 || length < 0 || index + length > capacity) {
+			throw new IndexOutOfBoundsException(
+					"index: " + index + ", length: " + length + ", capacity: " + capacity);
+		}
+		long position = index;
+		long end = index + length;
+		while (position < end) {
+			int pieceLength = (int) Math.min(end - position, chunkMask + 1 - offset(position));
+			chunk(position).force(offset(position), pieceLength);
+			position += pieceLength;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			for (int i = 0; i < chunks.length; i++) {
+				DirectMemory.free(chunks[i]);
+			}
+			for (MappedByteBuffer chunk : retired) {
+				DirectMemory.free(chunk);
+			}
+			retired.clear();
+			chunks = new MappedByteBuffer[0];
+			capacity = 0;
+		} finally {
+			channel.close();
+		}
+	}
+
+}
@@ -15,12 +15,20 @@
  */
 package com.appmanch.commons.buffer;
 
+import com.appmanch.commons.utils.ByteUtils;
+
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class NioBuffer extends AbstractBuffer {
 
-	private ByteBuffer buffer = null;
+	private static final byte[] ZEROS = new byte[4096];
+
+	ByteBuffer buffer = null;
+	BufferPool pool = null;
 
 	protected NioBuffer(ByteBuffer buffer) {
 		super(buffer.remaining(), buffer.order());
@@ -28,102 +36,249 @@ public class NioBuffer extends AbstractBuffer {
 	}
 
 	public byte getByte(int index) {
+		checkIndex(index, BYTE);
 		return buffer.get(index);
 	}
 
 	public boolean getBoolean(int index) {
-
+		checkIndex(index, BYTE);
 		return buffer.get(index) == 1;
 	}
 
 	public short getShort(int index) {
-
+		checkIndex(index, TWO_BYTES);
 		return buffer.getShort(index);
 	}
 
 	public int getInt(int index) {
-
+		checkIndex(index, FOUR_BYTES);
 		return buffer.getInt(index);
 	}
 
 	public float getFloat(int index) {
-
+		checkIndex(index, FOUR_BYTES);
 		return buffer.getFloat(index);
 	}
 
 	public long getLong(int index) {
+		checkIndex(index, EIGHT_BYTES);
 		return buffer.getLong(index);
 	}
 
 	public double getDouble(int index) {
+		checkIndex(index, EIGHT_BYTES);
 		return buffer.getDouble(index);
 	}
 
-	public byte[] getBytes(int index, int length) {
-		byte[] bytes = new byte[length];
-		for (int i = 0; i < length; i++) {
-			bytes[i] = buffer.get(index + i);
-		}
-		return bytes;
+	@Override
+	public void getBytes(int index, byte[] dst, int off, int len) {
+		checkIndex(index, len);
+		buffer.get(index, dst, off, len);
 	}
 
 	public void setByte(int index, byte value) {
-		if (!readonly) {
-			buffer.put(index, value);
-		}
-
+		checkSetIndex(index, BYTE);
+		buffer.put(index, value);
 	}
 
 	public void setBoolean(int index, boolean value) {
-		if (!readonly) {
-			buffer.put(index, (byte) (value ? 1 : 0));
-		}
+		checkSetIndex(index, BYTE);
+		buffer.put(index, (byte) (value ? 1 : 0));
 	}
 
 	public void setShort(int index, short value) {
-		if (!readonly) {
-			buffer.putShort(index, value);
-		}
+		checkSetIndex(index, TWO_BYTES);
+		buffer.putShort(index, value);
 	}
 
 	public void setInt(int index, int value) {
-		if (!readonly) {
-			buffer.putInt(index, value);
-		}
+		checkSetIndex(index, FOUR_BYTES);
+		buffer.putInt(index, value);
 	}
 
 	public void setFloat(int index, float value) {
-		if (!readonly) {
-			buffer.putFloat(index, value);
-		}
+		checkSetIndex(index, FOUR_BYTES);
+		buffer.putFloat(index, value);
 	}
 
 	public void setLong(int index, long value) {
-		if (!readonly) {
-			buffer.putLong(index, value);
-		}
+		checkSetIndex(index, EIGHT_BYTES);
+		buffer.putLong(index, value);
 	}
 
 	public void setDouble(int index, double value) {
-		if (!readonly) {
-			buffer.putDouble(index, value);
+		checkSetIndex(index, EIGHT_BYTES);
+		buffer.putDouble(index, value);
+	}
+
+	@Override
+	public void setBytes(int index, byte[] src, int off, int len) {
+		checkSetIndex(index, len);
+		buffer.put(index, src, off, len);
+	}
+
+	@Override
+	protected void copyTo(int index, Buffer dst, int dstIndex, int length) {
+		checkIndex(index, length);
+		if (dst instanceof InMemoryBuffer) {
+			InMemoryBuffer inMemoryBuffer = (InMemoryBuffer) dst;
+			inMemoryBuffer.checkSetIndex(dstIndex, length);
+			buffer.get(index, inMemoryBuffer.array, inMemoryBuffer.offset + dstIndex, length);
+		} else if (dst instanceof NioBuffer) {
+			NioBuffer nioBuffer = (NioBuffer) dst;
+			nioBuffer.checkSetIndex(dstIndex, length);
+			nioBuffer.buffer.put(dstIndex, buffer, index, length);
+		} else {
+			super.copyTo(index, dst, dstIndex, length);
 		}
 	}
 
-	public void setBytes(int index, byte[] value) {
-		if (!readonly) {
-			for (int i = 0; i < value.length; i++) {
-				buffer.put(index + i, value[i]);
-			}
+	@Override
+	protected void encodeString(int index, String value, Charset charset, int length) {
+		if (buffer.hasArray()) {
+			Objects.checkFromIndexSize(index, length, buffer.capacity());
+			StringCoding.encode(value, charset, buffer.array(), buffer.arrayOffset() + index);
+		} else {
+			super.encodeString(index, value, charset, length);
 		}
+	}
 
+	@Override
+	protected String decodeString(int index, int length, Charset charset) {
+		if (buffer.hasArray()) {
+			Objects.checkFromIndexSize(index, length, buffer.capacity());
+			return new String(buffer.array(), buffer.arrayOffset() + index, length, charset);
+		}
+		return super.decodeString(index, length, charset);
+	}
+
+	@Override
+	public void writeVarInt(int value) {
+		if (buffer.hasArray()) {
+			int length = ByteUtils.varIntSize(value);
+			ensureWritable(length);
+			checkSetIndex(writerIndex, length);
+			Objects.checkFromIndexSize(writerIndex, length, buffer.capacity());
+			ByteUtils.setVarInt(buffer.array(), buffer.arrayOffset() + writerIndex, value);
+			writerIndex += length;
+		} else if ((value & ~0x7F) == 0) {
+			writeByte((byte) value);
+		} else {
+			super.writeVarInt(value);
+		}
+	}
+
+	@Override
+	public int readVarInt() {
+		if (buffer.hasArray()) {
+			return readVarInt(buffer.array(), buffer.arrayOffset());
+		}
+		checkReadable(BYTE);
+		byte b = buffer.get(readerIndex);
+		if (b >= 0) {
+			readerIndex++;
+			return b;
+		}
+		return super.readVarInt();
+	}
+
+	@Override
+	public void writeVarLong(long value) {
+		if (buffer.hasArray()) {
+			int length = ByteUtils.varLongSize(value);
+			ensureWritable(length);
+			checkSetIndex(writerIndex, length);
+			Objects.checkFromIndexSize(writerIndex, length, buffer.capacity());
+			ByteUtils.setVarLong(buffer.array(), buffer.arrayOffset() + writerIndex, value);
+			writerIndex += length;
+		} else if ((value & ~0x7FL) == 0) {
+			writeByte((byte) value);
+		} else {
+			super.writeVarLong(value);
+		}
+	}
+
+	@Override
+	public long readVarLong() {
+		if (buffer.hasArray()) {
+			return readVarLong(buffer.array(), buffer.arrayOffset());
+		}
+		checkReadable(BYTE);
+		byte b = buffer.get(readerIndex);
+		if (b >= 0) {
+			readerIndex++;
+			return b;
+		}
+		return super.readVarLong();
+	}
+
+	/**
+	 * Get a view of the buffer from the specified index in the byte order of the
+	 * buffer.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private ByteBuffer viewAt(int index) {
+		ByteBuffer view = buffer.duplicate();
+		view.position(index);
+		return view.order(buffer.order());
+	}
+
+	@Override
+	public void getInts(int index, int[] dst, int off, int len) {
+		checkIndex(index, (long) len * FOUR_BYTES);
+		viewAt(index).asIntBuffer().get(dst, off, len);
+	}
+
+	@Override
+	public void setInts(int index, int[] src, int off, int len) {
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		viewAt(index).asIntBuffer().put(src, off, len);
+	}
+
+	@Override
+	public void getLongs(int index, long[] dst, int off, int len) {
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		viewAt(index).asLongBuffer().get(dst, off, len);
+	}
+
+	@Override
+	public void setLongs(int index, long[] src, int off, int len) {
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		viewAt(index).asLongBuffer().put(src, off, len);
+	}
+
+	@Override
+	public void getFloats(int index, float[] dst, int off, int len) {
+		checkIndex(index, (long) len * FOUR_BYTES);
+		viewAt(index).asFloatBuffer().get(dst, off, len);
+	}
+
+	@Override
+	public void setFloats(int index, float[] src, int off, int len) {
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		viewAt(index).asFloatBuffer().put(src, off, len);
+	}
+
+	@Override
+	public void getDoubles(int index, double[] dst, int off, int len) {
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		viewAt(index).asDoubleBuffer().get(dst, off, len);
+	}
+
+	@Override
+	public void setDoubles(int index, double[] src, int off, int len) {
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		viewAt(index).asDoubleBuffer().put(src, off, len);
 	}
 
 	public Buffer slice(int index, int length) {
+		Objects.checkFromIndexSize(index, length, capacity);
 		ByteBuffer buffer = this.buffer.duplicate();
 		buffer.position(index).limit(index + length);
-		NioBuffer slice = new NioBuffer(buffer.slice());
-		slice.id = this.id;
+		NioBuffer slice = new NioBuffer(buffer.slice().order(this.buffer.order()));
+		initView(slice);
 		return slice;
 	}
 
@@ -134,14 +289,91 @@ public class NioBuffer extends AbstractBuffer {
 	 */
 	@Override
 	public Buffer sliceAndSeek(int length) {
-		ByteBuffer buffer = this.buffer.duplicate();
-		buffer.position(writerIndex).limit(writerIndex + length);
+		Buffer slice = slice(writerIndex, length);
 		writerIndex += length;
-		NioBuffer slice = new NioBuffer(buffer.slice());
-		slice.id = this.id;
 		return slice;
 	}
 
+	@Override
+	protected AbstractBuffer newReadOnlyView() {
+		return new NioBuffer(buffer.asReadOnlyBuffer().clear().limit(capacity).order(buffer.order()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.Buffer#reset(boolean)
+	 */
+	@Override
+	public void reset(boolean clearData) {
+		readerIndex = 0;
+		writerIndex = 0;
+		if (clearData) {
+			if (isExclusive()) {
+				checkSetIndex(0, 0);
+				markDirty(0);
+			} else {
+				checkSetIndex(0, capacity);
+				clear(0, capacity);
+			}
+		}
+	}
+
+	@Override
+	protected void clear(int index, int length) {
+		if (buffer.hasArray()) {
+			int from = buffer.arrayOffset() + index;
+			Arrays.fill(buffer.array(), from, from + length, (byte) 0);
+			return;
+		}
+		for (int i = 0; i < length; i += ZEROS.length) {
+			buffer.put(index + i, ZEROS, 0, Math.min(ZEROS.length, length - i));
+		}
+	}
+
+	@Override
+	protected void resize(int newCapacity) {
+		if (newCapacity > buffer.capacity()) {
+			ByteBuffer newBuffer;
+			if (pool != null) {
+				newBuffer = pool.recycledByteBuffer(newCapacity);
+				if (newBuffer == null) {
+					newBuffer = pool.newByteBuffer(newCapacity);
+				} else {
+					markDirty(capacity);
+				}
+			} else if (buffer.isDirect()) {
+				newBuffer = ByteBuffer.allocateDirect(newCapacity);
+			} else {
+				newBuffer = ByteBuffer.allocate(newCapacity);
+			}
+			newBuffer.clear();
+			newBuffer.put(0, buffer, 0, capacity);
+			if (hasViews()) {
+				clearViews();
+			} else if (pool != null) {
+				pool.releaseByteBuffer(buffer);
+			} else if (buffer.isDirect()) {
+				DirectMemory.free(buffer);
+			}
+			buffer = newBuffer.order(buffer.order());
+		}
+		buffer.limit(newCapacity);
+		capacity = newCapacity;
+	}
+
+	@Override
+	protected void deallocate() {
+		if (pool != null) {
+			pool.releaseByteBuffer(buffer);
+		} else if (buffer.isDirect()) {
+			DirectMemory.free(buffer);
+		} else {
+			return;
+		}
+		buffer = null;
+	}
+
 	@Override
 	protected void handleByteOrderChange(ByteOrder newByteOrder) {
 		buffer.order(newByteOrder);
@@ -149,7 +381,26 @@ public class NioBuffer extends AbstractBuffer {
 
 	@Override
 	public ByteBuffer asByteBuffer() {
-		return buffer.duplicate();
+		clearDirty(capacity);
+		return byteBuffer();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.AbstractBuffer#nioBuffers(int, int)
+	 */
+	@Override
+	protected ByteBuffer[] nioBuffers(int index, int length) {
+		Objects.checkFromIndexSize(index, length, capacity);
+		clearDirty(index + length);
+		ByteBuffer view = byteBuffer();
+		view.limit(index + length).position(index);
+		return new ByteBuffer[] { view };
+	}
+
+	private ByteBuffer byteBuffer() {
+		return readonly ? buffer.asReadOnlyBuffer() : buffer.duplicate();
 	}
 
 }
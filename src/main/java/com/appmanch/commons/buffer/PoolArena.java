@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Free list of the storage of a single size class. Each platform thread has a
+ * small local cache that is used without any synchronization, the overflow goes
+ * to a bounded lock-free queue shared by all threads. Virtual threads only use
+ * the shared queue, a cache per virtual thread would hold storage that is
+ * rarely reused and would not be bounded by the number of threads.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class PoolArena<T> {
+
+	private final int size;
+	private final int maxCached;
+	private final int maxShared;
+	private final ThreadLocal<ArrayDeque<T>> cache = ThreadLocal.withInitial(ArrayDeque::new);
+	private final ConcurrentLinkedQueue<T> shared = new ConcurrentLinkedQueue<T>();
+	private final AtomicInteger sharedCount = new AtomicInteger();
+
+	PoolArena(int size, int maxCached, int maxShared) {
+		this.size = size;
+		this.maxCached = maxCached;
+		this.maxShared = maxShared;
+	}
+
+	/**
+	 * Get the size of the storage held by this arena.
+	 *
+	 * @return
+	 */
+	int getSize() {
+		return size;
+	}
+
+	/**
+	 * Take a free storage from the arena.
+	 *
+	 * @return the storage or null if the arena is empty
+	 */
+	T poll() {
+		T storage = Thread.currentThread().isVirtual() ? null : cache.get().pollLast();
+		if (storage == null) {
+			storage = shared.poll();
+			if (storage != null) {
+				sharedCount.decrementAndGet();
+			}
+		}
+		return storage;
+	}
+
+	/**
+	 * Return a storage to the arena. The storage is not kept if both the thread
+	 * local cache and the shared queue are full.
+	 *
+	 * @param storage
+	 * @return true if the storage was kept, false if the caller should free it.
+	 */
+	boolean offer(T storage) {
+		if (!Thread.currentThread().isVirtual()) {
+			ArrayDeque<T> local = cache.get();
+			if (local.size() < maxCached) {
+				local.addLast(storage);
+				return true;
+			}
+		}
+		if (sharedCount.incrementAndGet() <= maxShared) {
+			shared.offer(storage);
+			return true;
+		}
+		sharedCount.decrementAndGet();
+		return false;
+	}
+
+}
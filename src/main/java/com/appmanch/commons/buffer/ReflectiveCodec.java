@@ -0,0 +1,483 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@link BufferCodec} of records and plain objects built with reflection once
+ * per type. The components of a record or the non static, non transient fields
+ * of an object are written one after the other without names or tags.
+ * Primitives are written as is, other values are preceded by a byte telling if
+ * the value is null, of the declared type or of a subtype whose name follows.
+ * Subtypes must be registered in {@link BufferCodecs}.
+ *
+ * Records are created with their canonical constructor, other objects need a
+ * no argument constructor of any visibility. The object graph must not contain
+ * cycles.
+ *
+ * @param <T> type of the objects.
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class ReflectiveCodec<T> implements BufferCodec<T> {
+
+	private static final byte NULL = 0;
+	private static final byte DECLARED_TYPE = 1;
+	private static final byte SUBTYPE = 2;
+
+	private final Class<T> type;
+	private final boolean record;
+	/**
+	 * Canonical constructor of a record taking the values as an Object[], or the
+	 * no argument constructor of an object.
+	 */
+	private final MethodHandle constructor;
+	private final Property[] properties;
+
+	private ReflectiveCodec(Class<T> type, boolean record, MethodHandle constructor, Property[] properties) {
+		this.type = type;
+		this.record = record;
+		this.constructor = constructor;
+		this.properties = properties;
+	}
+
+	/**
+	 * Create the codec of a record type.
+	 *
+	 * @param <T>
+	 * @param type
+	 * @return
+	 * @throws ReflectiveOperationException
+	 */
+	static <T> ReflectiveCodec<T> forRecord(Class<T> type) throws ReflectiveOperationException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		RecordComponent[] components = type.getRecordComponents();
+		Class<?>[] types = new Class<?>[components.length];
+		Property[] properties = new Property[components.length];
+		for (int i = 0; i < components.length; i++) {
+			types[i] = components[i].getType();
+			components[i].getAccessor().setAccessible(true);
+			properties[i] = Property.of(types[i], lookup.unreflect(components[i].getAccessor()), null);
+		}
+		Constructor<T> canonical = type.getDeclaredConstructor(types);
+		canonical.setAccessible(true);
+		MethodHandle constructor = lookup.unreflectConstructor(canonical);
+		constructor = constructor.asType(constructor.type().generic()).asSpreader(Object[].class, types.length);
+		return new ReflectiveCodec<>(type, true, constructor, properties);
+	}
+
+	/**
+	 * Create the codec of a type with a no argument constructor. The fields are
+	 * written from the top of the class hierarchy down, sorted by name within a
+	 * class so that the order does not depend on the JVM.
+	 *
+	 * @param <T>
+	 * @param type
+	 * @return
+	 * @throws ReflectiveOperationException
+	 */
+	static <T> ReflectiveCodec<T> forObject(Class<T> type) throws ReflectiveOperationException {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		Constructor<T> noArgs = type.getDeclaredConstructor();
+		noArgs.setAccessible(true);
+		MethodHandle constructor = lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+		Deque<Class<?>> hierarchy = new ArrayDeque<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			hierarchy.push(c);
+		}
+		List<Property> properties = new ArrayList<>();
+		for (Class<?> c : hierarchy) {
+			Field[] fields = c.getDeclaredFields();
+			Arrays.sort(fields, Comparator.comparing(Field::getName));
+			for (Field field : fields) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+					continue;
+				}
+				field.setAccessible(true);
+				properties.add(Property.of(field.getType(), lookup.unreflectGetter(field),
+						lookup.unreflectSetter(field)));
+			}
+		}
+		return new ReflectiveCodec<>(type, false, constructor, properties.toArray(new Property[0]));
+	}
+
+	@Override
+	public Class<T> getType() {
+		return type;
+	}
+
+	@Override
+	public void encode(T object, Buffer buffer) {
+		try {
+			for (Property property : properties) {
+				property.write(object, buffer);
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot encode " + type.getName(), e);
+		}
+	}
+
+	@Override
+	public T decode(Buffer buffer) {
+		try {
+			if (record) {
+				Object[] values = new Object[properties.length];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = properties[i].readValue(buffer);
+				}
+				return type.cast((Object) constructor.invokeExact(values));
+			}
+			Object object = (Object) constructor.invokeExact();
+			for (Property property : properties) {
+				property.read(object, buffer);
+			}
+			return type.cast(object);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot decode " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * A field or record component. The getter takes the object and returns the
+	 * value, the setter is null for records.
+	 */
+	private abstract static class Property {
+
+		final MethodHandle getter;
+		final MethodHandle setter;
+
+		Property(Class<?> valueType, MethodHandle getter, MethodHandle setter) {
+			this.getter = getter.asType(MethodType.methodType(valueType, Object.class));
+			this.setter = setter == null ? null
+					: setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+		}
+
+		static Property of(Class<?> type, MethodHandle getter, MethodHandle setter) {
+			if (type == int.class) {
+				return new IntProperty(getter, setter);
+			} else if (type == long.class) {
+				return new LongProperty(getter, setter);
+			} else if (type == double.class) {
+				return new DoubleProperty(getter, setter);
+			} else if (type == float.class) {
+				return new FloatProperty(getter, setter);
+			} else if (type == boolean.class) {
+				return new BooleanProperty(getter, setter);
+			} else if (type == short.class) {
+				return new ShortProperty(getter, setter);
+			} else if (type == byte.class) {
+				return new ByteProperty(getter, setter);
+			} else if (type == char.class) {
+				return new CharProperty(getter, setter);
+			}
+			return new ObjectProperty(type, getter, setter);
+		}
+
+		abstract void write(Object object, Buffer buffer) throws Throwable;
+
+		abstract void read(Object object, Buffer buffer) throws Throwable;
+
+		abstract Object readValue(Buffer buffer);
+
+	}
+
+	private static final class IntProperty extends Property {
+
+		IntProperty(MethodHandle getter, MethodHandle setter) {
+			super(int.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeInt((int) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readInt());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readInt();
+		}
+
+	}
+
+	private static final class LongProperty extends Property {
+
+		LongProperty(MethodHandle getter, MethodHandle setter) {
+			super(long.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeLong((long) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readLong());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readLong();
+		}
+
+	}
+
+	private static final class DoubleProperty extends Property {
+
+		DoubleProperty(MethodHandle getter, MethodHandle setter) {
+			super(double.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeDouble((double) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readDouble());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readDouble();
+		}
+
+	}
+
+	private static final class FloatProperty extends Property {
+
+		FloatProperty(MethodHandle getter, MethodHandle setter) {
+			super(float.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeFloat((float) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readFloat());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readFloat();
+		}
+
+	}
+
+	private static final class BooleanProperty extends Property {
+
+		BooleanProperty(MethodHandle getter, MethodHandle setter) {
+			super(boolean.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeBoolean((boolean) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readBoolean());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readBoolean();
+		}
+
+	}
+
+	private static final class ShortProperty extends Property {
+
+		ShortProperty(MethodHandle getter, MethodHandle setter) {
+			super(short.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeShort((short) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readShort());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readShort();
+		}
+
+	}
+
+	private static final class ByteProperty extends Property {
+
+		ByteProperty(MethodHandle getter, MethodHandle setter) {
+			super(byte.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeByte((byte) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readByte());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readByte();
+		}
+
+	}
+
+	private static final class CharProperty extends Property {
+
+		CharProperty(MethodHandle getter, MethodHandle setter) {
+			super(char.class, getter, setter);
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			buffer.writeChar((char) getter.invokeExact(object));
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, buffer.readChar());
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			return buffer.readChar();
+		}
+
+	}
+
+	/**
+	 * A reference value encoded with the codec of its class from
+	 * {@link BufferCodecs#get(Class)}.
+	 */
+	private static final class ObjectProperty extends Property {
+
+		private final Class<?> type;
+		/**
+		 * True if the value is always of the declared type.
+		 */
+		private final boolean exact;
+		private BufferCodec<Object> codec;
+
+		ObjectProperty(Class<?> type, MethodHandle getter, MethodHandle setter) {
+			super(Object.class, getter, setter);
+			this.type = type;
+			this.exact = type.isArray() || type.isEnum() || Modifier.isFinal(type.getModifiers());
+		}
+
+		@SuppressWarnings("unchecked")
+		private static BufferCodec<Object> codecOf(Class<?> type) {
+			return (BufferCodec<Object>) BufferCodecs.get(type);
+		}
+
+		private BufferCodec<Object> codec() {
+			// The codec is resolved lazily so that recursive types do not recurse
+			// while the codecs are built.
+			BufferCodec<Object> codec = this.codec;
+			if (codec == null) {
+				codec = codecOf(type);
+				this.codec = codec;
+			}
+			return codec;
+		}
+
+		@Override
+		void write(Object object, Buffer buffer) throws Throwable {
+			Object value = (Object) getter.invokeExact(object);
+			if (value == null) {
+				buffer.writeByte(NULL);
+			} else if (exact || value.getClass() == type) {
+				buffer.writeByte(DECLARED_TYPE);
+				codec().encode(value, buffer);
+			} else {
+				Class<?> subtype = value.getClass();
+				if (BufferCodecs.subtype(subtype.getName()) != subtype) {
+					throw new IllegalArgumentException(
+							subtype.getName() + " is not a registered subtype of " + type.getName());
+				}
+				buffer.writeByte(SUBTYPE);
+				buffer.writeString(subtype.getName());
+				codecOf(subtype).encode(value, buffer);
+			}
+		}
+
+		@Override
+		void read(Object object, Buffer buffer) throws Throwable {
+			setter.invokeExact(object, readValue(buffer));
+		}
+
+		@Override
+		Object readValue(Buffer buffer) {
+			byte tag = buffer.readByte();
+			if (tag == NULL) {
+				return null;
+			} else if (tag == DECLARED_TYPE) {
+				return codec().decode(buffer);
+			} else if (tag != SUBTYPE) {
+				throw new IllegalStateException("Invalid tag " + tag + " of " + type.getName());
+			}
+			String name = buffer.readString();
+			Class<?> subtype = BufferCodecs.subtype(name);
+			if (subtype == null) {
+				throw new IllegalStateException(name + " is not a registered subtype");
+			}
+			if (!type.isAssignableFrom(subtype)) {
+				throw new IllegalStateException(name + " is not a " + type.getName());
+			}
+			return codecOf(subtype).decode(buffer);
+		}
+
+	}
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link Buffer} backed by a {@link MemorySegment}.
+ *
+ * The off-heap memory of the buffer is owned by an {@link Arena} that is closed
+ * as soon as the buffer is released, there is no dependency on the garbage
+ * collector. A confined arena gives the fastest access but the buffer can only
+ * be used and released by the thread that created it, a shared arena lets the
+ * buffer be used across threads.
+ *
+ * Slices are plain segment views and do not create any {@link ByteBuffer}.
+ * Accessing a slice after the buffer is released fails with an
+ * {@link IllegalStateException} instead of touching freed memory.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class SegmentBuffer extends AbstractBuffer {
+
+	MemorySegment segment;
+	private Arena arena;
+	private final boolean shared;
+
+	/**
+	 * Wrap a segment that is owned by the arena. The arena is closed when the
+	 * buffer is released, it is null for views of a segment owned elsewhere.
+	 *
+	 * @param segment
+	 * @param arena
+	 * @param shared
+	 * @param byteOrder
+	 */
+	protected SegmentBuffer(MemorySegment segment, Arena arena, boolean shared, ByteOrder byteOrder) {
+		super(Math.toIntExact(segment.byteSize()), byteOrder);
+		this.segment = segment;
+		this.arena = arena;
+		this.shared = shared;
+	}
+
+	/**
+	 * Allocate a new off-heap buffer in its own arena.
+	 *
+	 * @param capacity
+	 * @param byteOrder
+	 * @param shared
+	 * @return
+	 */
+	static SegmentBuffer allocate(int capacity, ByteOrder byteOrder, boolean shared) {
+		Arena arena = shared ? Arena.ofShared() : Arena.ofConfined();
+		return new SegmentBuffer(arena.allocate(capacity, Long.BYTES), arena, shared, byteOrder);
+	}
+
+	public byte getByte(int index) {
+		checkIndex(index, BYTE);
+		return segment.get(ValueLayout.JAVA_BYTE, index);
+	}
+
+	public boolean getBoolean(int index) {
+		return getByte(index) == 1;
+	}
+
+	public short getShort(int index) {
+		checkIndex(index, TWO_BYTES);
+		return bigEndian ? segment.get(SegmentAccess.SHORT_BE, index) : segment.get(SegmentAccess.SHORT_LE, index);
+	}
+
+	public int getInt(int index) {
+		checkIndex(index, FOUR_BYTES);
+		return bigEndian ? segment.get(SegmentAccess.INT_BE, index) : segment.get(SegmentAccess.INT_LE, index);
+	}
+
+	public float getFloat(int index) {
+		checkIndex(index, FOUR_BYTES);
+		return bigEndian ? segment.get(SegmentAccess.FLOAT_BE, index) : segment.get(SegmentAccess.FLOAT_LE, index);
+	}
+
+	public long getLong(int index) {
+		checkIndex(index, EIGHT_BYTES);
+		return bigEndian ? segment.get(SegmentAccess.LONG_BE, index) : segment.get(SegmentAccess.LONG_LE, index);
+	}
+
+	public double getDouble(int index) {
+		checkIndex(index, EIGHT_BYTES);
+		return bigEndian ? segment.get(SegmentAccess.DOUBLE_BE, index) : segment.get(SegmentAccess.DOUBLE_LE, index);
+	}
+
+	@Override
+	public void getBytes(int index, byte[] dst, int off, int len) {
+		checkIndex(index, len);
+		MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, dst, off, len);
+	}
+
+	public void setByte(int index, byte value) {
+		checkSetIndex(index, BYTE);
+		segment.set(ValueLayout.JAVA_BYTE, index, value);
+	}
+
+	public void setBoolean(int index, boolean value) {
+		setByte(index, (byte) (value ? 1 : 0));
+	}
+
+	public void setShort(int index, short value) {
+		checkSetIndex(index, TWO_BYTES);
+		if (bigEndian) {
+			segment.set(SegmentAccess.SHORT_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.SHORT_LE, index, value);
+		}
+	}
+
+	public void setInt(int index, int value) {
+		checkSetIndex(index, FOUR_BYTES);
+		if (bigEndian) {
+			segment.set(SegmentAccess.INT_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.INT_LE, index, value);
+		}
+	}
+
+	public void setFloat(int index, float value) {
+		checkSetIndex(index, FOUR_BYTES);
+		if (bigEndian) {
+			segment.set(SegmentAccess.FLOAT_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.FLOAT_LE, index, value);
+		}
+	}
+
+	public void setLong(int index, long value) {
+		checkSetIndex(index, EIGHT_BYTES);
+		if (bigEndian) {
+			segment.set(SegmentAccess.LONG_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.LONG_LE, index, value);
+		}
+	}
+
+	public void setDouble(int index, double value) {
+		checkSetIndex(index, EIGHT_BYTES);
+		if (bigEndian) {
+			segment.set(SegmentAccess.DOUBLE_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.DOUBLE_LE, index, value);
+		}
+	}
+
+	@Override
+	public void setBytes(int index, byte[] src, int off, int len) {
+		checkSetIndex(index, len);
+		MemorySegment.copy(src, off, segment, ValueLayout.JAVA_BYTE, index, len);
+	}
+
+	@Override
+	public void getInts(int index, int[] dst, int off, int len) {
+		checkIndex(index, (long) len * FOUR_BYTES);
+		MemorySegment.copy(segment, bigEndian ? SegmentAccess.INT_BE : SegmentAccess.INT_LE, index, dst, off, len);
+	}
+
+	@Override
+	public void setInts(int index, int[] src, int off, int len) {
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		MemorySegment.copy(src, off, segment, bigEndian ? SegmentAccess.INT_BE : SegmentAccess.INT_LE, index, len);
+	}
+
+	@Override
+	public void getLongs(int index, long[] dst, int off, int len) {
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		MemorySegment.copy(segment, bigEndian ? SegmentAccess.LONG_BE : SegmentAccess.LONG_LE, index, dst, off, len);
+	}
+
+	@Override
+	public void setLongs(int index, long[] src, int off, int len) {
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		MemorySegment.copy(src, off, segment, bigEndian ? SegmentAccess.LONG_BE : SegmentAccess.LONG_LE, index, len);
+	}
+
+	@Override
+	public void getFloats(int index, float[] dst, int off, int len) {
+		checkIndex(index, (long) len * FOUR_BYTES);
+		MemorySegment.copy(segment, bigEndian ? SegmentAccess.FLOAT_BE : SegmentAccess.FLOAT_LE, index, dst, off, len);
+	}
+
+	@Override
+	public void setFloats(int index, float[] src, int off, int len) {
+		checkSetIndex(index, (long) len * FOUR_BYTES);
+		MemorySegment.copy(src, off, segment, bigEndian ? SegmentAccess.FLOAT_BE : SegmentAccess.FLOAT_LE, index, len);
+	}
+
+	@Override
+	public void getDoubles(int index, double[] dst, int off, int len) {
+		checkIndex(index, (long) len * EIGHT_BYTES);
+		MemorySegment.copy(segment, bigEndian ? SegmentAccess.DOUBLE_BE : SegmentAccess.DOUBLE_LE, index, dst, off, len);
+	}
+
+	@Override
+	public void setDoubles(int index, double[] src, int off, int len) {
+		checkSetIndex(index, (long) len * EIGHT_BYTES);
+		MemorySegment.copy(src, off, segment, bigEndian ? SegmentAccess.DOUBLE_BE : SegmentAccess.DOUBLE_LE, index, len);
+	}
+
+	@Override
+	protected void copyTo(int index, Buffer dst, int dstIndex, int length) {
+		if (dst instanceof SegmentBuffer) {
+			((SegmentBuffer) dst).checkSetIndex(dstIndex, length);
+			MemorySegment.copy(segment, index, ((SegmentBuffer) dst).segment, dstIndex, length);
+		} else if (dst instanceof InMemoryBuffer) {
+			InMemoryBuffer inMemoryBuffer = (InMemoryBuffer) dst;
+			inMemoryBuffer.checkSetIndex(dstIndex, length);
+			MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, inMemoryBuffer.array,
+					inMemoryBuffer.offset + dstIndex, length);
+		} else {
+			super.copyTo(index, dst, dstIndex, length);
+		}
+	}
+
+	public Buffer slice(int index, int length) {
+		SegmentBuffer slice = new SegmentBuffer(segment.asSlice(index, length), null, shared, getByteOrder());
+		initView(slice);
+		return slice;
+	}
+
+	@Override
+	public Buffer sliceAndSeek(int length) {
+		Buffer slice = slice(writerIndex, length);
+		writerIndex += length;
+		return slice;
+	}
+
+	@Override
+	protected AbstractBuffer newReadOnlyView() {
+		return new SegmentBuffer(segment.asSlice(0, capacity).asReadOnly(), null, shared, getByteOrder());
+	}
+
+	@Override
+	public void reset(boolean clearData) {
+		readerIndex = 0;
+		writerIndex = 0;
+		if (clearData) {
+			checkSetIndex(0, capacity);
+			segment.asSlice(0, capacity).fill((byte) 0);
+		}
+	}
+
+	@Override
+	protected void resize(int newCapacity) {
+		if (arena == null) {
+			// a slice does not own its memory and cannot grow
+			super.resize(newCapacity);
+			return;
+		}
+		Arena newArena = shared ? Arena.ofShared() : Arena.ofConfined();
+		MemorySegment newSegment = newArena.allocate(newCapacity, Long.BYTES);
+		MemorySegment.copy(segment, 0, newSegment, 0, capacity);
+		arena.close();
+		arena = newArena;
+		segment = newSegment;
+		capacity = newCapacity;
+	}
+
+	@Override
+	protected void deallocate() {
+		if (arena != null) {
+			arena.close();
+			arena = null;
+		}
+	}
+
+	@Override
+	protected void handleByteOrderChange(ByteOrder newByteOrder) {
+		// the layout is picked on every access from the bigEndian flag
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		ByteBuffer buffer = segment.asByteBuffer();
+		return (readonly ? buffer.asReadOnlyBuffer() : buffer).order(getByteOrder());
+	}
+
+	/**
+	 * Check if the buffer can be accessed from multiple threads.
+	 *
+	 * @return
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.appmanch.commons.buffer.AbstractBuffer#isConfined()
+	 */
+	@Override
+	protected boolean isConfined() {
+		return !shared;
+	}
+
+}
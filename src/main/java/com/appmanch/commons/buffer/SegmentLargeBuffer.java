@@ -0,0 +1,422 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LargeBuffer} backed by a single {@link MemorySegment}. Segments are
+ * addressed with long offsets so unlike the {@link MappedLargeBuffer} there are
+ * no chunks and no values straddling a chunk boundary.
+ *
+ * The segment is either allocated off-heap or maps a region of a file. Growing
+ * the buffer allocates or maps a new segment in a new {@link Arena} and closes
+ * the old one, closing the buffer closes the arena and unmaps the file right
+ * away.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class SegmentLargeBuffer implements LargeBuffer {
+
+	private static final AtomicLong ID_COUNTER = new AtomicLong();
+
+	private final String id;
+	private final FileChannel channel;
+	private final long start;
+	private final boolean shared;
+	private final ByteOrder byteOrder;
+	private final boolean bigEndian;
+	private Arena arena;
+	private MemorySegment segment;
+	private long capacity;
+	private long readerIndex;
+	private long writerIndex;
+
+	/**
+	 * Create a buffer over the region of the file starting at start for the
+	 * specified length. The buffer is allocated off-heap if the channel is null.
+	 *
+	 * @param channel channel opened for read and write or null.
+	 * @param start
+	 * @param length
+	 * @param shared  true if the buffer is accessed from multiple threads.
+	 * @param byteOrder
+	 * @throws IOException
+	 */
+	protected SegmentLargeBuffer(FileChannel channel, long start, long length, boolean shared, ByteOrder byteOrder)
+			throws IOException {
+		this.id = "large-buffer-" + ID_COUNTER.incrementAndGet();
+		this.channel = channel;
+		this.start = start;
+		this.shared = shared;
+		this.byteOrder = byteOrder;
+		this.bigEndian = ByteOrder.BIG_ENDIAN.equals(byteOrder);
+		map(length);
+	}
+
+	/**
+	 * Allocate or map a segment of the new capacity and move the content of the
+	 * current segment to it.
+	 *
+	 * @param newCapacity
+	 * @throws IOException
+	 */
+	private void map(long newCapacity) throws IOException {
+		Arena newArena = shared ? Arena.ofShared() : Arena.ofConfined();
+		MemorySegment newSegment;
+		try {
+			if (channel != null) {
+				if (segment != null) {
+					segment.force();
+				}
+				newSegment = channel.map(MapMode.READ_WRITE, start, newCapacity, newArena);
+			} else {
+				newSegment = newArena.allocate(newCapacity, Long.BYTES);
+				if (segment != null) {
+					MemorySegment.copy(segment, 0, newSegment, 0, capacity);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			newArena.close();
+			throw e;
+		}
+		if (arena != null) {
+			arena.close();
+		}
+		arena = newArena;
+		segment = newSegment;
+		capacity = newCapacity;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#ensureCapacity(long)
+	 */
+	@Override
+	public void ensureCapacity(long minCapacity) throws IOException {
+		if (minCapacity <= capacity) {
+			return;
+		}
+		map(Math.max(minCapacity, capacity << 1));
+	}
+
+	private void ensureWritable(int length) {
+		try {
+			ensureCapacity(writerIndex + length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public byte getByte(long index) {
+		return segment.get(ValueLayout.JAVA_BYTE, index);
+	}
+
+	@Override
+	public short getShort(long index) {
+		return bigEndian ? segment.get(SegmentAccess.SHORT_BE, index) : segment.get(SegmentAccess.SHORT_LE, index);
+	}
+
+	@Override
+	public int getInt(long index) {
+		return bigEndian ? segment.get(SegmentAccess.INT_BE, index) : segment.get(SegmentAccess.INT_LE, index);
+	}
+
+	@Override
+	public float getFloat(long index) {
+		return bigEndian ? segment.get(SegmentAccess.FLOAT_BE, index) : segment.get(SegmentAccess.FLOAT_LE, index);
+	}
+
+	@Override
+	public long getLong(long index) {
+		return bigEndian ? segment.get(SegmentAccess.LONG_BE, index) : segment.get(SegmentAccess.LONG_LE, index);
+	}
+
+	@Override
+	public double getDouble(long index) {
+		return bigEndian ? segment.get(SegmentAccess.DOUBLE_BE, index) : segment.get(SegmentAccess.DOUBLE_LE, index);
+	}
+
+	@Override
+	public void getBytes(long index, byte[] dst, int off, int len) {
+		MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, dst, off, len);
+	}
+
+	@Override
+	public void setByte(long index, byte value) {
+		segment.set(ValueLayout.JAVA_BYTE, index, value);
+	}
+
+	@Override
+	public void setShort(long index, short value) {
+		if (bigEndian) {
+			segment.set(SegmentAccess.SHORT_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.SHORT_LE, index, value);
+		}
+	}
+
+	@Override
+	public void setInt(long index, int value) {
+		if (bigEndian) {
+			segment.set(SegmentAccess.INT_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.INT_LE, index, value);
+		}
+	}
+
+	@Override
+	public void setFloat(long index, float value) {
+		if (bigEndian) {
+			segment.set(SegmentAccess.FLOAT_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.FLOAT_LE, index, value);
+		}
+	}
+
+	@Override
+	public void setLong(long index, long value) {
+		if (bigEndian) {
+			segment.set(SegmentAccess.LONG_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.LONG_LE, index, value);
+		}
+	}
+
+	@Override
+	public void setDouble(long index, double value) {
+		if (bigEndian) {
+			segment.set(SegmentAccess.DOUBLE_BE, index, value);
+		} else {
+			segment.set(SegmentAccess.DOUBLE_LE, index, value);
+		}
+	}
+
+	@Override
+	public void setBytes(long index, byte[] src, int off, int len) {
+		MemorySegment.copy(src, off, segment, ValueLayout.JAVA_BYTE, index, len);
+	}
+
+	@Override
+	public byte readByte() {
+		return getByte(readerIndex++);
+	}
+
+	@Override
+	public short readShort() {
+		short value = getShort(readerIndex);
+		readerIndex += Buffer.TWO_BYTES;
+		return value;
+	}
+
+	@Override
+	public int readInt() {
+		int value = getInt(readerIndex);
+		readerIndex += Buffer.FOUR_BYTES;
+		return value;
+	}
+
+	@Override
+	public float readFloat() {
+		float value = getFloat(readerIndex);
+		readerIndex += Buffer.FOUR_BYTES;
+		return value;
+	}
+
+	@Override
+	public long readLong() {
+		long value = getLong(readerIndex);
+		readerIndex += Buffer.EIGHT_BYTES;
+		return value;
+	}
+
+	@Override
+	public double readDouble() {
+		double value = getDouble(readerIndex);
+		readerIndex += Buffer.EIGHT_BYTES;
+		return value;
+	}
+
+	@Override
+	public void readBytes(byte[] dst, int off, int len) {
+		getBytes(readerIndex, dst, off, len);
+		readerIndex += len;
+	}
+
+	@Override
+	public void writeByte(byte value) {
+		ensureWritable(Buffer.BYTE);
+		setByte(writerIndex++, value);
+	}
+
+	@Override
+	public void writeShort(short value) {
+		ensureWritable(Buffer.TWO_BYTES);
+		setShort(writerIndex, value);
+		writerIndex += Buffer.TWO_BYTES;
+	}
+
+	@Override
+	public void writeInt(int value) {
+		ensureWritable(Buffer.FOUR_BYTES);
+		setInt(writerIndex, value);
+		writerIndex += Buffer.FOUR_BYTES;
+	}
+
+	@Override
+	public void writeFloat(float value) {
+		ensureWritable(Buffer.FOUR_BYTES);
+		setFloat(writerIndex, value);
+		writerIndex += Buffer.FOUR_BYTES;
+	}
+
+	@Override
+	public void writeLong(long value) {
+		ensureWritable(Buffer.EIGHT_BYTES);
+		setLong(writerIndex, value);
+		writerIndex += Buffer.EIGHT_BYTES;
+	}
+
+	@Override
+	public void writeDouble(double value) {
+		ensureWritable(Buffer.EIGHT_BYTES);
+		setDouble(writerIndex, value);
+		writerIndex += Buffer.EIGHT_BYTES;
+	}
+
+	@Override
+	public void writeBytes(byte[] src, int off, int len) {
+		ensureWritable(len);
+		setBytes(writerIndex, src, off, len);
+		writerIndex += len;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#slice(long, int)
+	 */
+	@Override
+	public Buffer slice(long index, int length) {
+		return new SegmentBuffer(segment.asSlice(index, length), null, shared, byteOrder);
+	}
+
+	@Override
+	public long readerIndex() {
+		return readerIndex;
+	}
+
+	@Override
+	public long writerIndex() {
+		return writerIndex;
+	}
+
+	@Override
+	public void setReaderIndex(long index) {
+		checkIndex(index);
+		this.readerIndex = index;
+	}
+
+	@Override
+	public void setWriterIndex(long index) {
+		checkIndex(index);
+		this.writerIndex = index;
+	}
+
+	private void checkIndex(long index) {
+		if (index < 0 || index > capacity) {
+			throw new IndexOutOfBoundsException("index: " + index + ", capacity: " + capacity);
+		}
+	}
+
+	@Override
+	public long readableBytes() {
+		return writerIndex - readerIndex;
+	}
+
+	@Override
+	public long getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public ByteOrder getByteOrder() {
+		return byteOrder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#force()
+	 */
+	@Override
+	public void force() {
+		if (channel != null) {
+			segment.force();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see com.appmanch.commons.buffer.LargeBuffer#force(long, long)
+	 */
+	@Override
+	public void force(long index, long length) {
+		if (channel != null) {
+			segment.asSlice(index, length).force();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (arena != null) {
+				arena.close();
+				arena = null;
+			}
+			segment = MemorySegment.NULL;
+			capacity = 0;
+		} finally {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+
+}
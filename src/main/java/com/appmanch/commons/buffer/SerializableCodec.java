@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import com.appmanch.commons.utils.ByteUtils;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+
+/**
+ * Fallback {@link BufferCodec} using the Java serialization. The serialized
+ * form is written straight to the buffer preceded by its length.
+ *
+ * @param <T> type of the objects.
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class SerializableCodec<T> implements BufferCodec<T> {
+
+	static final SerializableCodec<Serializable> INSTANCE = new SerializableCodec<>(Serializable.class);
+
+	private final Class<T> type;
+
+	SerializableCodec(Class<T> type) {
+		this.type = type;
+	}
+
+	@Override
+	public Class<T> getType() {
+		return type;
+	}
+
+	@Override
+	public void encode(T object, Buffer buffer) {
+		if (object != null && !(object instanceof Serializable)) {
+			throw new IllegalArgumentException(object.getClass().getName() + " is not serializable");
+		}
+		int lengthIndex = buffer.writerIndex();
+		buffer.writeInt(0);
+		try {
+			int length = ByteUtils.serialize((Serializable) object, buffer);
+			buffer.setInt(lengthIndex, length);
+		} catch (IOException e) {
+			// drop the partially written form
+			buffer.setWriterIndex(lengthIndex);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public T decode(Buffer buffer) {
+		int length = buffer.readInt();
+		try {
+			return type.cast(ByteUtils.deSerialize(buffer, length));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
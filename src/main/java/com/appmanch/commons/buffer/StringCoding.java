@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoding of strings straight into byte arrays for the UTF-8, US-ASCII and
+ * ISO-8859-1 charsets, without a {@link java.nio.charset.CharsetEncoder} or an
+ * intermediate array. Characters that cannot be encoded and unpaired
+ * surrogates are replaced with '?', like {@link String#getBytes(Charset)} does.
+ *
+ * Buffers that are not backed by an accessible array encode into and decode
+ * from the per-thread scratch arrays of {@link com.appmanch.commons.io.IOUtils#scratchBuffers()}.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class StringCoding {
+
+	private static final byte REPLACEMENT = (byte) '?';
+
+	private StringCoding() {
+	}
+
+	/**
+	 * Check if the charset is encoded by this class.
+	 *
+	 * @param charset
+	 * @return
+	 */
+	static boolean isDirect(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)
+				|| StandardCharsets.ISO_8859_1.equals(charset);
+	}
+
+	/**
+	 * Get the number of bytes of the encoded value.
+	 *
+	 * @param value
+	 * @param charset one of the charsets for which {@link #isDirect(Charset)} is
+	 *                true.
+	 * @return
+	 */
+	static int encodedLength(String value, Charset charset) {
+		int length = value.length();
+		int i = 0;
+		// ASCII prefix, one byte per char.
+		while (i < length && value.charAt(i) < 0x80) {
+			i++;
+		}
+		int bytes = i;
+		boolean utf8 = StandardCharsets.UTF_8.equals(charset);
+		for (; i < length; i++) {
+			char c = value.charAt(i);
+			if (!utf8) {
+				// A surrogate pair is replaced by a single byte.
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					i++;
+				}
+				bytes++;
+			} else if (c < 0x80) {
+				bytes++;
+			} else if (c < 0x800) {
+				bytes += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				bytes += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				bytes++;
+			} else {
+				bytes += 3;
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Encode the value into the array starting at offset off. The array must
+	 * have room for {@link #encodedLength(String, Charset)} bytes.
+	 *
+	 * @param value
+	 * @param charset one of the charsets for which {@link #isDirect(Charset)} is
+	 *                true.
+	 * @param dst
+	 * @param off
+	 * @return the number of bytes written.
+	 */
+	static int encode(String value, Charset charset, byte[] dst, int off) {
+		if (StandardCharsets.UTF_8.equals(charset)) {
+			return encodeUtf8(value, dst, off);
+		}
+		int max = StandardCharsets.US_ASCII.equals(charset) ? 0x7f : 0xff;
+		int length = value.length();
+		int position = off;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c <= max) {
+				dst[position++] = (byte) c;
+			} else {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					i++;
+				}
+				dst[position++] = REPLACEMENT;
+			}
+		}
+		return position - off;
+	}
+
+	private static int encodeUtf8(String value, byte[] dst, int off) {
+		int length = value.length();
+		int position = off;
+		int i = 0;
+		// Pure ASCII strings never leave this loop.
+		for (char c; i < length && (c = value.charAt(i)) < 0x80; i++) {
+			dst[position++] = (byte) c;
+		}
+		for (; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				dst[position++] = (byte) c;
+			} else if (c < 0x800) {
+				dst[position++] = (byte) (0xc0 | c >> 6);
+				dst[position++] = (byte) (0x80 | c & 0x3f);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				dst[position++] = (byte) (0xf0 | codePoint >> 18);
+				dst[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+				dst[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+				dst[position++] = (byte) (0x80 | codePoint & 0x3f);
+			} else if (Character.isSurrogate(c)) {
+				dst[position++] = REPLACEMENT;
+			} else {
+				dst[position++] = (byte) (0xe0 | c >> 12);
+				dst[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+				dst[position++] = (byte) (0x80 | c & 0x3f);
+			}
+		}
+		return position - off;
+	}
+
+}
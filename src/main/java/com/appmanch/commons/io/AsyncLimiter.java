@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import com.appmanch.commons.buffer.Buffer;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of asynchronous operations in flight. At most
+ * maxConcurrency operations run at a time, the next ones wait in a queue of at
+ * most maxPending operations and are started as the running ones complete.
+ *
+ * Submitting never blocks. When the queue is full the returned future fails
+ * right away with a {@link RejectedExecutionException}, the caller is expected
+ * to slow down, for example by waiting for some of its futures to complete.
+ * This keeps event loop threads free while loading many small files and bounds
+ * the memory and file handles held by the reads in flight.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class AsyncLimiter {
+
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final ArrayDeque<Task<?>> pending = new ArrayDeque<>();
+    private int active;
+
+    /**
+     * Create a limiter.
+     *
+     * @param maxConcurrency the number of operations that run at a time.
+     * @param maxPending     the number of operations that wait to run.
+     */
+    public AsyncLimiter(final int maxConcurrency, final int maxPending) {
+        if (maxConcurrency < 1 || maxPending < 0) {
+            throw new IllegalArgumentException("maxConcurrency: " + maxConcurrency + ", maxPending: " + maxPending);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Start the operation now if fewer than maxConcurrency operations are
+     * running, or once one of them completes. Cancelling the returned future
+     * cancels the operation, or skips it if it has not started yet.
+     *
+     * @param operation starts the operation and returns its completion.
+     * @return a future completed with the result of the operation, or failed
+     *         with a {@link RejectedExecutionException} if the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(final Supplier<? extends CompletionStage<T>> operation) {
+        Task<T> task = new Task<>(operation);
+        synchronized (this) {
+            if (active < maxConcurrency) {
+                active++;
+            } else if (pending.size() < maxPending) {
+                pending.add(task);
+                return task.result;
+            } else {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "Too many pending operations, running: " + active + ", pending: " + pending.size()));
+            }
+        }
+        if (task.start()) {
+            release();
+        }
+        return task.result;
+    }
+
+    /**
+     * Read the whole file.
+     *
+     * @param path
+     * @return
+     * @see IOUtils#readAllAsync(Path)
+     */
+    public CompletableFuture<byte[]> readAll(final Path path) {
+        return submit(() -> IOUtils.readAllAsync(path));
+    }
+
+    /**
+     * Read at most maxBytes of the file into the buffer.
+     *
+     * @param path
+     * @param position
+     * @param buffer
+     * @param maxBytes
+     * @return
+     * @see IOUtils#readAsync(Path, long, Buffer, int)
+     */
+    public CompletableFuture<Integer> read(final Path path, final long position, final Buffer buffer,
+            final int maxBytes) {
+        return submit(() -> IOUtils.readAsync(path, position, buffer, maxBytes));
+    }
+
+    /**
+     * Copy the source file to the target file.
+     *
+     * @param source
+     * @param target
+     * @return
+     * @see IOUtils#transferAsync(Path, Path)
+     */
+    public CompletableFuture<Long> transfer(final Path source, final Path target) {
+        return submit(() -> IOUtils.transferAsync(source, target));
+    }
+
+    /**
+     * Get the number of operations running.
+     *
+     * @return
+     */
+    public synchronized int getActiveCount() {
+        return active;
+    }
+
+    /**
+     * Get the number of operations waiting to run.
+     *
+     * @return
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Hand the slot of a completed operation to the next pending one. Operations
+     * that complete while being started are handled in the loop instead of
+     * recursively.
+     */
+    private void release() {
+        while (true) {
+            Task<?> next;
+            synchronized (this) {
+                next = pending.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            if (!next.start()) {
+                return;
+            }
+        }
+    }
+
+    private final class Task<T> {
+
+        private final Supplier<? extends CompletionStage<T>> operation;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(final Supplier<? extends CompletionStage<T>> operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Start the operation.
+         *
+         * @return true if the operation is already complete and its slot free.
+         */
+        private boolean start() {
+            if (result.isDone()) {
+                // cancelled while pending
+                return true;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = operation.get().toCompletableFuture();
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return true;
+            }
+            if (future.isDone()) {
+                future.whenComplete(this::relay);
+                return true;
+            }
+            result.whenComplete((value, e) -> {
+                if (result.isCancelled()) {
+                    future.cancel(false);
+                }
+            });
+            future.whenComplete((value, e) -> {
+                // free the slot first, a caller may submit again on completion
+                release();
+                relay(value, e);
+            });
+            return false;
+        }
+
+        private void relay(final T value, final Throwable e) {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import com.appmanch.commons.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An {@link InputStream} reading the readable bytes of a {@link Buffer}. Reads
+ * advance the reader index of the buffer and go straight to the buffer, there
+ * is no intermediate array. {@link #transferTo(OutputStream)} writes from the
+ * memory of the buffer, into the buffer of a {@link BufferOutputStream} without
+ * going through an array at all.
+ *
+ * The stream ends at the writer index of the buffer, or after the specified
+ * length. It supports {@link #mark(int)} at no cost.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class BufferInputStream extends InputStream implements Sizeable {
+
+    private final Buffer buffer;
+    private final int limit;
+    private final boolean releaseOnClose;
+    private int mark;
+    private boolean closed;
+
+    /**
+     * Create a stream reading the buffer up to its writer index.
+     *
+     * @param buffer
+     */
+    public BufferInputStream(Buffer buffer) {
+        this(buffer, -1, false);
+    }
+
+    /**
+     * Create a stream reading length bytes of the buffer.
+     *
+     * @param buffer
+     * @param length
+     */
+    public BufferInputStream(Buffer buffer, int length) {
+        this(buffer, length, false);
+    }
+
+    /**
+     * Create a stream reading length bytes of the buffer, or up to its writer
+     * index if length is negative.
+     *
+     * @param buffer
+     * @param length
+     * @param releaseOnClose true to release the buffer when the stream is closed.
+     */
+    public BufferInputStream(Buffer buffer, int length, boolean releaseOnClose) {
+        this.buffer = Objects.requireNonNull(buffer);
+        if (length > buffer.readableBytes()) {
+            throw new IndexOutOfBoundsException(
+                    "length: " + length + ", readableBytes: " + buffer.readableBytes());
+        }
+        this.limit = length < 0 ? -1 : buffer.readerIndex() + length;
+        this.releaseOnClose = releaseOnClose;
+        this.mark = buffer.readerIndex();
+    }
+
+    /**
+     * Get the buffer read by the stream.
+     *
+     * @return
+     */
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    private int remaining() {
+        return limit < 0 ? buffer.readableBytes() : limit - buffer.readerIndex();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#read()
+     */
+    @Override
+    public int read() {
+        return remaining() > 0 ? buffer.readByte() & 0xFF : -1;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        int length = Math.min(len, remaining());
+        if (length <= 0) {
+            return -1;
+        }
+        buffer.readBytes(b, off, length);
+        return length;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#readAllBytes()
+     */
+    @Override
+    public byte[] readAllBytes() {
+        return buffer.readBytes(Math.max(0, remaining()));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#skip(long)
+     */
+    @Override
+    public long skip(long n) {
+        int length = (int) Math.min(Math.max(n, 0), Math.max(0, remaining()));
+        buffer.seekReaderIndex(length);
+        return length;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#available()
+     */
+    @Override
+    public int available() {
+        return Math.max(0, remaining());
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.appmanch.commons.io.Sizeable#size()
+     */
+    @Override
+    public long size() {
+        return available();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#transferTo(java.io.OutputStream)
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        return transferTo(out, Long.MAX_VALUE);
+    }
+
+    /**
+     * Transfer at most length bytes to the output stream.
+     *
+     * @param out
+     * @param length
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public long transferTo(OutputStream out, long length) throws IOException {
+        int count = (int) Math.min(Math.max(0, remaining()), length);
+        if (count == 0) {
+            return 0;
+        }
+        if (out instanceof BufferOutputStream) {
+            return buffer.transferTo(((BufferOutputStream) out).getBuffer(), count);
+        }
+        return buffer.writeTo(out, count);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        mark = buffer.readerIndex();
+    }
+
+    @Override
+    public void reset() {
+        buffer.setReaderIndex(mark);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.InputStream#close()
+     */
+    @Override
+    public void close() {
+        if (releaseOnClose && !closed) {
+            closed = true;
+            buffer.release();
+        }
+    }
+
+}
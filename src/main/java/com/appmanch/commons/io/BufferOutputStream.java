@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import com.appmanch.commons.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * An {@link OutputStream} writing to a {@link Buffer} at its writer index.
+ * Writes go straight to the buffer, a dynamic buffer grows as needed and a
+ * buffer with a fixed capacity fails with an {@link IndexOutOfBoundsException}
+ * when it is full. {@link #transferFrom(InputStream)} lets the input stream
+ * read into the memory of the buffer.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class BufferOutputStream extends OutputStream {
+
+    private final Buffer buffer;
+    private final boolean releaseOnClose;
+    private boolean closed;
+
+    /**
+     * Create a stream writing to the buffer.
+     *
+     * @param buffer
+     */
+    public BufferOutputStream(Buffer buffer) {
+        this(buffer, false);
+    }
+
+    /**
+     * Create a stream writing to the buffer.
+     *
+     * @param buffer
+     * @param releaseOnClose true to release the buffer when the stream is closed.
+     */
+    public BufferOutputStream(Buffer buffer, boolean releaseOnClose) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.releaseOnClose = releaseOnClose;
+    }
+
+    /**
+     * Get the buffer written by the stream.
+     *
+     * @return
+     */
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.OutputStream#write(int)
+     */
+    @Override
+    public void write(int b) {
+        buffer.writeByte((byte) b);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        buffer.writeBytes(b, off, len);
+    }
+
+    /**
+     * Read the input stream until its end into the buffer.
+     *
+     * @param inputStream
+     * @return the number of bytes read.
+     * @throws IOException
+     * @see IOUtils#transfer(InputStream, Buffer)
+     */
+    public long transferFrom(InputStream inputStream) throws IOException {
+        return IOUtils.transfer(inputStream, buffer);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.OutputStream#close()
+     */
+    @Override
+    public void close() {
+        if (releaseOnClose && !closed) {
+            closed = true;
+            buffer.release();
+        }
+    }
+
+}
@@ -15,46 +15,81 @@
  */
 package com.appmanch.commons.io;
 
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.Buffers;
+import com.appmanch.commons.buffer.CompositeBuffer;
+
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.appmanch.commons.io.StorageUnit.MB;
 
 /**
+ * An {@link OutputStream} that keeps the bytes written in memory. The bytes are
+ * kept in a list of chunks, each new chunk is as large as all the bytes written
+ * so far up to 1 {@link StorageUnit#MB}, so the stream grows geometrically and
+ * the bytes already written are never copied again.
+ *
+ * The content can be handed off without copy with {@link #toBuffer()},
+ * {@link #writeTo(OutputStream)} and {@link #writeTo(WritableByteChannel)}.
+ * After {@link #reset()} the chunks are reused for the next content.
+ *
  * @author Nanda Gopalan
+ * @version 1.0.1
  * @since 1.0
  */
 public class ByteArrayOutputStream extends OutputStream {
 
-    byte[] data;
-    private static int DEFAULT_SIZE = 1024;
-    private static int DEFAILT_INCREMENT = 1024;
-    private int size;
-    private int increment;
-    private int current = 0;
-    private int remaining = 0;
+    private static final int DEFAULT_SIZE = 1024;
+    private static final int DEFAULT_INCREMENT = 1024;
+    /**
+     * Largest chunk allocated when the stream grows.
+     */
+    private static final int MAX_CHUNK_SIZE = (int) MB.getSize();
+
+    private final int increment;
+    private final List<byte[]> chunks = new ArrayList<>();
+    private byte[] chunk;
+    private int chunkIndex;
+    private int position;
+    private int count;
 
     /**
-     *
+     * Create a stream with a first chunk of 1024 bytes.
      */
     public ByteArrayOutputStream() {
-        this(DEFAULT_SIZE, DEFAILT_INCREMENT);
+        this(DEFAULT_SIZE, DEFAULT_INCREMENT);
     }
 
     /**
+     * Create a stream with a first chunk of the specified size.
+     *
      * @param size
      */
     public ByteArrayOutputStream(int size) {
-        this(size, DEFAILT_INCREMENT);
+        this(size, DEFAULT_INCREMENT);
     }
 
     /**
+     * Create a stream with a first chunk of the specified size.
+     *
      * @param size
-     * @param increment
+     * @param increment the smallest size of the chunks added when the stream
+     *                  grows.
      */
     public ByteArrayOutputStream(int size, int increment) {
-        this.size = size;
+        if (size < 0 || increment <= 0) {
+            throw new IllegalArgumentException("size: " + size + ", increment: " + increment);
+        }
         this.increment = increment;
-        this.data = new byte[this.size];
-        this.remaining = size;
+        this.chunk = new byte[size];
+        chunks.add(chunk);
     }
 
     /*
@@ -63,23 +98,165 @@ public class ByteArrayOutputStream extends OutputStream {
      * @see java.io.OutputStream#write(int)
      */
     @Override
-    public void write(int b) throws IOException {
-        if (remaining - 1 == 0) {
-            byte[] dataTmp = new byte[current + increment + 1];
-            System.arraycopy(data, 0, dataTmp, 0, current);
-            remaining = size - 1;
-            this.data = dataTmp;
+    public void write(int b) {
+        if (position == chunk.length) {
+            nextChunk(1);
         }
-        this.data[current++] = (byte) b;
+        chunk[position++] = (byte) b;
+        count++;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len > Integer.MAX_VALUE - count) {
+            throw new OutOfMemoryError("Stream size exceeds " + Integer.MAX_VALUE + " bytes");
+        }
+        while (len > 0) {
+            if (position == chunk.length) {
+                nextChunk(len);
+            }
+            int length = Math.min(len, chunk.length - position);
+            System.arraycopy(b, off, chunk, position, length);
+            position += length;
+            count += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    /**
+     * Move to the next chunk, reusing the chunks kept by {@link #reset()}.
+     *
+     * @param needed the bytes left to write.
+     */
+    private void nextChunk(int needed) {
+        chunkIndex++;
+        if (chunkIndex < chunks.size()) {
+            chunk = chunks.get(chunkIndex);
+        } else {
+            int size = Math.max(increment, Math.min(Math.max(count, needed), MAX_CHUNK_SIZE));
+            chunk = new byte[size];
+            chunks.add(chunk);
+        }
+        position = 0;
+    }
+
+    /**
+     * Get the number of bytes written.
+     *
+     * @return
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discard the content, the chunks are kept and reused. Buffers returned by
+     * {@link #toBuffer()} share the chunks and must not be used afterwards.
+     */
+    public void reset() {
+        chunkIndex = 0;
+        chunk = chunks.get(0);
+        position = 0;
+        count = 0;
     }
 
     /**
+     * Get a copy of the content.
      *
+     * @return
      */
     public byte[] toByteArray() {
-        byte[] val = new byte[current];
-        System.arraycopy(data, 0, val, 0, current);
+        byte[] val = new byte[count];
+        int offset = 0;
+        for (int i = 0; i < chunkIndex; i++) {
+            byte[] filled = chunks.get(i);
+            System.arraycopy(filled, 0, val, offset, filled.length);
+            offset += filled.length;
+        }
+        System.arraycopy(chunk, 0, val, offset, position);
         return val;
     }
 
+    /**
+     * Get a {@link Buffer} over the content without copy, readable from index 0
+     * to {@link #size()}. A content held by a single chunk is returned as an
+     * in-memory buffer, otherwise as a {@link CompositeBuffer} with one component
+     * per chunk. The buffer shares the chunks of the stream.
+     *
+     * @return
+     */
+    public Buffer toBuffer() {
+        if (chunkIndex == 0) {
+            return wrap(chunk, position);
+        }
+        Buffer[] components = new Buffer[chunkIndex + 1];
+        for (int i = 0; i < chunkIndex; i++) {
+            byte[] filled = chunks.get(i);
+            components[i] = wrap(filled, filled.length);
+        }
+        components[chunkIndex] = wrap(chunk, position);
+        return new CompositeBuffer(components);
+    }
+
+    private static Buffer wrap(byte[] array, int length) {
+        Buffer buffer = Buffers.newInMemory(Buffers.DEFAULT_BYTE_ORDER, array);
+        buffer.setWriterIndex(length);
+        return buffer;
+    }
+
+    /**
+     * Write the content to the output stream, chunk by chunk.
+     *
+     * @param outputStream
+     * @throws IOException
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        for (int i = 0; i < chunkIndex; i++) {
+            byte[] filled = chunks.get(i);
+            outputStream.write(filled, 0, filled.length);
+        }
+        outputStream.write(chunk, 0, position);
+    }
+
+    /**
+     * Write the content to the channel, with gathering writes if the channel
+     * supports them. The channel must be in blocking mode.
+     *
+     * @param channel
+     * @return the number of bytes written.
+     * @throws IOException
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer[] views = new ByteBuffer[chunkIndex + 1];
+        for (int i = 0; i < chunkIndex; i++) {
+            views[i] = ByteBuffer.wrap(chunks.get(i));
+        }
+        views[chunkIndex] = ByteBuffer.wrap(chunk, 0, position);
+        long written = 0;
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+            int first = 0;
+            while (written < count) {
+                written += gatheringChannel.write(views, first, views.length - first);
+                while (first < views.length - 1 && !views[first].hasRemaining()) {
+                    first++;
+                }
+            }
+        } else {
+            for (ByteBuffer view : views) {
+                while (view.hasRemaining()) {
+                    written += channel.write(view);
+                }
+            }
+        }
+        return written;
+    }
+
 }
@@ -0,0 +1,476 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.appmanch.commons.io.StorageUnit.KB;
+
+/**
+ * Runs blocking IO jobs, each on its own virtual thread, within limits. At
+ * most maxConcurrency jobs run at a time, at most maxConcurrencyPerDevice of
+ * them on the same device, and the scratch arrays of the copies in flight never
+ * add up to more than maxBufferMemory bytes. A job waits for its permits on its
+ * virtual thread, the caller never blocks.
+ *
+ * The limits are taken with {@link Semaphore}s and the copies of
+ * {@link IOUtils} hold no monitor while blocked, so the jobs do not pin their
+ * carrier threads. The scratch arrays come from a shared pool instead of the
+ * thread local arrays of {@link IOUtils}, which a virtual thread would never
+ * reuse.
+ *
+ * The devices of files are told apart by the unix:dev attribute where
+ * available and by their {@link FileStore} otherwise.
+ *
+ * <pre>
+ * try (IOExecutor executor = new IOExecutor(256, 16, 64 * 1024 * 1024)) {
+ *     CompletableFuture&lt;byte[]&gt; content = executor.getBytes(path);
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class IOExecutor implements AutoCloseable {
+
+    /**
+     * Largest scratch array kept in the pool, the largest chunk of the copies of
+     * {@link IOUtils}.
+     */
+    private static final int MAX_SCRATCH_SIZE = 256 * (int) KB.getSize();
+
+    private final int maxConcurrencyPerDevice;
+    private final int maxBufferMemory;
+    private final Semaphore concurrency;
+    private final Semaphore memory;
+    private final ScratchBuffers scratchBuffers;
+    private final ConcurrentMap<Object, Device> devices = new ConcurrentHashMap<>();
+    private final AtomicLong deviceCounter = new AtomicLong();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Create an executor.
+     *
+     * @param maxConcurrency          the number of jobs running at a time.
+     * @param maxConcurrencyPerDevice the number of jobs running at a time on the
+     *                                files of one device.
+     * @param maxBufferMemory         the bytes of the scratch arrays in use by
+     *                                the jobs at a time.
+     */
+    public IOExecutor(int maxConcurrency, int maxConcurrencyPerDevice, int maxBufferMemory) {
+        if (maxConcurrency <= 0 || maxConcurrencyPerDevice <= 0 || maxBufferMemory < KB.getSize()) {
+            throw new IllegalArgumentException("maxConcurrency: " + maxConcurrency + ", maxConcurrencyPerDevice: "
+                    + maxConcurrencyPerDevice + ", maxBufferMemory: " + maxBufferMemory);
+        }
+        this.maxConcurrencyPerDevice = maxConcurrencyPerDevice;
+        this.maxBufferMemory = maxBufferMemory;
+        this.concurrency = new Semaphore(maxConcurrency, true);
+        this.memory = new Semaphore(maxBufferMemory, true);
+        this.scratchBuffers = new BoundedScratchBuffers(
+                ScratchBuffers.pooled(Math.min(maxConcurrency, Math.max(1, maxBufferMemory / MAX_SCRATCH_SIZE)),
+                        MAX_SCRATCH_SIZE));
+    }
+
+    /**
+     * Read the whole file.
+     *
+     * @param path
+     * @return a future completed with the content of the file.
+     */
+    public CompletableFuture<byte[]> getBytes(final Path path) {
+        return submit(new Path[] { path }, () -> {
+            // The file is read into its array a chunk at a time, only the chunk in
+            // flight counts against the memory whatever the size of the file. Files
+            // that report no size, like /proc files, are read by default chunks.
+            long size = Files.size(path);
+            long hint = size > 0 ? size : IOUtils.DEFAULT_BUFFER_SIZE;
+            int chunkSize = (int) Math.max(1, Math.min(hint, Math.min(MAX_SCRATCH_SIZE, maxBufferMemory)));
+            memory.acquire(chunkSize);
+            try {
+                return IOUtils.readAll(path, chunkSize);
+            } finally {
+                memory.release(chunkSize);
+            }
+        });
+    }
+
+    /**
+     * Read the input stream until its end. The stream is not closed.
+     *
+     * @param inputStream
+     * @return a future completed with the bytes read.
+     * @see IOUtils#getBytes(InputStream)
+     */
+    public CompletableFuture<byte[]> getBytes(final InputStream inputStream) {
+        return submit(() -> {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            IOUtils.transfer(inputStream, outputStream, scratchBuffers);
+            return outputStream.toByteArray();
+        });
+    }
+
+    /**
+     * Copy the source file to the target file, which is created or truncated.
+     * The job counts against the limits of the devices of both files.
+     *
+     * @param source
+     * @param target
+     * @return a future completed with the number of bytes copied.
+     * @see IOUtils#transfer(Path, Path)
+     */
+    public CompletableFuture<Long> transfer(final Path source, final Path target) {
+        return submit(new Path[] { source, target }, () -> IOUtils.transfer(source, target));
+    }
+
+    /**
+     * Transfer the input stream until its end to the output stream. The streams
+     * are not closed.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @return a future completed with the number of bytes transferred.
+     * @see IOUtils#transfer(InputStream, OutputStream, ScratchBuffers)
+     */
+    public CompletableFuture<Long> transfer(final InputStream inputStream, final OutputStream outputStream) {
+        return submit(() -> IOUtils.transfer(inputStream, outputStream, scratchBuffers));
+    }
+
+    /**
+     * Run a job that does not touch files, or whose files are not known, within
+     * the overall limit only. Copies should use {@link #getScratchBuffers()} to
+     * stay within the memory limit.
+     *
+     * @param job
+     * @return a future completed with the result of the job.
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> job) {
+        return submit(new Path[0], job);
+    }
+
+    /**
+     * Run a job on the files, within the overall limit and the limits of the
+     * devices of the files. A file that does not exist yet counts against the
+     * device of its directory.
+     *
+     * @param paths the files used by the job.
+     * @param job
+     * @return a future completed with the result of the job.
+     */
+    public <T> CompletableFuture<T> submit(final Path[] paths, final Callable<T> job) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final long submitted = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> run(paths, job, result, submitted));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Wait for the permits, run the job and give the permits back before
+     * completing the result so that the metrics and the permits are up to date
+     * when the caller sees the result.
+     */
+    private <T> void run(final Path[] paths, final Callable<T> job, final CompletableFuture<T> result,
+            final long submitted) {
+        Device[] required = null;
+        int held = 0;
+        boolean running = false;
+        T value = null;
+        Throwable failure = null;
+        try {
+            required = devices(paths);
+            // The device permits come first so that a job waiting for a busy device
+            // does not hold a permit that the jobs on the other devices could use.
+            for (; held < required.length; held++) {
+                required[held].permits.acquire();
+            }
+            concurrency.acquire();
+            running = true;
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            queueNanos.add(System.nanoTime() - submitted);
+            if (!result.isDone()) {
+                // not cancelled while waiting
+                value = job.call();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = running ? e : new InterruptedIOException("Interrupted while waiting to run");
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            while (held > 0) {
+                required[--held].permits.release();
+            }
+            if (running) {
+                concurrency.release();
+                active.decrementAndGet();
+            } else {
+                queued.decrementAndGet();
+            }
+            long latency = System.nanoTime() - submitted;
+            latencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            if (failure != null || result.isDone()) {
+                failed.increment();
+            } else {
+                completed.increment();
+            }
+        }
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(value);
+        }
+    }
+
+    /**
+     * Get the devices of the files, each once and in the order they are locked
+     * in so that two jobs never wait on each other.
+     *
+     * @param paths
+     * @return
+     * @throws IOException
+     */
+    private Device[] devices(final Path[] paths) throws IOException {
+        Device[] required = new Device[paths.length];
+        int count = 0;
+        for (Path path : paths) {
+            Device device = device(path);
+            boolean seen = false;
+            for (int i = 0; i < count; i++) {
+                seen |= required[i] == device;
+            }
+            if (!seen) {
+                required[count++] = device;
+            }
+        }
+        required = Arrays.copyOf(required, count);
+        Arrays.sort(required, Comparator.comparingLong(device -> device.order));
+        return required;
+    }
+
+    private Device device(final Path path) throws IOException {
+        Path existing = path.toAbsolutePath();
+        while (!Files.exists(existing) && existing.getParent() != null) {
+            existing = existing.getParent();
+        }
+        Object key;
+        try {
+            key = Files.getAttribute(existing, "unix:dev");
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            key = Files.getFileStore(existing);
+        }
+        return devices.computeIfAbsent(key, k -> new Device(deviceCounter.getAndIncrement()));
+    }
+
+    /**
+     * Get the scratch arrays of the executor, bounded by maxBufferMemory. A job
+     * waits on acquire while the arrays in use take all the memory.
+     *
+     * @return
+     */
+    public ScratchBuffers getScratchBuffers() {
+        return scratchBuffers;
+    }
+
+    /**
+     * Get the number of jobs waiting for their permits.
+     *
+     * @return
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Get the number of jobs running.
+     *
+     * @return
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Get the number of jobs that completed normally.
+     *
+     * @return
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Get the number of jobs that failed or were cancelled.
+     *
+     * @return
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Get the bytes of the scratch arrays in use.
+     *
+     * @return
+     */
+    public int getBufferMemoryInUse() {
+        return maxBufferMemory - memory.availablePermits();
+    }
+
+    /**
+     * Get the average time the finished jobs waited for their permits.
+     *
+     * @param unit
+     * @return
+     */
+    public long getAverageQueueTime(TimeUnit unit) {
+        return average(queueNanos, unit);
+    }
+
+    /**
+     * Get the average time from submission to completion of the finished jobs.
+     *
+     * @param unit
+     * @return
+     */
+    public long getAverageLatency(TimeUnit unit) {
+        return average(latencyNanos, unit);
+    }
+
+    /**
+     * Get the longest time from submission to completion of a job.
+     *
+     * @param unit
+     * @return
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private long average(LongAdder nanos, TimeUnit unit) {
+        long finished = completed.sum() + failed.sum();
+        return finished == 0 ? 0 : unit.convert(nanos.sum() / finished, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop accepting jobs and wait for the submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    @Override
+    public String toString() {
+        return "IOExecutor[queued=" + getQueueDepth() + ", active=" + getActiveCount() + ", completed="
+                + getCompletedCount() + ", failed=" + getFailedCount() + ", averageLatency="
+                + getAverageLatency(TimeUnit.MICROSECONDS) + "us]";
+    }
+
+    private final class Device {
+
+        private final long order;
+        private final Semaphore permits = new Semaphore(maxConcurrencyPerDevice, true);
+
+        private Device(long order) {
+            this.order = order;
+        }
+
+    }
+
+    /**
+     * Scratch arrays that take their size from the memory of the executor. An
+     * array is accounted for its full length, a pooled array longer than the size
+     * asked for is only used if the extra memory is available right away.
+     */
+    private final class BoundedScratchBuffers implements ScratchBuffers {
+
+        private final ScratchBuffers pool;
+
+        private BoundedScratchBuffers(ScratchBuffers pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public byte[] acquire(int size) {
+            int permits = permits(size);
+            try {
+                memory.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for memory"));
+            }
+            byte[] buffer = pool.acquire(size);
+            int extra = permits(buffer.length) - permits;
+            if (extra > 0 && !memory.tryAcquire(extra)) {
+                pool.release(buffer);
+                buffer = new byte[size];
+            }
+            return buffer;
+        }
+
+        @Override
+        public void release(byte[] buffer) {
+            if (buffer != null) {
+                pool.release(buffer);
+                memory.release(permits(buffer.length));
+            }
+        }
+
+        private int permits(int size) {
+            return Math.min(size, maxBufferMemory);
+        }
+
+    }
+
+}
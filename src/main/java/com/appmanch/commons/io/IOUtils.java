@@ -15,11 +15,27 @@
  */
 package com.appmanch.commons.io;
 
+import com.appmanch.commons.buffer.Buffer;
+
 import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import static com.appmanch.commons.io.StorageUnit.KB;
 
@@ -37,6 +53,28 @@ public final class IOUtils {
      * {@link StorageUnit#KB}
      */
     protected static int DEFAULT_BUFFER_SIZE = 4 * (int) KB.getSize();
+    /**
+     * Smallest chunk of a copy through scratch arrays.
+     */
+    private static final int MIN_CHUNK_SIZE = 512;
+    /**
+     * Largest chunk of a copy through scratch arrays. Larger copies gain little
+     * from larger chunks, the copies of files go through their channels.
+     */
+    private static final int MAX_CHUNK_SIZE = 256 * (int) KB.getSize();
+    /**
+     * Chunk of a copy between channels that are not files.
+     */
+    private static final int CHANNEL_CHUNK_SIZE = 64 * (int) KB.getSize();
+    /**
+     * Scratch arrays used when none are supplied, one array of up to
+     * {@link #MAX_CHUNK_SIZE} is kept per thread.
+     */
+    private static final ScratchBuffers SCRATCH_BUFFERS = ScratchBuffers.threadLocal(MAX_CHUNK_SIZE);
+    /**
+     * Largest array the virtual machines allocate.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
     /**
      * Read Write Mode
      */
@@ -50,6 +88,17 @@ public final class IOUtils {
      */
     public static String WRITE_MODE = "r";
 
+    /**
+     * Get the per-thread scratch arrays used by the copies of this class when none
+     * are supplied. Other short lived encodings and copies share them rather than
+     * keeping their own per-thread arrays.
+     *
+     * @return
+     */
+    public static ScratchBuffers scratchBuffers() {
+        return SCRATCH_BUFFERS;
+    }
+
     /**
      * Close the {@link Closeable} and suppress any exception.
      *
@@ -134,40 +183,106 @@ public final class IOUtils {
      * @param length
      * @return
      * @throws IOException
+     * @see #transfer(InputStream, OutputStream, long)
      */
     public static long transfer(final InputStream inputStream, final OutputStream outputStream, final int length)
             throws IOException {
-        long transferredBytes = 0;
-        int remainingBytes = length;
-        byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-
-        try {
-            for (int i = 0; (i != -1); ) {
-                if (remainingBytes > DEFAULT_BUFFER_SIZE) {
-                    i = inputStream.read(buffer);
-                    transferredBytes += i;
-                    outputStream.write(buffer, 0, i);
-                } else {
-                    int readBytes = inputStream.read(buffer, 0, length);
-                    transferredBytes += readBytes;
-                    outputStream.write(buffer, 0, readBytes);
-                    break;
-                }
-                remainingBytes -= i;
+        return transfer(inputStream, outputStream, (long) length);
+    }
 
-            }
+    /**
+     * Transfer at most length bytes from InputStream to OutputStream, less if
+     * the input stream ends first.<br>
+     * This method does not close the streams. The calling method should take
+     * care of closing the resources. When both streams are file streams the
+     * bytes are transferred between their channels without going through the
+     * heap.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @param length
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final InputStream inputStream, final OutputStream outputStream, final long length)
+            throws IOException {
+        return transfer(inputStream, outputStream, length, SCRATCH_BUFFERS);
+    }
 
-        } finally {
-            buffer = null;
+    /**
+     * Transfer at most length bytes from InputStream to OutputStream using the
+     * scratch arrays supplied.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @param length
+     * @param scratchBuffers
+     * @return the number of bytes transferred.
+     * @throws IOException
+     * @see #transfer(InputStream, OutputStream, long)
+     */
+    public static long transfer(final InputStream inputStream, final OutputStream outputStream, final long length,
+            final ScratchBuffers scratchBuffers) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid length " + length);
         }
+        if (inputStream instanceof FileInputStream && outputStream instanceof FileOutputStream) {
+            return transfer(((FileInputStream) inputStream).getChannel(),
+                    ((FileOutputStream) outputStream).getChannel(), length);
+        }
+        if (inputStream instanceof BufferInputStream) {
+            return ((BufferInputStream) inputStream).transferTo(outputStream, length);
+        }
+        if (outputStream instanceof BufferOutputStream) {
+            return read(inputStream, ((BufferOutputStream) outputStream).getBuffer(), length);
+        }
+        return copy(inputStream, outputStream, length, scratchBuffers);
+    }
+
+    /**
+     * Transfer exactly length bytes from InputStream to OutputStream.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @param length
+     * @return the number of bytes transferred, always length.
+     * @throws EOFException if the input stream ends before length bytes are
+     *                      transferred.
+     * @throws IOException
+     */
+    public static long transferExactly(final InputStream inputStream, final OutputStream outputStream,
+            final long length) throws IOException {
+        return transferExactly(inputStream, outputStream, length, SCRATCH_BUFFERS);
+    }
 
+    /**
+     * Transfer exactly length bytes from InputStream to OutputStream using the
+     * scratch arrays supplied.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @param length
+     * @param scratchBuffers
+     * @return the number of bytes transferred, always length.
+     * @throws EOFException if the input stream ends before length bytes are
+     *                      transferred.
+     * @throws IOException
+     */
+    public static long transferExactly(final InputStream inputStream, final OutputStream outputStream,
+            final long length, final ScratchBuffers scratchBuffers) throws IOException {
+        long transferredBytes = transfer(inputStream, outputStream, length, scratchBuffers);
+        if (transferredBytes < length) {
+            throw new EOFException("Expected " + length + " bytes, the stream ended after " + transferredBytes);
+        }
         return transferredBytes;
     }
 
     /**
      * Transfer from InputStream to OutputStream for the entire length of the
      * input stream<br This method does not close the streams. The calling
-     * method should take care of closing the resources.
+     * method should take care of closing the resources. When both streams are
+     * file streams the bytes are transferred between their channels without
+     * going through the heap.
      *
      * @param inputStream
      * @param outputStream
@@ -176,22 +291,697 @@ public final class IOUtils {
      */
 
     public static long transfer(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        return transfer(inputStream, outputStream, SCRATCH_BUFFERS);
+    }
+
+    /**
+     * Transfer from InputStream to OutputStream for the entire length of the
+     * input stream using the scratch arrays supplied.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @param scratchBuffers
+     * @return
+     * @throws IOException
+     * @see #transfer(InputStream, OutputStream)
+     */
+    public static long transfer(final InputStream inputStream, final OutputStream outputStream,
+            final ScratchBuffers scratchBuffers) throws IOException {
+        try {
+            if (inputStream instanceof FileInputStream && outputStream instanceof FileOutputStream) {
+                return transfer(((FileInputStream) inputStream).getChannel(),
+                        ((FileOutputStream) outputStream).getChannel());
+            }
+            if (inputStream instanceof BufferInputStream) {
+                return ((BufferInputStream) inputStream).transferTo(outputStream);
+            }
+            if (outputStream instanceof BufferOutputStream) {
+                return transfer(inputStream, ((BufferOutputStream) outputStream).getBuffer());
+            }
+            return copy(inputStream, outputStream, Long.MAX_VALUE, scratchBuffers);
+        } finally {
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Copy at most length bytes through scratch arrays. The first chunk is sized
+     * from the length or the {@link Sizeable} size of the input stream. While
+     * reads fill the whole chunk the source keeps up with the copy, the chunk is
+     * doubled up to {@link #MAX_CHUNK_SIZE} to make fewer and larger calls.
+     *
+     * @param inputStream
+     * @param outputStream
+     * @param length
+     * @param scratchBuffers
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    private static long copy(final InputStream inputStream, final OutputStream outputStream, final long length,
+            final ScratchBuffers scratchBuffers) throws IOException {
         long transferredBytes = 0;
-        int i = -1;
-        byte[] bytes = new byte[DEFAULT_BUFFER_SIZE];
+        byte[] buffer = scratchBuffers.acquire(chunkSize(inputStream, length));
         try {
+            while (transferredBytes < length) {
+                int readBytes = inputStream.read(buffer, 0, (int) Math.min(buffer.length, length - transferredBytes));
+                if (readBytes == -1) {
+                    break;
+                }
+                outputStream.write(buffer, 0, readBytes);
+                transferredBytes += readBytes;
+                if (readBytes == buffer.length && buffer.length < MAX_CHUNK_SIZE
+                        && length - transferredBytes > buffer.length) {
+                    int newSize = Math.min(buffer.length << 1, MAX_CHUNK_SIZE);
+                    scratchBuffers.release(buffer);
+                    buffer = scratchBuffers.acquire(newSize);
+                }
+            }
+        } finally {
+            scratchBuffers.release(buffer);
+        }
+        return transferredBytes;
+    }
+
+    /**
+     * Read the input stream until its end into the buffer at its writer index.
+     * The stream reads straight into the memory of the buffer, a dynamic buffer
+     * grows as needed. The read stops when the buffer is full, the rest of the
+     * stream is left unread.
+     *
+     * @param inputStream
+     * @param buffer
+     * @return the number of bytes read.
+     * @throws IOException
+     */
+    public static long transfer(final InputStream inputStream, final Buffer buffer) throws IOException {
+        return read(inputStream, buffer, Long.MAX_VALUE);
+    }
 
-            while ((i = inputStream.read(bytes)) != -1) {
-                outputStream.write(bytes, 0, i);
-                transferredBytes += i;
+    /**
+     * Write the readable bytes of the buffer to the output stream and advance
+     * its reader index. Heap buffers are written straight from their array.
+     *
+     * @param buffer
+     * @param outputStream
+     * @return the number of bytes written.
+     * @throws IOException
+     */
+    public static long transfer(final Buffer buffer, final OutputStream outputStream) throws IOException {
+        return buffer.writeTo(outputStream, buffer.readableBytes());
+    }
+
+    /**
+     * Read at most length bytes into the buffer. The chunk read at a time grows
+     * like the chunk of a copy through scratch arrays. Nothing is read from the
+     * stream once the buffer is full and cannot grow.
+     *
+     * @param inputStream
+     * @param buffer
+     * @param length
+     * @return the number of bytes read.
+     * @throws IOException
+     */
+    private static long read(final InputStream inputStream, final Buffer buffer, final long length)
+            throws IOException {
+        long transferredBytes = 0;
+        int chunk = chunkSize(inputStream, length);
+        while (transferredBytes < length) {
+            int maxBytes = (int) Math.min(chunk, length - transferredBytes);
+            buffer.ensureWritable(Math.min(maxBytes, buffer.getMaxCapacity() - buffer.writerIndex()));
+            if (buffer.writableBytes() == 0) {
+                break;
+            }
+            int readBytes = buffer.readFrom(inputStream, maxBytes);
+            if (readBytes == -1) {
+                break;
             }
-            return transferredBytes;
+            transferredBytes += readBytes;
+            if (readBytes == chunk && chunk < MAX_CHUNK_SIZE) {
+                chunk = Math.min(chunk << 1, MAX_CHUNK_SIZE);
+            }
+        }
+        return transferredBytes;
+    }
+
+    /**
+     * Get the size of the first chunk of a copy of at most length bytes.
+     *
+     * @param source
+     * @param length
+     * @return
+     */
+    private static int chunkSize(final Object source, final long length) {
+        long hint = length;
+        if (source instanceof Sizeable) {
+            hint = Math.min(hint, ((Sizeable) source).size());
+        }
+        if (hint == Long.MAX_VALUE) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+        return (int) Math.max(MIN_CHUNK_SIZE, Math.min(hint, MAX_CHUNK_SIZE));
+    }
+
+    /**
+     * Copy the source file to the target file, which is created or truncated.
+     * The copy is done by the operating system (sendfile, copy_file_range)
+     * where available.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    public static long transfer(final Path source, final Path target) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return transfer(sourceChannel, targetChannel);
+        }
+    }
+
+    /**
+     * Copy the source file to the target file, which is created or truncated,
+     * with the specified number of threads copying ranges of the file in
+     * parallel on virtual threads.
+     *
+     * @param source
+     * @param target
+     * @param parallelism
+     * @return the number of bytes copied and the time taken.
+     * @throws IOException
+     * @see ParallelCopy
+     */
+    public static TransferStats parallelCopy(final Path source, final Path target, final int parallelism)
+            throws IOException {
+        return new ParallelCopy(source, target).parallelism(parallelism).copy();
+    }
+
+    /**
+     * Transfer the content of the file to the channel, for example a
+     * {@link java.nio.channels.SocketChannel}, without going through the heap.
+     * The channel is not closed.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final Path source, final WritableByteChannel target) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ)) {
+            return transfer(sourceChannel, target);
+        }
+    }
+
+    /**
+     * Transfer the channel until its end of stream to the file, which is created
+     * or truncated. The channel is not closed.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final ReadableByteChannel source, final Path target) throws IOException {
+        try (FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return transfer(source, targetChannel);
+        }
+    }
+
+    /**
+     * Transfer from the position of the source file to its end into the target
+     * file at its position. The positions of both channels are advanced.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final FileChannel source, final FileChannel target) throws IOException {
+        return transfer(source, (WritableByteChannel) target);
+    }
+
+    /**
+     * Transfer at most count bytes from the position of the source file into the
+     * target file at its position. The positions of both channels are advanced.
+     *
+     * @param source
+     * @param target
+     * @param count
+     * @return the number of bytes transferred.
+     * @throws IOException
+     * @see #transfer(FileChannel, WritableByteChannel)
+     */
+    public static long transfer(final FileChannel source, final FileChannel target, final long count)
+            throws IOException {
+        return transfer(source, (WritableByteChannel) target, count);
+    }
+
+    /**
+     * Transfer from the position of the file to its end into the channel with
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. The
+     * position of the file is advanced. The target must be in blocking mode.
+     *
+     * The size of the file only bounds the transferTo calls. Files that report
+     * no size or a stale one, such as /proc files, devices or files that grow
+     * while they are copied, are read on to their end of stream.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final FileChannel source, final WritableByteChannel target) throws IOException {
+        return transfer(source, target, Long.MAX_VALUE);
+    }
+
+    private static long transfer(final FileChannel source, final WritableByteChannel target, final long count)
+            throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count " + count);
+        }
+        long position = source.position();
+        long transferred = transfer(source, position, Math.min(count, Math.max(0, source.size() - position)),
+                target);
+        source.position(position + transferred);
+        if (transferred < count) {
+            transferred += copy(source, target, count - transferred);
+        }
+        return transferred;
+    }
+
+    /**
+     * Transfer count bytes of the file starting at the position into the channel
+     * with {@link FileChannel#transferTo(long, long, WritableByteChannel)}. The
+     * position of the file is not changed. The transfer stops early at the end of
+     * the file. The target must be in blocking mode.
+     *
+     * @param source
+     * @param position
+     * @param count
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final FileChannel source, final long position, final long count,
+            final WritableByteChannel target) throws IOException {
+        checkBlocking(target);
+        long transferred = 0;
+        while (transferred < count) {
+            long n = source.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                // end of file
+                break;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Transfer the channel until its end of stream into the file at its position
+     * with {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}. The
+     * position of the file is advanced. The source must be in blocking mode.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final ReadableByteChannel source, final FileChannel target) throws IOException {
+        long position = target.position();
+        long transferred = transfer(source, target, position, Long.MAX_VALUE - position);
+        target.position(position + transferred);
+        return transferred;
+    }
+
+    /**
+     * Transfer at most count bytes of the channel into the file starting at the
+     * position with {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}.
+     * The position of the file is not changed. The transfer stops early at the end
+     * of stream of the source, which must be in blocking mode.
+     *
+     * @param source
+     * @param target
+     * @param position
+     * @param count
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final ReadableByteChannel source, final FileChannel target, final long position,
+            final long count) throws IOException {
+        checkBlocking(source);
+        long transferred = 0;
+        while (transferred < count) {
+            // transferFrom returns less than requested only at the end of stream
+            long n = target.transferFrom(source, position + transferred,
+                    Math.min(count - transferred, Integer.MAX_VALUE));
+            if (n <= 0) {
+                break;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Transfer the source channel until its end of stream to the target channel.
+     * Files use {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+     * or {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}, other
+     * channels are copied through a buffer. The channels must be in blocking
+     * mode.
+     *
+     * @param source
+     * @param target
+     * @return the number of bytes transferred.
+     * @throws IOException
+     */
+    public static long transfer(final ReadableByteChannel source, final WritableByteChannel target)
+            throws IOException {
+        if (source instanceof FileChannel) {
+            return transfer((FileChannel) source, target);
+        }
+        if (target instanceof FileChannel) {
+            return transfer(source, (FileChannel) target);
+        }
+        checkBlocking(source);
+        checkBlocking(target);
+        return copy(source, target, Long.MAX_VALUE);
+    }
+
+    /**
+     * Copy at most count bytes between the channels through a scratch array,
+     * stopping early at the end of stream of the source.
+     *
+     * @param source
+     * @param target
+     * @param count
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    private static long copy(final ReadableByteChannel source, final WritableByteChannel target, final long count)
+            throws IOException {
+        byte[] array = SCRATCH_BUFFERS.acquire(CHANNEL_CHUNK_SIZE);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(array);
+            long transferred = 0;
+            while (transferred < count) {
+                buffer.limit((int) Math.min(buffer.capacity(), count - transferred));
+                if (source.read(buffer) == -1) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    transferred += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return transferred;
         } finally {
-            outputStream.flush();
-            bytes = null;
+            SCRATCH_BUFFERS.release(array);
+        }
+    }
+
+    /**
+     * Read the whole file straight into the array returned, at most chunkSize
+     * bytes at a time so that the channel never needs a temporary buffer larger
+     * than a chunk. The size of the file only sizes the first array, the file is
+     * read to its end of stream and the array grows when the file turns out to
+     * be larger, like /proc files that report no size or files that grow while
+     * they are read.
+     *
+     * @param path
+     * @param chunkSize
+     * @return the content of the file.
+     * @throws IOException
+     */
+    static byte[] readAll(final Path path, final int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_ARRAY_SIZE) {
+                throw new IOException("File is too large to be read into an array: " + path);
+            }
+            byte[] bytes = new byte[(int) size];
+            ByteBuffer probe = null;
+            int count = 0;
+            while (true) {
+                if (count == bytes.length) {
+                    // a single byte tells the end of file from a file larger than its size
+                    probe = probe == null ? ByteBuffer.allocate(1) : probe.clear();
+                    if (channel.read(probe) == -1) {
+                        return bytes;
+                    }
+                    if (bytes.length == MAX_ARRAY_SIZE) {
+                        throw new IOException("File is too large to be read into an array: " + path);
+                    }
+                    bytes = Arrays.copyOf(bytes,
+                            (int) Math.min(MAX_ARRAY_SIZE, Math.max(2L * bytes.length, (long) count + chunkSize)));
+                    bytes[count++] = probe.get(0);
+                    continue;
+                }
+                int readBytes = channel.read(ByteBuffer.wrap(bytes, count, Math.min(chunkSize, bytes.length - count)));
+                if (readBytes == -1) {
+                    return Arrays.copyOf(bytes, count);
+                }
+                count += readBytes;
+            }
         }
+    }
 
+    /**
+     * Read the whole file without blocking the calling thread. The file is read
+     * with an {@link AsynchronousFileChannel} that is closed when the read
+     * completes.
+     *
+     * @param path
+     * @return a future completed with the content of the file.
+     * @see AsyncLimiter
+     */
+    public static CompletableFuture<byte[]> readAllAsync(final Path path) {
+        final AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Integer> read;
+        final ByteBuffer buffer;
+        try {
+            long size = channel.size();
+            if (size > MAX_ARRAY_SIZE) {
+                throw new IOException("File is too large to be read into an array: " + path);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            read = readFully(channel, buffer, 0);
+        } catch (IOException | RuntimeException e) {
+            close(channel);
+            return CompletableFuture.failedFuture(e);
+        }
+        read.whenComplete((count, e) -> close(channel));
+        return read.thenApply(count -> count == buffer.capacity() ? buffer.array()
+                : Arrays.copyOf(buffer.array(), count));
     }
 
+    /**
+     * Read at most maxBytes of the file starting at the position into the buffer
+     * without blocking the calling thread. The file is closed when the read
+     * completes.
+     *
+     * @param path
+     * @param position
+     * @param buffer
+     * @param maxBytes
+     * @return a future completed with the number of bytes read or -1 if the
+     *         position is at or past the end of file.
+     * @see Buffer#readFrom(AsynchronousFileChannel, long, int)
+     */
+    public static CompletableFuture<Integer> readAsync(final Path path, final long position, final Buffer buffer,
+            final int maxBytes) {
+        final AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Integer> read;
+        try {
+            read = buffer.readFrom(channel, position, maxBytes);
+        } catch (RuntimeException e) {
+            close(channel);
+            return CompletableFuture.failedFuture(e);
+        }
+        read.whenComplete((count, e) -> close(channel));
+        return read;
+    }
+
+    /**
+     * Copy the source file to the target file, which is created or truncated,
+     * without blocking the calling thread. Both files are closed when the copy
+     * completes, cancelling the returned future stops the copy.
+     *
+     * @param source
+     * @param target
+     * @return a future completed with the number of bytes copied.
+     */
+    public static CompletableFuture<Long> transferAsync(final Path source, final Path target) {
+        AsynchronousFileChannel sourceChannel = null;
+        AsynchronousFileChannel targetChannel = null;
+        CompletableFuture<Long> transfer;
+        try {
+            sourceChannel = AsynchronousFileChannel.open(source, StandardOpenOption.READ);
+            targetChannel = AsynchronousFileChannel.open(target, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            transfer = transferAsync(sourceChannel, 0, sourceChannel.size(), targetChannel, 0);
+        } catch (IOException | RuntimeException e) {
+            close(sourceChannel, targetChannel);
+            return CompletableFuture.failedFuture(e);
+        }
+        final AsynchronousFileChannel[] channels = { sourceChannel, targetChannel };
+        transfer.whenComplete((count, e) -> close(channels));
+        return transfer;
+    }
+
+    /**
+     * Copy count bytes of the source file starting at the position into the
+     * target file at the target position without blocking the calling thread.
+     * The copy goes through a single chunk, a chunk is written before the next
+     * one is read so a copy never holds more than one chunk in memory. The
+     * channels are not closed, cancelling the returned future stops the copy.
+     *
+     * @param source
+     * @param position
+     * @param count
+     * @param target
+     * @param targetPosition
+     * @return a future completed with the number of bytes copied, less than
+     *         count if the end of the source file is reached.
+     */
+    public static CompletableFuture<Long> transferAsync(final AsynchronousFileChannel source, final long position,
+            final long count, final AsynchronousFileChannel target, final long targetPosition) {
+        if (position < 0 || count < 0 || targetPosition < 0) {
+            throw new IllegalArgumentException(
+                    "position: " + position + ", count: " + count + ", targetPosition: " + targetPosition);
+        }
+        AsyncTransfer transfer = new AsyncTransfer(source, position, count, target, targetPosition);
+        transfer.read();
+        return transfer;
+    }
+
+    /**
+     * Read from the position until the buffer is full or the end of file.
+     *
+     * @param channel
+     * @param buffer
+     * @param position
+     * @return a future completed with the number of bytes read, 0 at the end of
+     *         file.
+     */
+    private static CompletableFuture<Integer> readFully(final AsynchronousFileChannel channel,
+            final ByteBuffer buffer, final long position) {
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final int start = buffer.position();
+        if (!buffer.hasRemaining()) {
+            result.complete(0);
+            return result;
+        }
+        channel.read(buffer, position, null, new CompletionHandler<Integer, Void>() {
+
+            @Override
+            public void completed(final Integer read, final Void attachment) {
+                int total = buffer.position() - start;
+                if (read < 0 || !buffer.hasRemaining()) {
+                    result.complete(total);
+                    return;
+                }
+                try {
+                    channel.read(buffer, position + total, null, this);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(final Throwable exc, final Void attachment) {
+                result.completeExceptionally(exc);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * A copy between two asynchronous file channels, reading and writing a chunk
+     * at a time. The attachment of the completion tells a read from a write.
+     */
+    private static final class AsyncTransfer extends CompletableFuture<Long>
+            implements CompletionHandler<Integer, Boolean> {
+
+        private final AsynchronousFileChannel source;
+        private final AsynchronousFileChannel target;
+        private final ByteBuffer buffer;
+        private long position;
+        private long remaining;
+        private long targetPosition;
+        private long transferred;
+
+        private AsyncTransfer(final AsynchronousFileChannel source, final long position, final long count,
+                final AsynchronousFileChannel target, final long targetPosition) {
+            this.source = source;
+            this.target = target;
+            this.position = position;
+            this.remaining = count;
+            this.targetPosition = targetPosition;
+            this.buffer = ByteBuffer.allocateDirect((int) Math.max(1, Math.min(count, MAX_CHUNK_SIZE)));
+        }
+
+        private void read() {
+            if (remaining == 0) {
+                complete(transferred);
+                return;
+            }
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            source.read(buffer, position, Boolean.TRUE, this);
+        }
+
+        @Override
+        public void completed(final Integer count, final Boolean reading) {
+            if (isDone()) {
+                // cancelled
+                return;
+            }
+            try {
+                if (reading) {
+                    if (count < 0) {
+                        complete(transferred);
+                        return;
+                    }
+                    position += count;
+                    remaining -= count;
+                    buffer.flip();
+                } else {
+                    targetPosition += count;
+                    transferred += count;
+                }
+                if (buffer.hasRemaining()) {
+                    target.write(buffer, targetPosition, Boolean.FALSE, this);
+                } else {
+                    read();
+                }
+            } catch (RuntimeException e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void failed(final Throwable exc, final Boolean reading) {
+            completeExceptionally(exc);
+        }
+
+    }
+
+    private static void checkBlocking(final Object channel) {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalBlockingModeException();
+        }
+    }
 
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.appmanch.commons.io.StorageUnit.KB;
+import static com.appmanch.commons.io.StorageUnit.MB;
+
+/**
+ * Copy of a file by several threads. The file is split into ranges of
+ * {@link #chunkSize(int)} bytes that the threads take in turn, each range is
+ * copied with positional reads and writes through a direct buffer owned by
+ * the thread, so the threads never share a file position.
+ *
+ * The copy runs on virtual threads unless an executor is supplied. It can be
+ * cancelled with {@link #cancel()} from any thread, including from the
+ * {@link ProgressListener}. A cancelled or failed copy leaves the target
+ * partially written.
+ *
+ * <pre>
+ * TransferStats stats = new ParallelCopy(source, target).parallelism(8)
+ *         .onProgress((copied, total) -&gt; report(copied, total)).copy();
+ * </pre>
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public class ParallelCopy {
+
+    /**
+     * Default size of the ranges copied by one thread.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * (int) MB.getSize();
+    /**
+     * Largest buffer of a copying thread.
+     */
+    private static final int MAX_BUFFER_SIZE = (int) MB.getSize();
+
+    private final Path source;
+    private final Path target;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private Executor executor;
+    private ProgressListener listener;
+    private volatile boolean cancelled;
+
+    public ParallelCopy(Path source, Path target) {
+        this.source = Objects.requireNonNull(source);
+        this.target = Objects.requireNonNull(target);
+    }
+
+    /**
+     * Set the number of threads copying at the same time.
+     *
+     * @param parallelism
+     * @return this copy.
+     */
+    public ParallelCopy parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set the size of the ranges copied by one thread.
+     *
+     * @param chunkSize
+     * @return this copy.
+     */
+    public ParallelCopy chunkSize(int chunkSize) {
+        if (chunkSize < 4 * KB.getSize()) {
+            throw new IllegalArgumentException("Chunk size must be at least 4KB: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Set the executor running the copying tasks, by default each task runs on
+     * its own virtual thread.
+     *
+     * @param executor
+     * @return this copy.
+     */
+    public ParallelCopy executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Set the listener notified each time more bytes are copied.
+     *
+     * @param listener
+     * @return this copy.
+     */
+    public ParallelCopy onProgress(ProgressListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Stop the copy, the ranges being copied are abandoned at the next buffer.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Copy the source file to the target file, which is created or truncated, and
+     * wait for the copy to complete.
+     *
+     * @return the number of bytes copied and the time taken.
+     * @throws IOException
+     * @throws CancellationException  if the copy is cancelled.
+     * @throws InterruptedIOException if the calling thread is interrupted, the
+     *                                copy is cancelled.
+     */
+    public TransferStats copy() throws IOException {
+        long start = System.nanoTime();
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            throw new IllegalArgumentException("Cannot copy " + source + " onto itself");
+        }
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            AtomicLong nextRange = new AtomicLong();
+            AtomicLong copied = new AtomicLong();
+            AtomicBoolean failed = new AtomicBoolean();
+            int tasks = (int) Math.max(1, Math.min(parallelism, (size + chunkSize - 1) / chunkSize));
+            ExecutorService virtualThreads = executor == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+            try {
+                Executor taskExecutor = executor == null ? virtualThreads : executor;
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+                for (int i = 0; i < tasks; i++) {
+                    futures[i] = CompletableFuture.runAsync(() -> {
+                        try {
+                            copyRanges(in, out, size, nextRange, copied, failed);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, taskExecutor);
+                    // a failed task stops the others
+                    futures[i].exceptionally(e -> {
+                        failed.set(true);
+                        return null;
+                    });
+                }
+                await(CompletableFuture.allOf(futures));
+            } finally {
+                if (virtualThreads != null) {
+                    virtualThreads.close();
+                }
+            }
+            if (cancelled) {
+                throw new CancellationException("Copy of " + source + " cancelled after " + copied.get() + " bytes");
+            }
+            return new TransferStats(copied.get(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Copy ranges until there are none left, the copy is cancelled or another
+     * task failed.
+     *
+     * @param in
+     * @param out
+     * @param size
+     * @param nextRange
+     * @param copied
+     * @param failed
+     * @throws IOException
+     */
+    private void copyRanges(FileChannel in, FileChannel out, long size, AtomicLong nextRange, AtomicLong copied,
+            AtomicBoolean failed) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.min(chunkSize, MAX_BUFFER_SIZE));
+        long rangeStart;
+        while (!cancelled && !failed.get() && (rangeStart = nextRange.getAndAdd(chunkSize)) < size) {
+            long rangeEnd = Math.min(rangeStart + chunkSize, size);
+            long position = rangeStart;
+            while (position < rangeEnd && !cancelled && !failed.get()) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), rangeEnd - position));
+                while (buffer.hasRemaining()) {
+                    if (in.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException(source + " was truncated during the copy");
+                    }
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer, position + buffer.position());
+                }
+                position += buffer.limit();
+                long total = copied.addAndGet(buffer.limit());
+                if (listener != null) {
+                    listener.onProgress(total, size);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for the tasks, cancelling them if the calling thread is interrupted.
+     *
+     * @param tasks
+     * @throws IOException
+     */
+    private void await(CompletableFuture<?> tasks) throws IOException {
+        try {
+            tasks.get();
+        } catch (InterruptedException e) {
+            cancel();
+            tasks.exceptionally(t -> null).join();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Copy of " + source + " interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+}
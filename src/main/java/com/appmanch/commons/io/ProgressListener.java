@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+/**
+ * Callback notified of the progress of a copy. It may be called concurrently
+ * from the threads doing the copy and must be thread safe and quick.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Called each time more bytes are copied.
+     *
+     * @param transferred the number of bytes copied so far.
+     * @param total       the number of bytes to copy.
+     */
+    void onProgress(long transferred, long total);
+
+}
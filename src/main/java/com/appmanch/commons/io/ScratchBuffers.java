@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Source of the scratch byte arrays used by the copies of {@link IOUtils}. An
+ * array handed out by {@link #acquire(int)} belongs to the caller until it is
+ * given back with {@link #release(byte[])}, so a copy nested in another copy on
+ * the same thread never shares its array.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public interface ScratchBuffers {
+
+    /**
+     * Get an array of at least the specified size.
+     *
+     * @param size
+     * @return
+     */
+    byte[] acquire(int size);
+
+    /**
+     * Give back an array obtained from {@link #acquire(int)}. The array must not
+     * be used afterwards. Null is ignored.
+     *
+     * @param buffer
+     */
+    void release(byte[] buffer);
+
+    /**
+     * Allocate a new array on every call.
+     *
+     * @return
+     */
+    static ScratchBuffers allocating() {
+        return new ScratchBuffers() {
+
+            @Override
+            public byte[] acquire(int size) {
+                return new byte[size];
+            }
+
+            @Override
+            public void release(byte[] buffer) {
+                // left to the garbage collector
+            }
+        };
+    }
+
+    /**
+     * Keep one array per thread, arrays larger than maxSize are not kept. This
+     * suits a bounded number of platform threads, prefer {@link #pooled(int, int)}
+     * with virtual threads.
+     *
+     * @param maxSize
+     * @return
+     */
+    static ScratchBuffers threadLocal(final int maxSize) {
+        final ThreadLocal<byte[]> cache = new ThreadLocal<>();
+        return new ScratchBuffers() {
+
+            @Override
+            public byte[] acquire(int size) {
+                byte[] buffer = cache.get();
+                if (buffer != null && buffer.length >= size) {
+                    cache.set(null);
+                    return buffer;
+                }
+                return new byte[size];
+            }
+
+            @Override
+            public void release(byte[] buffer) {
+                if (buffer != null && buffer.length <= maxSize) {
+                    byte[] cached = cache.get();
+                    if (cached == null || cached.length < buffer.length) {
+                        cache.set(buffer);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Keep at most maxBuffers arrays shared by all the threads, arrays larger
+     * than maxSize are not kept.
+     *
+     * @param maxBuffers
+     * @param maxSize
+     * @return
+     */
+    static ScratchBuffers pooled(final int maxBuffers, final int maxSize) {
+        final BlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(maxBuffers);
+        return new ScratchBuffers() {
+
+            @Override
+            public byte[] acquire(int size) {
+                byte[] buffer = pool.poll();
+                if (buffer != null && buffer.length >= size) {
+                    return buffer;
+                }
+                // an array too small is dropped, the larger one replaces it on release
+                return new byte[size];
+            }
+
+            @Override
+            public void release(byte[] buffer) {
+                if (buffer != null && buffer.length <= maxSize) {
+                    pool.offer(buffer);
+                }
+            }
+        };
+    }
+
+}
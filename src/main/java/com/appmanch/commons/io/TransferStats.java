@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Number of bytes transferred by an operation and the time it took.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+public final class TransferStats {
+
+    private final long bytes;
+    private final long nanos;
+
+    public TransferStats(long bytes, long nanos) {
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get the number of bytes transferred.
+     *
+     * @return
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the elapsed time in the specified unit.
+     *
+     * @param unit
+     * @return
+     */
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the throughput in bytes per second.
+     *
+     * @return
+     */
+    public double getBytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return bytes + " bytes in " + getElapsed(TimeUnit.MILLISECONDS) + " ms ("
+                + String.format("%.1f", getBytesPerSecond() / StorageUnit.MB.getSize()) + " MB/s)";
+    }
+
+}
@@ -15,16 +15,42 @@
  */
 package com.appmanch.commons.utils;
 
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.CompositeBuffer;
+import com.appmanch.commons.io.BufferInputStream;
+import com.appmanch.commons.io.BufferOutputStream;
+import com.appmanch.commons.io.ByteArrayOutputStream;
 import com.appmanch.commons.io.IOUtils;
+import com.appmanch.commons.io.ScratchBuffers;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.Arrays;
 
 public class ByteUtils {
 
+    /*
+     * Views of a byte array as arrays of wider primitives. These let the JIT
+     * emit a single (unaligned) load or store instead of assembling the value
+     * from individual bytes.
+     */
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
     private ByteUtils() {
 
     }
@@ -81,7 +107,7 @@ public class ByteUtils {
      * @return
      */
     public static short getShortBE(final byte[] array, final int index) {
-        return (short) (array[index] << 8 | array[index + 1] & 0xFF);
+        return (short) SHORT_BE.get(array, index);
     }
 
     /**
@@ -93,8 +119,7 @@ public class ByteUtils {
      * @return
      */
     public static short getShortLE(final byte[] array, final int index) {
-        return (short) (array[index] & 0xFF | array[index + 1] << 8);
-
+        return (short) SHORT_LE.get(array, index);
     }
 
     /**
@@ -125,8 +150,7 @@ public class ByteUtils {
      */
 
     public static int getIntBE(final byte[] array, final int index) {
-        return (array[index] & 0xff) << 24 | (array[index + 1] & 0xff) << 16 | (array[index + 2] & 0xff) << 8
-                | (array[index + 3] & 0xff) << 0;
+        return (int) INT_BE.get(array, index);
     }
 
     /**
@@ -139,8 +163,7 @@ public class ByteUtils {
      */
 
     public static int getIntLE(final byte[] array, final int index) {
-        return (array[index] & 0xff) << 0 | (array[index + 1] & 0xff) << 8 | (array[index + 2] & 0xff) << 16
-                | (array[index + 3] & 0xff) << 24;
+        return (int) INT_LE.get(array, index);
     }
 
     /**
@@ -215,10 +238,7 @@ public class ByteUtils {
      */
 
     public static long getLongBE(final byte[] array, final int index) {
-        return ((long) array[index] & 0xff) << 56 | ((long) array[index + 1] & 0xff) << 48
-                | ((long) array[index + 2] & 0xff) << 40 | ((long) array[index + 3] & 0xff) << 32
-                | ((long) array[index + 4] & 0xff) << 24 | ((long) array[index + 5] & 0xff) << 16
-                | ((long) array[index + 6] & 0xff) << 8 | ((long) array[index + 7] & 0xff) << 0;
+        return (long) LONG_BE.get(array, index);
     }
 
     /**
@@ -231,10 +251,7 @@ public class ByteUtils {
      */
 
     public static long getLongLE(final byte[] array, final int index) {
-        return ((long) array[index] & 0xff) << 0 | ((long) array[index + 1] & 0xff) << 8
-                | ((long) array[index + 2] & 0xff) << 16 | ((long) array[index + 3] & 0xff) << 24
-                | ((long) array[index + 4] & 0xff) << 32 | ((long) array[index + 5] & 0xff) << 40
-                | ((long) array[index + 6] & 0xff) << 48 | ((long) array[index + 7] & 0xff) << 56;
+        return (long) LONG_LE.get(array, index);
     }
 
     /**
@@ -317,14 +334,11 @@ public class ByteUtils {
     }
 
     public static void setShortBE(byte[] array, int index, short value) {
-        array[index] = (byte) (value >>> 8);
-        array[index + 1] = (byte) (value >>> 0);
+        SHORT_BE.set(array, index, value);
     }
 
     public static void setShortLE(byte[] array, int index, short value) {
-        array[index] = (byte) (value >>> 0);
-        array[index + 1] = (byte) (value >>> 8);
-
+        SHORT_LE.set(array, index, value);
     }
 
     public static void setShort(byte[] array, int index, short value, boolean isBigEndian) {
@@ -336,17 +350,11 @@ public class ByteUtils {
     }
 
     public static void setIntLE(byte[] array, int index, int value) {
-        array[index] = (byte) (value >>> 0);
-        array[index + 1] = (byte) (value >>> 8);
-        array[index + 2] = (byte) (value >>> 16);
-        array[index + 3] = (byte) (value >>> 24);
+        INT_LE.set(array, index, value);
     }
 
     public static void setIntBE(byte[] array, int index, int value) {
-        array[index] = (byte) (value >>> 24);
-        array[index + 1] = (byte) (value >>> 16);
-        array[index + 2] = (byte) (value >>> 8);
-        array[index + 3] = (byte) (value >>> 0);
+        INT_BE.set(array, index, value);
     }
 
     public static void setInt(byte[] array, int index, int value, boolean isBigEndian) {
@@ -376,25 +384,11 @@ public class ByteUtils {
     }
 
     public static void setLongBE(byte[] array, int index, long value) {
-        array[index] = (byte) (value >>> 56);
-        array[index + 1] = (byte) (value >>> 48);
-        array[index + 2] = (byte) (value >>> 40);
-        array[index + 3] = (byte) (value >>> 32);
-        array[index + 4] = (byte) (value >>> 24);
-        array[index + 5] = (byte) (value >>> 16);
-        array[index + 6] = (byte) (value >>> 8);
-        array[index + 7] = (byte) (value >>> 0);
+        LONG_BE.set(array, index, value);
     }
 
     public static void setLongLE(byte[] array, int index, long value) {
-        array[index] = (byte) (value >>> 0);
-        array[index + 1] = (byte) (value >>> 8);
-        array[index + 2] = (byte) (value >>> 16);
-        array[index + 3] = (byte) (value >>> 24);
-        array[index + 4] = (byte) (value >>> 32);
-        array[index + 5] = (byte) (value >>> 40);
-        array[index + 6] = (byte) (value >>> 48);
-        array[index + 7] = (byte) (value >>> 56);
+        LONG_LE.set(array, index, value);
     }
 
     public static void setLong(byte[] array, int index, long value, boolean isBigEndian) {
@@ -421,6 +415,188 @@ public class ByteUtils {
         }
     }
 
+    /**
+     * Get the number of bytes of the variable length encoding of the value.
+     *
+     * @param value
+     * @return 1 to 5.
+     */
+    public static int varIntSize(final int value) {
+        return ((32 - Integer.numberOfLeadingZeros(value)) * 9 + 64) >>> 6;
+    }
+
+    /**
+     * Get the number of bytes of the variable length encoding of the value.
+     *
+     * @param value
+     * @return 1 to 10.
+     */
+    public static int varLongSize(final long value) {
+        return ((64 - Long.numberOfLeadingZeros(value)) * 9 + 64) >>> 6;
+    }
+
+    /**
+     * Map a signed value to an unsigned one so that values of small magnitude
+     * have a short variable length encoding: 0, -1, 1, -2 become 0, 1, 2, 3.
+     *
+     * @param value
+     * @return
+     */
+    public static int zigZagEncode(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static int zigZagDecode(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static long zigZagEncode(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long zigZagDecode(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Write the value as a variable length int: 7 bits per byte, least
+     * significant group first, with the high bit set on all bytes but the last.
+     * Negative values take 5 bytes, see {@link #zigZagEncode(int)}.
+     *
+     * @param array
+     * @param index
+     * @param value
+     * @return the number of bytes written.
+     */
+    public static int setVarInt(final byte[] array, final int index, final int value) {
+        if ((value & ~0x7F) == 0) {
+            array[index] = (byte) value;
+            return 1;
+        }
+        if ((value & ~0x3FFF) == 0) {
+            array[index + 1] = (byte) (value >>> 7);
+            array[index] = (byte) (value | 0x80);
+            return 2;
+        }
+        if ((value & ~0x1FFFFF) == 0) {
+            array[index + 2] = (byte) (value >>> 14);
+            array[index] = (byte) (value | 0x80);
+            array[index + 1] = (byte) ((value >>> 7) | 0x80);
+            return 3;
+        }
+        if ((value & ~0xFFFFFFF) == 0) {
+            array[index + 3] = (byte) (value >>> 21);
+            array[index] = (byte) (value | 0x80);
+            array[index + 1] = (byte) ((value >>> 7) | 0x80);
+            array[index + 2] = (byte) ((value >>> 14) | 0x80);
+            return 4;
+        }
+        array[index + 4] = (byte) (value >>> 28);
+        array[index] = (byte) (value | 0x80);
+        array[index + 1] = (byte) ((value >>> 7) | 0x80);
+        array[index + 2] = (byte) ((value >>> 14) | 0x80);
+        array[index + 3] = (byte) ((value >>> 21) | 0x80);
+        return 5;
+    }
+
+    /**
+     * Read a variable length int written by {@link #setVarInt(byte[], int, int)}.
+     * Only the shortest encoding of a value is accepted so the number of bytes
+     * read is {@link #varIntSize(int)} of the value.
+     *
+     * @param array
+     * @param index
+     * @return
+     * @throws IllegalArgumentException if the bytes are not a valid encoding.
+     */
+    public static int getVarInt(final byte[] array, final int index) {
+        int b = array[index];
+        if (b >= 0) {
+            return b;
+        }
+        int value = b & 0x7F;
+        if ((b = array[index + 1]) >= 0) {
+            return lastVarIntByte(b, value | b << 7);
+        }
+        value |= (b & 0x7F) << 7;
+        if ((b = array[index + 2]) >= 0) {
+            return lastVarIntByte(b, value | b << 14);
+        }
+        value |= (b & 0x7F) << 14;
+        if ((b = array[index + 3]) >= 0) {
+            return lastVarIntByte(b, value | b << 21);
+        }
+        value |= (b & 0x7F) << 21;
+        b = array[index + 4];
+        if (b <= 0 || b > 0x0F) {
+            throw new IllegalArgumentException("Malformed variable length int at " + index);
+        }
+        return value | b << 28;
+    }
+
+    private static int lastVarIntByte(final int b, final int value) {
+        if (b == 0) {
+            throw new IllegalArgumentException("Malformed variable length int, trailing zero byte");
+        }
+        return value;
+    }
+
+    /**
+     * Write the value as a variable length long, see
+     * {@link #setVarInt(byte[], int, int)}. Negative values take 10 bytes.
+     *
+     * @param array
+     * @param index
+     * @param value
+     * @return the number of bytes written.
+     */
+    public static int setVarLong(final byte[] array, final int index, final long value) {
+        if ((value & ~0x7FFFFFFFL) == 0) {
+            return setVarInt(array, index, (int) value);
+        }
+        int length = varLongSize(value);
+        int last = index + length - 1;
+        array[last] = (byte) (value >>> (7 * (length - 1)));
+        long remaining = value;
+        for (int i = index; i < last; i++) {
+            array[i] = (byte) (remaining | 0x80);
+            remaining >>>= 7;
+        }
+        return length;
+    }
+
+    /**
+     * Read a variable length long written by
+     * {@link #setVarLong(byte[], int, long)}. Only the shortest encoding of a
+     * value is accepted so the number of bytes read is
+     * {@link #varLongSize(long)} of the value.
+     *
+     * @param array
+     * @param index
+     * @return
+     * @throws IllegalArgumentException if the bytes are not a valid encoding.
+     */
+    public static long getVarLong(final byte[] array, final int index) {
+        int b = array[index];
+        if (b >= 0) {
+            return b;
+        }
+        long value = b & 0x7F;
+        for (int shift = 7, i = index + 1;; shift += 7, i++) {
+            b = array[i];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (b == 0 || shift == 63 && b > 1) {
+                    throw new IllegalArgumentException("Malformed variable length long at " + index);
+                }
+                return value;
+            }
+            if (shift == 63) {
+                throw new IllegalArgumentException("Malformed variable length long at " + index);
+            }
+        }
+    }
+
     public static Serializable deSerialize(byte[] bytes) throws IOException, ClassNotFoundException {
         if (bytes == null) {
             return null;
@@ -440,7 +616,6 @@ public class ByteUtils {
 
     public static void serialize(byte[] bytes, int index, Serializable object)
             throws IOException, ClassNotFoundException {
-        byte[] objectBytes = null;
         ByteArrayOutputStream byteArrayOutputStream = null;
         ObjectOutputStream objectOutputStream = null;
 
@@ -449,11 +624,11 @@ public class ByteUtils {
             objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
 
             objectOutputStream.writeObject(object);
-            objectBytes = byteArrayOutputStream.toByteArray();
-            System.arraycopy(objectBytes, 0, bytes, index, objectBytes.length);
+            objectOutputStream.flush();
+            // copy the chunks straight into the array
+            byteArrayOutputStream.toBuffer().getBytes(0, bytes, index, byteArrayOutputStream.size());
         } finally {
             IOUtils.close(objectOutputStream, byteArrayOutputStream);
-            objectBytes = null;
         }
     }
 
@@ -473,6 +648,44 @@ public class ByteUtils {
 
 
     /**
+     * Serialize the object into the buffer at its writer index, the serialized
+     * form is written straight to the buffer.
+     *
+     * @param object
+     * @param buffer
+     * @return the number of bytes written.
+     * @throws IOException
+     */
+    public static int serialize(final Serializable object, final Buffer buffer) throws IOException {
+        int start = buffer.writerIndex();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new BufferOutputStream(buffer))) {
+            objectOutputStream.writeObject(object);
+        }
+        return buffer.writerIndex() - start;
+    }
+
+    /**
+     * Deserialize an object from length bytes of the buffer at its reader index,
+     * the reader index is advanced by length.
+     *
+     * @param buffer
+     * @param length
+     * @return
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    public static Serializable deSerialize(final Buffer buffer, final int length)
+            throws IOException, ClassNotFoundException {
+        int end = buffer.readerIndex() + length;
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferInputStream(buffer, length))) {
+            return (Serializable) objectInputStream.readObject();
+        } finally {
+            buffer.setReaderIndex(end);
+        }
+    }
+
+    /**
+     * Encode the char sequence with the default charset.
      *
      * @param charSeq
      * @return
@@ -485,6 +698,8 @@ public class ByteUtils {
     }
 
     /**
+     * Encode len chars of the char sequence from offset off with the default
+     * charset.
      *
      * @param charSeq
      * @param off
@@ -498,6 +713,7 @@ public class ByteUtils {
     }
 
     /**
+     * Encode the char sequence with the charset.
      *
      * @param charSeq
      * @param charset
@@ -510,6 +726,7 @@ public class ByteUtils {
     }
 
     /**
+     * Encode len chars of the char sequence from offset off with the charset.
      *
      * @param charSeq
      * @param off
@@ -520,12 +737,11 @@ public class ByteUtils {
      */
     public static byte[] getBytes(final CharSequence charSeq, final int off, final int len, final Charset charset)
             throws CharacterCodingException {
-
-
-        return charset.newEncoder().encode(CharBuffer.wrap(charSeq, off, off + len + 1)).array();
+        return getBytes(CharBuffer.wrap(charSeq, off, off + len), charset);
     }
 
     /**
+     * Encode the chars with the default charset.
      *
      * @param cbuf
      * @return
@@ -536,6 +752,7 @@ public class ByteUtils {
     }
 
     /**
+     * Encode len chars of the array from offset off with the default charset.
      *
      * @param cbuf
      * @param off
@@ -549,6 +766,7 @@ public class ByteUtils {
     }
 
     /**
+     * Encode the chars with the charset.
      *
      * @param cbuf
      * @param charset
@@ -562,6 +780,7 @@ public class ByteUtils {
     }
 
     /**
+     * Encode len chars of the array from offset off with the charset.
      *
      * @param cbuf
      * @param off
@@ -573,8 +792,296 @@ public class ByteUtils {
     public static byte[] getBytes(final char[] cbuf, final int off, final int len, final Charset charset)
             throws CharacterCodingException {
 
-        return charset.newEncoder().encode(CharBuffer.wrap(cbuf, off, len)).array();
+        return getBytes(CharBuffer.wrap(cbuf, off, len), charset);
     }
 
+    /**
+     * Encode the chars into a per-thread scratch array and return a copy of
+     * exactly the encoded bytes.
+     *
+     * @param chars
+     * @param charset
+     * @return
+     * @throws CharacterCodingException
+     */
+    private static byte[] getBytes(final CharBuffer chars, final Charset charset) throws CharacterCodingException {
+        CharsetEncoder encoder = CharsetCoders.encoder(charset);
+        ScratchBuffers scratchBuffers = IOUtils.scratchBuffers();
+        byte[] scratch = scratchBuffers.acquire(maxBytes(encoder, chars.remaining()));
+        try {
+            ByteBuffer out = ByteBuffer.wrap(scratch);
+            encode(encoder, chars, out);
+            return Arrays.copyOf(scratch, out.position());
+        } finally {
+            scratchBuffers.release(scratch);
+        }
+    }
+
+    /**
+     * Encode len chars of the char sequence from offset off with the charset
+     * into the array from offset dstOff.
+     *
+     * @param charSeq
+     * @param off
+     * @param len
+     * @param charset
+     * @param dst
+     * @param dstOff
+     * @return the number of bytes written.
+     * @throws CharacterCodingException
+     * @throws BufferOverflowException  if the encoded chars do not fit in the
+     *                                  array.
+     */
+    public static int encode(final CharSequence charSeq, final int off, final int len, final Charset charset,
+                             final byte[] dst, final int dstOff) throws CharacterCodingException {
+        return encode(CharBuffer.wrap(charSeq, off, off + len), charset,
+                ByteBuffer.wrap(dst, dstOff, dst.length - dstOff));
+    }
+
+    /**
+     * Encode len chars of the array from offset off with the charset into the
+     * array from offset dstOff.
+     *
+     * @param cbuf
+     * @param off
+     * @param len
+     * @param charset
+     * @param dst
+     * @param dstOff
+     * @return the number of bytes written.
+     * @throws CharacterCodingException
+     * @throws BufferOverflowException  if the encoded chars do not fit in the
+     *                                  array.
+     */
+    public static int encode(final char[] cbuf, final int off, final int len, final Charset charset,
+                             final byte[] dst, final int dstOff) throws CharacterCodingException {
+        return encode(CharBuffer.wrap(cbuf, off, len), charset, ByteBuffer.wrap(dst, dstOff, dst.length - dstOff));
+    }
+
+    /**
+     * Encode the char sequence with the charset into the byte buffer from its
+     * position. The position is moved past the encoded bytes.
+     *
+     * @param charSeq
+     * @param charset
+     * @param dst
+     * @return the number of bytes written.
+     * @throws CharacterCodingException
+     * @throws BufferOverflowException  if the encoded chars do not fit in the
+     *                                  remaining bytes of the buffer.
+     */
+    public static int encode(final CharSequence charSeq, final Charset charset, final ByteBuffer dst)
+            throws CharacterCodingException {
+        return encode(CharBuffer.wrap(charSeq), charset, dst);
+    }
+
+    /**
+     * Encode the char sequence with the charset into the {@link Buffer} from its
+     * writer index. The writer index is moved past the encoded bytes, a dynamic
+     * buffer grows as needed: room for one byte per char is made first and the
+     * buffer only grows further when the encoder overflows.
+     *
+     * @param charSeq
+     * @param charset
+     * @param dst
+     * @return the number of bytes written.
+     * @throws CharacterCodingException
+     * @throws BufferOverflowException  if the encoded chars do not fit in the
+     *                                  buffer.
+     */
+    public static int encode(final CharSequence charSeq, final Charset charset, final Buffer dst)
+            throws CharacterCodingException {
+        CharsetEncoder encoder = CharsetCoders.encoder(charset);
+        if (dst.isReadOnly() || dst instanceof CompositeBuffer) {
+            // The ByteBuffer of a composite may be a copy, encode aside and copy.
+            return encodeAndCopy(encoder, CharBuffer.wrap(charSeq), dst);
+        }
+        int writerIndex = dst.writerIndex();
+        CharBuffer in = CharBuffer.wrap(charSeq);
+        ensureWritable(dst, in.remaining());
+        ByteBuffer out = writableView(dst);
+        boolean flushing = false;
+        for (;;) {
+            CoderResult result = flushing ? encoder.flush(out) : encoder.encode(in, out, true);
+            if (result.isUnderflow()) {
+                if (flushing) {
+                    break;
+                }
+                flushing = true;
+            } else if (result.isOverflow()) {
+                int capacity = dst.getCapacity();
+                dst.setWriterIndex(out.position());
+                ensureWritable(dst, Math.max(maxBytes(encoder, in.remaining()), (int) encoder.maxBytesPerChar()));
+                if (dst.getCapacity() == capacity) {
+                    dst.setWriterIndex(writerIndex);
+                    throw new BufferOverflowException();
+                }
+                out = writableView(dst);
+            } else {
+                result.throwException();
+            }
+        }
+        dst.setWriterIndex(out.position());
+        return out.position() - writerIndex;
+    }
+
+    /**
+     * Get a {@link ByteBuffer} over the writable bytes of the buffer, positioned
+     * at its writer index.
+     *
+     * @param dst
+     * @return
+     */
+    private static ByteBuffer writableView(final Buffer dst) {
+        ByteBuffer out = dst.asByteBuffer();
+        out.limit(dst.writerIndex() + dst.writableBytes()).position(dst.writerIndex());
+        return out;
+    }
+
+    private static int encodeAndCopy(final CharsetEncoder encoder, final CharBuffer chars, final Buffer dst)
+            throws CharacterCodingException {
+        ScratchBuffers scratchBuffers = IOUtils.scratchBuffers();
+        byte[] scratch = scratchBuffers.acquire(maxBytes(encoder, chars.remaining()));
+        try {
+            ByteBuffer out = ByteBuffer.wrap(scratch);
+            encode(encoder, chars, out);
+            int written = out.position();
+            ensureWritable(dst, written);
+            if (written > dst.writableBytes()) {
+                throw new BufferOverflowException();
+            }
+            dst.writeBytes(scratch, 0, written);
+            return written;
+        } finally {
+            scratchBuffers.release(scratch);
+        }
+    }
+
+    private static int encode(final CharBuffer chars, final Charset charset, final ByteBuffer dst)
+            throws CharacterCodingException {
+        int position = dst.position();
+        encode(CharsetCoders.encoder(charset), chars, dst);
+        return dst.position() - position;
+    }
+
+    private static void encode(final CharsetEncoder encoder, final CharBuffer in, final ByteBuffer out)
+            throws CharacterCodingException {
+        CoderResult result = encoder.encode(in, out, true);
+        if (result.isUnderflow()) {
+            result = encoder.flush(out);
+        }
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+    }
+
+    /**
+     * Grow a dynamic buffer for length more bytes, up to its maximum capacity.
+     *
+     * @param dst
+     * @param length
+     */
+    private static void ensureWritable(final Buffer dst, final int length) {
+        dst.ensureWritable(Math.min(length, dst.getMaxCapacity() - dst.writerIndex()));
+    }
+
+    private static int maxBytes(final CharsetEncoder encoder, final int chars) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(chars * (double) encoder.maxBytesPerChar()));
+    }
+
+    /**
+     * Decode len bytes of the array from offset off with the charset and append
+     * the chars to the {@link StringBuilder}.
+     *
+     * @param src
+     * @param off
+     * @param len
+     * @param charset
+     * @param dst
+     * @return the number of chars appended.
+     * @throws CharacterCodingException
+     */
+    public static int decode(final byte[] src, final int off, final int len, final Charset charset,
+                             final StringBuilder dst) throws CharacterCodingException {
+        return decode(ByteBuffer.wrap(src, off, len), charset, dst);
+    }
+
+    /**
+     * Decode the remaining bytes of the byte buffer with the charset and append
+     * the chars to the {@link StringBuilder}. The position of the byte buffer is
+     * moved to its limit.
+     *
+     * @param src
+     * @param charset
+     * @param dst
+     * @return the number of chars appended.
+     * @throws CharacterCodingException
+     */
+    public static int decode(final ByteBuffer src, final Charset charset, final StringBuilder dst)
+            throws CharacterCodingException {
+        CharsetDecoder decoder = CharsetCoders.decoder(charset);
+        CharBuffer out = CharsetCoders.chars();
+        int length = dst.length();
+        boolean flushing = false;
+        for (;;) {
+            CoderResult result = flushing ? decoder.flush(out) : decoder.decode(src, out, true);
+            if (result.isUnderflow()) {
+                if (flushing) {
+                    break;
+                }
+                flushing = true;
+            } else if (result.isOverflow()) {
+                append(out, dst);
+            } else {
+                result.throwException();
+            }
+        }
+        append(out, dst);
+        return dst.length() - length;
+    }
+
+    /**
+     * Append the chars decoded into the scratch char buffer and clear it.
+     *
+     * @param chars
+     * @param dst
+     */
+    private static void append(final CharBuffer chars, final StringBuilder dst) {
+        dst.append(chars.array(), chars.arrayOffset(), chars.position());
+        chars.clear();
+    }
+
+    /**
+     * Decode len bytes of the array from offset off with the charset into the
+     * char array from offset dstOff.
+     *
+     * @param src
+     * @param off
+     * @param len
+     * @param charset
+     * @param dst
+     * @param dstOff
+     * @return the number of chars written.
+     * @throws CharacterCodingException
+     * @throws BufferOverflowException  if the decoded chars do not fit in the
+     *                                  array.
+     */
+    public static int decode(final byte[] src, final int off, final int len, final Charset charset,
+                             final char[] dst, final int dstOff) throws CharacterCodingException {
+        CharBuffer out = CharBuffer.wrap(dst, dstOff, dst.length - dstOff);
+        decode(CharsetCoders.decoder(charset), ByteBuffer.wrap(src, off, len), out);
+        return out.position() - dstOff;
+    }
+
+    private static void decode(final CharsetDecoder decoder, final ByteBuffer in, final CharBuffer out)
+            throws CharacterCodingException {
+        CoderResult result = decoder.decode(in, out, true);
+        if (result.isUnderflow()) {
+            result = decoder.flush(out);
+        }
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+    }
 
 }
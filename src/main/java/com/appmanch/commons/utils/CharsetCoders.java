@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.utils;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-thread cache of {@link CharsetEncoder} and {@link CharsetDecoder} keyed by
+ * {@link Charset}, with a scratch {@link CharBuffer} to decode into. Coders are
+ * not thread safe, so each thread gets its own. They are reset before they are
+ * handed out.
+ *
+ * The returned coders and char buffer must not escape the calling method, the
+ * next call on the same thread hands out the same instances. Scratch arrays come
+ * from {@link com.appmanch.commons.io.IOUtils#scratchBuffers()}.
+ *
+ * @author Nanda Gopalan
+ * @version 1.0.1
+ * @since 1.0.1
+ */
+final class CharsetCoders {
+
+    private static final ThreadLocal<CharsetCoders> CODERS = ThreadLocal.withInitial(CharsetCoders::new);
+    /**
+     * Size of the scratch char buffer, larger inputs are decoded in several
+     * rounds.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    private final Map<Charset, CharsetEncoder> encoders = new HashMap<>();
+    private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+
+    private CharsetCoders() {
+    }
+
+    /**
+     * Get the encoder of the charset for the current thread.
+     *
+     * @param charset
+     * @return
+     */
+    static CharsetEncoder encoder(final Charset charset) {
+        return CODERS.get().encoders.computeIfAbsent(charset, Charset::newEncoder).reset();
+    }
+
+    /**
+     * Get the decoder of the charset for the current thread.
+     *
+     * @param charset
+     * @return
+     */
+    static CharsetDecoder decoder(final Charset charset) {
+        return CODERS.get().decoders.computeIfAbsent(charset, Charset::newDecoder).reset();
+    }
+
+    /**
+     * Get the scratch char buffer of the current thread, cleared.
+     *
+     * @return
+     */
+    static CharBuffer chars() {
+        return CODERS.get().chars.clear();
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BufferCodecsTest {
+
+	private static final AtomicBoolean GADGET_LOADED = new AtomicBoolean();
+
+	enum Color {
+		RED, GREEN
+	}
+
+	interface Shape {
+	}
+
+	record Circle(int radius) implements Shape {
+	}
+
+	record Square(int side) implements Shape {
+	}
+
+	record Drawing(String name, Color color, Shape shape) {
+	}
+
+	static final class Gadget implements Shape {
+		static {
+			GADGET_LOADED.set(true);
+		}
+	}
+
+	@Test
+	void recordRoundTrip() {
+		BufferCodecs.registerSubtype(Circle.class);
+		BufferCodec<Drawing> codec = BufferCodecs.get(Drawing.class);
+		Buffer buffer = Buffers.newInMemory(256);
+		Drawing drawing = new Drawing("sun", Color.GREEN, new Circle(3));
+		buffer.writeObject(drawing, codec);
+		buffer.writeObject(new Drawing(null, Color.RED, null), codec);
+		assertEquals(drawing, buffer.readObject(codec));
+		Drawing empty = buffer.readObject(codec);
+		assertNull(empty.name());
+		assertNull(empty.shape());
+	}
+
+	@Test
+	void unregisteredSubtypeIsNotEncoded() {
+		BufferCodec<Drawing> codec = BufferCodecs.get(Drawing.class);
+		Buffer buffer = Buffers.newInMemory(256);
+		assertThrows(IllegalArgumentException.class,
+				() -> buffer.writeObject(new Drawing("box", Color.RED, new Square(2)), codec));
+	}
+
+	@Test
+	void unregisteredSubtypeNameIsNotLoaded() {
+		BufferCodec<Drawing> codec = BufferCodecs.get(Drawing.class);
+		Buffer buffer = Buffers.newInMemory(256);
+		buffer.writeByte((byte) 0);
+		buffer.writeByte((byte) 1);
+		BufferCodecs.get(Color.class).encode(Color.RED, buffer);
+		buffer.writeByte((byte) 2);
+		buffer.writeString(Gadget.class.getName());
+		assertThrows(IllegalStateException.class, () -> buffer.readObject(codec));
+		assertFalse(GADGET_LOADED.get());
+	}
+
+	@Test
+	void invalidEnumOrdinalIsRejected() {
+		BufferCodec<Color> codec = BufferCodecs.get(Color.class);
+		Buffer buffer = Buffers.newInMemory(16);
+		buffer.writeInt(Color.values().length);
+		buffer.writeInt(-1);
+		assertThrows(IllegalStateException.class, () -> buffer.readObject(codec));
+		assertThrows(IllegalStateException.class, () -> buffer.readObject(codec));
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferPoolTest {
+
+	private static final int SIZE_CLASS = 64 * 1024;
+
+	private static long directMemoryUsed() {
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			if (pool.getName().equals("direct")) {
+				return pool.getMemoryUsed();
+			}
+		}
+		throw new IllegalStateException("No direct buffer pool");
+	}
+
+	private static Object storage(Buffer buffer) {
+		return buffer instanceof InMemoryBuffer ? ((InMemoryBuffer) buffer).array : ((NioBuffer) buffer).buffer;
+	}
+
+	@Test
+	void releasedStorageIsReused() {
+		for (BufferPool pool : new BufferPool[] { new BufferPool(false), new BufferPool(true) }) {
+			Buffer buffer = pool.allocate(100);
+			Object storage = storage(buffer);
+			buffer.setLong(0, 42L);
+			assertTrue(buffer.release());
+			Buffer reused = pool.allocate(200, ByteOrder.BIG_ENDIAN);
+			assertSame(storage, storage(reused));
+			assertEquals(200, reused.getCapacity());
+			assertEquals(0L, reused.getLong(0));
+			reused.release();
+		}
+	}
+
+	@Test
+	void recycledStorageIsClearedWhenAccessed() {
+		BufferPool pool = new BufferPool(false, 256);
+		Buffer buffer = pool.allocate(256);
+		byte[] array = ((InMemoryBuffer) buffer).array;
+		Arrays.fill(array, (byte) -1);
+		buffer.release();
+		Buffer reused = pool.allocate(200);
+		assertEquals(0, reused.getInt(16));
+		// Only the bytes up to the accessed region are cleared.
+		assertEquals(0, array[19]);
+		assertEquals(-1, array[20]);
+		reused.writeByte((byte) 7);
+		reused.setWriterIndex(100);
+		assertEquals(-1, array[100]);
+		byte[] read = reused.readBytes(100);
+		assertEquals(7, read[0]);
+		assertArrayEquals(new byte[99], Arrays.copyOfRange(read, 1, 100));
+		assertEquals(0, reused.asByteBuffer().get(199));
+		assertEquals(-1, array[200]);
+	}
+
+	@Test
+	void grownBufferClearsTheRecycledStorage() {
+		BufferPool pool = new BufferPool(false, 16, 64);
+		Buffer buffer = pool.allocate(64);
+		Arrays.fill(((InMemoryBuffer) buffer).array, (byte) -1);
+		buffer.release();
+		Buffer dynamic = pool.allocateDynamic(16, 64, ByteOrder.BIG_ENDIAN);
+		dynamic.writeBytes(new byte[17]);
+		assertEquals(0, dynamic.getByte(20));
+		dynamic.setWriterIndex(dynamic.getCapacity());
+		byte[] read = dynamic.readBytes(dynamic.getCapacity());
+		assertArrayEquals(new byte[read.length], read);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void resetClearsTheData(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		for (int i = 0; i < TestBuffers.CAPACITY / 8; i++) {
+			buffer.writeLong(-1L);
+		}
+		buffer.reset(true);
+		assertEquals(0, buffer.writerIndex());
+		assertEquals(0L, buffer.getLong(64));
+		buffer.writeInt(5);
+		buffer.setWriterIndex(TestBuffers.CAPACITY);
+		assertEquals(5, buffer.readInt());
+		byte[] read = buffer.readBytes(TestBuffers.CAPACITY - 4);
+		assertArrayEquals(new byte[read.length], read);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void resetClearsTheViews(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setLong(8, -1L);
+		Buffer slice = buffer.slice(8, 8);
+		buffer.reset(true);
+		assertEquals(0L, slice.getLong(0));
+		buffer.setLong(40, -1L);
+		buffer.reset(true);
+		assertEquals(0L, buffer.duplicate().getLong(40));
+	}
+
+	@Test
+	void buffersFactoriesRecycle() {
+		Buffer buffer = Buffers.newInMemory(100);
+		Object storage = storage(buffer);
+		buffer.release();
+		assertSame(storage, storage(Buffers.newInMemory(50)));
+
+		buffer = Buffers.newNioBuffer(100);
+		byte[] array = ((NioBuffer) buffer).buffer.array();
+		buffer.release();
+		assertSame(array, ((NioBuffer) Buffers.newNioBuffer(100)).buffer.array());
+
+		buffer = Buffers.newNioDirectBuffer(100);
+		storage = storage(buffer);
+		buffer.setInt(0, 42);
+		buffer.release();
+		Buffer reused = Buffers.newNioDirectBuffer(100);
+		assertSame(storage, storage(reused));
+		assertEquals(0, reused.getInt(0));
+	}
+
+	@Test
+	void defaultSizeClassesCannotBeChanged() {
+		int[] sizeClasses = BufferPool.defaultSizeClasses();
+		sizeClasses[0] = 1;
+		assertEquals(256, BufferPool.defaultSizeClasses()[0]);
+		assertEquals(256, ((InMemoryBuffer) new BufferPool(false).allocate(1)).array.length);
+	}
+
+	@Test
+	void releaseTwiceFails() {
+		Buffer buffer = new BufferPool(false).allocate(16);
+		buffer.retain();
+		assertFalse(buffer.release());
+		assertTrue(buffer.release());
+		assertThrows(IllegalStateException.class, buffer::release);
+	}
+
+	@Test
+	void directBufferOutsideTheSizeClassesIsFreed() {
+		BufferPool pool = new BufferPool(true);
+		ByteBuffer large = pool.acquireByteBuffer(1 << 20);
+		long used = directMemoryUsed();
+		pool.releaseByteBuffer(large);
+		assertEquals(used - (1 << 20), directMemoryUsed());
+	}
+
+	@Test
+	void fullSizeClassFreesTheOverflow() throws InterruptedException {
+		BufferPool pool = new BufferPool(true, SIZE_CLASS);
+		int count = 300;
+		ByteBuffer[] buffers = new ByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			buffers[i] = pool.acquireByteBuffer(SIZE_CLASS);
+		}
+		long used = directMemoryUsed();
+		// A virtual thread only uses the shared queue of 256 entries.
+		Thread.ofVirtual().start(() -> {
+			for (ByteBuffer buffer : buffers) {
+				pool.releaseByteBuffer(buffer);
+			}
+		}).join();
+		assertEquals(used - (long) (count - 256) * SIZE_CLASS, directMemoryUsed());
+	}
+}
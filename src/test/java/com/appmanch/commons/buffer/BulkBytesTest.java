@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkBytesTest {
+
+	private static byte[] sequence(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) (i + 1);
+		}
+		return bytes;
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void setAndGetIntoCallerArrays(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		byte[] src = sequence(200);
+		buffer.setBytes(30, src, 50, 150);
+		for (int i = 0; i < 150; i++) {
+			assertEquals(src[50 + i], buffer.getByte(30 + i));
+		}
+		assertEquals(0, buffer.getByte(29));
+		assertEquals(0, buffer.getByte(180));
+
+		byte[] dst = new byte[160];
+		buffer.getBytes(30, dst, 5, 150);
+		assertArrayEquals(Arrays.copyOfRange(src, 50, 200), Arrays.copyOfRange(dst, 5, 155));
+		assertEquals(0, dst[4]);
+		assertEquals(0, dst[155]);
+		assertArrayEquals(Arrays.copyOfRange(src, 50, 60), buffer.getBytes(30, 10));
+		assertEquals(0, buffer.writerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void writeAndReadMoveTheIndexes(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		byte[] src = sequence(100);
+		buffer.writeBytes(src, 10, 40);
+		buffer.writeBytes(src);
+		assertEquals(140, buffer.writerIndex());
+
+		byte[] dst = new byte[50];
+		buffer.readBytes(dst, 10, 40);
+		assertEquals(40, buffer.readerIndex());
+		assertArrayEquals(Arrays.copyOfRange(src, 10, 50), Arrays.copyOfRange(dst, 10, 50));
+		assertArrayEquals(src, buffer.readBytes(100));
+		assertEquals(140, buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void bulkAccessOutOfBoundsFails(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		int capacity = buffer.getCapacity();
+		byte[] array = new byte[16];
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.getBytes(capacity - 8, array, 0, 16));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.setBytes(capacity - 8, array, 0, 16));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.getBytes(0, array, 8, 16));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.setBytes(0, array, -1, 4));
+		buffer.writeBytes(array, 0, 4);
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readBytes(array, 0, 5));
+		assertEquals(0, buffer.readerIndex());
+	}
+
+	static Stream<Arguments> pairs() {
+		return TestBuffers.buffers().flatMap(src -> TestBuffers.buffers()
+				.map(dst -> Arguments.of(src.get()[0] + " -> " + dst.get()[0], src.get()[1], dst.get()[1])));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("pairs")
+	void transferToEveryKindOfBuffer(String name, Supplier<Buffer> srcFactory, Supplier<Buffer> dstFactory) {
+		Buffer src = srcFactory.get();
+		Buffer dst = dstFactory.get();
+		byte[] bytes = sequence(200);
+		src.writeBytes(bytes);
+		src.readBytes(new byte[20], 0, 20);
+		dst.writeBytes(bytes, 0, 5);
+
+		assertEquals(150, src.transferTo(dst, 150));
+		assertEquals(170, src.readerIndex());
+		assertEquals(200, src.writerIndex());
+		assertEquals(155, dst.writerIndex());
+		assertArrayEquals(Arrays.copyOfRange(bytes, 20, 170), dst.getBytes(5, 150));
+		assertEquals(0, dst.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void transferMoreThanReadableFails(String name, Supplier<Buffer> factory) {
+		Buffer src = factory.get();
+		src.writeBytes(sequence(10));
+		Buffer dst = Buffers.newInMemory(64);
+		assertThrows(IndexOutOfBoundsException.class, () -> src.transferTo(dst, 11));
+		assertEquals(0, src.readerIndex());
+		assertEquals(0, dst.writerIndex());
+	}
+
+	@Test
+	void transferGrowsADynamicDestination() {
+		Buffer src = Buffers.newNioDirectBuffer(1024);
+		byte[] bytes = sequence(1000);
+		src.writeBytes(bytes);
+		Buffer dst = Buffers.newDynamicInMemory(16, 4096);
+		assertEquals(1000, src.transferTo(dst, 1000));
+		assertArrayEquals(bytes, dst.readBytes(1000));
+	}
+}
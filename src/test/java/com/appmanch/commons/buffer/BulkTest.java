@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkTest {
+
+	private static final int[] INTS = { 1, -2, Integer.MAX_VALUE, Integer.MIN_VALUE, 0x01020304 };
+	private static final long[] LONGS = { 1L, -2L, Long.MAX_VALUE, 0x0102030405060708L };
+	private static final float[] FLOATS = { 1.5f, -0f, Float.NaN, Float.MAX_VALUE };
+	private static final double[] DOUBLES = { 1.5d, -0d, Double.NaN, Double.MIN_VALUE };
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void writeAndReadEveryType(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeByte((byte) 9);
+		buffer.writeInts(INTS);
+		buffer.writeLongs(LONGS);
+		buffer.writeFloats(FLOATS);
+		buffer.writeDoubles(DOUBLES);
+		assertEquals(1 + 4 * INTS.length + 8 * LONGS.length + 4 * FLOATS.length + 8 * DOUBLES.length,
+				buffer.writerIndex());
+
+		assertEquals(9, buffer.readByte());
+		int[] ints = new int[INTS.length];
+		buffer.readInts(ints);
+		long[] longs = new long[LONGS.length];
+		buffer.readLongs(longs);
+		float[] floats = new float[FLOATS.length];
+		buffer.readFloats(floats);
+		double[] doubles = new double[DOUBLES.length];
+		buffer.readDoubles(doubles);
+		assertArrayEquals(INTS, ints);
+		assertArrayEquals(LONGS, longs);
+		assertArrayEquals(FLOATS, floats);
+		assertArrayEquals(DOUBLES, doubles);
+		assertEquals(buffer.writerIndex(), buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void bulkValuesMatchSingleValues(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setInts(3, INTS, 1, 3);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(INTS[1 + i], buffer.getInt(3 + 4 * i));
+		}
+		for (int i = 0; i < LONGS.length; i++) {
+			buffer.setLong(20 + 8 * i, LONGS[i]);
+		}
+		long[] longs = new long[LONGS.length + 2];
+		buffer.getLongs(20, longs, 1, LONGS.length);
+		assertEquals(0L, longs[0]);
+		for (int i = 0; i < LONGS.length; i++) {
+			assertEquals(LONGS[i], longs[1 + i]);
+		}
+		assertEquals(0L, longs[LONGS.length + 1]);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void readPastTheWriterIndexFails(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeInts(INTS, 0, 2);
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readInts(new int[3]));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readLongs(new long[2]));
+		assertEquals(0, buffer.readerIndex());
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readInts(new int[2], 1, 2));
+		assertEquals(0, buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void lengthsOverflowingAnIntFail(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeInt(1);
+		int len = (1 << 30) + 1;
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readInts(new int[1], 0, len));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readDoubles(new double[1], 0, len));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.writeLongs(new long[1], 0, len));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.writeFloats(new float[1], 0, len));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.getInts(0, new int[1], 0, len));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.setLongs(0, new long[1], 0, len));
+		assertEquals(0, buffer.readerIndex());
+		assertEquals(4, buffer.writerIndex());
+		assertEquals(1, buffer.getInt(0));
+	}
+
+	@Test
+	void writeGrowsDynamicBuffers() {
+		Buffer buffer = Buffers.newDynamicInMemory(8, 1024);
+		long[] values = new long[100];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i * 31L;
+		}
+		buffer.writeLongs(values);
+		assertEquals(800, buffer.writerIndex());
+		long[] read = new long[100];
+		buffer.readLongs(read);
+		assertArrayEquals(values, read);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteOrderTest {
+
+	private static final int LENGTH = 1 + 2 + 2 + 4 + 4 + 8 + 8;
+
+	private static void write(Buffer buffer, int index) {
+		buffer.setByte(index, (byte) 0x7F);
+		buffer.setShort(index + 1, (short) 0x0102);
+		buffer.setChar(index + 3, '€');
+		buffer.setInt(index + 5, 0x01020304);
+		buffer.setFloat(index + 9, 1.5f);
+		buffer.setLong(index + 13, 0x0102030405060708L);
+		buffer.setDouble(index + 21, -Math.E);
+	}
+
+	private static byte[] expected(ByteOrder order) {
+		ByteBuffer expected = ByteBuffer.allocate(LENGTH).order(order);
+		expected.put((byte) 0x7F).putShort((short) 0x0102).putChar('€').putInt(0x01020304).putFloat(1.5f)
+				.putLong(0x0102030405060708L).putDouble(-Math.E);
+		return expected.array();
+	}
+
+	private static void assertValues(Buffer buffer, int index) {
+		assertEquals(0x7F, buffer.getByte(index));
+		assertEquals(0x0102, buffer.getShort(index + 1));
+		assertEquals('€', buffer.getChar(index + 3));
+		assertEquals(0x01020304, buffer.getInt(index + 5));
+		assertEquals(1.5f, buffer.getFloat(index + 9));
+		assertEquals(0x0102030405060708L, buffer.getLong(index + 13));
+		assertEquals(-Math.E, buffer.getDouble(index + 21));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void valuesAreBigEndianByDefault(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		assertEquals(ByteOrder.BIG_ENDIAN, buffer.getByteOrder());
+		write(buffer, 3);
+		assertArrayEquals(expected(ByteOrder.BIG_ENDIAN), buffer.getBytes(3, LENGTH));
+		assertValues(buffer, 3);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void setByteOrderSwitchesTheAccess(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setInt(0, 0x01020304);
+		buffer.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.getByteOrder());
+		assertEquals(0x04030201, buffer.getInt(0));
+		write(buffer, 7);
+		assertArrayEquals(expected(ByteOrder.LITTLE_ENDIAN), buffer.getBytes(7, LENGTH));
+		assertValues(buffer, 7);
+
+		buffer.setByteOrder(ByteOrder.BIG_ENDIAN);
+		assertEquals(0x01020304, buffer.getInt(0));
+		assertEquals(0x0807060504030201L, buffer.getLong(20));
+	}
+
+	@Test
+	void theConstructorByteOrderPicksTheAccess() {
+		Buffer little = Buffers.newInMemory(32, ByteOrder.LITTLE_ENDIAN);
+		assertEquals(ByteOrder.LITTLE_ENDIAN, little.getByteOrder());
+		write(little, 0);
+		assertArrayEquals(expected(ByteOrder.LITTLE_ENDIAN), little.getBytes(0, LENGTH));
+		assertValues(little, 0);
+	}
+
+	@Test
+	void unalignedAccessNearTheEnd() {
+		Buffer buffer = Buffers.newInMemory(16);
+		buffer.setLong(8, -1L);
+		buffer.setInt(11, 0);
+		assertEquals(0xFFFFFF00000000FFL, buffer.getLong(8));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.getLong(9));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.setInt(13, 1));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.getShort(-1));
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChannelTest {
+
+	@TempDir
+	Path dir;
+
+	private static byte[] sequence(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) (i * 7);
+		}
+		return bytes;
+	}
+
+	/**
+	 * An in-memory channel counting the vectored calls, the single buffer calls
+	 * move at most {@code chunk} bytes.
+	 */
+	private static final class RecordingChannel implements GatheringByteChannel, ScatteringByteChannel {
+
+		private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+		private final ByteBuffer content;
+		private final int chunk;
+		private int vectoredCalls;
+		private int calls;
+
+		RecordingChannel(byte[] content, int chunk) {
+			this.content = ByteBuffer.wrap(content);
+			this.chunk = chunk;
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			calls++;
+			int length = Math.min(chunk, src.remaining());
+			byte[] bytes = new byte[length];
+			src.get(bytes);
+			written.write(bytes, 0, length);
+			return length;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) {
+			vectoredCalls++;
+			long total = 0;
+			for (int i = offset; i < offset + length; i++) {
+				byte[] bytes = new byte[srcs[i].remaining()];
+				srcs[i].get(bytes);
+				written.write(bytes, 0, bytes.length);
+				total += bytes.length;
+			}
+			return total;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs) {
+			return write(srcs, 0, srcs.length);
+		}
+
+		@Override
+		public int read(ByteBuffer dst) {
+			calls++;
+			if (!content.hasRemaining()) {
+				return -1;
+			}
+			int length = Math.min(chunk, Math.min(dst.remaining(), content.remaining()));
+			dst.put(content.slice(content.position(), length));
+			content.position(content.position() + length);
+			return length;
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) {
+			vectoredCalls++;
+			if (!content.hasRemaining()) {
+				return -1;
+			}
+			long total = 0;
+			for (int i = offset; i < offset + length && content.hasRemaining(); i++) {
+				int n = Math.min(dsts[i].remaining(), content.remaining());
+				dsts[i].put(content.slice(content.position(), n));
+				content.position(content.position() + n);
+				total += n;
+			}
+			return total;
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts) {
+			return read(dsts, 0, dsts.length);
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void writeToAndReadFromAStreamChannel(String name, Supplier<Buffer> factory) throws IOException {
+		Buffer buffer = factory.get();
+		byte[] bytes = sequence(200);
+		buffer.writeBytes(bytes);
+		buffer.readBytes(10);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(150, buffer.writeTo(Channels.newChannel(out), 150));
+		assertEquals(160, buffer.readerIndex());
+		assertArrayEquals(Arrays.copyOfRange(bytes, 10, 160), out.toByteArray());
+
+		Buffer target = factory.get();
+		target.writeByte((byte) -1);
+		RecordingChannel in = new RecordingChannel(out.toByteArray(), Integer.MAX_VALUE);
+		int read = 0;
+		while (read < 150) {
+			read += target.readFrom(in, 150 - read);
+		}
+		assertEquals(151, target.writerIndex());
+		assertArrayEquals(out.toByteArray(), target.getBytes(1, 150));
+		assertEquals(-1, target.readFrom(in, 10));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void readFromIsLimitedToTheWritableBytes(String name, Supplier<Buffer> factory) throws IOException {
+		Buffer buffer = factory.get();
+		buffer.setWriterIndex(buffer.getCapacity() - 8);
+		RecordingChannel in = new RecordingChannel(sequence(64), 64);
+		int read = buffer.readFrom(in, 64);
+		assertEquals(buffer.getCapacity(), buffer.writerIndex());
+		assertEquals(8, read);
+		assertEquals(0, buffer.readFrom(in, 64));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void fileChannelPositionsAreLeftUnchanged(String name, Supplier<Buffer> factory) throws IOException {
+		byte[] bytes = sequence(100);
+		try (FileChannel channel = FileChannel.open(dir.resolve("data"), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			Buffer buffer = factory.get();
+			buffer.writeBytes(bytes);
+			int written = 0;
+			while (written < 100) {
+				written += buffer.writeTo(channel, 20 + written, 100 - written);
+			}
+			assertEquals(0, channel.position());
+			assertEquals(120, channel.size());
+
+			Buffer target = factory.get();
+			int read = 0;
+			while (read < 50) {
+				read += target.readFrom(channel, 70 + read, 50 - read);
+			}
+			assertEquals(0, channel.position());
+			assertArrayEquals(Arrays.copyOfRange(bytes, 50, 100), target.readBytes(50));
+			assertEquals(-1, target.readFrom(channel, 120, 10));
+		}
+	}
+
+	@Test
+	void compositeIsWrittenWithOneGatheringWrite() throws IOException {
+		Buffer composite = TestBuffers.composite(16);
+		byte[] bytes = sequence(TestBuffers.CAPACITY);
+		composite.writeBytes(bytes);
+		composite.readBytes(5);
+		RecordingChannel channel = new RecordingChannel(new byte[0], 1);
+		assertEquals(TestBuffers.CAPACITY - 5, composite.writeTo(channel, Integer.MAX_VALUE));
+		assertEquals(1, channel.vectoredCalls);
+		assertEquals(0, channel.calls);
+		assertArrayEquals(Arrays.copyOfRange(bytes, 5, TestBuffers.CAPACITY), channel.written.toByteArray());
+	}
+
+	@Test
+	void compositeIsFilledWithOneScatteringRead() throws IOException {
+		Buffer composite = TestBuffers.composite(16);
+		byte[] bytes = sequence(100);
+		RecordingChannel channel = new RecordingChannel(bytes, 1);
+		assertEquals(100, composite.readFrom(channel, 200));
+		assertEquals(1, channel.vectoredCalls);
+		assertEquals(0, channel.calls);
+		assertArrayEquals(bytes, composite.readBytes(100));
+	}
+
+	@Test
+	void buffersAreGatheredAndScatteredInOrder() throws IOException {
+		Buffer first = Buffers.newInMemory(16);
+		first.writeBytes(sequence(10));
+		Buffer second = TestBuffers.composite(4);
+		second.writeBytes(sequence(30));
+		second.readBytes(20);
+		Buffer third = Buffers.newNioDirectBuffer(16);
+		RecordingChannel channel = new RecordingChannel(new byte[0], 1);
+		assertEquals(20, Buffers.write(channel, first, second, third));
+		assertEquals(1, channel.vectoredCalls);
+		assertEquals(0, first.readableBytes());
+		assertEquals(0, second.readableBytes());
+
+		byte[] written = channel.written.toByteArray();
+		Path file = Files.write(dir.resolve("gathered"), written);
+		Buffer small = Buffers.newNioBuffer(4);
+		Buffer large = Buffers.newOffHeap(64);
+		try (FileChannel in = FileChannel.open(file)) {
+			assertEquals(20, Buffers.read(in, small, large));
+		}
+		assertArrayEquals(Arrays.copyOf(written, 4), small.readBytes(4));
+		assertArrayEquals(Arrays.copyOfRange(written, 4, 20), large.readBytes(16));
+	}
+}
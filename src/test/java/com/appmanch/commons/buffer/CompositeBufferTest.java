@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompositeBufferTest {
+
+	private static Buffer written(Buffer buffer, int from, int length) {
+		for (int i = 0; i < length; i++) {
+			buffer.writeByte((byte) (from + i));
+		}
+		return buffer;
+	}
+
+	private static byte[] sequence(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) i;
+		}
+		return bytes;
+	}
+
+	@Test
+	void componentsFormOneAddressSpace() {
+		Buffer header = written(Buffers.newInMemory(8), 0, 6);
+		Buffer body = written(Buffers.newNioDirectBuffer(16), 6, 10);
+		CompositeBuffer composite = new CompositeBuffer(header, body);
+		assertEquals(2, composite.getComponentCount());
+		assertEquals(16, composite.getCapacity());
+		assertEquals(0, composite.readerIndex());
+		assertEquals(16, composite.writerIndex());
+		assertArrayEquals(sequence(16), composite.getBytes(0, 16));
+		assertEquals(0x04050607, composite.getInt(4));
+		assertEquals(0x0405060708090A0BL, composite.getLong(4));
+	}
+
+	@Test
+	void componentsAreNotCopied() {
+		Buffer header = written(Buffers.newInMemory(4), 0, 4);
+		Buffer body = written(Buffers.newNioBuffer(4), 4, 4);
+		CompositeBuffer composite = new CompositeBuffer(header, body);
+		composite.setShort(3, (short) 0x7F7E);
+		assertEquals(0x7F, header.getByte(3));
+		assertEquals(0x7E, body.getByte(0));
+		body.setByte(3, (byte) 9);
+		assertEquals(9, composite.getByte(7));
+	}
+
+	@Test
+	void componentsContributeTheirReadableBytes() {
+		Buffer first = written(Buffers.newInMemory(8), 0, 6);
+		first.readShort();
+		CompositeBuffer composite = new CompositeBuffer(first);
+		composite.addComponent(written(Buffers.newInMemory(8), 6, 2));
+		assertEquals(6, composite.getCapacity());
+		assertArrayEquals(new byte[] { 2, 3, 4, 5, 6, 7 }, composite.getBytes(0, 6));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "BIG_ENDIAN", "LITTLE_ENDIAN" })
+	void valuesSpanningComponentsFollowTheByteOrder(String order) {
+		ByteOrder byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+		CompositeBuffer composite = new CompositeBuffer(byteOrder);
+		for (int i = 0; i < 8; i++) {
+			Buffer component = Buffers.newInMemory(3, i % 2 == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+			component.setWriterIndex(3);
+			composite.addComponent(component);
+		}
+		composite.setLong(1, 0x0102030405060708L);
+		composite.setInt(10, 0x11223344);
+		composite.setDouble(15, Math.PI);
+		ByteBuffer expected = ByteBuffer.allocate(24).order(byteOrder);
+		expected.putLong(1, 0x0102030405060708L).putInt(10, 0x11223344).putDouble(15, Math.PI);
+		assertArrayEquals(expected.array(), composite.getBytes(0, 24));
+		assertEquals(0x0102030405060708L, composite.getLong(1));
+		assertEquals(0x11223344, composite.getInt(10));
+		assertEquals(Math.PI, composite.getDouble(15));
+	}
+
+	@Test
+	void sequentialAndRandomReadsAgree() {
+		CompositeBuffer composite = new CompositeBuffer();
+		for (int i = 0; i < 64; i++) {
+			Buffer component = Buffers.newInMemory(4);
+			component.writeInt(i);
+			composite.addComponent(component);
+		}
+		for (int i = 0; i < 64; i++) {
+			assertEquals(i, composite.readInt());
+		}
+		for (int i = 63; i >= 0; i -= 7) {
+			assertEquals(i, composite.getInt(4 * i));
+		}
+		assertEquals(0x0000000100000002L, composite.getLong(4));
+	}
+
+	@Test
+	void bulkCopiesCrossComponents() {
+		Buffer composite = TestBuffers.composite(16);
+		byte[] src = sequence(100);
+		composite.setBytes(10, src, 0, src.length);
+		byte[] dst = new byte[102];
+		composite.getBytes(9, dst, 1, 100);
+		assertEquals(0, dst[1]);
+		assertArrayEquals(Arrays.copyOf(src, 99), Arrays.copyOfRange(dst, 2, 101));
+		assertEquals(0, dst[101]);
+	}
+
+	@Test
+	void accessOutsideTheComponentsFails() {
+		CompositeBuffer composite = new CompositeBuffer(written(Buffers.newInMemory(4), 0, 4),
+				written(Buffers.newInMemory(4), 4, 4));
+		assertThrows(IndexOutOfBoundsException.class, () -> composite.getByte(8));
+		assertThrows(IndexOutOfBoundsException.class, () -> composite.getInt(6));
+		assertThrows(IndexOutOfBoundsException.class, () -> composite.getByte(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> composite.setLong(1, 1L));
+		assertEquals(0, new CompositeBuffer().getCapacity());
+	}
+}
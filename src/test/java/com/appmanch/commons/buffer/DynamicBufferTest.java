@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DynamicBufferTest {
+
+	private static final int SIZE = 1 << 20;
+
+	@Test
+	void directSliceSurvivesResize() {
+		assertSliceSurvivesResize(Buffers.newDynamicNioDirectBuffer(SIZE, 64 * SIZE));
+	}
+
+	@Test
+	void pooledDirectSliceSurvivesResize() {
+		assertSliceSurvivesResize(Buffers.directPool().allocateDynamic(SIZE, 64 * SIZE, ByteOrder.BIG_ENDIAN));
+	}
+
+	@Test
+	void pooledHeapSliceSurvivesResize() {
+		assertSliceSurvivesResize(Buffers.heapPool().allocateDynamic(SIZE, 64 * SIZE, ByteOrder.BIG_ENDIAN));
+	}
+
+	@Test
+	void inMemorySliceSurvivesResize() {
+		assertSliceSurvivesResize(Buffers.newDynamicInMemory(SIZE, 64 * SIZE));
+	}
+
+	@Test
+	void readOnlyViewSurvivesResize() {
+		Buffer buffer = Buffers.newDynamicNioDirectBuffer(16, 1024);
+		buffer.writeLong(42L);
+		Buffer view = buffer.asReadOnly();
+		buffer.writeBytes(new byte[64], 0, 64);
+		assertEquals(42L, view.getLong(0));
+		assertEquals(42L, buffer.getLong(0));
+		buffer.release();
+	}
+
+	@Test
+	void resizeKeepsTheContent() {
+		Buffer buffer = Buffers.newDynamicNioDirectBuffer(8, 1024);
+		for (int i = 0; i < 100; i++) {
+			buffer.writeInt(i);
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, buffer.readInt());
+		}
+		buffer.release();
+	}
+
+	private static void assertSliceSurvivesResize(Buffer buffer) {
+		byte[] block = new byte[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			block[i] = (byte) i;
+		}
+		buffer.writeBytes(block, 0, SIZE);
+		Buffer slice = buffer.slice(0, SIZE);
+		buffer.writeBytes(block, 0, SIZE);
+		for (int i = 0; i < SIZE; i += 4096) {
+			assertEquals(block[i], slice.getByte(i));
+			assertEquals(buffer.getLong(i), slice.getLong(i));
+		}
+		buffer.release();
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedStringTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void readDropsThePadding(String name, Supplier<Buffer> supplier) {
+		Buffer buffer = supplier.get();
+		buffer.writeFixedString("aé", 8, StandardCharsets.UTF_8);
+		buffer.writeByte((byte) 7);
+		assertEquals("aé", buffer.readFixedString(8, StandardCharsets.UTF_8));
+		assertEquals(8, buffer.readerIndex());
+		assertEquals(7, buffer.readByte());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void readRejectsANegativeLength(String name, Supplier<Buffer> supplier) {
+		Buffer buffer = supplier.get();
+		buffer.writeFixedString("abc", 8, StandardCharsets.UTF_8);
+		buffer.readByte();
+		assertThrows(IllegalArgumentException.class, () -> buffer.readFixedString(-1, StandardCharsets.UTF_8));
+		assertEquals(1, buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void readRejectsALengthPastTheReadableBytes(String name, Supplier<Buffer> supplier) {
+		Buffer buffer = supplier.get();
+		buffer.writeFixedString("abc", 8, StandardCharsets.UTF_8);
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.readFixedString(9, StandardCharsets.UTF_8));
+		assertEquals(0, buffer.readerIndex());
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedLargeBufferTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void sliceSurvivesGrowth() throws IOException {
+		try (LargeBuffer buffer = Buffers.newLargeMappedFile(dir.resolve("grow").toString(), 0, 1000, 1 << 16)) {
+			buffer.setLong(0, 42L);
+			Buffer slice = buffer.slice(0, 100);
+			buffer.setWriterIndex(1000);
+			buffer.writeBytes(new byte[2000], 0, 2000);
+			assertEquals(3000, buffer.getCapacity());
+			assertEquals(42L, slice.getLong(0));
+			slice.setLong(8, 7L);
+			assertEquals(7L, buffer.getLong(8));
+		}
+	}
+
+	@Test
+	void growthAcrossChunks() throws IOException {
+		try (LargeBuffer buffer = Buffers.newLargeMappedFile(dir.resolve("chunks").toString(), 0, 16, 64)) {
+			for (int i = 0; i < 100; i++) {
+				buffer.writeLong(i);
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals(i, buffer.readLong());
+			}
+			Buffer slice = buffer.slice(60, 8);
+			assertEquals(buffer.getLong(60), slice.getLong(0));
+		}
+	}
+
+	@Test
+	void indexesStayWithinTheCapacity() throws IOException {
+		try (LargeBuffer buffer = Buffers.newLargeMappedFile(dir.resolve("index").toString(), 0, 100, 64)) {
+			buffer.setWriterIndex(100);
+			buffer.setReaderIndex(100);
+			assertThrows(IndexOutOfBoundsException.class, () -> buffer.setWriterIndex(101));
+			assertThrows(IndexOutOfBoundsException.class, () -> buffer.setReaderIndex(-1));
+		}
+	}
+}
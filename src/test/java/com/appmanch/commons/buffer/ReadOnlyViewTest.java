@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadOnlyViewTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void viewSharesTheContent(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeInt(1);
+		buffer.writeLong(2L);
+		Buffer view = buffer.asReadOnly();
+		assertTrue(view.isReadOnly());
+		assertEquals(buffer.writerIndex(), view.writerIndex());
+		assertEquals(1, view.readInt());
+		buffer.setLong(4, 3L);
+		assertEquals(3L, view.readLong());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void viewRejectsWrites(String name, Supplier<Buffer> factory) {
+		Buffer view = factory.get().asReadOnly();
+		assertThrows(ReadOnlyBufferException.class, () -> view.writeInt(1));
+		assertThrows(ReadOnlyBufferException.class, () -> view.setByte(0, (byte) 1));
+		assertThrows(ReadOnlyBufferException.class, () -> view.writeVarLong(-1L));
+		assertThrows(ReadOnlyBufferException.class, () -> view.setBytes(0, new byte[4], 0, 4));
+		assertEquals(0, view.writerIndex());
+		assertThrows(UnsupportedOperationException.class, () -> view.setReadOnly(false));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void viewStaysReadOnlyWithoutBoundsChecking(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setBoundsChecking(false);
+		Buffer view = buffer.asReadOnly();
+		assertThrows(ReadOnlyBufferException.class, () -> view.writeLong(1L));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void byteBufferOfReadOnlyBufferIsReadOnly(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		assertTrue(buffer.asReadOnly().asByteBuffer().isReadOnly());
+		buffer.setReadOnly(true);
+		assertTrue(buffer.asByteBuffer().isReadOnly());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void writeToStreamDoesNotExposeTheStorage(String name, Supplier<Buffer> factory) throws IOException {
+		Buffer buffer = factory.get();
+		for (int i = 0; i < 100; i++) {
+			buffer.writeByte((byte) i);
+		}
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		// A stream that scribbles over the arrays it is given.
+		OutputStream out = new OutputStream() {
+
+			@Override
+			public void write(int b) {
+				written.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				written.write(b, off, len);
+				Arrays.fill(b, off, off + len, (byte) -1);
+			}
+		};
+		Buffer view = buffer.asReadOnly();
+		assertEquals(100, view.writeTo(out, 100));
+		assertEquals(100, view.readerIndex());
+		byte[] expected = buffer.getBytes(0, 100);
+		for (int i = 0; i < 100; i++) {
+			assertEquals((byte) i, expected[i]);
+		}
+		assertArrayEquals(expected, written.toByteArray());
+	}
+
+	@Test
+	void sliceOfViewIsReadOnly() {
+		Buffer view = Buffers.newInMemory(16).asReadOnly();
+		Buffer slice = view.slice(4, 8);
+		assertTrue(slice.isReadOnly());
+		assertThrows(ReadOnlyBufferException.class, () -> slice.setInt(0, 1));
+	}
+}
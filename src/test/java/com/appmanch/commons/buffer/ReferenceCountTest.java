@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReferenceCountTest {
+
+	private static final int SIZE = 1 << 20;
+
+	@TempDir
+	Path dir;
+
+	private static long memoryUsed(String name) {
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			if (pool.getName().equals(name)) {
+				return pool.getMemoryUsed();
+			}
+		}
+		throw new IllegalStateException("No " + name + " buffer pool");
+	}
+
+	@Test
+	void retainAndRelease() {
+		Buffer buffer = Buffers.newInMemory(16);
+		assertEquals(1, buffer.refCount());
+		assertEquals(buffer, buffer.retain());
+		assertEquals(2, buffer.refCount());
+		assertFalse(buffer.release());
+		assertTrue(buffer.release());
+		assertEquals(0, buffer.refCount());
+		assertThrows(IllegalStateException.class, buffer::release);
+		assertThrows(IllegalStateException.class, buffer::retain);
+	}
+
+	@Test
+	void slicesShareTheCountOfTheirParent() {
+		Buffer buffer = Buffers.newNioDirectBuffer(64);
+		Buffer slice = buffer.slice(8, 16);
+		Buffer nested = slice.slice(4, 4);
+		nested.retain();
+		assertEquals(2, buffer.refCount());
+		assertEquals(2, slice.refCount());
+		Buffer retained = buffer.retainedSlice(0, 8);
+		assertEquals(3, retained.refCount());
+		assertFalse(slice.release());
+		assertFalse(retained.release());
+		assertTrue(buffer.release());
+		assertEquals(0, nested.refCount());
+	}
+
+	@Test
+	void lastReleaseFreesDirectMemory() {
+		Buffer buffer = Buffers.newNioDirectBuffer(SIZE);
+		buffer.retain();
+		long used = memoryUsed("direct");
+		assertFalse(buffer.release());
+		assertEquals(used, memoryUsed("direct"));
+		assertTrue(buffer.release());
+		assertEquals(used - SIZE, memoryUsed("direct"));
+	}
+
+	@Test
+	void lastReleaseUnmapsTheFile() throws Exception {
+		Buffer buffer = Buffers.newMemoryMappedFile(dir.resolve("mapped").toString(), SIZE);
+		buffer.setLong(SIZE - 8, 42L);
+		long used = memoryUsed("mapped");
+		assertTrue(buffer.release());
+		assertEquals(used - SIZE, memoryUsed("mapped"));
+	}
+
+	@Test
+	void leakDetectorReportsBuffersThatAreNotReleased() throws InterruptedException {
+		Logger logger = Logger.getLogger(BufferLeakDetector.class.getName());
+		List<LogRecord> records = new CopyOnWriteArrayList<>();
+		Handler handler = new Handler() {
+
+			@Override
+			public void publish(LogRecord record) {
+				records.add(record);
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		logger.addHandler(handler);
+		boolean enabled = BufferLeakDetector.isEnabled();
+		BufferLeakDetector.setEnabled(true);
+		try {
+			Buffers.newNioDirectBuffer(16).release();
+			String leaked = leak();
+			for (int i = 0; i < 50 && records.isEmpty(); i++) {
+				System.gc();
+				Thread.sleep(20);
+				BufferLeakDetector.reportLeaks();
+			}
+			assertEquals(1, records.size());
+			assertTrue(records.get(0).getMessage().contains(leaked), records.get(0).getMessage());
+		} finally {
+			BufferLeakDetector.setEnabled(enabled);
+			logger.removeHandler(handler);
+		}
+	}
+
+	private static String leak() {
+		return Buffers.newNioDirectBuffer(16).getId();
+	}
+}
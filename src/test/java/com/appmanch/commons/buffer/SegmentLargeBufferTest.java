@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SegmentLargeBufferTest {
+
+	@Test
+	void growsOnWrite() throws IOException {
+		try (LargeBuffer buffer = Buffers.newLargeOffHeap(16, false)) {
+			for (int i = 0; i < 100; i++) {
+				buffer.writeLong(i);
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals(i, buffer.readLong());
+			}
+		}
+	}
+
+	@Test
+	void indexesStayWithinTheCapacity() throws IOException {
+		try (LargeBuffer buffer = Buffers.newLargeOffHeap(100, false)) {
+			buffer.setWriterIndex(100);
+			buffer.setReaderIndex(100);
+			assertThrows(IndexOutOfBoundsException.class, () -> buffer.setWriterIndex(101));
+			assertThrows(IndexOutOfBoundsException.class, () -> buffer.setReaderIndex(-1));
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SliceTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void sliceStartsEmpty(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeLong(1L);
+		Buffer slice = buffer.slice(10, 30);
+		assertEquals(30, slice.getCapacity());
+		assertEquals(0, slice.readerIndex());
+		assertEquals(0, slice.writerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void sliceSharesTheContent(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		for (int i = 0; i < 8; i++) {
+			buffer.writeLong(i);
+		}
+		Buffer slice = buffer.slice(12, 40);
+		assertEquals(buffer.getLong(12), slice.getLong(0));
+		slice.writeLong(42L);
+		slice.writeInt(7);
+		assertEquals(42L, buffer.getLong(12));
+		assertEquals(7, buffer.getInt(20));
+		Buffer nested = slice.slice(8, 4);
+		assertEquals(7, nested.getInt(0));
+		assertEquals(buffer.getId(), nested.getId());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void sliceAndSeekMovesTheWriterIndex(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeInt(1);
+		Buffer slice = buffer.sliceAndSeek(8);
+		assertEquals(12, buffer.writerIndex());
+		assertEquals(0, slice.writerIndex());
+		slice.writeLong(5L);
+		assertEquals(5L, buffer.getLong(4));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void sliceIsBounded(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.slice(TestBuffers.CAPACITY - 4, 8));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.slice(-1, 8));
+		Buffer slice = buffer.slice(8, 8);
+		assertThrows(IndexOutOfBoundsException.class, () -> slice.getByte(8));
+		assertThrows(IndexOutOfBoundsException.class, () -> slice.setLong(4, 1L));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void duplicateKeepsTheIndexes(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeLong(3L);
+		buffer.writeLong(4L);
+		buffer.readLong();
+		Buffer duplicate = buffer.duplicate();
+		assertEquals(buffer.getCapacity(), duplicate.getCapacity());
+		assertEquals(8, duplicate.readerIndex());
+		assertEquals(16, duplicate.writerIndex());
+		assertEquals(4L, duplicate.readLong());
+		assertEquals(8, buffer.readerIndex());
+	}
+
+	@Test
+	void retainedSliceSharesTheReferenceCount() {
+		Buffer buffer = Buffers.newNioDirectBuffer(64);
+		Buffer slice = buffer.retainedSlice(0, 16);
+		assertEquals(2, buffer.refCount());
+		slice.release();
+		assertEquals(1, buffer.refCount());
+		buffer.release();
+		assertEquals(0, slice.refCount());
+	}
+
+	@Test
+	void compositeSliceSpansComponents() {
+		Buffer buffer = TestBuffers.composite(16);
+		for (int i = 0; i < 16; i++) {
+			buffer.writeInt(i);
+		}
+		Buffer slice = buffer.slice(14, 20);
+		assertEquals(0, slice.writerIndex());
+		slice.setWriterIndex(20);
+		assertEquals(buffer.getShort(14), slice.readShort());
+		for (int i = 4; i < 8; i++) {
+			assertEquals(i, slice.readInt());
+		}
+		assertEquals(buffer.getShort(32), slice.readShort());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void nestedSlicesAddTheirOffsets(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		for (int i = 0; i < TestBuffers.CAPACITY; i++) {
+			buffer.writeByte((byte) i);
+		}
+		Buffer slice = buffer.slice(100, 100).slice(50, 50).slice(10, 40);
+		assertEquals(40, slice.getCapacity());
+		assertEquals(160, slice.getByte(0) & 0xFF);
+		assertArrayEquals(buffer.getBytes(160, 40), slice.getBytes(0, 40));
+		assertEquals(buffer.getInt(196), slice.getInt(36));
+		assertThrows(IndexOutOfBoundsException.class, () -> slice.getInt(37));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void sliceStreamsAndViewsCoverOnlyItsBytes(String name, Supplier<Buffer> factory) throws IOException {
+		Buffer buffer = factory.get();
+		for (int i = 0; i < TestBuffers.CAPACITY; i++) {
+			buffer.writeByte((byte) i);
+		}
+		Buffer slice = buffer.slice(30, 20);
+		slice.setWriterIndex(20);
+		slice.readInt();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(16, slice.writeTo(out, 100));
+		assertArrayEquals(buffer.getBytes(34, 16), out.toByteArray());
+
+		ByteBuffer view = buffer.slice(30, 20).asByteBuffer();
+		assertEquals(20, view.remaining());
+		assertEquals(30, view.get(view.position()));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void slicesKeepTheByteOrder(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+		buffer.setInt(8, 0x01020304);
+		Buffer slice = buffer.slice(8, 8);
+		assertEquals(ByteOrder.LITTLE_ENDIAN, slice.getByteOrder());
+		assertEquals(0x01020304, slice.getInt(0));
+		assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.duplicate().getByteOrder());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void duplicateIndexesAreIndependent(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.writeInt(1);
+		Buffer duplicate = buffer.duplicate();
+		duplicate.writeInt(2);
+		assertEquals(4, buffer.writerIndex());
+		assertEquals(8, duplicate.writerIndex());
+		assertEquals(2, buffer.getInt(4));
+		buffer.setInt(0, 9);
+		assertEquals(9, duplicate.readInt());
+		assertEquals(0, buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void readOnlyViewOfASlice(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setLong(16, 77L);
+		Buffer view = buffer.slice(16, 16).asReadOnly();
+		assertEquals(16, view.getCapacity());
+		assertEquals(77L, view.getLong(0));
+		assertThrows(ReadOnlyBufferException.class, () -> view.setLong(0, 1L));
+		assertEquals(77L, buffer.getLong(16));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void retainedSliceOutlivesTheParentRelease(String name, Supplier<Buffer> factory) {
+		Buffer buffer = factory.get();
+		buffer.setInt(4, 11);
+		Buffer slice = buffer.retainedSlice(4, 8);
+		assertEquals(2, slice.refCount());
+		assertEquals(8, slice.getCapacity());
+		assertFalse(buffer.release());
+		assertEquals(11, slice.getInt(0));
+		assertTrue(slice.release());
+		assertThrows(IllegalStateException.class, slice::release);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.nio.ByteOrder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Buffers of each implementation for the parameterized tests, referenced with
+ * {@code @MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")}.
+ */
+final class TestBuffers {
+
+	static final int CAPACITY = 256;
+
+	private static final int COMPONENT_SIZE = 16;
+
+	private TestBuffers() {
+	}
+
+	/**
+	 * Empty buffers of {@link #CAPACITY} bytes, named after their implementation.
+	 * Each argument is the name and a {@link Supplier} of a new buffer.
+	 */
+	static Stream<Arguments> buffers() {
+		return Stream.of(
+				Arguments.of("in-memory", (Supplier<Buffer>) () -> Buffers.newInMemory(CAPACITY)),
+				Arguments.of("nio", (Supplier<Buffer>) () -> Buffers.newNioBuffer(CAPACITY)),
+				Arguments.of("nio-direct", (Supplier<Buffer>) () -> Buffers.newNioDirectBuffer(CAPACITY)),
+				Arguments.of("off-heap",
+						(Supplier<Buffer>) () -> Buffers.newOffHeap(CAPACITY, ByteOrder.BIG_ENDIAN, false)),
+				Arguments.of("composite", (Supplier<Buffer>) () -> composite(CAPACITY / COMPONENT_SIZE)),
+				Arguments.of("composite-single", (Supplier<Buffer>) () -> composite(1)));
+	}
+
+	/**
+	 * A composite of {@link #CAPACITY} writable bytes split in the number of
+	 * components, alternating heap and direct ones, with the writer index reset
+	 * to 0.
+	 */
+	static Buffer composite(int components) {
+		CompositeBuffer composite = new CompositeBuffer();
+		for (int i = 0; i < components; i++) {
+			int size = CAPACITY / components;
+			Buffer component = i % 2 == 0 ? Buffers.newInMemory(size) : Buffers.newNioDirectBuffer(size);
+			component.setWriterIndex(size);
+			composite.addComponent(component);
+		}
+		composite.setWriterIndex(0);
+		return composite;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.buffer;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VarIntTest {
+
+	private static final int[] INTS = { 0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+	private static final long[] LONGS = { 0L, 1L, 127L, 128L, 1L << 35, Long.MAX_VALUE, -1L, Long.MIN_VALUE };
+
+	/**
+	 * Write the bytes into a new buffer of the factory.
+	 */
+	private static Buffer buffer(Supplier<Buffer> factory, byte[] bytes) {
+		Buffer buffer = factory.get();
+		buffer.writeBytes(bytes, 0, bytes.length);
+		return buffer;
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void roundTrip(String name, Supplier<Buffer> factory) {
+		Buffer encoded = Buffers.newInMemory(256);
+		for (int value : INTS) {
+			encoded.writeVarInt(value);
+			encoded.writeSignedVarInt(value);
+		}
+		for (long value : LONGS) {
+			encoded.writeVarLong(value);
+			encoded.writeSignedVarLong(value);
+		}
+		Buffer buffer = buffer(factory, encoded.readBytes(encoded.readableBytes()));
+		for (int value : INTS) {
+			assertEquals(value, buffer.readVarInt());
+			assertEquals(value, buffer.readSignedVarInt());
+		}
+		for (long value : LONGS) {
+			assertEquals(value, buffer.readVarLong());
+			assertEquals(value, buffer.readSignedVarLong());
+		}
+		assertEquals(buffer.writerIndex(), buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void truncatedVarIntLeavesTheReaderIndex(String name, Supplier<Buffer> factory) {
+		Buffer buffer = buffer(factory, bytes(0x05, 0x80, 0x80));
+		assertEquals(5, buffer.readVarInt());
+		assertThrows(IndexOutOfBoundsException.class, buffer::readVarInt);
+		assertEquals(1, buffer.readerIndex());
+		assertThrows(IndexOutOfBoundsException.class, buffer::readVarInt);
+		assertEquals(1, buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void truncatedVarLongLeavesTheReaderIndex(String name, Supplier<Buffer> factory) {
+		Buffer buffer = buffer(factory, bytes(0x80, 0x80));
+		assertThrows(IndexOutOfBoundsException.class, buffer::readVarLong);
+		assertEquals(0, buffer.readerIndex());
+		assertThrows(IndexOutOfBoundsException.class, buffer::readVarInt);
+		assertEquals(0, buffer.readerIndex());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.appmanch.commons.buffer.TestBuffers#buffers")
+	void malformedVarIntIsRejected(String name, Supplier<Buffer> factory) {
+		Buffer buffer = buffer(factory, bytes(0x80, 0x00));
+		assertThrows(IllegalArgumentException.class, buffer::readVarInt);
+		assertThrows(IllegalArgumentException.class, buffer::readVarLong);
+		assertEquals(0, buffer.readerIndex());
+		assertThrows(IllegalArgumentException.class, buffer(factory, bytes(0xFF, 0xFF, 0xFF, 0xFF, 0x1F))::readVarInt);
+		assertThrows(IllegalArgumentException.class,
+				buffer(factory, bytes(0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01))::readVarInt);
+		assertThrows(IllegalArgumentException.class,
+				buffer(factory, bytes(0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x02))::readVarLong);
+	}
+}
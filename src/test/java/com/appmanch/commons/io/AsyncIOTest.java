@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.Buffers;
+import com.appmanch.commons.buffer.CompositeBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncIOTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file(String name, int length) throws Exception {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return Files.write(dir.resolve(name), content);
+    }
+
+    @Test
+    void readAllAsyncReadsTheWholeFile() throws Exception {
+        Path file = file("data", 700_000);
+        assertArrayEquals(Files.readAllBytes(file), IOUtils.readAllAsync(file).get());
+        Path empty = file("empty", 0);
+        assertEquals(0, IOUtils.readAllAsync(empty).get().length);
+    }
+
+    @Test
+    void readAllAsyncOfAMissingFileFails() {
+        CompletableFuture<byte[]> read = IOUtils.readAllAsync(dir.resolve("missing"));
+        ExecutionException e = assertThrows(ExecutionException.class, read::get);
+        assertInstanceOf(NoSuchFileException.class, e.getCause());
+    }
+
+    @Test
+    void readAsyncIntoEachKindOfBuffer() throws Exception {
+        Path file = file("data", 1000);
+        byte[] content = Files.readAllBytes(file);
+        CompositeBuffer composite = new CompositeBuffer();
+        for (int i = 0; i < 4; i++) {
+            Buffer component = i % 2 == 0 ? Buffers.newInMemory(64) : Buffers.newNioDirectBuffer(64);
+            component.setWriterIndex(64);
+            composite.addComponent(component);
+        }
+        composite.setWriterIndex(0);
+        Buffer[] buffers = {Buffers.newInMemory(256), Buffers.newNioBuffer(256), Buffers.newNioDirectBuffer(256),
+                Buffers.newOffHeap(256, ByteOrder.BIG_ENDIAN, true), composite};
+        for (Buffer buffer : buffers) {
+            buffer.writeByte((byte) 1);
+            int read = 0;
+            while (read < 200) {
+                read += IOUtils.readAsync(file, 300 + read, buffer, 200 - read).get();
+            }
+            assertEquals(201, buffer.writerIndex());
+            assertArrayEquals(Arrays.copyOfRange(content, 300, 500), buffer.getBytes(1, 200));
+            assertEquals(-1, IOUtils.readAsync(file, 1000, buffer, 10).get());
+            assertEquals(201, buffer.writerIndex());
+        }
+    }
+
+    @Test
+    void readFromAsynchronousChannelIsLimitedToTheWritableBytes() throws Exception {
+        Path file = file("data", 100);
+        Buffer buffer = Buffers.newInMemory(32);
+        buffer.setWriterIndex(24);
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(8, buffer.readFrom(channel, 0, 100).get());
+        }
+        assertEquals(32, buffer.writerIndex());
+        assertArrayEquals(Arrays.copyOf(Files.readAllBytes(file), 8), buffer.getBytes(24, 8));
+    }
+
+    @Test
+    void readAsyncIntoAConfinedBufferFails() throws Exception {
+        Path file = file("data", 100);
+        Buffer heap = Buffers.newInMemory(8);
+        heap.setWriterIndex(8);
+        Buffer confined = Buffers.newOffHeap(64, ByteOrder.BIG_ENDIAN, false);
+        confined.setWriterIndex(64);
+        CompositeBuffer composite = new CompositeBuffer(heap, confined);
+        composite.setWriterIndex(0);
+        confined.setWriterIndex(0);
+        for (Buffer buffer : new Buffer[] {confined, composite}) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> IOUtils.readAsync(file, 0, buffer, 10).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(WrongThreadException.class, e.getCause());
+            assertEquals(0, buffer.writerIndex());
+        }
+    }
+
+    @Test
+    void transferAsyncCopiesTheFile() throws Exception {
+        Path source = file("source", 600_000);
+        Path target = file("target", 900_000);
+        assertEquals(600_000L, IOUtils.transferAsync(source, target).get());
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+    }
+
+    @Test
+    void transferAsyncBetweenPositions() throws Exception {
+        Path source = file("source", 10_000);
+        Path target = dir.resolve("target");
+        byte[] content = Files.readAllBytes(source);
+        try (AsynchronousFileChannel in = AsynchronousFileChannel.open(source, StandardOpenOption.READ);
+                AsynchronousFileChannel out = AsynchronousFileChannel.open(target, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE)) {
+            assertEquals(3000L, IOUtils.transferAsync(in, 1000, 3000, out, 10).get());
+            assertEquals(500L, IOUtils.transferAsync(in, 9500, 3000, out, 3010).get());
+            assertEquals(0L, IOUtils.transferAsync(in, 0, 0, out, 0).get());
+            assertThrows(IllegalArgumentException.class, () -> IOUtils.transferAsync(in, -1, 10, out, 0));
+        }
+        byte[] copied = Files.readAllBytes(target);
+        assertEquals(3510, copied.length);
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 4000), Arrays.copyOfRange(copied, 10, 3010));
+        assertArrayEquals(Arrays.copyOfRange(content, 9500, 10_000), Arrays.copyOfRange(copied, 3010, 3510));
+    }
+
+    @Test
+    void limiterBoundsTheOperationsInFlight() throws Exception {
+        AsyncLimiter limiter = new AsyncLimiter(2, 1);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        CompletableFuture<String> third = new CompletableFuture<>();
+        CompletableFuture<String> a = limiter.submit(() -> first);
+        CompletableFuture<String> b = limiter.submit(() -> second);
+        boolean[] started = new boolean[1];
+        CompletableFuture<String> c = limiter.submit(() -> {
+            started[0] = true;
+            return third;
+        });
+        assertEquals(2, limiter.getActiveCount());
+        assertEquals(1, limiter.getPendingCount());
+        assertFalse(started[0]);
+
+        CompletableFuture<String> rejected = limiter.submit(() -> CompletableFuture.completedFuture("x"));
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        first.complete("a");
+        assertEquals("a", a.get());
+        assertTrue(started[0]);
+        assertEquals(2, limiter.getActiveCount());
+        assertEquals(0, limiter.getPendingCount());
+        second.complete("b");
+        third.complete("c");
+        assertEquals("b", b.get());
+        assertEquals("c", c.get());
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    void cancelledPendingOperationsAreSkipped() throws Exception {
+        AsyncLimiter limiter = new AsyncLimiter(1, 4);
+        CompletableFuture<Integer> running = new CompletableFuture<>();
+        limiter.submit(() -> running);
+        boolean[] started = new boolean[1];
+        CompletableFuture<Integer> pending = limiter.submit(() -> {
+            started[0] = true;
+            return CompletableFuture.completedFuture(2);
+        });
+        CompletableFuture<Integer> next = limiter.submit(() -> CompletableFuture.completedFuture(3));
+        pending.cancel(false);
+        running.complete(1);
+        assertEquals(3, next.get());
+        assertFalse(started[0]);
+        assertThrows(CancellationException.class, pending::get);
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    void completedOperationsFreeTheirSlotBeforeTheCallerIsNotified() throws Exception {
+        AsyncLimiter limiter = new AsyncLimiter(1, 0);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> chained = limiter.submit(() -> first)
+                .thenCompose(value -> limiter.submit(() -> CompletableFuture.completedFuture(value + "b")));
+        first.complete("a");
+        assertEquals("ab", chained.get());
+    }
+
+    @Test
+    void limiterReadsFiles() throws Exception {
+        AsyncLimiter limiter = new AsyncLimiter(2, 8);
+        Path[] files = new Path[6];
+        CompletableFuture<?>[] reads = new CompletableFuture<?>[files.length];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = file("file" + i, 1000 * (i + 1));
+            reads[i] = limiter.readAll(files[i]);
+        }
+        for (int i = 0; i < files.length; i++) {
+            assertArrayEquals(Files.readAllBytes(files[i]), (byte[]) reads[i].get());
+        }
+        assertEquals(0, limiter.getActiveCount());
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.Buffers;
+import com.appmanch.commons.utils.ByteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BufferStreamsTest {
+
+    private static Buffer[] buffers() {
+        return new Buffer[] {Buffers.newInMemory(256), Buffers.newNioBuffer(256), Buffers.newNioDirectBuffer(256),
+                Buffers.newOffHeap(256)};
+    }
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (200 + i);
+        }
+        return bytes;
+    }
+
+    @Test
+    void readMovesTheReaderIndex() throws IOException {
+        byte[] bytes = sequence(100);
+        for (Buffer buffer : buffers()) {
+            buffer.writeBytes(bytes);
+            try (BufferInputStream in = new BufferInputStream(buffer)) {
+                assertEquals(100, in.available());
+                assertEquals(200, in.read());
+                byte[] read = new byte[50];
+                assertEquals(40, in.read(read, 5, 40));
+                assertArrayEquals(Arrays.copyOfRange(bytes, 1, 41), Arrays.copyOfRange(read, 5, 45));
+                assertEquals(41, buffer.readerIndex());
+                assertEquals(0, in.read(read, 0, 0));
+                assertArrayEquals(Arrays.copyOfRange(bytes, 41, 100), in.readAllBytes());
+                assertEquals(-1, in.read());
+                assertEquals(-1, in.read(read, 0, 10));
+                assertEquals(0, in.available());
+            }
+        }
+    }
+
+    @Test
+    void lengthLimitsTheStream() throws IOException {
+        Buffer buffer = Buffers.newInMemory(64);
+        buffer.writeBytes(sequence(64));
+        buffer.readBytes(4);
+        BufferInputStream in = new BufferInputStream(buffer, 10);
+        assertEquals(10, in.size());
+        byte[] read = new byte[32];
+        assertEquals(10, in.read(read, 0, 32));
+        assertEquals(-1, in.read());
+        assertEquals(0, in.skip(5));
+        assertEquals(14, buffer.readerIndex());
+        assertThrows(IndexOutOfBoundsException.class, () -> new BufferInputStream(buffer, 51));
+    }
+
+    @Test
+    void skipMarkAndReset() {
+        Buffer buffer = Buffers.newNioDirectBuffer(64);
+        buffer.writeBytes(sequence(20));
+        BufferInputStream in = new BufferInputStream(buffer);
+        assertEquals(5, in.skip(5));
+        assertEquals(0, in.skip(-3));
+        in.mark(0);
+        assertEquals(205, in.read());
+        assertEquals(14, in.skip(100));
+        assertEquals(-1, in.read());
+        in.reset();
+        assertEquals(205, in.read());
+        assertEquals(14, in.available());
+    }
+
+    @Test
+    void transferToOutputStreams() throws IOException {
+        byte[] bytes = sequence(200);
+        for (Buffer buffer : buffers()) {
+            buffer.writeBytes(bytes);
+            BufferInputStream in = new BufferInputStream(buffer);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(30, in.transferTo(out, 30));
+            assertEquals(170, in.transferTo(out));
+            assertArrayEquals(bytes, out.toByteArray());
+            assertEquals(0, in.transferTo(out));
+        }
+    }
+
+    @Test
+    void transferBetweenBufferStreamsIsABufferCopy() throws IOException {
+        byte[] bytes = sequence(150);
+        for (Buffer source : buffers()) {
+            source.writeBytes(bytes);
+            for (Buffer target : buffers()) {
+                source.setReaderIndex(0);
+                BufferOutputStream out = new BufferOutputStream(target);
+                out.write(1);
+                assertEquals(150, IOUtils.transfer(new BufferInputStream(source), out));
+                assertEquals(151, target.writerIndex());
+                assertArrayEquals(bytes, target.getBytes(1, 150));
+            }
+        }
+    }
+
+    @Test
+    void writeMovesTheWriterIndex() throws IOException {
+        byte[] bytes = sequence(100);
+        for (Buffer buffer : buffers()) {
+            try (BufferOutputStream out = new BufferOutputStream(buffer)) {
+                out.write(7);
+                out.write(bytes, 10, 50);
+                out.write(bytes);
+            }
+            assertEquals(151, buffer.writerIndex());
+            assertEquals(7, buffer.readByte());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 10, 60), buffer.readBytes(50));
+            assertArrayEquals(bytes, buffer.readBytes(100));
+            BufferOutputStream out = new BufferOutputStream(buffer);
+            assertThrows(IndexOutOfBoundsException.class, () -> out.write(bytes, 90, 20));
+        }
+    }
+
+    @Test
+    void transferFromReadsTheWholeStream() throws IOException {
+        byte[] bytes = sequence(3000);
+        BufferOutputStream out = new BufferOutputStream(Buffers.newDynamicInMemory(16, 8192));
+        assertEquals(3000, out.transferFrom(new ByteArrayInputStream(bytes)));
+        assertArrayEquals(bytes, out.getBuffer().readBytes(3000));
+    }
+
+    @Test
+    void readFromAndWriteToStreams() throws IOException {
+        byte[] bytes = sequence(100);
+        for (Buffer buffer : buffers()) {
+            InputStream in = new ByteArrayInputStream(bytes);
+            int read = 0;
+            while (read < 60) {
+                read += buffer.readFrom(in, 60 - read);
+            }
+            assertEquals(60, buffer.writerIndex());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(25, buffer.writeTo(out, 25));
+            assertEquals(25, buffer.readerIndex());
+            assertArrayEquals(Arrays.copyOf(bytes, 25), out.toByteArray());
+            buffer.readFrom(in, 100);
+            assertEquals(100, buffer.writerIndex());
+            assertEquals(-1, buffer.readFrom(in, 100));
+        }
+    }
+
+    @Test
+    void closeReleasesTheBufferOnce() {
+        Buffer buffer = Buffers.newNioDirectBuffer(16);
+        buffer.retain();
+        BufferInputStream in = new BufferInputStream(buffer, -1, true);
+        in.close();
+        in.close();
+        assertEquals(1, buffer.refCount());
+        BufferOutputStream out = new BufferOutputStream(buffer, true);
+        out.close();
+        out.close();
+        assertEquals(0, buffer.refCount());
+        new BufferInputStream(Buffers.newInMemory(4)).close();
+    }
+
+    @Test
+    void serializeStraightIntoTheBuffer() throws Exception {
+        ArrayList<String> value = new ArrayList<>(List.of("a", "b", "c"));
+        for (Buffer buffer : buffers()) {
+            buffer.writeByte((byte) 1);
+            int length = ByteUtils.serialize(value, buffer);
+            assertEquals(1 + length, buffer.writerIndex());
+            assertArrayEquals(ByteUtils.serialize(value), buffer.getBytes(1, length));
+            buffer.readByte();
+            assertEquals(value, ByteUtils.deSerialize(buffer, length));
+            assertEquals(buffer.writerIndex(), buffer.readerIndex());
+        }
+    }
+}
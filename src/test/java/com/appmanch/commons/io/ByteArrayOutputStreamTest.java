@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ByteArrayOutputStreamTest {
+
+    @Test
+    void writeSingleBytesPastTheFirstChunk() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4, 4);
+        byte[] expected = new byte[21];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+            out.write(i);
+        }
+        assertEquals(expected.length, out.size());
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    void mixSingleAndBulkWrites() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(3, 5);
+        java.io.ByteArrayOutputStream jdk = new java.io.ByteArrayOutputStream();
+        byte[] block = new byte[7];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) (100 + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            out.write(i);
+            jdk.write(i);
+            out.write(block, 1, 5);
+            jdk.write(block, 1, 5);
+        }
+        assertArrayEquals(jdk.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    void resetDiscardsTheContent() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2, 2);
+        out.write(new byte[9], 0, 9);
+        out.reset();
+        out.write(7);
+        assertArrayEquals(new byte[] { 7 }, out.toByteArray());
+    }
+}
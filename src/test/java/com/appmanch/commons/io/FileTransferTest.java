@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileTransferTest {
+
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    @TempDir
+    Path dir;
+
+    private byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    @Test
+    void transferFileStreamsFromTheirPositions() throws Exception {
+        byte[] content = content(200_000);
+        Path source = Files.write(dir.resolve("source"), content);
+        Path target = dir.resolve("target");
+        try (FileInputStream in = new FileInputStream(source.toFile());
+                FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertEquals(10, in.skip(10));
+            out.write(1);
+            assertEquals(content.length - 10, IOUtils.transfer(in, out));
+            assertEquals(-1, in.read());
+        }
+        byte[] copied = Files.readAllBytes(target);
+        assertEquals(1, copied[0]);
+        assertArrayEquals(Arrays.copyOfRange(content, 10, content.length),
+                Arrays.copyOfRange(copied, 1, copied.length));
+    }
+
+    @Test
+    void transferFileStreamsUpToTheLength() throws Exception {
+        byte[] content = content(10_000);
+        Path source = Files.write(dir.resolve("source"), content);
+        Path target = dir.resolve("target");
+        try (FileInputStream in = new FileInputStream(source.toFile());
+                FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertEquals(4000, IOUtils.transfer(in, out, 4000L));
+            assertEquals(content[4000], (byte) in.read());
+            assertEquals(content.length - 4001, IOUtils.transfer(in, out, Long.MAX_VALUE));
+        }
+        assertEquals(content.length - 1, Files.size(target));
+    }
+
+    @Test
+    void transferFileStreamsOfFilesWithoutASize() throws Exception {
+        assumeTrue(Files.isReadable(PROC_STATUS));
+        Path target = dir.resolve("target");
+        try (FileInputStream in = new FileInputStream(PROC_STATUS.toFile());
+                FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertTrue(IOUtils.transfer(in, out) > 0);
+        }
+        assertTrue(Files.readString(target).startsWith("Name:"));
+        try (FileInputStream in = new FileInputStream(PROC_STATUS.toFile());
+                FileOutputStream out = new FileOutputStream(target.toFile())) {
+            assertEquals(5, IOUtils.transfer(in, out, 5L));
+        }
+        assertEquals("Name:", Files.readString(target));
+    }
+
+    @Test
+    void transferPathsOfFilesWithoutASize() throws Exception {
+        assumeTrue(Files.isReadable(PROC_STATUS));
+        Path target = dir.resolve("target");
+        assertTrue(IOUtils.transfer(PROC_STATUS, target) > 0);
+        assertTrue(Files.readString(target).startsWith("Name:"));
+    }
+
+    @Test
+    void transferFileToChannel() throws Exception {
+        byte[] content = content(100_000);
+        Path source = Files.write(dir.resolve("source"), content);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(content.length, IOUtils.transfer(source, Channels.newChannel(out)));
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    @Test
+    void transferChannelToFile() throws Exception {
+        byte[] content = content(100_000);
+        Path target = dir.resolve("target");
+        assertEquals(content.length,
+                IOUtils.transfer(Channels.newChannel(new ByteArrayInputStream(content)), target));
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(3, IOUtils.transfer(Channels.newChannel(new ByteArrayInputStream(
+                "abc".getBytes(StandardCharsets.US_ASCII))), target));
+        assertEquals("abc", Files.readString(target));
+    }
+}
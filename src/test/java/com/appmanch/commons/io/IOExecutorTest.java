@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class IOExecutorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readLargeFileWithLittleMemory() throws Exception {
+        byte[] content = new byte[1 << 20];
+        new Random(7).nextBytes(content);
+        Path file = Files.write(dir.resolve("large"), content);
+        try (IOExecutor executor = new IOExecutor(4, 2, 4096)) {
+            CompletableFuture<byte[]> large = executor.getBytes(file);
+            CompletableFuture<byte[]> other = executor.getBytes(Files.write(dir.resolve("small"), new byte[] { 1 }));
+            assertArrayEquals(content, large.get(10, TimeUnit.SECONDS));
+            assertArrayEquals(new byte[] { 1 }, other.get(10, TimeUnit.SECONDS));
+            assertEquals(0, executor.getBufferMemoryInUse());
+        }
+    }
+
+    @Test
+    void jobWaitingForDeviceDoesNotHoldAGlobalPermit() throws Exception {
+        Path file = Files.write(dir.resolve("file"), new byte[16]);
+        CountDownLatch release = new CountDownLatch(1);
+        try (IOExecutor executor = new IOExecutor(2, 1, 4096)) {
+            CompletableFuture<Boolean> busy = executor.submit(new Path[] { file },
+                    () -> release.await(60, TimeUnit.SECONDS));
+            CompletableFuture<byte[]> waiting = executor.getBytes(file);
+            Thread.sleep(100);
+            CompletableFuture<String> other = executor.submit(() -> "done");
+            try {
+                assertEquals("done", other.get(5, TimeUnit.SECONDS));
+                assertFalse(waiting.isDone());
+            } finally {
+                release.countDown();
+            }
+            busy.get(10, TimeUnit.SECONDS);
+            assertEquals(16, waiting.get(10, TimeUnit.SECONDS).length);
+        }
+    }
+
+    @Test
+    void missingFileFailsTheJob() {
+        try (IOExecutor executor = new IOExecutor(1, 1, 4096)) {
+            CompletableFuture<byte[]> missing = executor.getBytes(dir.resolve("missing"));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, e.getCause());
+            assertEquals(1, executor.getFailedCount());
+        }
+    }
+
+    @Test
+    void readFileWithoutASize() throws Exception {
+        Path status = Path.of("/proc/self/status");
+        assumeTrue(Files.isReadable(status));
+        try (IOExecutor executor = new IOExecutor(1, 1, 4096)) {
+            String content = new String(executor.getBytes(status).get(10, TimeUnit.SECONDS));
+            assertTrue(content.startsWith("Name:"));
+            assertTrue(content.length() > 100);
+            assertEquals(0, executor.getBufferMemoryInUse());
+        }
+    }
+
+    @Test
+    void readAllBySmallChunks() throws Exception {
+        byte[] content = new byte[1000];
+        new Random(3).nextBytes(content);
+        Path file = Files.write(dir.resolve("file"), content);
+        assertArrayEquals(content, IOUtils.readAll(file, 7));
+        assertArrayEquals(new byte[0], IOUtils.readAll(Files.write(dir.resolve("empty"), new byte[0]), 7));
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.Buffers;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IOUtilsTest {
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    @Test
+    void readIntoAFullBufferLeavesTheRestOfTheStream() throws Exception {
+        byte[] content = content(100);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        Buffer buffer = Buffers.newInMemory(40);
+        assertEquals(40, IOUtils.transfer(in, buffer));
+        assertArrayEquals(Arrays.copyOf(content, 40), buffer.readBytes(40));
+        assertEquals(content[40], (byte) in.read());
+        assertEquals(0, IOUtils.transfer(in, buffer));
+        assertEquals(content.length - 41, in.available());
+    }
+
+    @Test
+    void readIntoABufferOfTheStreamSize() throws Exception {
+        byte[] content = content(64);
+        Buffer buffer = Buffers.newNioBuffer(64);
+        assertEquals(64, IOUtils.transfer(new ByteArrayInputStream(content), buffer));
+        assertArrayEquals(content, buffer.readBytes(64));
+    }
+
+    @Test
+    void readIntoADynamicBufferUpToItsMaxCapacity() throws Exception {
+        byte[] content = content(50_000);
+        Buffer buffer = Buffers.newDynamicInMemory(16, 30_000);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        assertEquals(30_000, IOUtils.transfer(in, buffer));
+        assertEquals(content[30_000], (byte) in.read());
+
+        buffer = Buffers.newDynamicInMemory(16, 60_000);
+        assertEquals(content.length, IOUtils.transfer(new ByteArrayInputStream(content), buffer));
+        assertArrayEquals(content, buffer.readBytes(content.length));
+    }
+
+    @Test
+    void transferToABufferOutputStreamIsBounded() throws Exception {
+        byte[] content = content(1000);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        BufferOutputStream out = new BufferOutputStream(Buffers.newInMemory(600));
+        assertEquals(100, IOUtils.transfer(in, out, 100L));
+        assertEquals(500, IOUtils.transfer(in, out));
+        assertArrayEquals(Arrays.copyOf(content, 600), out.getBuffer().readBytes(600));
+        assertEquals(400, in.available());
+    }
+
+    /**
+     * A stream that records the length of each read call.
+     */
+    private static final class RecordingInputStream extends ByteArrayInputStream {
+
+        private final List<Integer> requested = new ArrayList<>();
+
+        RecordingInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            requested.add(len);
+            return super.read(b, off, len);
+        }
+    }
+
+    /**
+     * Scratch arrays that count the arrays not given back yet.
+     */
+    private static final class CountingScratchBuffers implements ScratchBuffers {
+
+        private final ScratchBuffers delegate = ScratchBuffers.allocating();
+        private int acquired;
+        private int outstanding;
+
+        @Override
+        public byte[] acquire(int size) {
+            acquired++;
+            outstanding++;
+            return delegate.acquire(size);
+        }
+
+        @Override
+        public void release(byte[] buffer) {
+            outstanding--;
+            delegate.release(buffer);
+        }
+    }
+
+    @Test
+    void transferCopiesTheWholeStreamWithEachScratchBuffers() throws Exception {
+        byte[] content = content(1_000_000);
+        ScratchBuffers[] scratchBuffers = {ScratchBuffers.allocating(), ScratchBuffers.threadLocal(1 << 20),
+                ScratchBuffers.pooled(2, 1 << 20)};
+        for (ScratchBuffers scratch : scratchBuffers) {
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(content.length, IOUtils.transfer(new ByteArrayInputStream(content), out, scratch));
+                assertArrayEquals(content, out.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    void transferStopsAtTheLength() throws Exception {
+        byte[] content = content(50_000);
+        ByteArrayInputStream in = new ByteArrayInputStream(content);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(10_000, IOUtils.transfer(in, out, 10_000L));
+        assertArrayEquals(Arrays.copyOf(content, 10_000), out.toByteArray());
+        assertEquals(40_000, in.available());
+        assertEquals(40_000, IOUtils.transfer(in, out, 100_000L));
+        assertArrayEquals(content, out.toByteArray());
+        assertEquals(0, IOUtils.transfer(in, out, 10L));
+        assertThrows(IllegalArgumentException.class, () -> IOUtils.transfer(in, out, -1L));
+    }
+
+    @Test
+    void transferExactlyFailsOnAShortStream() throws Exception {
+        byte[] content = content(5000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(4000, IOUtils.transferExactly(new ByteArrayInputStream(content), out, 4000));
+        assertArrayEquals(Arrays.copyOf(content, 4000), out.toByteArray());
+        assertThrows(EOFException.class,
+                () -> IOUtils.transferExactly(new ByteArrayInputStream(content), new ByteArrayOutputStream(), 5001));
+    }
+
+    @Test
+    void chunksGrowWhileTheSourceKeepsUp() throws Exception {
+        RecordingInputStream in = new RecordingInputStream(content(4 << 20));
+        IOUtils.transfer(in, new ByteArrayOutputStream());
+        List<Integer> requested = in.requested;
+        for (int i = 1; i < requested.size() - 1; i++) {
+            assertTrue(requested.get(i) >= requested.get(i - 1), requested.toString());
+        }
+        assertTrue(requested.get(0) < 256 * 1024, requested.toString());
+        assertEquals(256 * 1024, requested.get(requested.size() - 1));
+    }
+
+    @Test
+    void firstChunkIsSizedFromTheLength() throws Exception {
+        RecordingInputStream in = new RecordingInputStream(content(10_000));
+        IOUtils.transfer(in, new ByteArrayOutputStream(), 700L);
+        assertEquals(List.of(700), in.requested);
+    }
+
+    @Test
+    void copiesGiveBackTheirScratchArrays() throws Exception {
+        CountingScratchBuffers scratch = new CountingScratchBuffers();
+        IOUtils.transfer(new ByteArrayInputStream(content(3 << 20)), new ByteArrayOutputStream(), scratch);
+        assertTrue(scratch.acquired > 1);
+        assertEquals(0, scratch.outstanding);
+
+        InputStream failing = new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+                throw new IOException("failed");
+            }
+        };
+        assertThrows(IOException.class, () -> IOUtils.transfer(failing, new ByteArrayOutputStream(), scratch));
+        assertEquals(0, scratch.outstanding);
+    }
+}
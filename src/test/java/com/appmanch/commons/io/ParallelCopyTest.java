@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelCopyTest {
+
+    private static final int CHUNK = 4096;
+
+    @TempDir
+    Path dir;
+
+    private Path source(int length) throws Exception {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return Files.write(dir.resolve("source"), content);
+    }
+
+    @Test
+    void copyTheWholeFile() throws Exception {
+        Path source = source(10 * CHUNK + 123);
+        Path target = dir.resolve("target");
+        Files.write(target, new byte[20 * CHUNK]);
+        TransferStats stats = IOUtils.parallelCopy(source, target, 4);
+        assertEquals(Files.size(source), stats.getBytes());
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+    }
+
+    @Test
+    void rangesAreSharedByTheThreads() throws Exception {
+        Path source = source(64 * CHUNK + 1);
+        Path target = dir.resolve("target");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AtomicInteger tasks = new AtomicInteger();
+        try {
+            TransferStats stats = new ParallelCopy(source, target).parallelism(3).chunkSize(CHUNK)
+                    .executor(task -> {
+                        tasks.incrementAndGet();
+                        executor.execute(task);
+                    }).copy();
+            assertEquals(64 * CHUNK + 1, stats.getBytes());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(3, tasks.get());
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+    }
+
+    @Test
+    void copyEmptyAndSmallFiles() throws Exception {
+        Path empty = Files.createFile(dir.resolve("empty"));
+        assertEquals(0, IOUtils.parallelCopy(empty, dir.resolve("emptyCopy"), 8).getBytes());
+        assertEquals(0, Files.size(dir.resolve("emptyCopy")));
+
+        Path source = source(100);
+        Path target = dir.resolve("target");
+        assertEquals(100, new ParallelCopy(source, target).parallelism(8).chunkSize(CHUNK).copy().getBytes());
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+    }
+
+    @Test
+    void progressReachesTheFileSize() throws Exception {
+        Path source = source(16 * CHUNK + 7);
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        new ParallelCopy(source, dir.resolve("target")).parallelism(4).chunkSize(CHUNK)
+                .onProgress((transferred, total) -> {
+                    assertEquals(16 * CHUNK + 7, total);
+                    progress.add(transferred);
+                }).copy();
+        assertEquals(17, progress.size());
+        assertEquals(16 * CHUNK + 7, progress.stream().mapToLong(Long::longValue).max().getAsLong());
+    }
+
+    @Test
+    void cancelFromTheListenerStopsTheCopy() throws Exception {
+        Path source = source(256 * CHUNK);
+        ParallelCopy copy = new ParallelCopy(source, dir.resolve("target")).parallelism(2).chunkSize(CHUNK);
+        AtomicInteger calls = new AtomicInteger();
+        copy.onProgress((transferred, total) -> {
+            if (calls.incrementAndGet() == 3) {
+                copy.cancel();
+            }
+        });
+        assertThrows(CancellationException.class, copy::copy);
+        assertTrue(copy.isCancelled());
+        assertTrue(calls.get() < 256, "calls: " + calls.get());
+    }
+
+    @Test
+    void interruptingTheCallerCancelsTheCopy() throws Exception {
+        Path source = source(64 * CHUNK);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ParallelCopy copy = new ParallelCopy(source, dir.resolve("target")).parallelism(1).chunkSize(CHUNK)
+                .onProgress((transferred, total) -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                copy.copy();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        caller.start();
+        started.await();
+        caller.interrupt();
+        // the copying thread is blocked in the listener until the caller has given up
+        while (!copy.isCancelled()) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        caller.join();
+        assertInstanceOf(InterruptedIOException.class, failure.get());
+    }
+
+    @Test
+    void invalidCopiesAreRejected() throws Exception {
+        Path source = source(100);
+        assertThrows(IllegalArgumentException.class, () -> IOUtils.parallelCopy(source, source, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCopy(source, source).parallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> new ParallelCopy(source, source).chunkSize(1024));
+        assertThrows(NoSuchFileException.class,
+                () -> IOUtils.parallelCopy(dir.resolve("missing"), dir.resolve("target"), 2));
+        assertEquals(100, Files.size(source));
+    }
+}
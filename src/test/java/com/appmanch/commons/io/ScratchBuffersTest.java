@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScratchBuffersTest {
+
+    @Test
+    void allocatingReturnsANewArrayEachTime() {
+        ScratchBuffers scratch = ScratchBuffers.allocating();
+        byte[] first = scratch.acquire(100);
+        assertEquals(100, first.length);
+        scratch.release(first);
+        assertNotSame(first, scratch.acquire(100));
+    }
+
+    @Test
+    void threadLocalReusesTheReleasedArray() {
+        ScratchBuffers scratch = ScratchBuffers.threadLocal(1024);
+        byte[] first = scratch.acquire(512);
+        scratch.release(first);
+        assertSame(first, scratch.acquire(100));
+        scratch.release(first);
+        byte[] larger = scratch.acquire(1024);
+        assertEquals(1024, larger.length);
+        scratch.release(larger);
+        assertSame(larger, scratch.acquire(512));
+    }
+
+    @Test
+    void threadLocalNeverHandsOutAHeldArray() {
+        ScratchBuffers scratch = ScratchBuffers.threadLocal(1024);
+        scratch.release(scratch.acquire(256));
+        byte[] outer = scratch.acquire(256);
+        byte[] nested = scratch.acquire(256);
+        assertNotSame(outer, nested);
+        scratch.release(nested);
+        scratch.release(outer);
+    }
+
+    @Test
+    void threadLocalArraysAreNotShared() throws Exception {
+        ScratchBuffers scratch = ScratchBuffers.threadLocal(1024);
+        byte[] array = scratch.acquire(256);
+        scratch.release(array);
+        byte[] other = CompletableFuture.supplyAsync(() -> scratch.acquire(256)).get();
+        assertNotSame(array, other);
+        assertSame(array, scratch.acquire(256));
+    }
+
+    @Test
+    void arraysLargerThanTheMaxSizeAreNotKept() {
+        ScratchBuffers[] all = {ScratchBuffers.threadLocal(1024), ScratchBuffers.pooled(4, 1024)};
+        for (ScratchBuffers scratch : all) {
+            byte[] large = scratch.acquire(2048);
+            scratch.release(large);
+            assertNotSame(large, scratch.acquire(2048));
+        }
+    }
+
+    @Test
+    void pooledSharesArraysBetweenThreads() throws Exception {
+        ScratchBuffers scratch = ScratchBuffers.pooled(2, 1024);
+        byte[] array = scratch.acquire(512);
+        scratch.release(array);
+        assertSame(array, CompletableFuture.supplyAsync(() -> scratch.acquire(512)).get());
+    }
+
+    @Test
+    void pooledKeepsAtMostMaxBuffers() {
+        ScratchBuffers scratch = ScratchBuffers.pooled(2, 1024);
+        byte[] first = scratch.acquire(64);
+        byte[] second = scratch.acquire(64);
+        byte[] third = scratch.acquire(64);
+        scratch.release(first);
+        scratch.release(second);
+        scratch.release(third);
+        byte[] a = scratch.acquire(64);
+        byte[] b = scratch.acquire(64);
+        byte[] c = scratch.acquire(64);
+        assertTrue(a == first || a == second);
+        assertTrue(b == first || b == second);
+        assertNotSame(third, c);
+        assertNotSame(first, c);
+        assertNotSame(second, c);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 appmanch-commons project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.appmanch.commons.utils;
+
+import com.appmanch.commons.buffer.Buffer;
+import com.appmanch.commons.buffer.Buffers;
+import com.appmanch.commons.buffer.CompositeBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteUtilsTest {
+
+    @Test
+    void getBytesOfTheWholeSequence() throws CharacterCodingException {
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), ByteUtils.getBytes("hello"));
+    }
+
+    @Test
+    void getBytesStopsAtTheEndOfTheRange() throws CharacterCodingException {
+        assertArrayEquals("ell".getBytes(StandardCharsets.UTF_8), ByteUtils.getBytes("hello", 1, 3));
+        assertArrayEquals("lo".getBytes(StandardCharsets.UTF_8), ByteUtils.getBytes("hello", 3, 2));
+    }
+
+    @Test
+    void getBytesOfMultiByteChars() throws CharacterCodingException {
+        String value = "aé€";
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), ByteUtils.getBytes(value));
+    }
+
+    @Test
+    void encodeIntoBuffersFromTheWriterIndex() throws CharacterCodingException {
+        String value = "aé€";
+        byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+        Buffer[] buffers = {Buffers.newInMemory(16), Buffers.newNioBuffer(16), Buffers.newNioDirectBuffer(16),
+                Buffers.newOffHeap(16)};
+        for (Buffer buffer : buffers) {
+            buffer.writeByte((byte) 1);
+            assertEquals(expected.length, ByteUtils.encode(value, StandardCharsets.UTF_8, buffer));
+            assertEquals(1 + expected.length, buffer.writerIndex());
+            assertArrayEquals(expected, buffer.getBytes(1, expected.length));
+        }
+    }
+
+    @Test
+    void encodeGrowsDynamicBuffers() throws CharacterCodingException {
+        String value = "€".repeat(100);
+        Buffer buffer = Buffers.newDynamicNioDirectBuffer(8, 1024);
+        assertEquals(300, ByteUtils.encode(value, StandardCharsets.UTF_8, buffer));
+        assertEquals(300, buffer.writerIndex());
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), buffer.getBytes(0, 300));
+    }
+
+    @Test
+    void encodeGrowsDynamicBuffersOnlyAsNeeded() throws CharacterCodingException {
+        Buffer buffer = Buffers.newDynamicInMemory(8, 4096);
+        assertEquals(100, ByteUtils.encode("a".repeat(100), StandardCharsets.UTF_8, buffer));
+        // Not grown for the 3 bytes per char the encoder may produce.
+        assertTrue(buffer.getCapacity() < 300, "capacity: " + buffer.getCapacity());
+        String value = "a€".repeat(200);
+        assertEquals(800, ByteUtils.encode(value, StandardCharsets.UTF_8, buffer));
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), buffer.getBytes(100, 800));
+    }
+
+    @Test
+    void encodeAcrossTheComponentsOfACompositeBuffer() throws CharacterCodingException {
+        Buffer first = Buffers.newInMemory(4);
+        first.writeBytes(new byte[4]);
+        Buffer second = Buffers.newNioDirectBuffer(4);
+        second.writeBytes(new byte[4]);
+        CompositeBuffer composite = new CompositeBuffer(first, second);
+        composite.setWriterIndex(1);
+        assertEquals(6, ByteUtils.encode("abc€", StandardCharsets.UTF_8, composite));
+        assertEquals(7, composite.writerIndex());
+        assertArrayEquals("abc€".getBytes(StandardCharsets.UTF_8), composite.getBytes(1, 6));
+    }
+
+    @Test
+    void encodeLeavesTheWriterIndexWhenTheBufferIsTooSmall() {
+        Buffer buffer = Buffers.newNioDirectBuffer(4);
+        buffer.writeByte((byte) 1);
+        assertThrows(BufferOverflowException.class, () -> ByteUtils.encode("abcd", StandardCharsets.UTF_8, buffer));
+        assertEquals(1, buffer.writerIndex());
+    }
+
+    @Test
+    void decodeAppendsToTheBuilder() throws CharacterCodingException {
+        String value = "aé€";
+        ByteBuffer src = ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        StringBuilder builder = new StringBuilder(">");
+        assertEquals(3, ByteUtils.decode(src, StandardCharsets.UTF_8, builder));
+        assertEquals(">" + value, builder.toString());
+        assertEquals(src.limit(), src.position());
+    }
+
+    @Test
+    void decodeInputsLongerThanTheScratchChars() throws CharacterCodingException {
+        String value = "aé€\uD83D\uDE00".repeat(1000);
+        StringBuilder builder = new StringBuilder();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        assertEquals(value.length(), ByteUtils.decode(bytes, 0, bytes.length, StandardCharsets.UTF_8, builder));
+        assertEquals(value, builder.toString());
+    }
+
+    @Test
+    void decodeRejectsMalformedInput() {
+        byte[] bytes = { 'a', (byte) 0xFF, 'b' };
+        assertThrows(CharacterCodingException.class,
+                () -> ByteUtils.decode(bytes, 0, bytes.length, StandardCharsets.UTF_8, new StringBuilder()));
+    }
+
+    @Test
+    void primitivesMatchByteBufferInBothOrders() {
+        byte[] array = new byte[32];
+        for (boolean bigEndian : new boolean[] {true, false}) {
+            ByteOrder order = bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            ByteBuffer expected = ByteBuffer.wrap(array).order(order);
+            ByteUtils.setShort(array, 1, (short) 0x0102, bigEndian);
+            assertEquals((short) 0x0102, expected.getShort(1));
+            ByteUtils.setChar(array, 3, '€', bigEndian);
+            assertEquals('€', expected.getChar(3));
+            ByteUtils.setInt(array, 5, 0x01020304, bigEndian);
+            assertEquals(0x01020304, expected.getInt(5));
+            ByteUtils.setFloat(array, 9, 1.5f, bigEndian);
+            assertEquals(1.5f, expected.getFloat(9));
+            ByteUtils.setLong(array, 13, 0x0102030405060708L, bigEndian);
+            assertEquals(0x0102030405060708L, expected.getLong(13));
+            ByteUtils.setDouble(array, 21, -Math.E, bigEndian);
+            assertEquals(-Math.E, expected.getDouble(21));
+
+            expected.putLong(13, -2L).putInt(5, Integer.MIN_VALUE).putShort(1, (short) -3);
+            assertEquals(-2L, ByteUtils.getLong(array, 13, bigEndian));
+            assertEquals(Integer.MIN_VALUE, ByteUtils.getInt(array, 5, bigEndian));
+            assertEquals((short) -3, ByteUtils.getShort(array, 1, bigEndian));
+            assertEquals('€', ByteUtils.getChar(array, 3, bigEndian));
+            assertEquals(1.5f, ByteUtils.getFloat(array, 9, bigEndian));
+            assertEquals(-Math.E, ByteUtils.getDouble(array, 21, bigEndian));
+        }
+    }
+
+    @Test
+    void bigAndLittleEndianAccessorsAreMirrored() {
+        byte[] array = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        assertEquals(0x0203, ByteUtils.getShortBE(array, 1));
+        assertEquals(0x0302, ByteUtils.getShortLE(array, 1));
+        assertEquals(0x02030405, ByteUtils.getIntBE(array, 1));
+        assertEquals(0x05040302, ByteUtils.getIntLE(array, 1));
+        assertEquals(0x0203040506070809L, ByteUtils.getLongBE(array, 1));
+        assertEquals(0x0908070605040302L, ByteUtils.getLongLE(array, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> ByteUtils.getLongBE(array, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> ByteUtils.setIntLE(array, 6, 0));
+    }
+}